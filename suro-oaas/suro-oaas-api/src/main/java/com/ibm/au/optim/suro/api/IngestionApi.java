@@ -9,6 +9,7 @@ import com.ibm.au.optim.suro.model.entities.domain.ingestion.IcuAvailability;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.IcuAvailabilityList;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.SpecialistAvailability;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.SpecialistAvailabilityList;
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.TemporalDelta;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.TemporalList;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WaitingPatient;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WardAvailability;
@@ -63,6 +64,8 @@ public class IngestionApi extends RestApi {
 	private static final String RECORDS_ADDED = "Records added successfully.";
 	private static final String NO_RECORDS = "No records provided in input data.";
 	private static final String RECORD_NOT_FOUND = "No matching records found.";
+	private static final String DELTA_APPLIED = "Changes applied successfully.";
+	private static final String NO_CHANGES = "No changes provided in input data.";
 
 	/* BASE PLAN */
 
@@ -319,11 +322,135 @@ public class IngestionApi extends RestApi {
 		return ingestionGetBeforeTimeHandler(SpecialistAvailability.class, time);
 	}
 
+	/* DELTAS */
+
+	/**
+	 * Applies changes to the current base plan, rather than submitting the full data again.
+	 *
+	 * @param stream - An input stream containing a serialised {@link TemporalDelta} of {@link BasePlanEntry} objects.
+	 * @return A JAX-RS response indicating the result of the request.
+	 */
+	@ApiOperation(value = "Submit changes to the current base plan.",
+					notes = "Records are identified by specialist type and day. Added and updated records replace the records with the same key, removed records are listed by key.")
+	@ApiResponses(value = {
+					@ApiResponse(code = 204, message = DELTA_APPLIED),
+					@ApiResponse(code = 400, message = NO_CHANGES),
+					@ApiResponse(code = 500, message = INTERNAL_ERROR),
+					@ApiResponse(code = 503, message = REPOSITORY_UNAVAILABLE)
+    })
+    @ApiImplicitParams(value = {		
+    		@ApiImplicitParam(name = "Authorization", value="authentication header or authorization token (post authentication) base64 encoded.", required=false, dataType="String", paramType="header") 
+    })
+	@POST
+	@Path("/baseplan/delta")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response basePlanDeltaHandler(InputStream stream) {
+		return ingestionDeltaHandler(stream, BasePlanEntry.class, new TypeReference<TemporalDelta<BasePlanEntry>>() { });
+	}
+
+	/**
+	 * Applies changes to the patient waiting list, rather than submitting the full data again.
+	 *
+	 * @param stream - An input stream containing a serialised {@link TemporalDelta} of {@link WaitingPatient} objects.
+	 * @return A JAX-RS response indicating the result of the request.
+	 */
+	@ApiOperation(value = "Submit changes to the patient waiting list.",
+					notes = "Records are identified by patient ID. Added and updated records replace the records with the same key, removed records are listed by key.")
+	@ApiResponses(value = {
+					@ApiResponse(code = 204, message = DELTA_APPLIED),
+					@ApiResponse(code = 400, message = NO_CHANGES),
+					@ApiResponse(code = 500, message = INTERNAL_ERROR),
+					@ApiResponse(code = 503, message = REPOSITORY_UNAVAILABLE)
+    })
+    @ApiImplicitParams(value = {		
+    		@ApiImplicitParam(name = "Authorization", value="authentication header or authorization token (post authentication) base64 encoded.", required=false, dataType="String", paramType="header") 
+    })
+	@POST
+	@Path("/waitinglist/delta")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response waitingListDeltaHandler(InputStream stream) {
+		return ingestionDeltaHandler(stream, WaitingPatient.class, new TypeReference<TemporalDelta<WaitingPatient>>() { });
+	}
+
+	/**
+	 * Applies changes to the ICU availability, rather than submitting the full data again.
+	 *
+	 * @param stream - An input stream containing a serialised {@link TemporalDelta} of {@link IcuAvailability} objects.
+	 * @return A JAX-RS response indicating the result of the request.
+	 */
+	@ApiOperation(value = "Submit changes to the ICU availability.",
+					notes = "Records are identified by patient ID. Added and updated records replace the records with the same key, removed records are listed by key.")
+	@ApiResponses(value = {
+					@ApiResponse(code = 204, message = DELTA_APPLIED),
+					@ApiResponse(code = 400, message = NO_CHANGES),
+					@ApiResponse(code = 500, message = INTERNAL_ERROR),
+					@ApiResponse(code = 503, message = REPOSITORY_UNAVAILABLE)
+    })
+    @ApiImplicitParams(value = {		
+    		@ApiImplicitParam(name = "Authorization", value="authentication header or authorization token (post authentication) base64 encoded.", required=false, dataType="String", paramType="header") 
+    })
+	@POST
+	@Path("/icuavailability/delta")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response icuAvailabilityDeltaHandler(InputStream stream) {
+		return ingestionDeltaHandler(stream, IcuAvailability.class, new TypeReference<TemporalDelta<IcuAvailability>>() { });
+	}
+
+	/**
+	 * Applies changes to the ward availability, rather than submitting the full data again.
+	 *
+	 * @param stream - An input stream containing a serialised {@link TemporalDelta} of {@link WardAvailability} objects.
+	 * @return A JAX-RS response indicating the result of the request.
+	 */
+	@ApiOperation(value = "Submit changes to the ward availability.",
+					notes = "Records are identified by patient ID. Added and updated records replace the records with the same key, removed records are listed by key.")
+	@ApiResponses(value = {
+					@ApiResponse(code = 204, message = DELTA_APPLIED),
+					@ApiResponse(code = 400, message = NO_CHANGES),
+					@ApiResponse(code = 500, message = INTERNAL_ERROR),
+					@ApiResponse(code = 503, message = REPOSITORY_UNAVAILABLE)
+    })
+    @ApiImplicitParams(value = {		
+    		@ApiImplicitParam(name = "Authorization", value="authentication header or authorization token (post authentication) base64 encoded.", required=false, dataType="String", paramType="header") 
+    })
+	@POST
+	@Path("/wardavailability/delta")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response wardAvailabilityDeltaHandler(InputStream stream) {
+		return ingestionDeltaHandler(stream, WardAvailability.class, new TypeReference<TemporalDelta<WardAvailability>>() { });
+	}
+
+	/**
+	 * Applies changes to the specialist availability, rather than submitting the full data again.
+	 *
+	 * @param stream - An input stream containing a serialised {@link TemporalDelta} of {@link SpecialistAvailability} objects.
+	 * @return A JAX-RS response indicating the result of the request.
+	 */
+	@ApiOperation(value = "Submit changes to the specialist availability.",
+					notes = "Records are identified by specialist type and date. Added and updated records replace the records with the same key, removed records are listed by key.")
+	@ApiResponses(value = {
+					@ApiResponse(code = 204, message = DELTA_APPLIED),
+					@ApiResponse(code = 400, message = NO_CHANGES),
+					@ApiResponse(code = 500, message = INTERNAL_ERROR),
+					@ApiResponse(code = 503, message = REPOSITORY_UNAVAILABLE)
+    })
+    @ApiImplicitParams(value = {		
+    		@ApiImplicitParam(name = "Authorization", value="authentication header or authorization token (post authentication) base64 encoded.", required=false, dataType="String", paramType="header") 
+    })
+	@POST
+	@Path("/specialistavailability/delta")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response specialistAvailabilityDeltaHandler(InputStream stream) {
+		return ingestionDeltaHandler(stream, SpecialistAvailability.class, new TypeReference<TemporalDelta<SpecialistAvailability>>() { });
+	}
+
 	/* Helper methods */
 
 	/**
 	 * Handles the ingestion of any ingestion object (base plan, availabilities, ...) in a generic way. All that needs
-	 * to be provided is the POST data as input stream and a type reference for the de-serialisation.
+	 * to be provided is the POST data as input stream and a type reference for the de-serialisation. The records are
+	 * read one at a time and handed to the {@link IngestionController}, which stores them in bounded batches, so the
+	 * whole list is never kept in memory.
 	 *
 	 * @param inputStream - A serialised list of T objects.
 	 * @param typeReference - A typeReference object of the type of item stored in the input stream.
@@ -331,13 +458,18 @@ public class IngestionApi extends RestApi {
 	 * @param <T> - The type of the records stored in the repository.
 	 * @return A JAX-RS response indicating the result of the request.
 	 */
+	@SuppressWarnings("unchecked")
 	protected <R, T extends TemporalList<R>> Response ingestionPostHandler(
 					InputStream inputStream, TypeReference<List<R>> typeReference) {
-		// parse the stream
-		List<R> records;
+		Class<R> recordType = (Class<R>) MAPPER.getTypeFactory().constructType(typeReference).getContentType().getRawClass();
+
+		// parse the first record
+		JsonRecordStream<R> records;
+		boolean empty;
 
 		try {
-			records = MAPPER.readValue(inputStream, typeReference);
+			records = new JsonRecordStream<>(MAPPER, inputStream, recordType);
+			empty = records.isEmpty();
 		} catch (IOException e) {
 			// this might need to be a 400 instead of a 500, as the reader should only fail if the input is poorly formatted
 			LOGGER.error(COULD_NOT_PARSE, e);
@@ -345,14 +477,21 @@ public class IngestionApi extends RestApi {
 		}
 
 		// check that there are actually records to add
-		if (records.isEmpty()) {
+		if (empty) {
 			Exception exception = new Exception(NO_RECORDS);
 			LOGGER.error(NO_RECORDS, exception);
 			return buildErrorResponse(exception, Response.Status.BAD_REQUEST);
 		}
 
-		// add it to the repo
-		T result = getIngestionController().createRecordFromList(new Date().getTime(), records);
+		// add it to the repo, while parsing the remaining records
+		T result;
+
+		try {
+			result = getIngestionController().createRecordFromStream(recordType, new Date().getTime(), records);
+		} catch (IOException e) {
+			LOGGER.error(COULD_NOT_PARSE + " Record: " + records.getCount(), e);
+			return buildErrorResponse(e);
+		}
 
 		if (result == null) {
 			Exception exception = new Exception(REPOSITORY_UNAVAILABLE);
@@ -363,6 +502,47 @@ public class IngestionApi extends RestApi {
 		return buildResponse(Response.Status.NO_CONTENT, RECORDS_ADDED);
 	}
 
+	/**
+	 * Handles the ingestion of changes to any ingestion object in a generic way. The changes are passed to the
+	 * {@link IngestionController}, which stores them as a delta of the current data.
+	 *
+	 * @param inputStream - A serialised {@link TemporalDelta} of R objects.
+	 * @param recordType - The type of the records the delta applies to.
+	 * @param typeReference - A typeReference object of the delta stored in the input stream.
+	 * @param <R> - The type of the records the delta applies to.
+	 * @param <T> - The type of the lists stored in the repository.
+	 * @return A JAX-RS response indicating the result of the request.
+	 */
+	protected <R, T extends TemporalList<R>> Response ingestionDeltaHandler(
+					InputStream inputStream, Class<R> recordType, TypeReference<TemporalDelta<R>> typeReference) {
+		// parse the stream
+		TemporalDelta<R> delta;
+
+		try {
+			delta = MAPPER.readValue(inputStream, typeReference);
+		} catch (IOException e) {
+			LOGGER.error(COULD_NOT_PARSE, e);
+			return buildErrorResponse(e, Response.Status.BAD_REQUEST);
+		}
+
+		// check that there are actually changes to apply
+		if (delta == null || delta.isEmpty()) {
+			Exception exception = new Exception(NO_CHANGES);
+			LOGGER.error(NO_CHANGES, exception);
+			return buildErrorResponse(exception, Response.Status.BAD_REQUEST);
+		}
+
+		T result = getIngestionController().applyDelta(recordType, new Date().getTime(), delta);
+
+		if (result == null) {
+			Exception exception = new Exception(REPOSITORY_UNAVAILABLE);
+			LOGGER.error(REPOSITORY_UNAVAILABLE, exception);
+			return buildErrorResponse(exception, Response.Status.SERVICE_UNAVAILABLE);
+		}
+
+		return buildResponse(Response.Status.NO_CONTENT, DELTA_APPLIED);
+	}
+
 	/**
 	 * Generic getter method to retrieve data from the ingestion repositories. The requested type of records is
 	 * specified by the record type. The controller will resolve the repository from this and return the list of records
@@ -0,0 +1,128 @@
+package com.ibm.au.optim.suro.api;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibm.au.optim.suro.model.control.domain.ingestion.RecordStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the records of a JSON array one at a time, using a {@link JsonParser}. Each record is validated (it has to
+ * be a JSON object matching the record type) when it is read, so that invalid input is rejected as soon as it is
+ * found rather than after the whole array has been de-serialised.
+ *
+ * @param <T> - the type of the records in the array
+ */
+public class JsonRecordStream<T> implements RecordStream<T> {
+
+	/**
+	 * Object mapper used to de-serialise the records
+	 */
+	private final ObjectMapper mapper;
+
+	/**
+	 * Parser reading the array
+	 */
+	private final JsonParser parser;
+
+	/**
+	 * Type of the records
+	 */
+	private final Class<T> recordType;
+
+	/**
+	 * Record read ahead by {@link #isEmpty()}
+	 */
+	private T pending;
+
+	/**
+	 * Number of records read so far
+	 */
+	private int count;
+
+	/**
+	 * Whether the end of the array has been reached
+	 */
+	private boolean finished;
+
+	/**
+	 * Creates a new stream reading the records from the passed input stream.
+	 *
+	 * @param mapper - the object mapper used to de-serialise the records
+	 * @param inputStream - a serialised array of T objects
+	 * @param recordType - the type of the records
+	 * @throws IOException - if the input does not start with an array
+	 */
+	public JsonRecordStream(ObjectMapper mapper, InputStream inputStream, Class<T> recordType) throws IOException {
+		this.mapper = mapper;
+		this.recordType = recordType;
+		this.parser = mapper.getFactory().createParser(inputStream);
+
+		if (this.parser.nextToken() != JsonToken.START_ARRAY) {
+			this.parser.close();
+			throw new JsonParseException("Expected an array of records.", this.parser.getCurrentLocation());
+		}
+	}
+
+	/**
+	 * Checks whether there are records left to read. This reads the next record ahead.
+	 *
+	 * @return - true if the end of the array has been reached
+	 * @throws IOException - if the next record could not be read
+	 */
+	public boolean isEmpty() throws IOException {
+		if (pending == null) {
+			pending = read();
+		}
+		return pending == null;
+	}
+
+	@Override
+	public T next() throws IOException {
+		if (pending != null) {
+			T record = pending;
+			pending = null;
+			return record;
+		}
+		return read();
+	}
+
+	/**
+	 * Returns the number of records read so far.
+	 *
+	 * @return - the number of records
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Reads the next record from the parser.
+	 *
+	 * @return - the next record, or null at the end of the array
+	 * @throws IOException - if the next element of the array is not a valid record
+	 */
+	private T read() throws IOException {
+		if (finished) {
+			return null;
+		}
+
+		JsonToken token = parser.nextToken();
+		if (token == JsonToken.END_ARRAY) {
+			finished = true;
+			parser.close();
+			return null;
+		} else if (token != JsonToken.START_OBJECT) {
+			finished = true;
+			parser.close();
+			throw new JsonParseException("Record " + count + " is not an object.", parser.getCurrentLocation());
+		}
+
+		T record = mapper.readValue(parser, recordType);
+		count++;
+		return record;
+	}
+}
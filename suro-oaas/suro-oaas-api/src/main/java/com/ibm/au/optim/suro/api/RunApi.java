@@ -7,6 +7,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
 
@@ -33,14 +34,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ibm.au.optim.suro.model.control.Core;
+import com.ibm.au.optim.suro.model.control.RunController;
 import com.ibm.au.optim.suro.model.entities.RunDetails;
 import com.ibm.au.optim.suro.model.entities.DataSet;
 import com.ibm.au.optim.suro.model.entities.Model;
 import com.ibm.au.optim.suro.model.entities.Run;
+import com.ibm.au.optim.suro.model.entities.RunLogEntry;
+import com.ibm.au.optim.suro.model.entities.RunLogSegment;
+import com.ibm.au.optim.suro.model.entities.RunLogSeries;
 import com.ibm.au.optim.suro.model.entities.Template;
 import com.ibm.au.optim.suro.model.store.DataSetRepository;
 import com.ibm.au.optim.suro.model.store.ModelRepository;
 import com.ibm.au.optim.suro.model.store.RunDetailsRepository;
+import com.ibm.au.optim.suro.model.store.RunLogSegmentRepository;
 import com.ibm.au.optim.suro.model.store.RunRepository;
 import com.ibm.au.optim.suro.model.store.TemplateRepository;
 import com.wordnik.swagger.annotations.Api;
@@ -233,9 +239,7 @@ public class RunApi extends RestApi {
 
 		Response response = null;
 
-		RunRepository repo = this.getRunRepository();
-
-		Run run = repo.getItem(runId);
+		Run run = this.getRunItem(runId);
 		if (run != null) {
 			
 			if (this.template != null) {
@@ -374,22 +378,50 @@ public class RunApi extends RestApi {
 
 	/**
      * This method retrieves the optimisation data that is attached to an ongoing or completed {@link Run} instance
+     * matched by the identifier passed as argument, including all the log entries. See {@link #getOptimizationData(String, 
+     * Integer, Integer)} for details.
+     * 
+     * @param runId		a {@link String} representing the unique identifier of the run instance for which the optimisation
+     * 					data is requested.
+     * 
+     * @return	a {@link Response} implementation containing the requested optimisation data or the description of an
+     * 			error that prevented its retrieval.
+     */
+	public Response getOptimizationData(String runId) {
+		
+		return this.getOptimizationData(runId, null, null);
+	}
+
+	/**
+     * This method retrieves the optimisation data that is attached to an ongoing or completed {@link Run} instance
      * matched by the identifier passed as argument. The method behaves differently according to the context in which 
      * it is executed. If there is a pre-configured strategy the method not only tries to retrieve the run instance but 
      * it also check that the instance belongs to the pre-conofigured strategy instance. This is done by checking that 
      * {@link Run#getStrategyId()} equals {@link Strategy#getId()}. If the test fails an error is returned.
+     * <p>
+     * When the log entries of the run are stored in {@link RunLogSegment} documents, the returned {@link RunDetails} 
+     * contain the entries of all the segments, unless <i>segment</i> is specified: in that case they only contain the
+     * entries of the <i>count</i> segments starting from <i>segment</i>, and {@link RunDetails#getSegments()} tells 
+     * how many segments can be requested. This allows clients to page through the log of long runs.
+     * </p>
      * 
      * @param runId		a {@link String} representing the unique identifier of the run instance for which the optimisation
      * 					data is requested.
+     * @param segment	a {@link Integer} representing the sequence number of the first log segment to return, or 
+     * 					{@literal null} to return all the log entries.
+     * @param count		a {@link Integer} representing the number of log segments to return. It is only used when 
+     * 					<i>segment</i> is specified, and defaults to one.
      * 
      * @return	a {@link Response} implementation containing the requested optimisation data or the description of an
      * 			error that prevented its retrieval.
      */
     @ApiOperation(value = "Gets the optimization solver output data for the requested run", notes = "The optimization solver output data provides information about how the CPLEX solver found a solution, "
-            + "including the chronological even history showing the progression toward the solution."
+            + "including the chronological even history showing the progression toward the solution. The history can be "
+            + "retrieved in pages of log segments by specifying the first segment and the number of segments."
             + "<strong>Note:</strong>  <i>This object does not contain solution or schedule data</i>.", response = RunDetails.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "A run was found with an optimization result", response = RunDetails.class),
+            @ApiResponse(code = 400, message = "The requested segments are not valid."),
             @ApiResponse(code = 404, message = "Run not found"),            
             @ApiResponse(code = 500, message = "An internal error has occurred while processing the request."),
     		@ApiResponse(code = 503, message = "Repository services are off line or not available.")
@@ -400,7 +432,9 @@ public class RunApi extends RestApi {
 	@GET
     @Path("/{runId}/details")
     @Produces(MediaType.APPLICATION_JSON)
-	public Response getOptimizationData(@ApiParam(value = "The run id", required = true) @PathParam("runId") String runId) {
+	public Response getOptimizationData(@ApiParam(value = "The run id", required = true) @PathParam("runId") String runId,
+										@ApiParam(value = "The sequence number of the first log segment to return", required = false) @QueryParam("segment") Integer segment,
+										@ApiParam(value = "The number of log segments to return", required = false) @QueryParam("count") Integer count) {
 
 
 		LOGGER.debug("Retrieving optimisation result by run ID");
@@ -413,19 +447,219 @@ public class RunApi extends RestApi {
 
 			RunDetails data = repo.findByRunId(runId);
 			
-			if (data != null) {
-	
-				response = this.buildResponse(Status.OK, data);
+			if (data == null) {
 	
+				response = this.buildErrorResponse(new DataNotFoundException("Run not found"), Status.NOT_FOUND);
+			
+			} else if ((segment != null) && ((segment < 0) || ((count != null) && (count < 0)))) {
+				
+				response = this.buildErrorResponse(new DataValidationException("Parameters 'segment' and 'count' cannot be negative."), Status.BAD_REQUEST);
+				
 			} else {
 	
-				response = this.buildErrorResponse(new DataNotFoundException("Run not found"), Status.NOT_FOUND);
+				response = this.buildResponse(Status.OK, this.getLogEntries(data, segment, count));
 			}
 			
 		}
 		
 		return response;
 	}
+	
+	/**
+	 * This method gathers the log entries of a run that are stored in {@link RunLogSegment} documents, if any, into
+	 * a copy of the given {@link RunDetails}. The entries stored with the details (by runs executed before segments 
+	 * were available) precede the ones of the segments.
+	 * 
+	 * @param data		a {@link RunDetails} instance representing the details of the run.
+	 * @param segment	a {@link Integer} representing the sequence number of the first segment, or {@literal null} 
+	 * 					for all the segments.
+	 * @param count		a {@link Integer} representing the number of segments, defaults to one.
+	 * 
+	 * @return 	a {@link RunDetails} instance holding the requested entries, or <i>data</i> itself if its entries
+	 * 			are not stored in segments.
+	 */
+	protected RunDetails getLogEntries(RunDetails data, Integer segment, Integer count) {
+		
+		RunLogSegmentRepository segmentRepo = this.getRunLogSegmentRepository();
+		
+		if ((segmentRepo == null) || (data.getSegments() == 0)) {
+			
+			return data;
+		}
+		
+		List<RunLogSegment> segments = null;
+		List<RunLogEntry> entries = new ArrayList<RunLogEntry>();
+		
+		if (segment == null) {
+			
+			segments = segmentRepo.findByRunId(data.getRunId());
+			
+			if (data.getEntries() != null) {
+				
+				entries.addAll(data.getEntries());
+			}
+			
+		} else {
+			
+			segments = segmentRepo.findByRunId(data.getRunId(), segment, count == null ? 1 : count);
+		}
+		
+		for(RunLogSegment s : segments) {
+			
+			if (s.getEntries() != null) {
+				
+				entries.addAll(s.getEntries());
+			}
+		}
+		
+		// the details might be the instance held by the repository
+		// hence we return a copy that holds the entries.
+		//
+		RunDetails result = (RunDetails) data.clone();
+		result.setEntries(entries);
+		
+		return result;
+	}
+
+	/**
+	 * This method collects the log entries of a run into a {@link RunLogSeries}. The entries are added to the series
+	 * segment by segment, without gathering them first into a list. If only the last entries are needed the segments
+	 * are read backwards from the last one, and reading stops as soon as they hold enough entries.
+	 * 
+	 * @param data	a {@link RunDetails} instance representing the details of the run.
+	 * @param last	a {@link Integer} representing the minimum number of entries at the end of the log that the series
+	 * 				must hold, or {@literal null} for all the entries.
+	 * 
+	 * @return	a {@link RunLogSeries} instance holding the entries, in chronological order.
+	 */
+	protected RunLogSeries getLogSeries(RunDetails data, Integer last) {
+		
+		RunLogSegmentRepository segmentRepo = this.getRunLogSegmentRepository();
+		
+		if ((segmentRepo == null) || (data.getSegments() == 0)) {
+			
+			return RunLogSeries.of(data.getEntries());
+		}
+		
+		List<RunLogSegment> segments = null;
+		int held = 0;
+		
+		if (last == null) {
+			
+			segments = segmentRepo.findByRunId(data.getRunId());
+			
+		} else {
+			
+			segments = new ArrayList<RunLogSegment>();
+			for(int sequence = data.getSegments() - 1; (sequence >= 0) && (held < last); sequence--) {
+				
+				for(RunLogSegment s : segmentRepo.findByRunId(data.getRunId(), sequence, 1)) {
+					
+					segments.add(0, s);
+					held += s.size();
+				}
+			}
+		}
+		
+		RunLogSeries series = new RunLogSeries();
+		
+		// the entries stored with the details precede the ones
+		// of the segments, and are only needed if those are not
+		// enough.
+		//
+		if (((last == null) || (held < last)) && (data.getEntries() != null)) {
+			
+			for(RunLogEntry entry : data.getEntries()) {
+				series.add(entry);
+			}
+		}
+		
+		for(RunLogSegment s : segments) {
+			
+			if (s.getEntries() != null) {
+				
+				for(RunLogEntry entry : s.getEntries()) {
+					series.add(entry);
+				}
+			}
+		}
+		
+		return series;
+	}
+
+	/**
+     * This method retrieves the log entries of an ongoing or completed {@link Run} instance as a {@link RunLogSeries},
+     * which is the compact representation used by the progress charts. The series can be reduced to at most one entry
+     * per <i>interval</i> milliseconds, and then to its <i>last</i> entries. The same checks of {@link 
+     * #getOptimizationData(String, Integer, Integer)} apply.
+     * 
+     * @param runId		a {@link String} representing the unique identifier of the run instance for which the log
+     * 					entries are requested.
+     * @param last		a {@link Integer} representing the maximum number of entries to return, or {@literal null} to 
+     * 					return all the entries.
+     * @param interval	a {@link Long} representing the minimum time between two entries, in milliseconds, or {@literal 
+     * 					null} to return all the entries.
+     * 
+     * @return	a {@link Response} implementation containing the requested {@link RunLogSeries} or the description of an
+     * 			error that prevented its retrieval.
+     */
+    @ApiOperation(value = "Gets the log entries of the solver for the requested run as a time series", notes = "The time series contains one array for each "
+            + "property of the log entries, and is the compact representation used to draw the progress of the solver. The series can be reduced to "
+            + "one entry per time interval, and to the last entries.", response = RunLogSeries.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "A run was found with an optimization result", response = RunLogSeries.class),
+            @ApiResponse(code = 400, message = "The number of entries is negative or the interval is not positive."),
+            @ApiResponse(code = 404, message = "Run not found"),            
+            @ApiResponse(code = 500, message = "An internal error has occurred while processing the request."),
+    		@ApiResponse(code = 503, message = "Repository services are off line or not available.")
+    })
+    @ApiImplicitParams(value = {		
+    		@ApiImplicitParam(name = "Authorization", value="authentication header or authorization token (post authentication) base64 encoded.", required=false, dataType="String", paramType="header") 
+    })
+	@GET
+    @Path("/{runId}/series")
+    @Produces(MediaType.APPLICATION_JSON)
+	public Response getLogSeries(@ApiParam(value = "The run id", required = true) @PathParam("runId") String runId,
+								 @ApiParam(value = "The maximum number of entries to return", required = false) @QueryParam("last") Integer last,
+								 @ApiParam(value = "The minimum time between two entries, in milliseconds", required = false) @QueryParam("interval") Long interval) {
+
+		Response response = this.checkRunPrerequisites(runId);
+
+		if (response == null) {
+			
+			RunDetails data = this.getOptimizationResultRepository().findByRunId(runId);
+			
+			if (data == null) {
+				
+				response = this.buildErrorResponse(new DataNotFoundException("Run not found"), Status.NOT_FOUND);
+				
+			} else if (((last != null) && (last < 0)) || ((interval != null) && (interval <= 0))) {
+				
+				response = this.buildErrorResponse(new DataValidationException("Parameter 'last' cannot be negative and parameter 'interval' must be positive."), Status.BAD_REQUEST);
+				
+			} else {
+				
+				// the whole log is needed to downsample, because the intervals
+				// start from the first entry, otherwise the last entries will do.
+				//
+				RunLogSeries series = this.getLogSeries(data, interval == null ? last : null);
+				
+				if (interval != null) {
+					
+					series = series.downsample(interval);
+				}
+				
+				if (last != null) {
+					
+					series = series.last(last);
+				}
+				
+				response = this.buildResponse(Status.OK, series);
+			}
+		}
+		
+		return response;
+	}
     
     /**
      * This method retrieves the specific attachment file that contains the details of the solution of the optimisation
@@ -730,8 +964,7 @@ public class RunApi extends RestApi {
 	protected Response checkRunPrerequisites(String runId) {
 		
 		Response response = null;
-		RunRepository repo = this.getRunRepository();
-		Run run = repo.getItem(runId);
+		Run run = this.getRunItem(runId);
 		
 		if (run != null) {
 			
@@ -908,6 +1141,29 @@ public class RunApi extends RestApi {
 		return validated;
 	}
 
+	/**
+	 * This method retrieves the {@link Run} instance that matches the given
+	 * identifier. If a {@link RunController} is configured, the run is read
+	 * through it, so that the status changes it has not written yet to the
+	 * repository (and may have already been notified to the clients) are not
+	 * missed. Otherwise the run is read from the {@link RunRepository}.
+	 *
+	 * @param runId	a {@link String} representing the unique identifier of
+	 * 				the run.
+	 *
+	 * @return	the {@link Run} instance, or {@literal null} if not found.
+	 */
+	protected Run getRunItem(String runId) {
+
+		RunController controller = (RunController) this.environment.getAttribute(RunController.RUN_CONTROLLER_INSTANCE);
+		if (controller != null) {
+
+			return controller.getRun(runId);
+		}
+
+		return this.getRunRepository().getItem(runId);
+	}
+
 	/**
 	 * This method returns the implementation {@link RunRepository} that has
 	 * been currently configured with the application. It retrieves such
@@ -949,6 +1205,20 @@ public class RunApi extends RestApi {
 		return repo;
 	}
 
+	/**
+	 * This method returns the implementation {@link RunLogSegmentRepository} that has been currently configured with
+	 * the application, if any. It retrieves such instance from the {@link com.ibm.au.jaws.web.core.runtime.Environment}
+	 * implementation injected in the instance by looking up the {@link RunLogSegmentRepository#SEGMENT_REPOSITORY_INSTANCE}
+	 * attribute. Differently from the other repositories, it is not required: without it the log entries are stored
+	 * with the {@link RunDetails}.
+	 *
+	 * @return the configured {@link RunLogSegmentRepository} implementation, or {@literal null}.
+	 */
+	protected RunLogSegmentRepository getRunLogSegmentRepository() {
+
+		return (RunLogSegmentRepository) this.environment.getAttribute(RunLogSegmentRepository.SEGMENT_REPOSITORY_INSTANCE);
+	}
+
 	/**
 	 * This method returns the corresponding {@link MediaType} that matches the
 	 * given <i>fileName</i>. The method can only recognize the
@@ -4,8 +4,12 @@
  */
 package com.ibm.au.optim.suro.api.ws;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.websocket.CloseReason;
@@ -19,16 +23,30 @@ import javax.websocket.server.ServerEndpoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.ibm.au.optim.suro.model.notify.NotificationBus;
 import com.ibm.au.optim.suro.model.notify.Notifier;
 
 /**
  * Class <b>JobNotifierEndpoint</b>. This class represents a web-socket endpoint as per <i>JSR-356</i>
- * and it is used to synchronously publish notifications from DOcloud jobs to listening clients. The 
- * current implementation publishes all events from all jobs to all clients that are connected.
- * 
- * TODO Implement job-specific subscriptions to avoid unnecessary traffic from unrelated jobs
- * 
+ * and it is used to asynchronously publish notifications from DOcloud jobs to listening clients. When
+ * connected, a client receives all events from all jobs. A client can restrict the events it receives
+ * to specific runs and templates by sending a subscription message structured as follows:
+ * <pre>
+ *   { "subscribe" : { "runs" : [ "runId", ... ], "templates" : [ "templateId", ... ] } }
+ * </pre>
+ * From then on, only the events of the given runs and of the runs of the given templates are sent to
+ * the client. Further subscription messages add runs and templates, while messages with the property 
+ * <i>unsubscribe</i> remove them. The message <code>{ "subscribe" : { "all" : true } }</code> restores
+ * the delivery of all events. The endpoint replies to these messages with the current subscriptions of
+ * the client:
+ * <pre>
+ *   { "subscriptions" : { "all" : false, "runs" : [ "runId", ... ], "templates" : [ "templateId", ... ] } }
+ * </pre>
+ * Any other message is treated as a heart-beat.
  */
 @ServerEndpoint(value = "/ws/job-notifier", configurator=EnvironmentInjectorConfig.class)
 public class JobNotifierEndpoint extends EnvironmentEndpoint {
@@ -39,6 +57,41 @@ public class JobNotifierEndpoint extends EnvironmentEndpoint {
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(JobNotifierEndpoint.class);
 
+	/**
+	 * A {@link String} constant containing the name of the property of the messages adding subscriptions.
+	 */
+	public static final String SUBSCRIBE = "subscribe";
+
+	/**
+	 * A {@link String} constant containing the name of the property of the messages removing subscriptions.
+	 */
+	public static final String UNSUBSCRIBE = "unsubscribe";
+
+	/**
+	 * A {@link String} constant containing the name of the property of the replies to subscription messages.
+	 */
+	public static final String SUBSCRIPTIONS = "subscriptions";
+
+	/**
+	 * A {@link String} constant containing the name of the property listing the unique identifiers of runs.
+	 */
+	public static final String RUNS = "runs";
+
+	/**
+	 * A {@link String} constant containing the name of the property listing the unique identifiers of templates.
+	 */
+	public static final String TEMPLATES = "templates";
+
+	/**
+	 * A {@link String} constant containing the name of the property indicating the subscription to all events.
+	 */
+	public static final String ALL = "all";
+
+	/**
+	 * A {@link ObjectMapper} instance used to read the subscription messages and write the replies.
+	 */
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
 	/**
 	 * Notifier adapters currently being tracked by the Web Socket endpoint. For each of the
 	 * sessions that are open against this endpoint a {@link Notifier} implementation si used
@@ -76,8 +129,10 @@ public class JobNotifierEndpoint extends EnvironmentEndpoint {
 	
 	/**
 	 * This is the method that is used to respond to the web socket client messages. The method
-	 * implements a simple response to the <i>ping</i> message. This is to comply with the basic
-	 * heart-bet protocol that ensures that the web socket on the server side is alive.
+	 * updates the subscriptions of the client if the message contains the property <i>subscribe</i>
+	 * or <i>unsubscribe</i>, and replies with the current subscriptions. Otherwise, it implements 
+	 * a simple response to the <i>ping</i> message. This is to comply with the basic heart-bet 
+	 * protocol that ensures that the web socket on the server side is alive.
 	 * 
 	 * @param message	a {@link String} representing the message sent by the client.
 	 * @param session	a {@link Session} containing the information about the connection to the
@@ -89,7 +144,41 @@ public class JobNotifierEndpoint extends EnvironmentEndpoint {
 	@OnMessage
 	public String onMessage(String message, Session session) {
 		
-		return super.onMessage(message, session);
+		JsonNode request = JobNotifierEndpoint.parse(message);
+		Notifier adapter = adapters.get(session);
+		
+		if (request == null || adapter == null || !(request.has(SUBSCRIBE) || request.has(UNSUBSCRIBE))) {
+			
+			return super.onMessage(message, session);
+		}
+		
+		JsonNode subscribe = request.get(SUBSCRIBE);
+		if (subscribe != null) {
+			
+			if (subscribe.path(ALL).asBoolean(false)) {
+				
+				notifierBus.subscribe(adapter);
+			
+			} else {
+				
+				for (String topic : JobNotifierEndpoint.getTopics(subscribe)) {
+					notifierBus.subscribe(adapter, topic);
+				}
+			}
+		}
+		
+		JsonNode unsubscribe = request.get(UNSUBSCRIBE);
+		if (unsubscribe != null) {
+			
+			for (String topic : JobNotifierEndpoint.getTopics(unsubscribe)) {
+				notifierBus.unsubscribe(adapter, topic);
+			}
+		}
+		
+		String response = JobNotifierEndpoint.getSubscriptions(notifierBus.getTopics(adapter));
+		LOGGER.info(String.format("[%s] WS Subscriptions Updated [message: %s]", session.getId(), response));
+		
+		return response;
 	}
 
 
@@ -136,8 +225,110 @@ public class JobNotifierEndpoint extends EnvironmentEndpoint {
 			if (!entry.getKey().isOpen()) {
 				
 				notifierBus.unsubscribe(entry.getValue());
-				adapters.get(entry.getKey());
+				adapters.remove(entry.getKey());
 			}
 		}
 	}
+
+	/**
+	 * Parses a message sent by the client.
+	 * 
+	 * @param message	a {@link String} representing the message sent by the client.
+	 * 
+	 * @return	a {@link JsonNode} representing the message if it is a <i>JSON</i> object, {@literal 
+	 * 			null} otherwise.
+	 */
+	private static JsonNode parse(String message) {
+		
+		if (message == null || !message.trim().startsWith("{")) {
+			return null;
+		}
+		
+		try {
+			
+			return MAPPER.readTree(message);
+		
+		} catch (IOException ioe) {
+			
+			LOGGER.warn("Invalid message received: " + message);
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the topics of the runs and templates listed in a subscription message.
+	 * 
+	 * @param node	a {@link JsonNode} containing the properties <i>runs</i> and <i>templates</i>,
+	 * 				whose values are a unique identifier or an array of unique identifiers.
+	 * 
+	 * @return	a {@link List} containing the corresponding topics.
+	 */
+	private static List<String> getTopics(JsonNode node) {
+		
+		List<String> topics = new ArrayList<String>();
+		JobNotifierEndpoint.addTopics(topics, NotificationBus.RUN_TOPIC_PREFIX, node.get(RUNS));
+		JobNotifierEndpoint.addTopics(topics, NotificationBus.TEMPLATE_TOPIC_PREFIX, node.get(TEMPLATES));
+		
+		return topics;
+	}
+
+	/**
+	 * Adds to a list the topics of the given unique identifiers.
+	 * 
+	 * @param topics	a {@link List} the topics are added to.
+	 * @param prefix	a {@link String} representing the prefix of the topics.
+	 * @param ids		a {@link JsonNode} containing a unique identifier or an array of unique
+	 * 					identifiers. It can be {@literal null}.
+	 */
+	private static void addTopics(List<String> topics, String prefix, JsonNode ids) {
+		
+		if (ids == null) {
+			return;
+		}
+		
+		if (ids.isArray()) {
+			
+			for (JsonNode id : ids) {
+				if (id.isTextual()) {
+					topics.add(prefix + id.asText());
+				}
+			}
+		
+		} else if (ids.isTextual()) {
+			
+			topics.add(prefix + ids.asText());
+		}
+	}
+
+	/**
+	 * Creates the reply to a subscription message.
+	 * 
+	 * @param topics	a {@link Set} containing the topics the client is subscribed to, or {@literal
+	 * 					null} if it receives all the events.
+	 * 
+	 * @return	a {@link String} containing the <i>JSON</i> representation of the subscriptions.
+	 */
+	private static String getSubscriptions(Set<String> topics) {
+		
+		ObjectNode response = MAPPER.createObjectNode();
+		ObjectNode subscriptions = response.putObject(SUBSCRIPTIONS);
+		subscriptions.put(ALL, topics == null);
+		ArrayNode runs = subscriptions.putArray(RUNS);
+		ArrayNode templates = subscriptions.putArray(TEMPLATES);
+		
+		if (topics != null) {
+			
+			for (String topic : topics) {
+				
+				if (topic.startsWith(NotificationBus.RUN_TOPIC_PREFIX)) {
+					runs.add(topic.substring(NotificationBus.RUN_TOPIC_PREFIX.length()));
+				
+				} else if (topic.startsWith(NotificationBus.TEMPLATE_TOPIC_PREFIX)) {
+					templates.add(topic.substring(NotificationBus.TEMPLATE_TOPIC_PREFIX.length()));
+				}
+			}
+		}
+		
+		return response.toString();
+	}
 }
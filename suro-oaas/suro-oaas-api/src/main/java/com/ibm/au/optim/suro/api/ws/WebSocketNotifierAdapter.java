@@ -4,6 +4,10 @@
  */
 package com.ibm.au.optim.suro.api.ws;
 
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import javax.websocket.Session;
 
 import org.slf4j.Logger;
@@ -15,10 +19,19 @@ import com.ibm.au.optim.suro.model.notify.NotifierException;
 /**
  * Class <b>WebSocketNotifierAdapter</b>. This class implements the {@link Notifier} interface
  * and it is used to relay the information received from the notification bus onto a websocket
- * session.
+ * session. Messages are sent through the asynchronous remote endpoint of the session and
+ * they are invoked by the thread draining the queue of the adapter in the {@link 
+ * com.ibm.au.optim.suro.model.notify.NotificationBus}, hence a slow client does not block
+ * the components publishing the events.
  */
 public class WebSocketNotifierAdapter implements Notifier {
 
+	/**
+	 * The maximum time waited for a message to be sent, in milliseconds. A client that does
+	 * not receive a message within this time is considered unreachable.
+	 */
+	public static final long SEND_TIMEOUT = 10000;
+
 	/**
 	 * A {@link Logger} instance that records all the messages produced by instances of this
 	 * class.
@@ -57,7 +70,8 @@ public class WebSocketNotifierAdapter implements Notifier {
 	 * 					after being converted to {@link String}. It cannot be {@literal null}.
 	 * 
 	 * @throws NotifierException	if any error occurs while constructing and sending the message
-	 * 								through the attached websocket session.
+	 * 								through the attached websocket session, or if the message is not
+	 * 								sent within {@link #SEND_TIMEOUT} milliseconds.
 	 */
 	public void notify(String event, Object data) throws NotifierException {
 		
@@ -66,8 +80,22 @@ public class WebSocketNotifierAdapter implements Notifier {
 			
 			String message = sb.append("{\"").append(event).append("\":").append(data.toString()).append("}").toString();
 
-			logger.info(String.format("[%s] WS Message Sent [message: %s]", session.getId(), message));
-			session.getBasicRemote().sendText(message);
+			// the asynchronous endpoint allows only one message in flight,
+			// we wait for it to be sent before the next one is delivered.
+			//
+			Future<Void> sent = session.getAsyncRemote().sendText(message);
+			try {
+				sent.get(SEND_TIMEOUT, TimeUnit.MILLISECONDS);
+			
+			} catch (TimeoutException te) {
+				
+				sent.cancel(true);
+				throw te;
+			}
+
+			if (logger.isDebugEnabled()) {
+				logger.debug(String.format("[%s] WS Message Sent [message: %s]", session.getId(), message));
+			}
 		
 		} catch (Exception e) {
 			
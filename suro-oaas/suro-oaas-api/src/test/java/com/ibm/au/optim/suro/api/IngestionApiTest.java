@@ -1,6 +1,5 @@
 package com.ibm.au.optim.suro.api;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.au.jaws.web.core.runtime.impl.EnvironmentHelper;
 import com.ibm.au.optim.suro.core.controller.BasicIngestionController;
@@ -12,6 +11,7 @@ import com.ibm.au.optim.suro.model.entities.domain.ingestion.IcuAvailability;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.IcuAvailabilityList;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.SpecialistAvailability;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.SpecialistAvailabilityList;
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.TemporalDelta;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WaitingPatient;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WaitingPatientList;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WardAvailability;
@@ -37,7 +37,10 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
@@ -49,6 +52,16 @@ import java.util.Properties;
  */
 public class IngestionApiTest {
 
+	/**
+	 * Maximum number of records stored in a single part by the streaming test
+	 */
+	private static final int BATCH_SIZE = 10;
+
+	/**
+	 * Number of records uploaded by the streaming test
+	 */
+	private static final int STREAMED_RECORDS = 345;
+
 	private IngestionApi ingestionApi;
 	private IngestionController ingestionController;
 
@@ -118,138 +131,63 @@ public class IngestionApiTest {
 	}
 
 	@Test
-	public void testIngestionPostHandler() throws Exception {
-		
-		setupApi();
-		Response response;
-		List<IcuAvailability> ias = new ArrayList<>();
-		String patientId = "1234A";
-		long dueDate = new Date().getTime();
+	public void testWaitingListDeltaHandler() throws Exception {
 
-		// Test putting something of the wrong format
-		List<BasePlanEntry> bps = new ArrayList<>();
-		bps.add(new BasePlanEntry("Cardiac Surgery", 1, 1));
-		response = ingestionApi.ingestionPostHandler(new ByteArrayInputStream(mapper.writeValueAsBytes(bps)),
-						new TypeReference<List<IcuAvailability>>() { });
-		Assert.assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
-
-		// Test putting something
-		ias.add(new IcuAvailability(patientId, dueDate));
-		response = ingestionApi.ingestionPostHandler(new ByteArrayInputStream(mapper.writeValueAsBytes(ias)),
-						new TypeReference<List<IcuAvailability>>() { });
-		Assert.assertEquals(Response.Status.NO_CONTENT.getStatusCode(), response.getStatus());
-		Assert.assertEquals(1, iaRepo.getAll().size());
+		setupApi();
+		List<WaitingPatient> wps = new ArrayList<>();
+		wps.add(new WaitingPatient("P1234", "S1234", "Apendectomy", new Date().getTime(), 1));
+		wps.add(new WaitingPatient("P5678", "S5678", "Tonsillectomy", new Date().getTime(), 2));
+		ingestionApi.waitingListPostHandler(new ByteArrayInputStream(mapper.writeValueAsBytes(wps)));
 
-		// Test putting another thing
-		response = ingestionApi.ingestionPostHandler(new ByteArrayInputStream(mapper.writeValueAsBytes(ias)),
-						new TypeReference<List<IcuAvailability>>() { });
+		List<WaitingPatient> added = new ArrayList<>();
+		added.add(new WaitingPatient("P9999", "S1234", "Apendectomy", new Date().getTime(), 3));
+		TemporalDelta<WaitingPatient> delta = new TemporalDelta<>(added, null, Arrays.asList("P1234"));
+		Response response = ingestionApi.waitingListDeltaHandler(new ByteArrayInputStream(mapper.writeValueAsBytes(delta)));
 		Assert.assertEquals(Response.Status.NO_CONTENT.getStatusCode(), response.getStatus());
-		Assert.assertEquals(2, iaRepo.getAll().size());
-
-		// Test with no repo available
-		((BasicIngestionController) ingestionController).getEnvironment().removeAttribute(IcuAvailabilitiesRepository.ICU_AVAILABILITY_REPOSITORY_INSTANCE);
-		response = ingestionApi.ingestionPostHandler(new ByteArrayInputStream(mapper.writeValueAsBytes(ias)),
-						new TypeReference<List<IcuAvailability>>() { });
-		Assert.assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), response.getStatus());
-
-		// Test with empty list
-		((BasicIngestionController) ingestionController).getEnvironment().setAttribute(IcuAvailabilitiesRepository.ICU_AVAILABILITY_REPOSITORY_INSTANCE, new TransientBasePlanListRepository());
-		ias = new ArrayList<>();
-		response = ingestionApi.ingestionPostHandler(new ByteArrayInputStream(mapper.writeValueAsBytes(ias)),
-				new TypeReference<List<IcuAvailability>>() { });
-		Assert.assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
-	}
-
-	@Test
-	public void testGetBeforeTimeHandler() {
-		
-		long timestamp = 1234567890;
-		setupApi();
-		BasePlanList bpList = new BasePlanList(timestamp);
-		bpList.setRecords(new ArrayList<BasePlanEntry>());
-		bpList.getRecords().add(new BasePlanEntry());
-		bpRepo.addItem(bpList);
-
-		Assert.assertEquals(1, ((List<?>) ingestionApi.ingestionGetBeforeTimeHandler(BasePlanEntry.class, timestamp).getEntity()).size());
-		Assert.assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), ingestionApi.ingestionGetBeforeTimeHandler(Run.class, timestamp).getStatus());
-		Assert.assertEquals(Response.Status.NOT_FOUND.getStatusCode(), ingestionApi.ingestionGetBeforeTimeHandler(BasePlanEntry.class, timestamp - 5000).getStatus());
-	}
+		Assert.assertEquals(2, wpRepo.getAll().size());
 
-	@SuppressWarnings("unchecked")
-	@Test
-	public void testBasePlanGetter() {
-		
-		// data
-		long timestamp = 1234567890;
-		Response response;
+		List<WaitingPatient> current = ingestionController.getLatestRecordBeforeTime(WaitingPatient.class, Long.MAX_VALUE);
+		Assert.assertEquals(2, current.size());
+		Assert.assertEquals("P5678", current.get(0).getPatientId());
+		Assert.assertEquals("P9999", current.get(1).getPatientId());
 
-		setupApi();
-        BasePlanList list = new BasePlanList(timestamp);
-        list.setRecords(new ArrayList<BasePlanEntry>());
-        list.getRecords().add(new BasePlanEntry());
-        list.getRecords().add(new BasePlanEntry());
-        bpRepo.addItem(list);
-
-		response = ingestionApi.basePlanGetHandler(timestamp);
-		Assert.assertEquals(2, ((List<BasePlanList>) response.getEntity()).size());
+		// no changes
+		response = ingestionApi.waitingListDeltaHandler(new ByteArrayInputStream("{}".getBytes()));
+		Assert.assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+		response = ingestionApi.waitingListDeltaHandler(new ByteArrayInputStream("[".getBytes()));
+		Assert.assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+		Assert.assertEquals(2, wpRepo.getAll().size());
 	}
 
-	@SuppressWarnings("unchecked")
-	@Test
-    public void testWaitListGetter() {
-    	
-        // data
-        long timestamp = 1234567890;
-        Response response;
-
-        setupApi();
-        WaitingPatientList list = new WaitingPatientList(timestamp);
-        list.setRecords(new ArrayList<WaitingPatient>());
-        list.getRecords().add(new WaitingPatient());
-        list.getRecords().add(new WaitingPatient());
-        wpRepo.addItem(list);
-
-        response = ingestionApi.waitingListGetHandler(timestamp);
-        Assert.assertEquals(2, ((List<BasePlanList>) response.getEntity()).size());
-    }
-
-	@SuppressWarnings("unchecked")
+	/**
+	 * Streams a waiting list larger than the batch size and verifies that it is stored in parts of at most
+	 * {@link #BATCH_SIZE} records, so that only one part at a time needs to be kept in memory.
+	 */
 	@Test
-    public void testIcuAvailabilityGetter() {
-    	
-        // data
-        long timestamp = 1234567890;
-        Response response;
-
-        setupApi();
-        IcuAvailabilityList list = new IcuAvailabilityList(timestamp);
-        list.setRecords(new ArrayList<IcuAvailability>());
-        list.getRecords().add(new IcuAvailability());
-        list.getRecords().add(new IcuAvailability());
-        iaRepo.addItem(list);
+	public void testStreamingIngestionBatches() throws Exception {
 
-        response = ingestionApi.icuAvailabilityGetHandler(timestamp);
-        Assert.assertEquals(2, ((List<BasePlanList>) response.getEntity()).size());
-    }
+		Properties props = new Properties();
+		props.setProperty(BasicIngestionController.CFG_BATCH_SIZE, Integer.toString(BATCH_SIZE));
+		Environment env = setupApi(props);
+		PartRepository repository = new PartRepository();
+		env.setAttribute(WaitingPatientListRepository.WAITING_PATIENT_REPOSITORY_INSTANCE, repository);
 
-	@SuppressWarnings("unchecked")
-	@Test
-    public void testWardAvailabilityGetter() {
-    	
-        // data
-        long timestamp = 1234567890;
-        Response response;
-
-        setupApi();
-        WardAvailabilityList list = new WardAvailabilityList(timestamp);
-        list.setRecords(new ArrayList<WardAvailability>());
-        list.getRecords().add(new WardAvailability());
-        list.getRecords().add(new WardAvailability());
-        waRepo.addItem(list);
+		Response response = ingestionApi.waitingListPostHandler(new RecordInputStream(STREAMED_RECORDS));
+		Assert.assertEquals(Response.Status.NO_CONTENT.getStatusCode(), response.getStatus());
 
-        response = ingestionApi.wardAvailabilityGetHandler(timestamp);
-        Assert.assertEquals(2, ((List<BasePlanList>) response.getEntity()).size());
-    }
+		Assert.assertEquals((STREAMED_RECORDS + BATCH_SIZE - 1) / BATCH_SIZE, repository.parts.size());
+		int records = 0;
+		for (int part : repository.parts) {
+			Assert.assertTrue(part <= BATCH_SIZE);
+			records += part;
+		}
+		Assert.assertEquals(STREAMED_RECORDS, records);
+
+		List<WaitingPatient> current = ingestionController.getLatestRecordBeforeTime(WaitingPatient.class, Long.MAX_VALUE);
+		Assert.assertEquals(STREAMED_RECORDS, current.size());
+		Assert.assertEquals("P0", current.get(0).getPatientId());
+		Assert.assertEquals("P" + (STREAMED_RECORDS - 1), current.get(STREAMED_RECORDS - 1).getPatientId());
+	}
 
 	@SuppressWarnings("unchecked")
 	@Test
@@ -275,7 +213,56 @@ public class IngestionApiTest {
 	 * HELPER METHODS
 	 */
 
+	/**
+	 * Waiting list repository recording the number of records of each list it stores.
+	 */
+	private static class PartRepository extends TransientWaitingPatientListRepository {
+
+		private List<Integer> parts = new ArrayList<>();
+
+		@Override
+		public void addItem(WaitingPatientList item) {
+			parts.add(item.getRecords().size());
+			super.addItem(item);
+		}
+	}
+
+	/**
+	 * Input stream generating a serialised list of waiting patients on the fly.
+	 */
+	private static class RecordInputStream extends InputStream {
+
+		private final int records;
+		private int index = -1;
+		private byte[] buffer = "[".getBytes(StandardCharsets.UTF_8);
+		private int position;
+
+		private RecordInputStream(int records) {
+			this.records = records;
+		}
+
+		@Override
+		public int read() {
+			if (position == buffer.length) {
+				index++;
+				if (index > records) {
+					return -1;
+				}
+				String next = index == records ? "]" : (index > 0 ? "," : "") + "{\"patientId\":\"P" + index + "\",\"surgeryId\":\"S" + (index % 100) +
+								"\",\"surgeryName\":\"Surgery " + (index % 100) + "\",\"dueDate\":" + (1450000000000L + index) + ",\"urgencyCategory\":" + (index % 3 + 1) + "}";
+				buffer = next.getBytes(StandardCharsets.UTF_8);
+				position = 0;
+			}
+			return buffer[position++];
+		}
+	}
+
 	private Environment setupApi() {
+
+		return setupApi(null);
+	}
+
+	private Environment setupApi(Properties props) {
 		
 		ingestionApi = new IngestionApi();
 		bpRepo = new TransientBasePlanListRepository();
@@ -284,7 +271,7 @@ public class IngestionApiTest {
 		waRepo = new TransientWardAvailabilityListRepository();
 		saRepo = new TransientSpecialistAvailabilityListRepository();
 
-		Environment env = EnvironmentHelper.mockEnvironment((Properties) null);
+		Environment env = EnvironmentHelper.mockEnvironment(props);
 
 		env.setAttribute(BasePlanListRepository.BASE_PLAN_REPOSITORY_INSTANCE, bpRepo);
 		env.setAttribute(WaitingPatientListRepository.WAITING_PATIENT_REPOSITORY_INSTANCE, wpRepo);
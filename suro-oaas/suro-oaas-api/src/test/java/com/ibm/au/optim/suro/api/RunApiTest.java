@@ -5,6 +5,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
@@ -14,6 +15,7 @@ import javax.ws.rs.core.Response;
 
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.au.optim.suro.core.SuroCore;
 import com.ibm.au.optim.suro.core.controller.BasicDataSetController;
 import com.ibm.au.optim.suro.core.controller.BasicModelController;
@@ -25,16 +27,24 @@ import com.ibm.au.optim.suro.model.control.ResultManager;
 import com.ibm.au.optim.suro.model.control.RunController;
 import com.ibm.au.optim.suro.model.control.job.JobController;
 import com.ibm.au.optim.suro.model.control.job.JobExecutor;
+import com.ibm.au.optim.suro.model.control.job.RunLogWriter;
 import com.ibm.au.optim.suro.model.entities.Run;
+import com.ibm.au.optim.suro.model.entities.RunDetails;
+import com.ibm.au.optim.suro.model.entities.RunLogEntry;
+import com.ibm.au.optim.suro.model.entities.RunLogSegment;
+import com.ibm.au.optim.suro.model.entities.RunLogSeries;
+import com.ibm.au.optim.suro.model.entities.RunStatus;
 import com.ibm.au.optim.suro.model.entities.Template;
 import com.ibm.au.optim.suro.model.store.DataSetRepository;
 import com.ibm.au.optim.suro.model.store.ModelRepository;
 import com.ibm.au.optim.suro.model.store.RunDetailsRepository;
+import com.ibm.au.optim.suro.model.store.RunLogSegmentRepository;
 import com.ibm.au.optim.suro.model.store.RunRepository;
 import com.ibm.au.optim.suro.model.store.TemplateRepository;
 import com.ibm.au.optim.suro.model.store.impl.TransientDataSetRepository;
 import com.ibm.au.optim.suro.model.store.impl.TransientModelRepository;
 import com.ibm.au.optim.suro.model.store.impl.TransientOptimizationResultRepository;
+import com.ibm.au.optim.suro.model.store.impl.TransientRunLogSegmentRepository;
 import com.ibm.au.optim.suro.model.store.impl.TransientRunRepository;
 import com.ibm.au.optim.suro.model.store.impl.TransientTemplateRepository;
 import com.ibm.au.jaws.web.core.runtime.Environment;
@@ -111,6 +121,180 @@ public class RunApiTest {
 		assertNotNull(api.getOptimizationResultRepository());
 	}
 
+	/**
+	 * This method tests that {@link RunApi#getOptimizationData(String, Integer, Integer)} gathers
+	 * the log entries stored in segments, either all of them or a page of segments.
+	 */
+	@Test
+	public void testGetOptimizationDataSegments() {
+
+		Environment environment = this.getEnvironment();
+		RunLogSegmentRepository segmentRepo = new TransientRunLogSegmentRepository();
+		environment.setAttribute(RunLogSegmentRepository.SEGMENT_REPOSITORY_INSTANCE, segmentRepo);
+		RunApi api = this.getApi(null, environment);
+
+		Run run = new Run();
+		RunRepository runRepo = (RunRepository) environment.getAttribute(RunRepository.RUN_REPOSITORY_INSTANCE);
+		runRepo.addItem(run);
+
+		RunDetailsRepository detailsRepo = (RunDetailsRepository) environment.getAttribute(RunDetailsRepository.DETAILS_REPOSITORY_INSTANCE);
+		RunDetails details = new RunDetails();
+		details.setRunId(run.getId());
+		detailsRepo.addItem(details);
+
+		// 5 entries in segments of 2 entries
+		RunLogWriter writer = new RunLogWriter(details, detailsRepo, segmentRepo, 2);
+		for (int i = 0; i < 5; i++) {
+			RunLogEntry entry = new RunLogEntry();
+			entry.setTime(i);
+			writer.append(entry);
+		}
+		writer.commit();
+
+		Response res = api.getOptimizationData(run.getId());
+		assertEquals(200, res.getStatus());
+		RunDetails data = (RunDetails) res.getEntity();
+		assertEquals(3, data.getSegments());
+		assertEquals(5, data.getEntries().size());
+		for (int i = 0; i < 5; i++) {
+			assertEquals(i, data.getEntries().get(i).getTime());
+		}
+
+		// the stored summary is left untouched
+		assertNull(detailsRepo.findByRunId(run.getId()).getEntries());
+
+		res = api.getOptimizationData(run.getId(), 1, 2);
+		assertEquals(200, res.getStatus());
+		data = (RunDetails) res.getEntity();
+		assertEquals(3, data.getEntries().size());
+		assertEquals(2, data.getEntries().get(0).getTime());
+
+		res = api.getOptimizationData(run.getId(), 2, null);
+		assertEquals(1, ((RunDetails) res.getEntity()).getEntries().size());
+
+		res = api.getOptimizationData(run.getId(), 3, null);
+		assertEquals(0, ((RunDetails) res.getEntity()).getEntries().size());
+
+		res = api.getOptimizationData(run.getId(), -1, null);
+		assertEquals(400, res.getStatus());
+
+		res = api.getOptimizationData("not-existing", 0, 1);
+		assertEquals(404, res.getStatus());
+	}
+
+	/**
+	 * This method tests that the API method {@link RunApi#getLogSeries(String, Integer, Long)}
+	 * returns the log entries of the run as a {@link RunLogSeries}, reduced as requested.
+	 */
+	@Test
+	public void testGetLogSeries() {
+
+		Environment environment = this.getEnvironment();
+		RunApi api = this.getApi(null, environment);
+
+		Run run = new Run();
+		RunRepository runRepo = (RunRepository) environment.getAttribute(RunRepository.RUN_REPOSITORY_INSTANCE);
+		runRepo.addItem(run);
+
+		RunDetailsRepository detailsRepo = (RunDetailsRepository) environment.getAttribute(RunDetailsRepository.DETAILS_REPOSITORY_INSTANCE);
+		RunDetails details = new RunDetails();
+		details.setRunId(run.getId());
+		// one entry every 500 ms
+		for (int i = 0; i < 10; i++) {
+			RunLogEntry entry = new RunLogEntry();
+			entry.setTime(i * 500);
+			entry.setGap(10.0 - i);
+			details.addEntry(entry);
+		}
+		detailsRepo.addItem(details);
+
+		Response res = api.getLogSeries(run.getId(), null, null);
+		assertEquals(200, res.getStatus());
+		RunLogSeries series = (RunLogSeries) res.getEntity();
+		assertEquals(10, series.size());
+		assertEquals(details.getEntries().get(3).getGap(), series.getEntry(3).getGap());
+
+		res = api.getLogSeries(run.getId(), 2, 1000L);
+		series = (RunLogSeries) res.getEntity();
+		assertEquals(2, series.size());
+		assertEquals(3500, series.getTime(0));
+		assertEquals(4500, series.getTime(1));
+
+		assertEquals(400, api.getLogSeries(run.getId(), -1, null).getStatus());
+		assertEquals(400, api.getLogSeries(run.getId(), null, 0L).getStatus());
+		assertEquals(404, api.getLogSeries("not-existing", null, null).getStatus());
+	}
+
+	/**
+	 * This method tests that {@link RunApi#getLogSeries(String, Integer, Long)} reads the log entries
+	 * stored in segments, and only reads the last segments when the last entries are requested.
+	 */
+	@Test
+	public void testGetLogSeriesSegments() {
+
+		Environment environment = this.getEnvironment();
+		CountingSegmentRepository segmentRepo = new CountingSegmentRepository();
+		environment.setAttribute(RunLogSegmentRepository.SEGMENT_REPOSITORY_INSTANCE, segmentRepo);
+		RunApi api = this.getApi(null, environment);
+
+		Run run = new Run();
+		RunRepository runRepo = (RunRepository) environment.getAttribute(RunRepository.RUN_REPOSITORY_INSTANCE);
+		runRepo.addItem(run);
+
+		RunDetailsRepository detailsRepo = (RunDetailsRepository) environment.getAttribute(RunDetailsRepository.DETAILS_REPOSITORY_INSTANCE);
+		RunDetails details = new RunDetails();
+		details.setRunId(run.getId());
+		detailsRepo.addItem(details);
+
+		// 7 entries in segments of 2 entries, one every 500 ms
+		RunLogWriter writer = new RunLogWriter(details, detailsRepo, segmentRepo, 2);
+		for (int i = 0; i < 7; i++) {
+			RunLogEntry entry = new RunLogEntry();
+			entry.setTime(i * 500);
+			writer.append(entry);
+		}
+		writer.commit();
+
+		Response res = api.getLogSeries(run.getId(), null, null);
+		assertEquals(200, res.getStatus());
+		RunLogSeries series = (RunLogSeries) res.getEntity();
+		assertEquals(7, series.size());
+		for (int i = 0; i < 7; i++) {
+			assertEquals(i * 500, series.getTime(i));
+		}
+
+		// the last 3 entries are in the last 2 segments
+		segmentRepo.read = 0;
+		series = (RunLogSeries) api.getLogSeries(run.getId(), 3, null).getEntity();
+		assertEquals(3, series.size());
+		assertEquals(2000, series.getTime(0));
+		assertEquals(3000, series.getTime(2));
+		assertEquals(2, segmentRepo.read);
+
+		// downsampling needs all the segments
+		segmentRepo.read = 0;
+		series = (RunLogSeries) api.getLogSeries(run.getId(), 2, 1000L).getEntity();
+		assertEquals(2, series.size());
+		assertEquals(2500, series.getTime(0));
+		assertEquals(3000, series.getTime(1));
+		assertEquals(4, segmentRepo.read);
+	}
+
+	/**
+	 * Segment repository counting the segments it returns.
+	 */
+	private static class CountingSegmentRepository extends TransientRunLogSegmentRepository {
+
+		private int read;
+
+		@Override
+		public List<RunLogSegment> findByRunId(String runId, int first, int count) {
+			List<RunLogSegment> segments = super.findByRunId(runId, first, count);
+			this.read += segments.size();
+			return segments;
+		}
+	}
+
 	/**
 	 * This method tests that the API method {@link RunApi#getMediaType(String)}
 	 * returns the expected media types for the different types of files that
@@ -137,6 +321,90 @@ public class RunApiTest {
 		assertEquals(new MediaType("text", "csv"), api.getMediaType("something.json.csv"));
 	}
 
+	/**
+	 * This method tests that {@link RunApi#getRun(String)} and {@link RunApi#checkRunPrerequisites(String)}
+	 * see the status changes that the {@link SuroRunController} has not written yet to the repository.
+	 */
+	@Test
+	public void testGetRunPendingStatus() throws Exception {
+
+		CopyingRunRepository runRepo = new CopyingRunRepository();
+		SuroRunController runController = new SuroRunController();
+		runController.setRepository(runRepo);
+		runController.setFlushInterval(60000);
+
+		Environment environment = EnvironmentHelper.mockEnvironment((Properties) null);
+		environment.setAttribute(RunRepository.RUN_REPOSITORY_INSTANCE, runRepo);
+		environment.setAttribute(RunController.RUN_CONTROLLER_INSTANCE, runController);
+		RunApi api = this.getApi(null, environment);
+
+		try {
+			Run run = new Run();
+			runRepo.addItem(run);
+			runController.setRunStatus(run, RunStatus.PROCESSING);
+			assertEquals(RunStatus.NEW, runRepo.getItem(run.getId()).getStatus());
+
+			Response response = api.getRun(run.getId());
+			assertEquals(200, response.getStatus());
+			assertEquals(RunStatus.PROCESSING, ((Run) response.getEntity()).getStatus());
+			assertEquals(RunStatus.PROCESSING, runRepo.getItem(run.getId()).getStatus());
+
+			runController.setRunStatus(run, RunStatus.COLLECTING_RESULTS);
+			assertNull(api.checkRunPrerequisites(run.getId()));
+			assertEquals(RunStatus.COLLECTING_RESULTS, runRepo.getItem(run.getId()).getStatus());
+
+			assertEquals(404, api.getRun("missing").getStatus());
+
+		} finally {
+
+			runController.setFlushInterval(0);
+		}
+	}
+
+	/**
+	 * Run repository returning copies of the stored runs, as a repository backed by a database does, so that the
+	 * changes made to a run are only seen once the run has been updated.
+	 */
+	private static class CopyingRunRepository extends TransientRunRepository {
+
+		private static final ObjectMapper MAPPER = new ObjectMapper();
+
+		@Override
+		public Run getItem(String id) {
+			Run run = super.getItem(id);
+			if (run == null) {
+				return null;
+			}
+			try {
+				Run copy = MAPPER.readValue(MAPPER.writeValueAsBytes(run), Run.class);
+				copy.setId(run.getId());
+				copy.setRevision(run.getRevision());
+				return copy;
+			} catch (IOException ioe) {
+				throw new IllegalStateException(ioe);
+			}
+		}
+
+		@Override
+		public void addItem(Run item) {
+			super.addItem(item);
+			this.replace(item);
+		}
+
+		@Override
+		public void updateItem(Run item) {
+			super.updateItem(item);
+			this.replace(item);
+		}
+
+		/**
+		 * Stores a copy of the run, so that later changes to the given instance are not seen.
+		 */
+		private void replace(Run item) {
+			super.updateItem(this.getItem(item.getId()));
+		}
+	}
+
 	/**
 	 * This helper method creates an instance of the {@link Environment}
 	 * implementation for the purpose of testing.
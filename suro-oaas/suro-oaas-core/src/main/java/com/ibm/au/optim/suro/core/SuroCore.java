@@ -11,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -306,20 +307,45 @@ public class SuroCore extends AbstractSuroService implements Core {
             RunController controller = this.getRunController();
 
             // returns either the first run in the queue or null
-            Run nextRun = controller.getNext();
-            if (nextRun != null) {
-            	
-                // sync the run repository to avoid conflicts
-                synchronized (controller.getRepository()) {
-                	
-                   this.debug("getNextRun: providing run " + nextRun.getId() + " to the job executor.");
-                   
-                    // reload the run from the database (to avoid conflicts) and update
-                    nextRun = controller.getRun(nextRun.getId());
-                }
-            }
+            return this.reload(controller, controller.getNext());
+            
+        } else {
+        	
+            this.debug("getNextRun: System not ready");
+            return null;
+        }
+    }
+
+    /**
+     * <p>
+     * This method retrieves the {@link Run} instance that needs to be submitted for execution
+     * on the optimisation back-end, waiting for a run to be submitted if there is none in the
+     * queue.
+     * </p>
+     * <p>
+     * Differently from {@link SuroCore#getNextRun()} the caller is woken up as soon as a run 
+     * is added to the queue, thus removing the latency introduced by polling the queue at
+     * regular intervals. If the core is not ready the method returns immediately.
+     * </p>
+     * 
+     * @param timeout	the maximum amount of time to wait for a run, expressed in <i>unit</i>.
+     * @param unit		a {@link TimeUnit} value that defines the unit of <i>timeout</i>.
+     * 
+     * @return 	a {@link Run} instance representing the next run request that needs to be
+     * 			processed, or {@literal null} if no run has been submitted within the given
+     * 			timeout. The method also returns {@literal null} if the core is not ready.
+     * 
+     * @throws InterruptedException	if the calling thread is interrupted while waiting.
+     */
+    @Override
+    public Run getNextRun(long timeout, TimeUnit unit) throws InterruptedException {
+    	
+        if (this.isReady()) {
+        	
+            RunController controller = this.getRunController();
 
-            return nextRun;
+            // blocks until a run is added to the queue or the timeout elapses
+            return this.reload(controller, controller.getNext(timeout, unit));
             
         } else {
         	
@@ -327,6 +353,32 @@ public class SuroCore extends AbstractSuroService implements Core {
             return null;
         }
     }
+
+    /**
+     * Reloads the given {@link Run} instance from the repository so that the job executor
+     * operates on the most up to date version of the instance.
+     * 
+     * @param controller	the {@link RunController} implementation used to access the runs.
+     * @param nextRun		the {@link Run} instance taken out of the queue, can be {@literal null}.
+     * 
+     * @return	the reloaded {@link Run} instance, or {@literal null} if <i>nextRun</i> is {@literal null}.
+     */
+    private Run reload(RunController controller, Run nextRun) {
+    	
+        if (nextRun != null) {
+        	
+            // sync the run repository to avoid conflicts
+            synchronized (controller.getRepository()) {
+            	
+               this.debug("getNextRun: providing run " + nextRun.getId() + " to the job executor.");
+               
+                // reload the run from the database (to avoid conflicts) and update
+                nextRun = controller.getRun(nextRun.getId());
+            }
+        }
+
+        return nextRun;
+    }
     
     /**
      * This method deletes a {@link Run} instance from the system. This operations entails
@@ -0,0 +1,238 @@
+package com.ibm.au.optim.suro.core.composer;
+
+import com.ibm.au.jaws.web.core.runtime.Environment;
+import com.ibm.au.optim.suro.model.control.domain.HospitalController;
+import com.ibm.au.optim.suro.model.control.domain.ingestion.IngestionController;
+import com.ibm.au.optim.suro.model.control.domain.learning.MachineLearningController;
+import com.ibm.au.optim.suro.model.entities.domain.Hospital;
+import com.ibm.au.optim.suro.model.entities.domain.Region;
+import com.ibm.au.optim.suro.model.entities.domain.learning.ArrivingPatient;
+import com.ibm.au.optim.suro.model.entities.domain.learning.InitialPatient;
+import com.ibm.au.optim.suro.model.entities.domain.learning.SurgeryCluster;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the data read by the {@link com.ibm.au.optim.suro.core.composer.components.InputComponent}s during a single
+ * composition. Several components need the same data (e.g. most of them read the hospital), so each piece of data is
+ * only retrieved from the controllers the first time it is requested, and then shared by all the components. Components
+ * requesting the same data concurrently wait for the first request to complete, rather than reading it again.
+ *
+ * The data is shared as is, hence components must not modify it. A context is not meant to outlive the composition it
+ * has been created for, as it does not see any change made to the data in the meantime.
+ */
+public class CompositionContext {
+
+	/**
+	 * The environment containing the controllers to read the data from.
+	 */
+	private final Environment environment;
+
+	/**
+	 * The data read so far, by key. The key is a list made of the kind of data and the parameters of the request.
+	 */
+	private final ConcurrentMap<List<Object>, FutureTask<?>> values = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of requests served from the data read so far.
+	 */
+	private final AtomicInteger hits = new AtomicInteger();
+
+	/**
+	 * The number of requests that had to read the data from the controllers.
+	 */
+	private final AtomicInteger misses = new AtomicInteger();
+
+	/**
+	 * Creates a new context reading the data from the controllers in the passed environment.
+	 * @param environment The environment containing the controllers.
+	 */
+	public CompositionContext(Environment environment) {
+		this.environment = environment;
+	}
+
+	/**
+	 * Gets the environment.
+	 * @return The environment containing the controllers.
+	 */
+	public Environment getEnvironment() {
+		return environment;
+	}
+
+	/**
+	 * Gets a hospital.
+	 * @param hospitalId The id of the hospital.
+	 * @return The hospital, or null if it does not exist.
+	 */
+	public Hospital getHospital(final String hospitalId) {
+		return memoise(Arrays.<Object>asList(Hospital.class, hospitalId), new Callable<Hospital>() {
+			@Override
+			public Hospital call() {
+				return getHospitalController().getHospital(hospitalId);
+			}
+		});
+	}
+
+	/**
+	 * Gets a region.
+	 * @param regionId The id of the region.
+	 * @return The region, or null if it does not exist.
+	 */
+	public Region getRegion(final String regionId) {
+		return memoise(Arrays.<Object>asList(Region.class, regionId), new Callable<Region>() {
+			@Override
+			public Region call() {
+				return getHospitalController().getRegion(regionId);
+			}
+		});
+	}
+
+	/**
+	 * Gets the latest ingested records of a type before the given time.
+	 * @param recordType The type of the records (e.g. WardAvailability.class).
+	 * @param time The largest timestamp of the records.
+	 * @param <T> The type of the records.
+	 * @return A {@link List} of records, or null if the repository of the records is not available.
+	 * @see IngestionController#getLatestRecordBeforeTime(Class, long)
+	 */
+	public <T> List<T> getLatestRecordBeforeTime(final Class<T> recordType, final long time) {
+		return memoise(Arrays.<Object>asList(IngestionController.class, recordType, time), new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return getIngestionController().getLatestRecordBeforeTime(recordType, time);
+			}
+		});
+	}
+
+	/**
+	 * Gets the surgery clusters valid at the given time.
+	 * @param time The timestamp to look up.
+	 * @return A {@link List} of {@link SurgeryCluster}s.
+	 */
+	public List<SurgeryCluster> getSurgeryClusters(final long time) {
+		return memoise(Arrays.<Object>asList(SurgeryCluster.class, time), new Callable<List<SurgeryCluster>>() {
+			@Override
+			public List<SurgeryCluster> call() {
+				return getMachineLearningController().getSurgeryClusters(time);
+			}
+		});
+	}
+
+	/**
+	 * Gets the initial patients at the given time.
+	 * @param time The timestamp to look up.
+	 * @return A {@link List} of {@link InitialPatient}s.
+	 */
+	public List<InitialPatient> getInitialPatients(final long time) {
+		return memoise(Arrays.<Object>asList(InitialPatient.class, time), new Callable<List<InitialPatient>>() {
+			@Override
+			public List<InitialPatient> call() {
+				return getMachineLearningController().getInitialPatients(time);
+			}
+		});
+	}
+
+	/**
+	 * Gets the patients expected to arrive in the given time range.
+	 * @param timeFrom The start of the time range.
+	 * @param timeTo The end of the time range.
+	 * @return A {@link List} of {@link ArrivingPatient}s.
+	 */
+	public List<ArrivingPatient> getArrivingPatients(final long timeFrom, final long timeTo) {
+		return memoise(Arrays.<Object>asList(ArrivingPatient.class, timeFrom, timeTo), new Callable<List<ArrivingPatient>>() {
+			@Override
+			public List<ArrivingPatient> call() {
+				return getMachineLearningController().getArrivingPatients(timeFrom, timeTo);
+			}
+		});
+	}
+
+	/**
+	 * Gets the number of requests served from the data read so far.
+	 * @return The number of cache hits.
+	 */
+	public int getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of requests that had to read the data from the controllers.
+	 * @return The number of cache misses.
+	 */
+	public int getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the value stored for the key, reading it with the loader if the key has not been requested yet.
+	 * @param key The key of the value.
+	 * @param loader The loader reading the value from the controllers.
+	 * @param <V> The type of the value.
+	 * @return The value.
+	 */
+	@SuppressWarnings("unchecked")
+	private <V> V memoise(List<Object> key, Callable<V> loader) {
+		FutureTask<?> task = values.get(key);
+
+		if (task == null) {
+			FutureTask<V> created = new FutureTask<>(loader);
+			task = values.putIfAbsent(key, created);
+
+			if (task == null) {
+				misses.incrementAndGet();
+				task = created;
+				created.run();
+			} else {
+				hits.incrementAndGet();
+			}
+		} else {
+			hits.incrementAndGet();
+		}
+
+		try {
+			return (V) task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for " + key + ".", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Gets the hospital controller from the environment.
+	 * @return The {@link HospitalController}.
+	 */
+	private HospitalController getHospitalController() {
+		return (HospitalController) environment.getAttribute(HospitalController.HOSPITAL_CONTROLLER_INSTANCE);
+	}
+
+	/**
+	 * Gets the ingestion controller from the environment.
+	 * @return The {@link IngestionController}.
+	 */
+	private IngestionController getIngestionController() {
+		return (IngestionController) environment.getAttribute(IngestionController.INGESTION_CONTROLLER_INSTANCE);
+	}
+
+	/**
+	 * Gets the machine learning controller from the environment.
+	 * @return The {@link MachineLearningController}.
+	 */
+	private MachineLearningController getMachineLearningController() {
+		return (MachineLearningController) environment.getAttribute(MachineLearningController.MACHINE_LEARNING_CONTROLLER_INSTANCE);
+	}
+}
@@ -0,0 +1,187 @@
+package com.ibm.au.optim.suro.core.composer;
+
+import com.ibm.au.jaws.web.core.runtime.Environment;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the rendered values of the input sections that only depend on the configuration of a hospital (e.g. its
+ * departments or specialist types) and on the specification of the component, so that the compositions following the
+ * first one for the same hospital do not construct and render them again.
+ *
+ * Values are kept by hospital ID, hospital revision and component specification. Only the values of the latest revision
+ * seen for a hospital are kept: storing the values of a new revision discards the ones of the previous revisions.
+ * Hospital updates should also invalidate the values of the hospital explicitly with {@link #invalidate(String)}, which
+ * is done by {@link com.ibm.au.optim.suro.core.controller.BasicHospitalController#updateHospital}.
+ *
+ * A single instance is shared through the environment, see {@link #getInstance(Environment)}.
+ */
+public class FragmentCache {
+
+	/**
+	 * The name of the environment attribute holding the shared instance.
+	 */
+	public static final String FRAGMENT_CACHE_INSTANCE = "composer:fragments:instance";
+
+	/**
+	 * The fragments by hospital ID.
+	 */
+	private final ConcurrentMap<String, Fragments> hospitals = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of lookups that found the values.
+	 */
+	private final AtomicInteger hits = new AtomicInteger();
+
+	/**
+	 * The number of lookups that did not find the values.
+	 */
+	private final AtomicInteger misses = new AtomicInteger();
+
+	/**
+	 * Gets the instance shared through the environment, creating it if needed.
+	 * @param environment The environment holding the instance.
+	 * @return The shared {@link FragmentCache}.
+	 */
+	public static FragmentCache getInstance(Environment environment) {
+		synchronized (environment) {
+			FragmentCache cache = (FragmentCache) environment.getAttribute(FRAGMENT_CACHE_INSTANCE);
+
+			if (cache == null) {
+				cache = new FragmentCache();
+				environment.setAttribute(FRAGMENT_CACHE_INSTANCE, cache);
+			}
+
+			return cache;
+		}
+	}
+
+	/**
+	 * Gets the rendered values of the sections of a component.
+	 * @param hospitalId The ID of the hospital.
+	 * @param revision The revision of the hospital.
+	 * @param specification The specification of the component.
+	 * @return The values of the sections, by section index (null for sections that are not kept), or null if the values
+	 * are not available for the given revision.
+	 */
+	public List<String> get(String hospitalId, String revision, InputComponentSpecification specification) {
+		Fragments fragments = hospitalId == null ? null : hospitals.get(hospitalId);
+		List<String> values = null;
+
+		if (fragments != null && fragments.revision.equals(revision)) {
+			values = fragments.values.get(key(specification));
+		}
+
+		if (values == null) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+
+		return values;
+	}
+
+	/**
+	 * Stores the rendered values of the sections of a component.
+	 * @param hospitalId The ID of the hospital.
+	 * @param revision The revision of the hospital. Values are not stored without a revision.
+	 * @param specification The specification of the component.
+	 * @param values The values of the sections, by section index (null for sections that are not kept).
+	 */
+	public void put(String hospitalId, String revision, InputComponentSpecification specification, List<String> values) {
+		if (hospitalId == null || revision == null) {
+			return;
+		}
+
+		Fragments fragments = hospitals.get(hospitalId);
+
+		while (fragments == null || !fragments.revision.equals(revision)) {
+			Fragments created = new Fragments(revision);
+
+			if (fragments == null) {
+				fragments = hospitals.putIfAbsent(hospitalId, created);
+
+				if (fragments == null) {
+					fragments = created;
+				}
+			} else if (hospitals.replace(hospitalId, fragments, created)) {
+				fragments = created;
+			} else {
+				fragments = hospitals.get(hospitalId);
+			}
+		}
+
+		fragments.values.put(key(specification), values);
+	}
+
+	/**
+	 * Discards the values of a hospital.
+	 * @param hospitalId The ID of the hospital.
+	 */
+	public void invalidate(String hospitalId) {
+		if (hospitalId != null) {
+			hospitals.remove(hospitalId);
+		}
+	}
+
+	/**
+	 * Discards all the values.
+	 */
+	public void clear() {
+		hospitals.clear();
+	}
+
+	/**
+	 * Gets the number of lookups that found the values.
+	 * @return The number of cache hits.
+	 */
+	public int getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of lookups that did not find the values.
+	 * @return The number of cache misses.
+	 */
+	public int getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Creates the key of the values of a component from its specification.
+	 * @param specification The specification of the component.
+	 * @return A {@link List} made of the class name, the sections and the metadata of the component.
+	 */
+	private static List<Object> key(InputComponentSpecification specification) {
+		return Arrays.<Object>asList(specification.getComponentClassName(), specification.getSections(),
+						specification.getMetadata());
+	}
+
+	/**
+	 * The values of the components of a hospital, for a single revision.
+	 */
+	private static class Fragments {
+
+		/**
+		 * The revision of the hospital.
+		 */
+		private final String revision;
+
+		/**
+		 * The values by component specification.
+		 */
+		private final ConcurrentMap<List<Object>, List<String>> values = new ConcurrentHashMap<>();
+
+		/**
+		 * Constructs a new instance of the Fragments class.
+		 * @param revision The revision of the hospital.
+		 */
+		private Fragments(String revision) {
+			this.revision = revision;
+		}
+	}
+}
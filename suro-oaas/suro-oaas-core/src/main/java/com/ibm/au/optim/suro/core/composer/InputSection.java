@@ -1,5 +1,8 @@
 package com.ibm.au.optim.suro.core.composer;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 /**
  * A class that holds all the information of a single section of the input dat input file required by the cplex mod
  * file.
@@ -23,6 +26,11 @@ public class InputSection {
 	 */
 	private String value;
 
+	/**
+	 * The value that should be written for this section, if written when the input file is composed.
+	 */
+	private SectionValue writtenValue;
+
 	/**
 	 * Constructs a new instance of the InputSection class.
 	 * @param order The order this section should appear in relative to other sections.
@@ -67,11 +75,24 @@ public class InputSection {
 	}
 
 	/**
-	 * Gets the value of this section.
+	 * Gets the value of this section. If the value is written when the input file is composed, it is written to a
+	 * String first, hence this should not be used to write large sections.
 	 * @return The value of this section.
 	 */
 	public String getValue() {
-		return value;
+		if (writtenValue == null) {
+			return value;
+		}
+
+		StringWriter result = new StringWriter();
+
+		try {
+			writtenValue.write(new SectionWriter(result));
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to write the value of section " + name + ".", e);
+		}
+
+		return result.toString();
 	}
 
 	/**
@@ -80,6 +101,33 @@ public class InputSection {
 	 */
 	public void setValue(String value) {
 		this.value = value;
+		this.writtenValue = null;
+	}
+
+	/**
+	 * Sets the value of this section, to be written when the input file is composed.
+	 * @param value The new value.
+	 */
+	public void setValue(SectionValue value) {
+		this.value = null;
+		this.writtenValue = value;
+	}
+
+	/**
+	 * Writes the section in the format expected by cplex.
+	 * @param writer The writer to write the section with.
+	 * @throws IOException If the section cannot be written.
+	 */
+	public void write(SectionWriter writer) throws IOException {
+		writer.write(name).write(" = ");
+
+		if (writtenValue == null) {
+			writer.write(value);
+		} else {
+			writtenValue.write(writer);
+		}
+
+		writer.write(";");
 	}
 
 	/**
@@ -89,7 +137,7 @@ public class InputSection {
 	public String toString() {
 		return new StringBuilder(name)
 						.append(" = ")
-						.append(value)
+						.append(getValue())
 						.append(";")
 						.toString();
 	}
@@ -26,10 +26,27 @@ public class NTuple {
 
 	private static int DEFAULT_TUPLE_MAX_LENGTH = 8192;
 
+	/**
+	 * Checks whether the reader is positioned before a tuple, by reading ahead and resetting the reader.
+	 * @param reader The reader to check, which must support marking.
+	 * @return Whether the next characters (after whitespace) form a tuple.
+	 * @throws IOException If the reader does not support marking, or if the tuple is too long.
+	 * @deprecated Reads every tuple twice. Use an {@link NTupleReader} instead.
+	 */
+	@Deprecated
 	public static boolean hasNextNTuple(Reader reader) throws IOException {
 		return hasNextNTuple(reader, DEFAULT_TUPLE_MAX_LENGTH);
 	}
 
+	/**
+	 * Checks whether the reader is positioned before a tuple, by reading ahead and resetting the reader.
+	 * @param reader The reader to check, which must support marking.
+	 * @param tupleMaxLength The maximum number of characters to read ahead.
+	 * @return Whether the next characters (after whitespace) form a tuple.
+	 * @throws IOException If the reader does not support marking, or if the tuple is too long.
+	 * @deprecated Reads every tuple twice. Use an {@link NTupleReader} instead.
+	 */
+	@Deprecated
 	public static boolean hasNextNTuple(Reader reader, int tupleMaxLength) throws IOException {
 		// check if marking is permitted
 		if (!reader.markSupported()) {
@@ -100,7 +117,9 @@ public class NTuple {
 	 * @return The NTuple read.
 	 * @throws IOException If the stream under the reader does not contain a properly formatted tuple, or if the reader
 	 * throws any exceptions.
+	 * @deprecated Use an {@link NTupleReader} instead, which does not need {@link #hasNextNTuple(Reader)}.
 	 */
+	@Deprecated
 	public static NTuple readTuple(Reader reader) throws IOException {
 		return readTuple(reader, false);
 	}
@@ -212,32 +231,7 @@ public class NTuple {
 	}
 
 	private static Number parseNumber(String token) {
-		Number number = null;
-		try {
-			number = Byte.parseByte(token);
-		} catch (NumberFormatException e1) {
-			try {
-				number = Short.parseShort(token);
-			} catch (NumberFormatException e2) {
-				try {
-					number = Integer.parseInt(token);
-				} catch (NumberFormatException e3) {
-					try {
-						number = Long.parseLong(token);
-					} catch (NumberFormatException e4) {
-						try {
-							number = Float.parseFloat(token);
-						} catch (NumberFormatException e5) {
-							try {
-								number = Double.parseDouble(token);
-							} catch (NumberFormatException e6) { /* do nothing */ }
-						}
-					}
-				}
-			}
-		}
-
-		return number;
+		return NTupleReader.parseNumber(token.toCharArray(), 0, token.length());
 	}
 
 	/**
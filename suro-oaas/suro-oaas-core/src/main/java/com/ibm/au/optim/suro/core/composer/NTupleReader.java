@@ -0,0 +1,462 @@
+package com.ibm.au.optim.suro.core.composer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the tuples of a set in a .dat file, e.g. <code>&lt;"11" "Cardiac Surgery" 4&gt; &lt;"12" "Cardiology" 2&gt;</code>,
+ * one at a time. The characters are read only once: there is no look ahead with mark and reset as in
+ * {@link NTuple#hasNextNTuple(Reader)}, and numbers are classified while they are read rather than by trying to parse
+ * them, so that reading a tuple never throws an exception unless the tuple is malformed.
+ *
+ * The elements of the tuples have the same types as the ones read by {@link NTuple#readTuple(Reader)}: strings without
+ * their double quotes, nested {@link NTuple}s, integers as the smallest of {@link Byte}, {@link Short}, {@link Integer}
+ * and {@link Long} they fit in, other numbers as {@link Float}, and any other token as a String.
+ *
+ * The reader stops at the first character that is neither whitespace nor the start of a tuple (e.g. the closing '}' of
+ * the set). As it reads the underlying reader in blocks, the underlying reader should not be used after it.
+ */
+public class NTupleReader implements Iterable<NTuple>, Closeable {
+
+	/**
+	 * The size of the blocks read from the underlying reader.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The number of digits from which a token might not fit in a long.
+	 */
+	private static final int MAX_LONG_DIGITS = 18;
+
+	/**
+	 * The reader to read the tuples from.
+	 */
+	private final Reader reader;
+
+	/**
+	 * The characters read from the reader.
+	 */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	/**
+	 * The position of the next character to read in the buffer.
+	 */
+	private int position;
+
+	/**
+	 * The number of characters in the buffer.
+	 */
+	private int limit;
+
+	/**
+	 * The characters of the current token.
+	 */
+	private char[] token = new char[64];
+
+	/**
+	 * Whether the reader reached the end of the tuples.
+	 */
+	private boolean done;
+
+	/**
+	 * Constructs a new instance of the NTupleReader class.
+	 * @param reader The reader to read the tuples from, positioned before the first tuple.
+	 */
+	public NTupleReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Reads the next tuple.
+	 * @return The next {@link NTuple}, or null if there are no more tuples.
+	 * @throws IOException If the tuple is malformed, or if the underlying reader fails.
+	 */
+	public NTuple readTuple() throws IOException {
+		if (done) {
+			return null;
+		}
+
+		int c = skipWhitespace();
+
+		if (c != '<') {
+			done = true;
+			return null;
+		}
+
+		++position;
+		return readElements();
+	}
+
+	/**
+	 * Gets an iterator over the remaining tuples, which are read as they are requested. As iterators cannot throw
+	 * {@link IOException}s, malformed tuples and failures of the underlying reader are thrown as
+	 * {@link IllegalStateException}s.
+	 * @return An {@link Iterator} of {@link NTuple}s.
+	 */
+	@Override
+	public Iterator<NTuple> iterator() {
+		return new Iterator<NTuple>() {
+
+			private NTuple next;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null) {
+					try {
+						next = readTuple();
+					} catch (IOException e) {
+						throw new IllegalStateException("Unable to read the next tuple.", e);
+					}
+				}
+
+				return next != null;
+			}
+
+			@Override
+			public NTuple next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				NTuple result = next;
+				next = null;
+				return result;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Closes the underlying reader.
+	 * @throws IOException If the underlying reader fails.
+	 */
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * Classifies and parses a number, without relying on {@link NumberFormatException}s.
+	 * @param chars The characters of the number.
+	 * @param offset The position of the first character.
+	 * @param length The number of characters.
+	 * @return The number as the smallest of {@link Byte}, {@link Short}, {@link Integer} and {@link Long} if it is an
+	 * integer that fits in a long, as a {@link Float} if it is any other decimal number, or null if it is not a number.
+	 */
+	static Number parseNumber(char[] chars, int offset, int length) {
+		if (length == 0) {
+			return null;
+		}
+
+		int end = offset + length;
+		int i = offset;
+		boolean negative = chars[i] == '-';
+
+		if (negative || chars[i] == '+') {
+			++i;
+		}
+
+		// integer: sign and digits only
+		int digitsStart = i;
+		long value = 0;
+
+		while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+			value = value * 10 + (chars[i] - '0');
+			++i;
+		}
+
+		int digits = i - digitsStart;
+
+		if (i == end && digits > 0) {
+			if (digits <= MAX_LONG_DIGITS) {
+				return box(negative ? -value : value);
+			}
+
+			// might overflow, hence let the parser check the range (only for numbers with 19 digits or more)
+			Long parsed = parseLong(new String(chars, offset, length));
+
+			if (parsed != null) {
+				return box(parsed);
+			}
+
+			return Float.parseFloat(new String(chars, offset, length));
+		}
+
+		return isDecimal(chars, offset, length) ? Float.parseFloat(new String(chars, offset, length)) : null;
+	}
+
+	/**
+	 * Reads the elements of a tuple, up to and including its closing bracket.
+	 * @return The {@link NTuple} read.
+	 * @throws IOException If the tuple is malformed, or if the underlying reader fails.
+	 */
+	private NTuple readElements() throws IOException {
+		List<Object> elements = new ArrayList<>();
+
+		while (true) {
+			int c = skipWhitespace();
+
+			switch (c) {
+				case -1:
+					throw new IOException("Badly formatted tuple: end of stream before the end of the tuple.");
+				case '>':
+					++position;
+					return new NTuple(elements.toArray());
+				case '<':
+					++position;
+					elements.add(readElements());
+					break;
+				case '"':
+					++position;
+					elements.add(readString());
+					break;
+				default:
+					elements.add(readToken());
+			}
+		}
+	}
+
+	/**
+	 * Reads a string, up to and including its closing double quote.
+	 * @return The string, without double quotes.
+	 * @throws IOException If the string is not terminated, or if the underlying reader fails.
+	 */
+	private String readString() throws IOException {
+		int length = 0;
+
+		while (true) {
+			if (position == limit && !fill()) {
+				throw new IOException("Badly formatted tuple: end of stream before the end of a string.");
+			}
+
+			char c = buffer[position++];
+
+			if (c == '"') {
+				return new String(token, 0, length);
+			}
+
+			length = append(length, c);
+		}
+	}
+
+	/**
+	 * Reads a token that is not a string, up to the next whitespace or bracket.
+	 * @return The token, as a {@link Number} if it is one, or as a String otherwise.
+	 * @throws IOException If the underlying reader fails.
+	 */
+	private Object readToken() throws IOException {
+		int length = 0;
+
+		while (position < limit || fill()) {
+			char c = buffer[position];
+
+			if (c == '<' || c == '>' || c == '"' || Character.isWhitespace(c)) {
+				break;
+			}
+
+			length = append(length, c);
+			++position;
+		}
+
+		Number number = parseNumber(token, 0, length);
+		return number == null ? new String(token, 0, length) : number;
+	}
+
+	/**
+	 * Skips whitespace, without consuming the following character.
+	 * @return The following character, or -1 if the end of the stream has been reached.
+	 * @throws IOException If the underlying reader fails.
+	 */
+	private int skipWhitespace() throws IOException {
+		while (position < limit || fill()) {
+			char c = buffer[position];
+
+			if (!Character.isWhitespace(c)) {
+				return c;
+			}
+
+			++position;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Appends a character to the current token, growing it if needed.
+	 * @param length The current length of the token.
+	 * @param c The character to append.
+	 * @return The new length of the token.
+	 */
+	private int append(int length, char c) {
+		if (length == token.length) {
+			char[] grown = new char[token.length * 2];
+			System.arraycopy(token, 0, grown, 0, length);
+			token = grown;
+		}
+
+		token[length] = c;
+		return length + 1;
+	}
+
+	/**
+	 * Reads the next block of characters from the underlying reader.
+	 * @return Whether any character has been read.
+	 * @throws IOException If the underlying reader fails.
+	 */
+	private boolean fill() throws IOException {
+		int read;
+
+		do {
+			read = reader.read(buffer, 0, buffer.length);
+		} while (read == 0);
+
+		position = 0;
+		limit = Math.max(read, 0);
+		return read > 0;
+	}
+
+	/**
+	 * Boxes an integer in the smallest type it fits in.
+	 * @param value The value to box.
+	 * @return A {@link Byte}, {@link Short}, {@link Integer} or {@link Long}.
+	 */
+	private static Number box(long value) {
+		if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			return (byte) value;
+		} else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			return (short) value;
+		} else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+			return (int) value;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Parses a long made of a sign and 19 digits or more, checking its range without exceptions.
+	 * @param token The token to parse.
+	 * @return The value, or null if it does not fit in a long.
+	 */
+	private static Long parseLong(String token) {
+		boolean negative = token.charAt(0) == '-';
+		int start = negative || token.charAt(0) == '+' ? 1 : 0;
+
+		// skip leading zeros
+		while (start < token.length() - 1 && token.charAt(start) == '0') {
+			++start;
+		}
+
+		String digits = token.substring(start);
+		String bound = negative ? "9223372036854775808" : "9223372036854775807";
+
+		if (digits.length() > bound.length() || (digits.length() == bound.length() && digits.compareTo(bound) > 0)) {
+			return null;
+		}
+
+		long value = 0;
+
+		for (int i = 0; i < digits.length(); ++i) {
+			// accumulate negatively, so that Long.MIN_VALUE does not overflow
+			value = value * 10 - (digits.charAt(i) - '0');
+		}
+
+		return negative ? value : -value;
+	}
+
+	/**
+	 * Checks whether a token is a decimal number accepted by {@link Float#parseFloat(String)}: an optional sign, digits
+	 * with an optional decimal point, an optional exponent and an optional type suffix, or NaN and Infinity.
+	 * @param chars The characters of the token.
+	 * @param offset The position of the first character.
+	 * @param length The number of characters.
+	 * @return Whether the token is a decimal number.
+	 */
+	private static boolean isDecimal(char[] chars, int offset, int length) {
+		int end = offset + length;
+		int i = offset;
+
+		if (chars[i] == '-' || chars[i] == '+') {
+			++i;
+		}
+
+		if (matches(chars, i, end, "NaN") || matches(chars, i, end, "Infinity")) {
+			return true;
+		}
+
+		int digits = 0;
+
+		while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+			++i;
+			++digits;
+		}
+
+		if (i < end && chars[i] == '.') {
+			++i;
+
+			while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+				++i;
+				++digits;
+			}
+		}
+
+		if (digits == 0) {
+			return false;
+		}
+
+		if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+			++i;
+
+			if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+				++i;
+			}
+
+			int exponentDigits = 0;
+
+			while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+				++i;
+				++exponentDigits;
+			}
+
+			if (exponentDigits == 0) {
+				return false;
+			}
+		}
+
+		if (i < end && (chars[i] == 'f' || chars[i] == 'F' || chars[i] == 'd' || chars[i] == 'D')) {
+			++i;
+		}
+
+		return i == end;
+	}
+
+	/**
+	 * Checks whether the characters from a position to the end are the given word.
+	 * @param chars The characters.
+	 * @param start The first position.
+	 * @param end The position after the last character.
+	 * @param word The word to match.
+	 * @return Whether the characters match the word.
+	 */
+	private static boolean matches(char[] chars, int start, int end, String word) {
+		if (end - start != word.length()) {
+			return false;
+		}
+
+		for (int i = 0; i < word.length(); ++i) {
+			if (chars[start + i] != word.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
@@ -5,27 +5,49 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.au.optim.suro.core.composer.components.InputComponent;
 import com.ibm.au.optim.suro.core.composer.components.HospitalInputComponent;
 import com.ibm.au.optim.suro.core.composer.components.TemporalInputComponent;
+import com.ibm.au.optim.suro.model.entities.domain.Hospital;
 import com.ibm.au.jaws.data.utils.ReflectionUtils;
 import com.ibm.au.jaws.web.core.runtime.Environment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Coordinates the creation and running of InputComponents, and uses them to generate the input file required by the
  * cplex mod file.
  *
+ * The values of the components are constructed in parallel, on at most {@link #getParallelism()} threads, as each
+ * component retrieves its data independently (mostly by querying the database). The data is read through a
+ * {@link CompositionContext} created for each composition, so that data needed by several components (e.g. the hospital)
+ * is only read once. The sections that only depend on the hospital are rendered once per revision of the hospital and
+ * kept in the {@link FragmentCache} shared through the environment. The sections are written in the order defined by
+ * the specification, once all the components are done.
+ *
  * @author brendanhaesler
  */
 public class RunInputComposer {
 
+	/**
+	 * The default maximum number of components constructing their values at the same time.
+	 */
+	public static final int DEFAULT_PARALLELISM = 4;
+
 	/**
 	 * Logger to log events that occur in this class.
 	 */
@@ -61,6 +83,16 @@ public class RunInputComposer {
 	 */
 	private long timeTo;
 
+	/**
+	 * The maximum number of components constructing their values at the same time.
+	 */
+	private int parallelism = DEFAULT_PARALLELISM;
+
+	/**
+	 * The context of the last composition.
+	 */
+	private CompositionContext context;
+
 	/**
 	 * Constructs a default instance of the RunInputComposer class.
 	 */
@@ -87,10 +119,13 @@ public class RunInputComposer {
 		// create component writers
 		createComponentWriters(specifications);
 
-		// for each component
-		for (InputComponent component : components) {
-			// create the values to be written. TODO: Multi-thread this to group DB access costs
-			component.constructValues(environment);
+		// create the values to be written
+		try {
+			constructValues();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.error("Interrupted while constructing the input values.", e);
+			return false;
 		}
 
 		// write the sections
@@ -104,6 +139,32 @@ public class RunInputComposer {
 		return true;
 	}
 
+	/**
+	 * Gets the context of the last composition, which holds the number of data requests served from the data read
+	 * by other components (hits) and the number of requests that had to read it (misses).
+	 * @return The {@link CompositionContext} of the last composition, or null if no composition has been done yet.
+	 */
+	public CompositionContext getContext() {
+		return context;
+	}
+
+	/**
+	 * Gets the maximum number of components constructing their values at the same time.
+	 * @return The maximum number of threads used to construct the values.
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the maximum number of components constructing their values at the same time.
+	 * @param parallelism The maximum number of threads used to construct the values, 1 or lower to construct them in
+	 *                    the calling thread.
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
 	/**
 	 * Gets the environment.
 	 * @return The environment.
@@ -236,6 +297,189 @@ public class RunInputComposer {
 		}
 	}
 
+	/**
+	 * Constructs the values of all the InputComponents, in parallel if more than one thread is allowed. If any
+	 * component fails, the remaining ones are cancelled and the failure of the first component (in specification
+	 * order) is thrown.
+	 * @throws InterruptedException If the thread is interrupted while waiting for the components.
+	 */
+	protected void constructValues() throws InterruptedException {
+		final CompositionContext context = new CompositionContext(environment);
+		this.context = context;
+
+		try {
+			constructValues(context);
+		} finally {
+			LOGGER.debug("Input values constructed, data requests served by the composition context: " + context.getHits() +
+							" hits, " + context.getMisses() + " misses.");
+		}
+	}
+
+	/**
+	 * Constructs the values of all the InputComponents with the given context. The values of the sections that only
+	 * depend on the hospital are taken from the {@link FragmentCache} when it holds them for the current revision of the
+	 * hospital, and stored in it otherwise.
+	 * @param context The context of the composition.
+	 * @throws InterruptedException If the thread is interrupted while waiting for the components.
+	 */
+	private void constructValues(final CompositionContext context) throws InterruptedException {
+		Hospital hospital = hospitalId == null || environment == null ? null : context.getHospital(hospitalId);
+		String revision = hospital == null ? null : hospital.getRevision();
+		FragmentCache fragments = revision == null ? null : FragmentCache.getInstance(environment);
+
+		// components with cached sections: the ones entirely cached are not constructed at all
+		List<InputComponent> pending = new ArrayList<>();
+		Map<InputComponent, List<String>> cached = new IdentityHashMap<>();
+
+		for (InputComponent component : components) {
+			List<String> values = fragments == null || !hasTimeIndependentSections(component) ? null :
+							fragments.get(hospitalId, revision, component.getSpecification());
+
+			if (values != null) {
+				if (restoreSections(component, values)) {
+					continue;
+				}
+				cached.put(component, values);
+			}
+			pending.add(component);
+		}
+
+		constructValues(context, pending);
+
+		if (fragments != null) {
+			for (InputComponent component : pending) {
+				List<String> values = cached.get(component);
+
+				if (values != null) {
+					restoreSections(component, values);
+				} else if (hasTimeIndependentSections(component)) {
+					fragments.put(hospitalId, revision, component.getSpecification(), renderSections(component));
+				}
+			}
+
+			LOGGER.debug("Input sections served by the fragment cache: " + fragments.getHits() + " hits, " +
+							fragments.getMisses() + " misses.");
+		}
+	}
+
+	/**
+	 * Checks whether a component has any section that does not depend on the time window of the run.
+	 * @param component The component to check.
+	 * @return True if the values of some of its sections can be kept by the {@link FragmentCache}.
+	 */
+	private static boolean hasTimeIndependentSections(InputComponent component) {
+		if (component.getSpecification() == null) {
+			return false;
+		}
+
+		for (int i = 0; i < component.getSections().size(); ++i) {
+			if (component.isTimeIndependent(i)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Sets the cached values of the time independent sections of a component.
+	 * @param component The component to set the values of.
+	 * @param values The cached values, by section index.
+	 * @return True if all the sections of the component have been set.
+	 */
+	private static boolean restoreSections(InputComponent component, List<String> values) {
+		boolean complete = true;
+
+		for (int i = 0; i < component.getSections().size(); ++i) {
+			if (component.isTimeIndependent(i) && i < values.size()) {
+				component.setSectionValue(i, values.get(i));
+			} else {
+				complete = false;
+			}
+		}
+
+		return complete;
+	}
+
+	/**
+	 * Renders the time independent sections of a component, so that they can be cached. The rendered values are also set
+	 * on the sections, so that they are not rendered again when the sections are written.
+	 * @param component The component to render the sections of.
+	 * @return The rendered values by section index, null for the sections that depend on the time window.
+	 */
+	private static List<String> renderSections(InputComponent component) {
+		List<String> values = new ArrayList<>();
+
+		for (int i = 0; i < component.getSections().size(); ++i) {
+			String value = null;
+
+			if (component.isTimeIndependent(i)) {
+				value = component.getSections().get(i).getValue();
+				component.setSectionValue(i, value);
+			}
+			values.add(value);
+		}
+
+		return values;
+	}
+
+	/**
+	 * Constructs the values of the given InputComponents with the given context.
+	 * @param context The context of the composition.
+	 * @param components The components to construct the values of.
+	 * @throws InterruptedException If the thread is interrupted while waiting for the components.
+	 */
+	private void constructValues(final CompositionContext context, List<InputComponent> components) throws InterruptedException {
+		int threads = Math.min(parallelism, components.size());
+
+		if (threads <= 1) {
+			for (InputComponent component : components) {
+				component.constructValues(context);
+			}
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "suro-input-composer-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (final InputComponent component : components) {
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						component.constructValues(context);
+					}
+				}));
+			}
+
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					} else if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw new IllegalStateException(cause);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	/**
 	 * Orders and writes the {@link InputSection}s of the InputComponents.
 	 * @param writer The writer to use to write the sections with.
@@ -253,10 +497,15 @@ public class RunInputComposer {
 			}
 		}
 
-		// write the sections
+		// write the sections, straight to the writer
+		BufferedWriter buffer = new BufferedWriter(writer);
+		SectionWriter sectionWriter = new SectionWriter(buffer);
+
 		for (InputSection section : sections.values()) {
-			writer.write(section.toString());
-			writer.write("\n");
+			section.write(sectionWriter);
+			buffer.write("\n");
 		}
+
+		buffer.flush();
 	}
 }
@@ -0,0 +1,17 @@
+package com.ibm.au.optim.suro.core.composer;
+
+import java.io.IOException;
+
+/**
+ * The value of an {@link InputSection} written when the input file is composed, rather than built in advance. It
+ * allows components to keep only the data of their sections and write it straight to the output.
+ */
+public interface SectionValue {
+
+	/**
+	 * Writes the value.
+	 * @param writer The writer to write the value with.
+	 * @throws IOException If the value cannot be written.
+	 */
+	void write(SectionWriter writer) throws IOException;
+}
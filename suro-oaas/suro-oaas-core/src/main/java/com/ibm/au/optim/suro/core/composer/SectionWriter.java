@@ -0,0 +1,300 @@
+package com.ibm.au.optim.suro.core.composer;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the values of {@link InputSection}s in the format of the .dat files expected by cplex, straight to a
+ * {@link Writer}. Sets, tuples and arrays are opened and closed explicitly and their elements written one by one, so
+ * that a section never needs to be held in memory as a whole, nor any tuple to be turned into a String first.
+ *
+ * Tuples and arrays written directly inside a set (or at the top level) are followed by a new line, the elements of a
+ * tuple or array are separated by a space. The output is the same as the one of {@link NTuple#toString()}:
+ * <pre>
+ * writer.beginSet();
+ * writer.beginTuple().value("S01").value(1).beginTuple().value("D01").endTuple().endTuple();
+ * writer.endSet();
+ * </pre>
+ * writes <code>{\n&lt;"S01" 1 &lt;"D01"&gt;&gt;\n}</code>.
+ *
+ * The writer does not buffer the output, hence it should be given a buffered {@link Writer} for large sections.
+ */
+public class SectionWriter {
+
+	/**
+	 * The writer to write the values to.
+	 */
+	private final Writer writer;
+
+	/**
+	 * Buffer used to encode integers without creating a String for each of them. Large enough for Long.MIN_VALUE.
+	 */
+	private final char[] digits = new char[20];
+
+	/**
+	 * The number of tuples and arrays currently open.
+	 */
+	private int depth;
+
+	/**
+	 * Whether the next element needs to be separated from the previous one.
+	 */
+	private boolean separate;
+
+	/**
+	 * Constructs a new instance of the SectionWriter class.
+	 * @param writer The writer to write the values to.
+	 */
+	public SectionWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Opens a set.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter beginSet() throws IOException {
+		writer.write("{\n");
+		separate = false;
+		return this;
+	}
+
+	/**
+	 * Closes the current set.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter endSet() throws IOException {
+		writer.write('}');
+		separate = false;
+		return this;
+	}
+
+	/**
+	 * Opens a tuple, nested in the current one if any.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter beginTuple() throws IOException {
+		return begin('<');
+	}
+
+	/**
+	 * Closes the current tuple.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter endTuple() throws IOException {
+		return end('>');
+	}
+
+	/**
+	 * Opens an array, nested in the current tuple or array if any.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter beginArray() throws IOException {
+		return begin('[');
+	}
+
+	/**
+	 * Closes the current array.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter endArray() throws IOException {
+		return end(']');
+	}
+
+	/**
+	 * Writes a string element, in double quotes.
+	 * @param value The value to write. A null value is written as null, without quotes.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter value(String value) throws IOException {
+		separate();
+
+		if (value == null) {
+			writer.write("null");
+		} else {
+			writer.write('"');
+			writer.write(value);
+			writer.write('"');
+		}
+
+		return this;
+	}
+
+	/**
+	 * Writes an integer element.
+	 * @param value The value to write.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter value(int value) throws IOException {
+		return value((long) value);
+	}
+
+	/**
+	 * Writes a long element.
+	 * @param value The value to write.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter value(long value) throws IOException {
+		separate();
+
+		if (value == Long.MIN_VALUE) {
+			// cannot be negated
+			writer.write(Long.toString(value));
+			return this;
+		}
+
+		long remaining = value < 0 ? -value : value;
+		int start = digits.length;
+
+		do {
+			digits[--start] = (char) ('0' + (remaining % 10));
+			remaining /= 10;
+		} while (remaining != 0);
+
+		if (value < 0) {
+			digits[--start] = '-';
+		}
+
+		writer.write(digits, start, digits.length - start);
+		return this;
+	}
+
+	/**
+	 * Writes a float element.
+	 * @param value The value to write.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter value(float value) throws IOException {
+		separate();
+		writer.write(Float.toString(value));
+		return this;
+	}
+
+	/**
+	 * Writes a double element.
+	 * @param value The value to write.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter value(double value) throws IOException {
+		separate();
+		writer.write(Double.toString(value));
+		return this;
+	}
+
+	/**
+	 * Writes an element of any type, the same way {@link NTuple#toString()} would: strings are written in double quotes,
+	 * {@link NTuple}s as nested tuples, and any other object as its String representation.
+	 * @param value The value to write.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter value(Object value) throws IOException {
+		if (value instanceof String) {
+			return value((String) value);
+		} else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+			return value(((Number) value).longValue());
+		} else if (value instanceof NTuple) {
+			return tuple(((NTuple) value).getElements());
+		}
+
+		separate();
+		writer.write(String.valueOf(value));
+		return this;
+	}
+
+	/**
+	 * Writes a tuple made of the given elements.
+	 * @param elements The elements of the tuple, written as {@link #value(Object)} does.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter tuple(Object... elements) throws IOException {
+		beginTuple();
+
+		for (Object element : elements) {
+			value(element);
+		}
+
+		return endTuple();
+	}
+
+	/**
+	 * Writes a value as is, e.g. a value provided by the specification. It is not separated from the previous element.
+	 * @param value The value to write. A null value is written as null.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public SectionWriter write(String value) throws IOException {
+		writer.write(value == null ? "null" : value);
+		separate = false;
+		return this;
+	}
+
+	/**
+	 * Flushes the underlying writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	/**
+	 * Opens a tuple or an array.
+	 * @param bracket The opening bracket.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	private SectionWriter begin(char bracket) throws IOException {
+		separate();
+		writer.write(bracket);
+		++depth;
+		separate = false;
+		return this;
+	}
+
+	/**
+	 * Closes a tuple or an array, ending the line if it is not nested.
+	 * @param bracket The closing bracket.
+	 * @return This writer.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	private SectionWriter end(char bracket) throws IOException {
+		if (depth == 0) {
+			throw new IllegalStateException("No tuple or array to close.");
+		}
+
+		writer.write(bracket);
+
+		if (--depth == 0) {
+			writer.write('\n');
+			separate = false;
+		} else {
+			separate = true;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Writes the separator before an element, if needed.
+	 * @throws IOException If the underlying writer fails.
+	 */
+	private void separate() throws IOException {
+		if (separate) {
+			writer.write(' ');
+		}
+
+		separate = true;
+	}
+}
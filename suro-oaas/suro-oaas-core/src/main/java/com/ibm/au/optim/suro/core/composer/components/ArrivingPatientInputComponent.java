@@ -1,10 +1,12 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
-import com.ibm.au.optim.suro.core.composer.NTuple;
+import com.ibm.au.optim.suro.core.composer.CompositionContext;
+import com.ibm.au.optim.suro.core.composer.SectionValue;
+import com.ibm.au.optim.suro.core.composer.SectionWriter;
 import com.ibm.au.optim.suro.model.control.domain.learning.MachineLearningController;
 import com.ibm.au.optim.suro.model.entities.domain.learning.ArrivingPatient;
-import com.ibm.au.jaws.web.core.runtime.Environment;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -23,16 +25,12 @@ public class ArrivingPatientInputComponent extends TemporalInputComponent {
 	/**
 	 * Retrieves information from the {@link MachineLearningController} about predicted arriving patients and sets it to
 	 * the {@link com.ibm.au.optim.suro.core.composer.InputSection}.
-	 * @param environment The environment holding information required to construct values.
+	 * @param context The context of the composition, holding the data required to construct values.
 	 */
 	@Override
-	public void constructValues(Environment environment) {
-		// get the machine learning controller
-		MachineLearningController machineLearningController =	(MachineLearningController) environment.getAttribute(
-						MachineLearningController.MACHINE_LEARNING_CONTROLLER_INSTANCE);
-
+	public void constructValues(CompositionContext context) {
 		// get the arriving patients
-		List<ArrivingPatient> patients = machineLearningController.getArrivingPatients(this.getTimeFrom(), this.getTimeTo());
+		List<ArrivingPatient> patients = context.getArrivingPatients(this.getTimeFrom(), this.getTimeTo());
 
 		// construct the arriving patients value
 		constructArrivingPatientValue(patients);
@@ -42,20 +40,22 @@ public class ArrivingPatientInputComponent extends TemporalInputComponent {
 	 * Helper method to format the arriving patient data.
 	 * @param patients A {@link List} of {@link ArrivingPatient}s.
 	 */
-	private void constructArrivingPatientValue(List<ArrivingPatient> patients) {
-		StringBuilder value = new StringBuilder("{\n");
-
-		for (ArrivingPatient patient : patients) {
-			NTuple tuple = new NTuple(patient.getSurgeryClusterId(),
-							(int) ((patient.getArrivalTime() - this.getTimeFrom()) / MS_IN_DAY) + 1,
-							patient.getNumPatients());
-
-			value.append(tuple.toString())
-							.append("\n");
-		}
-
-		value.append("}");
-
-		this.setSectionValue(ARRIVING_PATIENT_INFO_INDEX, value.toString());
+	private void constructArrivingPatientValue(final List<ArrivingPatient> patients) {
+		this.setSectionValue(ARRIVING_PATIENT_INFO_INDEX, new SectionValue() {
+			@Override
+			public void write(SectionWriter writer) throws IOException {
+				writer.beginSet();
+
+				for (ArrivingPatient patient : patients) {
+					writer.beginTuple()
+									.value(patient.getSurgeryClusterId())
+									.value((int) ((patient.getArrivalTime() - getTimeFrom()) / MS_IN_DAY) + 1)
+									.value(patient.getNumPatients())
+									.endTuple();
+				}
+
+				writer.endSet();
+			}
+		});
 	}
 }
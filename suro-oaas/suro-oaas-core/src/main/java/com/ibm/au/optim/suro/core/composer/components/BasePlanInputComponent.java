@@ -1,10 +1,12 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
-import com.ibm.au.optim.suro.core.composer.NTuple;
+import com.ibm.au.optim.suro.core.composer.CompositionContext;
+import com.ibm.au.optim.suro.core.composer.SectionValue;
+import com.ibm.au.optim.suro.core.composer.SectionWriter;
 import com.ibm.au.optim.suro.model.control.domain.ingestion.IngestionController;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.BasePlanEntry;
-import com.ibm.au.jaws.web.core.runtime.Environment;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -22,17 +24,13 @@ public class BasePlanInputComponent extends TemporalInputComponent {
 	/**
 	 * Retrieves information from the {@link IngestionController} about the base plan and sets it to
 	 * the {@link com.ibm.au.optim.suro.core.composer.InputSection}.
-	 * @param environment The environment holding information required to construct values.
+	 * @param context The context of the composition, holding the data required to construct values.
 	 */
 	@Override
-	public void constructValues(Environment environment) {
-		// get the ingestion controller
-		IngestionController ingestionController =
-						(IngestionController) environment.getAttribute(IngestionController.INGESTION_CONTROLLER_INSTANCE);
-
+	public void constructValues(CompositionContext context) {
 		// get base plan
 		List<BasePlanEntry> basePlanEntries =
-						ingestionController.getLatestRecordBeforeTime(BasePlanEntry.class, getTimeFrom());
+						context.getLatestRecordBeforeTime(BasePlanEntry.class, getTimeFrom());
 
 		// create base plan value
 		constructBasePlanValue(basePlanEntries);
@@ -42,21 +40,23 @@ public class BasePlanInputComponent extends TemporalInputComponent {
 	 * Helper method to format the base plan data.
 	 * @param basePlanEntries A {@link List} of {@link BasePlanEntry} objects.
 	 */
-	private void constructBasePlanValue(List<BasePlanEntry> basePlanEntries) {
-		StringBuilder value = new StringBuilder("{\n");
-
-		// for each availability
-		for (BasePlanEntry basePlan : basePlanEntries) {
-			NTuple tuple = new NTuple(new NTuple(basePlan.getSpecialistTypeId()),
-							basePlan.getDay(),
-							basePlan.getNumSessions());
-
-			value.append(tuple.toString())
-							.append("\n");
-		}
-
-		value.append("}");
-
-		this.setSectionValue(BASE_PLAN_INDEX, value.toString());
+	private void constructBasePlanValue(final List<BasePlanEntry> basePlanEntries) {
+		this.setSectionValue(BASE_PLAN_INDEX, new SectionValue() {
+			@Override
+			public void write(SectionWriter writer) throws IOException {
+				writer.beginSet();
+
+				// for each availability
+				for (BasePlanEntry basePlan : basePlanEntries) {
+					writer.beginTuple()
+									.beginTuple().value(basePlan.getSpecialistTypeId()).endTuple()
+									.value(basePlan.getDay())
+									.value(basePlan.getNumSessions())
+									.endTuple();
+				}
+
+				writer.endSet();
+			}
+		});
 	}
 }
@@ -1,11 +1,13 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
-import com.ibm.au.optim.suro.core.composer.NTuple;
+import com.ibm.au.optim.suro.core.composer.CompositionContext;
+import com.ibm.au.optim.suro.core.composer.SectionValue;
+import com.ibm.au.optim.suro.core.composer.SectionWriter;
 import com.ibm.au.optim.suro.model.control.domain.HospitalController;
 import com.ibm.au.optim.suro.model.entities.domain.Department;
 import com.ibm.au.optim.suro.model.entities.domain.Hospital;
-import com.ibm.au.jaws.web.core.runtime.Environment;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -23,14 +25,12 @@ public class DepartmentInputComponent extends HospitalInputComponent {
 	/**
 	 * Retrieves information from the {@link HospitalController} about departments and sets it to
 	 * the {@link com.ibm.au.optim.suro.core.composer.InputSection}.
-	 * @param environment The environment holding information required to construct values.
+	 * @param context The context of the composition, holding the data required to construct values.
 	 */
 	@Override
-	public void constructValues(Environment environment) {
+	public void constructValues(CompositionContext context) {
 		// Get the hospital
-		HospitalController hospitalController =
-						(HospitalController) environment.getAttribute(HospitalController.HOSPITAL_CONTROLLER_INSTANCE);
-		Hospital hospital = hospitalController.getHospital(this.getHospitalId());
+		Hospital hospital = context.getHospital(this.getHospitalId());
 
 		if (hospital == null) {
 			return;
@@ -43,22 +43,36 @@ public class DepartmentInputComponent extends HospitalInputComponent {
 		constructDepartmentValue(departments);
 	}
 
+	/**
+	 * The {@link com.ibm.au.optim.suro.core.composer.InputSection}s only depend on the departments of the hospital.
+	 * @param index The index of the InputSection.
+	 * @return True.
+	 */
+	@Override
+	public boolean isTimeIndependent(int index) {
+		return true;
+	}
+
 	/**
 	 * Helper method to format the department data.
 	 * @param departments A {@link List} of {@link Department}s.
 	 */
-	private void constructDepartmentValue(List<Department> departments) {
-		StringBuilder value = new StringBuilder("{\n");
-
-		for (Department department : departments) {
-			NTuple tuple = new NTuple(department.getId(), department.getName(), department.getMaxSimultaneousSessions());
-
-			value.append(tuple.toString())
-							.append("\n");
-		}
+	private void constructDepartmentValue(final List<Department> departments) {
+		this.setSectionValue(DEPARTMENT_INFO_INDEX, new SectionValue() {
+			@Override
+			public void write(SectionWriter writer) throws IOException {
+				writer.beginSet();
 
-		value.append("}");
+				for (Department department : departments) {
+					writer.beginTuple()
+									.value(department.getId())
+									.value(department.getName())
+									.value(department.getMaxSimultaneousSessions())
+									.endTuple();
+				}
 
-		this.setSectionValue(DEPARTMENT_INFO_INDEX, value.toString());
+				writer.endSet();
+			}
+		});
 	}
 }
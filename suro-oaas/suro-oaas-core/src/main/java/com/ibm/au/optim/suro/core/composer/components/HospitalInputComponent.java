@@ -1,5 +1,8 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
+import com.ibm.au.jaws.web.core.runtime.Environment;
+import com.ibm.au.optim.suro.core.composer.CompositionContext;
+
 /**
  * A sub class of {@link InputComponent} for components which need to access the
  * {@link com.ibm.au.optim.suro.model.control.domain.HospitalController}.
@@ -13,6 +16,22 @@ public abstract class HospitalInputComponent extends InputComponent {
 	 */
 	private String hospitalId;
 
+	/**
+	 * Constructs the values with a context of its own, hence without sharing the data with any other component.
+	 * @param environment The environment holding information required to construct values.
+	 */
+	@Override
+	public void constructValues(Environment environment) {
+		constructValues(new CompositionContext(environment));
+	}
+
+	/**
+	 * Constructs the values of each input section this component defines.
+	 * @param context The context of the composition, holding the data required to construct values.
+	 */
+	@Override
+	public abstract void constructValues(CompositionContext context);
+
 	/**
 	 * Gets the hospital ID.
 	 * @return The hospital ID.
@@ -1,10 +1,12 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
-import com.ibm.au.optim.suro.core.composer.NTuple;
+import com.ibm.au.optim.suro.core.composer.CompositionContext;
+import com.ibm.au.optim.suro.core.composer.SectionValue;
+import com.ibm.au.optim.suro.core.composer.SectionWriter;
 import com.ibm.au.optim.suro.model.control.domain.learning.MachineLearningController;
 import com.ibm.au.optim.suro.model.entities.domain.learning.InitialPatient;
-import com.ibm.au.jaws.web.core.runtime.Environment;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -22,16 +24,12 @@ public class InitialPatientInputComponent extends TemporalInputComponent {
 	/**
 	 * Retrieves information from the {@link MachineLearningController} about initial patients and sets it to
 	 * the {@link com.ibm.au.optim.suro.core.composer.InputSection}.
-	 * @param environment The environment holding information required to construct values.
+	 * @param context The context of the composition, holding the data required to construct values.
 	 */
 	@Override
-	public void constructValues(Environment environment) {
-		// get the machine learning controller
-		MachineLearningController machineLearningController =	(MachineLearningController) environment.getAttribute(
-						MachineLearningController.MACHINE_LEARNING_CONTROLLER_INSTANCE);
-
+	public void constructValues(CompositionContext context) {
 		// get the arriving patients
-		List<InitialPatient> patients = machineLearningController.getInitialPatients(this.getTimeFrom());
+		List<InitialPatient> patients = context.getInitialPatients(this.getTimeFrom());
 
 		// construct the arriving patients value
 		constructArrivingPatientValue(patients);
@@ -41,18 +39,22 @@ public class InitialPatientInputComponent extends TemporalInputComponent {
 	 * Helper method to format the initial patient data.
 	 * @param patients A {@link List} of {@link InitialPatient}s.
 	 */
-	private void constructArrivingPatientValue(List<InitialPatient> patients) {
-		StringBuilder value = new StringBuilder("{\n");
-
-		for (InitialPatient patient : patients) {
-			NTuple tuple = new NTuple(patient.getSurgeryClusterId(), patient.getDaysRemaining(),	patient.getNumPatients());
-
-			value.append(tuple.toString())
-							.append("\n");
-		}
-
-		value.append("}");
-
-		this.setSectionValue(INITIAL_PATIENT_INFO_INDEX, value.toString());
+	private void constructArrivingPatientValue(final List<InitialPatient> patients) {
+		this.setSectionValue(INITIAL_PATIENT_INFO_INDEX, new SectionValue() {
+			@Override
+			public void write(SectionWriter writer) throws IOException {
+				writer.beginSet();
+
+				for (InitialPatient patient : patients) {
+					writer.beginTuple()
+									.value(patient.getSurgeryClusterId())
+									.value(patient.getDaysRemaining())
+									.value(patient.getNumPatients())
+									.endTuple();
+				}
+
+				writer.endSet();
+			}
+		});
 	}
 }
@@ -1,7 +1,9 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
+import com.ibm.au.optim.suro.core.composer.CompositionContext;
 import com.ibm.au.optim.suro.core.composer.InputComponentSpecification;
 import com.ibm.au.optim.suro.core.composer.InputSection;
+import com.ibm.au.optim.suro.core.composer.SectionValue;
 import com.ibm.au.jaws.web.core.runtime.Environment;
 
 import java.util.ArrayList;
@@ -26,6 +28,11 @@ public abstract class InputComponent {
 	 */
 	private Map<String, String> metadata;
 
+	/**
+	 * The specification this InputComponent has been created from.
+	 */
+	private InputComponentSpecification specification;
+
 	/**
 	 * Constructs a default instance of the InputComponent class.
 	 */
@@ -39,6 +46,16 @@ public abstract class InputComponent {
 	 */
 	public abstract void constructValues(Environment environment);
 
+	/**
+	 * Constructs the values of each input section this component defines, reading the data it needs through the
+	 * context of the composition, so that it is shared with the other components. By default, it constructs the
+	 * values from the environment of the context.
+	 * @param context The context of the composition, holding the data required to construct values.
+	 */
+	public void constructValues(CompositionContext context) {
+		constructValues(context.getEnvironment());
+	}
+
 	/**
 	 * Reads the specification to create InputSections and metadata.
 	 * @param specification The specification holding information about this component.
@@ -51,6 +68,27 @@ public abstract class InputComponent {
 		}
 
 		metadata = specification.getMetadata();
+		this.specification = specification;
+	}
+
+	/**
+	 * Gets the specification this component has been created from.
+	 * @return The {@link InputComponentSpecification}, or null if the component has not read any.
+	 */
+	public InputComponentSpecification getSpecification() {
+		return specification;
+	}
+
+	/**
+	 * Indicates whether the value of an InputSection only depends on the specification of this component and on the
+	 * configuration of the hospital, and not on the time window of the run. Such values are kept by the
+	 * {@link com.ibm.au.optim.suro.core.composer.FragmentCache} and reused by the following compositions for the same
+	 * revision of the hospital.
+	 * @param index The index of the InputSection.
+	 * @return False by default.
+	 */
+	public boolean isTimeIndependent(int index) {
+		return false;
 	}
 
 	/**
@@ -68,6 +106,21 @@ public abstract class InputComponent {
 		return true;
 	}
 
+	/**
+	 * Sets the value of a specific InputSection this component defines, to be written when the input file is composed.
+	 * @param index The index of the InputSection to be modified.
+	 * @param value The value to set to the InputSection.
+	 * @return A value indicating whether the InputSection exists.
+	 */
+	public boolean setSectionValue(int index, SectionValue value) {
+		if (index < 0 || index >= sections.size()) {
+			return false;
+		}
+
+		sections.get(index).setValue(value);
+		return true;
+	}
+
 	/**
 	 * Gets the InputSections.
 	 * @return A {@link List} of {@link InputSection} objects.
@@ -1,10 +1,14 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
-import com.ibm.au.jaws.web.core.runtime.Environment;
+import com.ibm.au.optim.suro.core.composer.CompositionContext;
+import com.ibm.au.optim.suro.core.composer.SectionValue;
+import com.ibm.au.optim.suro.core.composer.SectionWriter;
 import com.ibm.au.optim.suro.model.control.domain.HospitalController;
 import com.ibm.au.optim.suro.model.entities.domain.Hospital;
 import com.ibm.au.optim.suro.model.entities.domain.UrgencyCategory;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -24,20 +28,19 @@ public class MaxWaitInputComponent extends HospitalInputComponent {
 	/**
 	 * Retrieves information from the {@link HospitalController} about urgency categories and sets it to
 	 * the {@link com.ibm.au.optim.suro.core.composer.InputSection}.
-	 * @param environment The environment holding information required to construct values.
+	 * @param context The context of the composition, holding the data required to construct values.
 	 */
 	@Override
-	public void constructValues(Environment environment) {
+	public void constructValues(CompositionContext context) {
 		// get the urgency categories
-		HospitalController hospitalController =
-						(HospitalController) environment.getAttribute(HospitalController.HOSPITAL_CONTROLLER_INSTANCE);
-		Hospital hospital = hospitalController.getHospital(this.getHospitalId());
+		Hospital hospital = context.getHospital(this.getHospitalId());
 
 		if (hospital == null) {
 			return;
 		}
 
-		List<UrgencyCategory> urgencyCategories = hospital.getUrgencyCategories();
+		// the hospital is shared with the other components, hence the categories are sorted in a copy
+		final List<UrgencyCategory> urgencyCategories = new ArrayList<>(hospital.getUrgencyCategories());
 
 		// sort the categories by the max wait (this assumes that max waits coincide with category importance)
 		Collections.sort(urgencyCategories, new Comparator<UrgencyCategory>() {
@@ -47,19 +50,27 @@ public class MaxWaitInputComponent extends HospitalInputComponent {
 			}
 		});
 
-		// build the value
-		StringBuilder value = new StringBuilder("{\n[");
+		this.setSectionValue(MAX_WAIT_INDEX, new SectionValue() {
+			@Override
+			public void write(SectionWriter writer) throws IOException {
+				writer.beginSet().beginArray();
 
-		for (int i = 0; i < urgencyCategories.size(); ++i) {
-			value.append(urgencyCategories.get(i).getMaxWaitListStay());
+				for (UrgencyCategory urgencyCategory : urgencyCategories) {
+					writer.value(urgencyCategory.getMaxWaitListStay());
+				}
 
-			if (i + 1 < urgencyCategories.size()) {
-				value.append(" ");
+				writer.endArray().endSet();
 			}
-		}
-
-		value.append("]\n}");
+		});
+	}
 
-		this.setSectionValue(MAX_WAIT_INDEX, value.toString());
+	/**
+	 * The {@link com.ibm.au.optim.suro.core.composer.InputSection}s only depend on the urgency categories of the hospital.
+	 * @param index The index of the InputSection.
+	 * @return True.
+	 */
+	@Override
+	public boolean isTimeIndependent(int index) {
+		return true;
 	}
 }
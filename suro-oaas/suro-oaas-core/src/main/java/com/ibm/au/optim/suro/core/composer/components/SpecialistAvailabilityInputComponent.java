@@ -1,10 +1,12 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
-import com.ibm.au.optim.suro.core.composer.NTuple;
+import com.ibm.au.optim.suro.core.composer.CompositionContext;
+import com.ibm.au.optim.suro.core.composer.SectionValue;
+import com.ibm.au.optim.suro.core.composer.SectionWriter;
 import com.ibm.au.optim.suro.model.control.domain.ingestion.IngestionController;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.SpecialistAvailability;
-import com.ibm.au.jaws.web.core.runtime.Environment;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -24,18 +26,13 @@ public class SpecialistAvailabilityInputComponent extends TemporalInputComponent
 	/**
 	 * Retrieves information from the {@link IngestionController} about specialist availabilities and sets it to
 	 * the {@link com.ibm.au.optim.suro.core.composer.InputSection}.
-	 * @param environment The environment holding information required to construct values.
+	 * @param context The context of the composition, holding the data required to construct values.
 	 */
 	@Override
-	public void constructValues(Environment environment) {
-
-		// get the ingestion controller
-		IngestionController ingestionController =
-						(IngestionController) environment.getAttribute(IngestionController.INGESTION_CONTROLLER_INSTANCE);
-
+	public void constructValues(CompositionContext context) {
 		// get specialist availabilities
 		List<SpecialistAvailability> availabilities =
-						ingestionController.getLatestRecordBeforeTime(SpecialistAvailability.class, getTimeFrom());
+						context.getLatestRecordBeforeTime(SpecialistAvailability.class, getTimeFrom());
 
 		// create specialist availability value
 		constructSpecialistAvailabilityValue(availabilities);
@@ -45,24 +42,26 @@ public class SpecialistAvailabilityInputComponent extends TemporalInputComponent
 	 * Helper method to format the specialist availability data.
 	 * @param availabilities A {@link List} of {@link SpecialistAvailability}s.
 	 */
-	private void constructSpecialistAvailabilityValue(List<SpecialistAvailability> availabilities) {
-		StringBuilder value = new StringBuilder("{\n");
+	private void constructSpecialistAvailabilityValue(final List<SpecialistAvailability> availabilities) {
+		this.setSectionValue(SPECIALIST_AVAILABILITY_INDEX, new SectionValue() {
+			@Override
+			public void write(SectionWriter writer) throws IOException {
+				writer.beginSet();
 
-		// for each availability
-		for (SpecialistAvailability a : availabilities) {
-			// if the availability refers to a time between the first and last day of this run
-			if (a.getDate() >= this.getTimeFrom() && a.getDate() < (this.getTimeTo() + MS_IN_DAY)) {
-				NTuple tuple = new NTuple(a.getSpecialistTypeId(),
-								((a.getDate() - this.getTimeFrom()) / MS_IN_DAY) + 1,
-								a.getNumAvailable());
+				// for each availability
+				for (SpecialistAvailability a : availabilities) {
+					// if the availability refers to a time between the first and last day of this run
+					if (a.getDate() >= getTimeFrom() && a.getDate() < (getTimeTo() + MS_IN_DAY)) {
+						writer.beginTuple()
+										.value(a.getSpecialistTypeId())
+										.value(((a.getDate() - getTimeFrom()) / MS_IN_DAY) + 1)
+										.value(a.getNumAvailable())
+										.endTuple();
+					}
+				}
 
-				value.append(tuple.toString())
-								.append("\n");
+				writer.endSet();
 			}
-		}
-
-		value.append("}");
-
-		this.setSectionValue(SPECIALIST_AVAILABILITY_INDEX, value.toString());
+		});
 	}
 }
@@ -1,11 +1,13 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
-import com.ibm.au.optim.suro.core.composer.NTuple;
+import com.ibm.au.optim.suro.core.composer.CompositionContext;
+import com.ibm.au.optim.suro.core.composer.SectionValue;
+import com.ibm.au.optim.suro.core.composer.SectionWriter;
 import com.ibm.au.optim.suro.model.control.domain.HospitalController;
 import com.ibm.au.optim.suro.model.entities.domain.Hospital;
 import com.ibm.au.optim.suro.model.entities.domain.SpecialistType;
-import com.ibm.au.jaws.web.core.runtime.Environment;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -23,14 +25,12 @@ public class SpecialistInputComponent extends HospitalInputComponent {
 	/**
 	 * Retrieves information from the {@link HospitalController} about specialist types and sets it to
 	 * the {@link com.ibm.au.optim.suro.core.composer.InputSection}.
-	 * @param environment The environment holding information required to construct values.
+	 * @param context The context of the composition, holding the data required to construct values.
 	 */
 	@Override
-	public void constructValues(Environment environment) {
+	public void constructValues(CompositionContext context) {
 		// Get the hospital
-		HospitalController hospitalController =
-						(HospitalController) environment.getAttribute(HospitalController.HOSPITAL_CONTROLLER_INSTANCE);
-		Hospital hospital = hospitalController.getHospital(this.getHospitalId());
+		Hospital hospital = context.getHospital(this.getHospitalId());
 
 		if (hospital == null) {
 			return;
@@ -43,20 +43,32 @@ public class SpecialistInputComponent extends HospitalInputComponent {
 		constructSpecialistInfoValue(specialistTypes);
 	}
 
+	/**
+	 * The {@link com.ibm.au.optim.suro.core.composer.InputSection}s only depend on the specialist types of the hospital.
+	 * @param index The index of the InputSection.
+	 * @return True.
+	 */
+	@Override
+	public boolean isTimeIndependent(int index) {
+		return true;
+	}
+
 	/**
 	 * Helper method to format the specialist type data.
 	 * @param specialistTypes A {@link List} of {@link SpecialistType}s.
 	 */
-	private void constructSpecialistInfoValue(List<SpecialistType> specialistTypes) {
-		StringBuilder value = new StringBuilder("{\n");
-
-		for (SpecialistType specialistType : specialistTypes) {
-			value.append(new NTuple(specialistType.getId()).toString())
-							.append("\n");
-		}
+	private void constructSpecialistInfoValue(final List<SpecialistType> specialistTypes) {
+		this.setSectionValue(SPECIALIST_ID_INDEX, new SectionValue() {
+			@Override
+			public void write(SectionWriter writer) throws IOException {
+				writer.beginSet();
 
-		value.append("}");
+				for (SpecialistType specialistType : specialistTypes) {
+					writer.beginTuple().value(specialistType.getId()).endTuple();
+				}
 
-		this.setSectionValue(SPECIALIST_ID_INDEX, value.toString());
+				writer.endSet();
+			}
+		});
 	}
 }
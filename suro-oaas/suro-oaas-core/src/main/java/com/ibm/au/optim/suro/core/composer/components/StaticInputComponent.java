@@ -28,4 +28,14 @@ public class StaticInputComponent extends InputComponent {
 			setSectionValue(index, metadata.get(section.getName()));
 		}
 	}
+
+	/**
+	 * The {@link com.ibm.au.optim.suro.core.composer.InputSection}s only depend on the metadata of the component.
+	 * @param index The index of the InputSection.
+	 * @return True.
+	 */
+	@Override
+	public boolean isTimeIndependent(int index) {
+		return true;
+	}
 }
\ No newline at end of file
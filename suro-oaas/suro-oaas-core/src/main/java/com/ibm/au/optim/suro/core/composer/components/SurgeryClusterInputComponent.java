@@ -1,10 +1,12 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
-import com.ibm.au.optim.suro.core.composer.NTuple;
+import com.ibm.au.optim.suro.core.composer.CompositionContext;
+import com.ibm.au.optim.suro.core.composer.SectionValue;
+import com.ibm.au.optim.suro.core.composer.SectionWriter;
 import com.ibm.au.optim.suro.model.control.domain.learning.MachineLearningController;
 import com.ibm.au.optim.suro.model.entities.domain.learning.SurgeryCluster;
-import com.ibm.au.jaws.web.core.runtime.Environment;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -22,16 +24,12 @@ public class SurgeryClusterInputComponent extends TemporalInputComponent {
 	/**
 	 * Retrieves information from the {@link MachineLearningController} about surgery clusters and sets it to
 	 * the {@link com.ibm.au.optim.suro.core.composer.InputSection}.
-	 * @param environment The environment holding information required to construct values.
+	 * @param context The context of the composition, holding the data required to construct values.
 	 */
 	@Override
-	public void constructValues(Environment environment) {
-		// get the machine learning controller
-		MachineLearningController machineLearningController =	(MachineLearningController) environment.getAttribute(
-						MachineLearningController.MACHINE_LEARNING_CONTROLLER_INSTANCE);
-
+	public void constructValues(CompositionContext context) {
 		// get the arriving patients
-		List<SurgeryCluster> surgeries = machineLearningController.getSurgeryClusters(this.getTimeFrom());
+		List<SurgeryCluster> surgeries = context.getSurgeryClusters(this.getTimeFrom());
 
 		// construct the arriving patients value
 		constructSurgeriesValue(surgeries);
@@ -41,27 +39,30 @@ public class SurgeryClusterInputComponent extends TemporalInputComponent {
 	 * Helper method to format the surgery cluster data.
 	 * @param surgeries A {@link List} of {@link SurgeryCluster}s.
 	 */
-	private void constructSurgeriesValue(List<SurgeryCluster> surgeries) {
-		StringBuilder value = new StringBuilder("{\n");
-
-		for (SurgeryCluster surgery : surgeries) {
-			NTuple tuple = new NTuple(surgery.getClusterId(),
-							surgery.getClusterName(),
-							new NTuple(surgery.getDepartmentId()),
-							surgery.getDuration(),
-							surgery.getChangeOverTime(),
-							surgery.getLengthOfStay(),
-							surgery.getIcuProbability(),
-							surgery.getWardId(),
-							surgery.getSpecialistTypeId(),
-							surgery.getUrgencyCategoryId(),
-							surgery.getWies());
+	private void constructSurgeriesValue(final List<SurgeryCluster> surgeries) {
+		this.setSectionValue(SURGERIES_INDEX, new SectionValue() {
+			@Override
+			public void write(SectionWriter writer) throws IOException {
+				writer.beginSet();
 
-			value.append(tuple.toString())
-							.append("\n");
-		}
+				for (SurgeryCluster surgery : surgeries) {
+					writer.beginTuple()
+									.value(surgery.getClusterId())
+									.value(surgery.getClusterName())
+									.beginTuple().value(surgery.getDepartmentId()).endTuple()
+									.value(surgery.getDuration())
+									.value(surgery.getChangeOverTime())
+									.value(surgery.getLengthOfStay())
+									.value(surgery.getIcuProbability())
+									.value(surgery.getWardId())
+									.value(surgery.getSpecialistTypeId())
+									.value(surgery.getUrgencyCategoryId())
+									.value(surgery.getWies())
+									.endTuple();
+				}
 
-		value.append("}");
-		this.setSectionValue(SURGERIES_INDEX, value.toString());
+				writer.endSet();
+			}
+		});
 	}
 }
@@ -1,13 +1,15 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
-import com.ibm.au.optim.suro.core.composer.NTuple;
+import com.ibm.au.optim.suro.core.composer.CompositionContext;
+import com.ibm.au.optim.suro.core.composer.SectionValue;
+import com.ibm.au.optim.suro.core.composer.SectionWriter;
 import com.ibm.au.optim.suro.model.control.domain.HospitalController;
 import com.ibm.au.optim.suro.model.control.domain.ingestion.IngestionController;
 import com.ibm.au.optim.suro.model.entities.domain.Hospital;
 import com.ibm.au.optim.suro.model.entities.domain.Ward;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WardAvailability;
-import com.ibm.au.jaws.web.core.runtime.Environment;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -34,16 +36,11 @@ public class WardInfoInputComponent extends TemporalInputComponent {
 	/**
 	 * Retrieves information from the {@link HospitalController} and {@link IngestionController} about wards and ward
 	 * availabilities and sets it to the {@link com.ibm.au.optim.suro.core.composer.InputSection}.
-	 * @param environment The environment holding information required to construct values.
+	 * @param context The context of the composition, holding the data required to construct values.
 	 */
 	@Override
-	public void constructValues(Environment environment) {
-		HospitalController hospitalController =
-						(HospitalController) environment.getAttribute(HospitalController.HOSPITAL_CONTROLLER_INSTANCE);
-		IngestionController ingestionController =
-						(IngestionController) environment.getAttribute(IngestionController.INGESTION_CONTROLLER_INSTANCE);
-
-		Hospital hospital = hospitalController.getHospital(this.getHospitalId());
+	public void constructValues(CompositionContext context) {
+		Hospital hospital = context.getHospital(this.getHospitalId());
 
 		if (hospital == null) {
 			return;
@@ -56,7 +53,7 @@ public class WardInfoInputComponent extends TemporalInputComponent {
 		}
 
 		List<WardAvailability> availabilities =
-						ingestionController.getLatestRecordBeforeTime(WardAvailability.class, this.getTimeFrom());
+						context.getLatestRecordBeforeTime(WardAvailability.class, this.getTimeFrom());
 
 		// create the value for ward ids
 		constructWardIdValue(wards);
@@ -68,52 +65,61 @@ public class WardInfoInputComponent extends TemporalInputComponent {
 		constructWardInfoValue(beds);
 	}
 
+	/**
+	 * The ward ids only depend on the wards of the hospital, while ward availabilities depend on the time window.
+	 * @param index The index of the {@link com.ibm.au.optim.suro.core.composer.InputSection}.
+	 * @return True for the ward ids.
+	 */
+	@Override
+	public boolean isTimeIndependent(int index) {
+		return index == WARD_ID_INDEX;
+	}
+
 	/**
 	 * Helper method to format the ward data.
 	 * @param wards A {@link List} of {@link Ward}s.
 	 */
-	private void constructWardIdValue(List<Ward> wards) {
-		// write the ward ids
-		StringBuilder wardIdValue = new StringBuilder("{\n");
-
-		for (Ward ward : wards) {
-			wardIdValue.append(new NTuple(ward.getId()).toString())
-							.append("\n");
-		}
+	private void constructWardIdValue(final List<Ward> wards) {
+		// set the ward ids to the section
+		this.setSectionValue(WARD_ID_INDEX, new SectionValue() {
+			@Override
+			public void write(SectionWriter writer) throws IOException {
+				writer.beginSet();
 
-		wardIdValue.append("}");
+				for (Ward ward : wards) {
+					writer.beginTuple().value(ward.getId()).endTuple();
+				}
 
-		// set the ward ids to the section
-		this.setSectionValue(WARD_ID_INDEX, wardIdValue.toString());
+				writer.endSet();
+			}
+		});
 	}
 
 	/**
 	 * Helper method to format the ward availability data.
 	 * @param beds A {@link List} of {@link Map} of WardID -> NumBeds.
 	 */
-	private void constructWardInfoValue(List<Map<String, Integer>> beds) {
-		// write the availabilities
-		StringBuilder value = new StringBuilder("{\n");
-
-		// for each day of the schedule (defined by the number of entries in the list)
-		for (int date = 0; date < beds.size(); ++date) {
-			// get the map of ward->beds
-			Map<String, Integer> wardMap = beds.get(date);
-
-			// for each ward in the map
-			for (Map.Entry<String, Integer> entry : wardMap.entrySet()) {
-				NTuple tuple = new NTuple(entry.getKey(),  // ward id
-								date + 1,                          // day of schedule: 0 based, adjust to 1 based
-								entry.getValue());                 // beds available
-
-				value.append(tuple.toString())
-								.append("\n");
-			}
-		}
-
-		value.append("}");
+	private void constructWardInfoValue(final List<Map<String, Integer>> beds) {
+		this.setSectionValue(WARD_AVAILABILITY_INDEX, new SectionValue() {
+			@Override
+			public void write(SectionWriter writer) throws IOException {
+				writer.beginSet();
+
+				// for each day of the schedule (defined by the number of entries in the list)
+				for (int date = 0; date < beds.size(); ++date) {
+					// for each ward in the map of ward->beds
+					for (Map.Entry<String, Integer> entry : beds.get(date).entrySet()) {
+						writer.beginTuple()
+										.value(entry.getKey())  // ward id
+										.value(date + 1)        // day of schedule: 0 based, adjust to 1 based
+										.value(entry.getValue()) // beds available
+										.endTuple();
+					}
+				}
 
-		this.setSectionValue(WARD_AVAILABILITY_INDEX, value.toString());
+				writer.endSet();
+			}
+		});
 	}
 
 	/**
@@ -1,5 +1,6 @@
 package com.ibm.au.optim.suro.core.controller;
 
+import com.ibm.au.optim.suro.core.composer.FragmentCache;
 import com.ibm.au.optim.suro.model.control.domain.HospitalController;
 import com.ibm.au.optim.suro.model.entities.domain.*;
 import com.ibm.au.optim.suro.model.impl.AbstractSuroService;
@@ -35,6 +36,11 @@ public class BasicHospitalController extends AbstractSuroService implements Hosp
      */
     private RegionRepository regionRepository;
 
+    /**
+     * The cache of the input sections rendered for hospitals, invalidated when a hospital changes.
+     */
+    private FragmentCache fragmentCache;
+
     /**
      * A generator to create unique string identifiers.
      */
@@ -102,6 +108,7 @@ public class BasicHospitalController extends AbstractSuroService implements Hosp
         }
 
         hospitalRepository.updateItem(hospital);
+        invalidateFragments(hospital.getId());
         return hospital;
     }
 
@@ -137,6 +144,7 @@ public class BasicHospitalController extends AbstractSuroService implements Hosp
         }
 
         hospitalRepository.removeItem(hospitalId);
+        invalidateFragments(hospitalId);
         return true;
     }
 
@@ -709,12 +717,24 @@ public class BasicHospitalController extends AbstractSuroService implements Hosp
     protected void doBind(Environment environment) throws Exception {
         this.regionRepository = (RegionRepository) environment.getAttribute(RegionRepository.REGION_REPOSITORY_INSTANCE);
         this.hospitalRepository = (HospitalRepository) environment.getAttribute(HospitalRepository.HOSPITAL_REPOSITORY_INSTANCE);
+        this.fragmentCache = FragmentCache.getInstance(environment);
     }
 
     @Override
     protected void doRelease() throws Exception {
         this.regionRepository = null;
         this.hospitalRepository = null;
+        this.fragmentCache = null;
+    }
+
+    /**
+     * Discards the input sections rendered for a hospital, as they might not match the hospital anymore.
+     * @param hospitalId - the id of the hospital that changed
+     */
+    protected void invalidateFragments(String hospitalId) {
+        if (fragmentCache != null) {
+            fragmentCache.invalidate(hospitalId);
+        }
     }
 
     /*
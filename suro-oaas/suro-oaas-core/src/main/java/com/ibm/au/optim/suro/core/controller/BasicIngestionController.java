@@ -1,12 +1,14 @@
 package com.ibm.au.optim.suro.core.controller;
 
 import com.ibm.au.optim.suro.model.control.domain.ingestion.IngestionController;
+import com.ibm.au.optim.suro.model.control.domain.ingestion.RecordStream;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.BasePlanEntry;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.BasePlanList;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.IcuAvailability;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.IcuAvailabilityList;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.SpecialistAvailability;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.SpecialistAvailabilityList;
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.TemporalDelta;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.TemporalList;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WaitingPatient;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WaitingPatientList;
@@ -21,11 +23,20 @@ import com.ibm.au.optim.suro.model.store.domain.ingestion.WaitingPatientListRepo
 import com.ibm.au.optim.suro.model.store.domain.ingestion.WardAvailabilitiesRepository;
 import com.ibm.au.jaws.data.utils.ReflectionUtils;
 import com.ibm.au.jaws.web.core.runtime.Environment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This is the basic implementation of the ingestion controller. Currently this only serves to create new records in the
@@ -34,10 +45,52 @@ import java.util.Map;
  *
  * Currently the controller is using 2 maps to find out which repository to use for which type of ingestion item.
  *
+ * Changes to the data can also be ingested as deltas (see {@link #applyDelta(Class, long, TemporalDelta)}), in which case
+ * the records are identified by a key (e.g. the patient ID). A delta is stored as a list referring to the previous list
+ * as its base, and the current data is materialised by applying the chain of deltas to the last full snapshot. To keep
+ * the chains short, every {@link #CFG_COMPACTION_THRESHOLD}-th list is stored as a full snapshot. The last materialised
+ * data of each type is kept in memory, so that applying a delta does not require to walk the chain again.
+ *
+ * Full lists are stored in parts of at most {@link #CFG_BATCH_SIZE} records. Each part is appended to the previous one,
+ * and all parts but the last one have a negative timestamp, so that the list only becomes visible to readers once it
+ * has been stored completely. Streamed lists (see {@link #createRecordFromStream(Class, long, RecordStream)}) are
+ * stored while they are read, hence only one part at a time needs to be kept in memory.
+ *
  * @author Brendan Haesler
  */
 public class BasicIngestionController extends AbstractSuroService implements IngestionController {
 
+    /**
+     * The name of the configuration parameter defining how often (in number of ingested lists) a full snapshot is
+     * stored when ingesting deltas. A value of 1 or lower stores every delta as a full snapshot.
+     */
+    public static final String CFG_COMPACTION_THRESHOLD = "suro.ingestion.compaction.threshold";
+
+    /**
+     * The default compaction threshold.
+     */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 20;
+
+    /**
+     * The name of the configuration parameter defining the maximum number of records stored in a single list. Larger
+     * lists are stored in several parts.
+     */
+    public static final String CFG_BATCH_SIZE = "suro.ingestion.batch.size";
+
+    /**
+     * The default maximum number of records of a list.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 10000;
+
+    /**
+     * The timestamp of the parts of a list that is being stored.
+     */
+    protected static final long PART_TIMESTAMP = -1;
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(BasicIngestionController.class);
 
     /**
      * A mapping between time-based ingestion object classes and the identifier used to store the related repository in
@@ -50,6 +103,26 @@ public class BasicIngestionController extends AbstractSuroService implements Ing
      */
     protected Map<Class<?>, Class<?>> itemToListMapping;
 
+    /**
+     * The current mapping of time-based ingestion object to the key identifying the records in deltas.
+     */
+    protected Map<Class<?>, RecordKey<?>> keyMapping;
+
+    /**
+     * The last materialised data, by type of ingestion object.
+     */
+    protected Map<Class<?>, Snapshot<?>> snapshots;
+
+    /**
+     * The number of ingested lists after which a full snapshot is stored instead of a delta.
+     */
+    protected int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+    /**
+     * The maximum number of records stored in a single list.
+     */
+    protected int batchSize = DEFAULT_BATCH_SIZE;
+
     /**
      * The currently used environment for this controller.
      */
@@ -66,21 +139,46 @@ public class BasicIngestionController extends AbstractSuroService implements Ing
 			return null;
 		}
 
-		TemporalRepository<T, R> repository = (TemporalRepository<T, R>) getRepositoryByType(records.get(0).getClass());
+		Class<T> recordType = (Class<T>) records.get(0).getClass();
+		TemporalRepository<T, R> repository = getRepositoryByType(recordType);
 
 		if (repository == null) {
 			return null;
 		}
 
-		R ingestionList = ReflectionUtils.createInstance(itemToListMapping.get(records.get(0).getClass()));
-		ingestionList.setTimestamp(timestamp);
-		ingestionList.setRecords(records);
-		repository.addItem(ingestionList);
-
-		return ingestionList;
+		return storeList(repository, recordType, timestamp, records);
 	}
 
+	@Override
+	public <T, R extends TemporalList<T>> R createRecordFromStream(Class<T> recordType, long timestamp, RecordStream<T> records) throws IOException {
+		TemporalRepository<T, R> repository = getRepositoryByType(recordType);
+
+		if (repository == null) {
+			return null;
+		}
+
+		List<R> parts = new ArrayList<>();
+		try {
+			List<T> batch = new ArrayList<>();
+			T record;
+			while ((record = records.next()) != null) {
+				// a full batch is only stored once it is known not to be the last one
+				if (batch.size() >= batchSize) {
+					parts.add(storePart(repository, recordType, PART_TIMESTAMP, parts, batch));
+					batch = new ArrayList<>();
+				}
+				batch.add(record);
+			}
 
+			return batch.isEmpty() ? null : storePart(repository, recordType, timestamp, parts, batch);
+
+		} catch (IOException | RuntimeException e) {
+			for (R part : parts) {
+				repository.removeItem(part.getId());
+			}
+			throw e;
+		}
+	}
 
 	@Override
 	public <T> List<T> getLatestRecordBeforeTime(Class<T> recordType, long time) {
@@ -92,7 +190,70 @@ public class BasicIngestionController extends AbstractSuroService implements Ing
 
 		TemporalList<T> record = ingestionRepository.findByTime(time);
 
-		return record == null ? new ArrayList<T>() : record.getRecords();
+		if (record == null) {
+			return new ArrayList<T>();
+		} else if (!record.isDelta()) {
+			return record.getRecords();
+		}
+
+		synchronized (ingestionRepository) {
+			return materialise(recordType, ingestionRepository, record).getRecords();
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T, R extends TemporalList<T>> R applyDelta(Class<T> recordType, long timestamp, TemporalDelta<T> delta) {
+		if (delta == null || delta.isEmpty()) {
+			return null;
+		}
+
+		TemporalRepository<T, R> repository = getRepositoryByType(recordType);
+		RecordKey<T> key = (RecordKey<T>) keyMapping.get(recordType);
+
+		if (repository == null || key == null) {
+			return null;
+		}
+
+		List<T> changed = new ArrayList<>();
+		if (delta.getAdded() != null) {
+			changed.addAll(delta.getAdded());
+		}
+		if (delta.getUpdated() != null) {
+			changed.addAll(delta.getUpdated());
+		}
+		List<String> removed = delta.getRemoved() == null ? new ArrayList<String>() : delta.getRemoved();
+
+		// deltas of the same type are applied one at a time, as each one refers to the previous one
+		synchronized (repository) {
+			R current = repository.findByTime(Long.MAX_VALUE);
+			Snapshot<T> snapshot = current == null ? new Snapshot<T>() : materialise(recordType, repository, current);
+
+			// the snapshot is only cached again once the new list has been stored
+			snapshots.remove(recordType);
+			snapshot.apply(changed, removed, key);
+
+			// the delta must be found after its base, even if the clocks of the ingesting nodes disagree
+			long time = current == null ? timestamp : Math.max(timestamp, current.getTimestamp() + 1);
+			R ingestionList;
+			if (current == null || snapshot.depth + 1 >= compactionThreshold) {
+				ingestionList = storeList(repository, recordType, time, snapshot.getRecords());
+				snapshot.depth = 0;
+			} else {
+				ingestionList = ReflectionUtils.createInstance(itemToListMapping.get(recordType));
+				ingestionList.setTimestamp(time);
+				ingestionList.setBase(current.getId());
+				ingestionList.setRecords(changed);
+				ingestionList.setRemoved(removed);
+				repository.addItem(ingestionList);
+				snapshot.depth++;
+			}
+
+			snapshot.id = ingestionList.getId();
+			snapshots.put(recordType, snapshot);
+
+			return ingestionList;
+		}
 	}
 
 
@@ -117,11 +278,72 @@ public class BasicIngestionController extends AbstractSuroService implements Ing
         this.itemToListMapping.put(IcuAvailability.class, IcuAvailabilityList.class);
         this.itemToListMapping.put(WardAvailability.class, WardAvailabilityList.class);
         this.itemToListMapping.put(SpecialistAvailability.class, SpecialistAvailabilityList.class);
+
+        this.keyMapping = new HashMap<Class<?>,RecordKey<?>>();
+        this.keyMapping.put(BasePlanEntry.class, new RecordKey<BasePlanEntry>() {
+            @Override
+            public String get(BasePlanEntry record) {
+                return record.getSpecialistTypeId() + ":" + record.getDay();
+            }
+        });
+        this.keyMapping.put(WaitingPatient.class, new RecordKey<WaitingPatient>() {
+            @Override
+            public String get(WaitingPatient record) {
+                return record.getPatientId();
+            }
+        });
+        this.keyMapping.put(IcuAvailability.class, new RecordKey<IcuAvailability>() {
+            @Override
+            public String get(IcuAvailability record) {
+                return record.getPatientId();
+            }
+        });
+        this.keyMapping.put(WardAvailability.class, new RecordKey<WardAvailability>() {
+            @Override
+            public String get(WardAvailability record) {
+                return record.getPatientId();
+            }
+        });
+        this.keyMapping.put(SpecialistAvailability.class, new RecordKey<SpecialistAvailability>() {
+            @Override
+            public String get(SpecialistAvailability record) {
+                return record.getSpecialistTypeId() + ":" + record.getDate();
+            }
+        });
+
+        // data of different types can be materialised concurrently (e.g. by the input components of a run)
+        this.snapshots = new ConcurrentHashMap<Class<?>,Snapshot<?>>();
+
+        this.compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+        String threshold = environment.getParameter(CFG_COMPACTION_THRESHOLD);
+        if (threshold != null) {
+            try {
+                this.compactionThreshold = Integer.parseInt(threshold);
+            } catch (NumberFormatException nfe) {
+                LOGGER.warn("Configuration for " + CFG_COMPACTION_THRESHOLD + " could not be read. Falling back to default value: " + DEFAULT_COMPACTION_THRESHOLD);
+            }
+        }
+
+        this.batchSize = DEFAULT_BATCH_SIZE;
+        String batch = environment.getParameter(CFG_BATCH_SIZE);
+        if (batch != null) {
+            try {
+                this.batchSize = Integer.parseInt(batch);
+            } catch (NumberFormatException nfe) {
+                LOGGER.warn("Configuration for " + CFG_BATCH_SIZE + " could not be read. Falling back to default value: " + DEFAULT_BATCH_SIZE);
+            }
+            if (this.batchSize < 1) {
+                LOGGER.warn("Configuration for " + CFG_BATCH_SIZE + " must be positive. Falling back to default value: " + DEFAULT_BATCH_SIZE);
+                this.batchSize = DEFAULT_BATCH_SIZE;
+            }
+        }
 	}
 
 	@Override
 	protected void doRelease() throws Exception {
         this.itemToListMapping = null;
+        this.keyMapping = null;
+        this.snapshots = null;
 		this.repositoryMap = null;
         this.environment = null;
 	}
@@ -151,5 +373,207 @@ public class BasicIngestionController extends AbstractSuroService implements Ing
         return (TemporalRepository<T, R>) environment.getAttribute(repositoryMap.get(type));
     }
 
+    /**
+     * Stores a full list, in parts if it contains more records than the configured batch size.
+     *
+     * @param repository - the repository storing the lists
+     * @param recordType - the type of the records
+     * @param timestamp - the timestamp of the list
+     * @param records - the records of the list
+     * @param <T> - the type of the records
+     * @param <R> - the type of the list
+     * @return - the last part of the list
+     */
+    protected <T, R extends TemporalList<T>> R storeList(TemporalRepository<T, R> repository, Class<T> recordType, long timestamp, List<T> records) {
+        List<R> parts = new ArrayList<>();
+        try {
+            int last = ((records.size() - 1) / batchSize) * batchSize;
+            for (int i = 0; i < last; i += batchSize) {
+                parts.add(storePart(repository, recordType, PART_TIMESTAMP, parts, new ArrayList<>(records.subList(i, i + batchSize))));
+            }
+            return storePart(repository, recordType, timestamp, parts, last == 0 ? records : new ArrayList<>(records.subList(last, records.size())));
+
+        } catch (RuntimeException e) {
+            for (R part : parts) {
+                repository.removeItem(part.getId());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stores a part of a full list.
+     *
+     * @param repository - the repository storing the lists
+     * @param recordType - the type of the records
+     * @param timestamp - the timestamp of the part, which is negative for all parts but the last one
+     * @param previous - the parts stored so far
+     * @param records - the records of the part
+     * @param <T> - the type of the records
+     * @param <R> - the type of the list
+     * @return - the part, once stored
+     */
+    protected <T, R extends TemporalList<T>> R storePart(TemporalRepository<T, R> repository, Class<T> recordType, long timestamp, List<R> previous, List<T> records) {
+        R part = ReflectionUtils.createInstance(itemToListMapping.get(recordType));
+        part.setTimestamp(timestamp);
+        part.setRecords(records);
+        if (!previous.isEmpty()) {
+            part.setBase(previous.get(previous.size() - 1).getId());
+            part.setAppend(true);
+        }
+        repository.addItem(part);
+        return part;
+    }
+
+    /**
+     * Materialises the data represented by the passed list. If the list is a delta, the chain of deltas is followed
+     * back to the last full snapshot (or to the last materialised data, if it is part of the chain) and applied in
+     * order. The caller is expected to hold the lock on the repository.
+     *
+     * @param recordType - the type of the records in the list
+     * @param repository - the repository storing the lists
+     * @param list - the list to materialise
+     * @param <T> - the type of the records in the list
+     * @return - the materialised data, which also becomes the last materialised data of the type
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> Snapshot<T> materialise(Class<T> recordType, TemporalRepository<T, ?> repository, TemporalList<T> list) {
+        RecordKey<T> key = (RecordKey<T>) keyMapping.get(recordType);
+        Snapshot<T> cached = (Snapshot<T>) snapshots.get(recordType);
+
+        Snapshot<T> snapshot = null;
+        Deque<TemporalList<T>> chain = new ArrayDeque<>();
+        TemporalList<T> current = list;
+        while (current != null) {
+            if (cached != null && current.getId().equals(cached.id)) {
+                snapshot = cached;
+                break;
+            }
+            chain.push(current);
+            if (!current.isDelta()) {
+                break;
+            }
+            String base = current.getBase();
+            current = repository.getItem(base);
+            if (current == null) {
+                LOGGER.warn("Base list " + base + " of a " + recordType.getSimpleName() + " delta could not be found. The data is materialised from the remaining deltas only.");
+            }
+        }
+
+        if (snapshot == null) {
+            snapshot = new Snapshot<T>();
+        }
+        while (!chain.isEmpty()) {
+            TemporalList<T> next = chain.pop();
+            if (next.isAppend()) {
+                snapshot.append(next.getRecords(), key);
+            } else {
+                snapshot.apply(next.getRecords(), next.getRemoved(), key);
+                snapshot.depth = next.isDelta() ? snapshot.depth + 1 : 0;
+            }
+            snapshot.id = next.getId();
+        }
+
+        snapshots.put(recordType, snapshot);
+        return snapshot;
+    }
+
 
+    /**
+     * Extracts the key identifying a record in a delta.
+     *
+     * @param <T> - the type of the record
+     */
+    protected interface RecordKey<T> {
+
+        /**
+         * Returns the key of the passed record.
+         * @param record - the record
+         * @return - the key of the record
+         */
+        String get(T record);
+    }
+
+    /**
+     * The materialised data of a type of ingestion object, as the records grouped by key.
+     *
+     * @param <T> - the type of the records
+     */
+    protected static class Snapshot<T> {
+
+        /**
+         * The ID of the list the data has been materialised from.
+         */
+        protected String id;
+
+        /**
+         * The number of deltas applied since the last full snapshot.
+         */
+        protected int depth;
+
+        /**
+         * The records by key. A key can identify several records (e.g. a patient waiting for two surgeries).
+         */
+        protected Map<String, List<T>> records = new LinkedHashMap<>();
+
+        /**
+         * Applies changes to the data. Removed keys are applied first, then the records with the same key as any of
+         * the passed records are replaced by those.
+         *
+         * @param changed - the records added or updated (can be null)
+         * @param removed - the keys of the records removed (can be null)
+         * @param key - the key of the records
+         */
+        protected void apply(List<T> changed, List<String> removed, RecordKey<T> key) {
+            if (removed != null) {
+                for (String id : removed) {
+                    this.records.remove(id);
+                }
+            }
+            if (changed != null) {
+                Set<String> replaced = new HashSet<>();
+                for (T record : changed) {
+                    String id = key.get(record);
+                    List<T> group = this.records.get(id);
+                    if (replaced.add(id)) {
+                        group = new ArrayList<>(1);
+                        this.records.put(id, group);
+                    }
+                    group.add(record);
+                }
+            }
+        }
+
+        /**
+         * Appends records to the data, without replacing the records with the same key.
+         *
+         * @param appended - the records to append (can be null)
+         * @param key - the key of the records
+         */
+        protected void append(List<T> appended, RecordKey<T> key) {
+            if (appended != null) {
+                for (T record : appended) {
+                    String id = key.get(record);
+                    List<T> group = this.records.get(id);
+                    if (group == null) {
+                        group = new ArrayList<>(1);
+                        this.records.put(id, group);
+                    }
+                    group.add(record);
+                }
+            }
+        }
+
+        /**
+         * Returns the records of the data.
+         * @return - a new list containing the records
+         */
+        protected List<T> getRecords() {
+            List<T> result = new ArrayList<>();
+            for (List<T> group : this.records.values()) {
+                result.addAll(group);
+            }
+            return result;
+        }
+    }
 }
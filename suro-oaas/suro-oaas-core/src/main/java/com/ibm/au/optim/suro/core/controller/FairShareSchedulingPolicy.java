@@ -0,0 +1,172 @@
+package com.ibm.au.optim.suro.core.controller;
+
+import com.ibm.au.optim.suro.model.entities.Run;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scheduling policy sharing the available solver slots among the templates of the queued runs. The next run is
+ * selected as follows:
+ * <ol>
+ *     <li>runs of templates that reached their concurrency limit are skipped</li>
+ *     <li>among the remaining runs, the ones with the highest priority ({@link Run#getPriority()}) are considered</li>
+ *     <li>among those, the run of the template with the lowest number of running runs relative to its weight wins</li>
+ *     <li>ties are resolved by queue order</li>
+ * </ol>
+ * Without weights, limits and priorities the policy alternates between templates, so that a user submitting many runs
+ * of the same template does not starve the runs of other templates.
+ *
+ * Weights and limits are defined as comma-separated lists of <i>templateId=value</i> pairs (e.g. "t1=2,t2=1"). The
+ * template ID "*" sets the value for all templates that are not listed.
+ */
+public class FairShareSchedulingPolicy implements RunSchedulingPolicy {
+
+    /**
+     * The template ID used to define the default weight or limit.
+     */
+    public static final String ANY_TEMPLATE = "*";
+
+    /**
+     * The weight of templates without an explicit weight.
+     */
+    public static final double DEFAULT_WEIGHT = 1.0;
+
+    /**
+     * The concurrency limit of templates without an explicit limit (0 = unlimited).
+     */
+    public static final int DEFAULT_LIMIT = 0;
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(FairShareSchedulingPolicy.class);
+
+    /**
+     * The weights by template ID.
+     */
+    private final Map<String, Double> weights = new HashMap<>();
+
+    /**
+     * The concurrency limits by template ID.
+     */
+    private final Map<String, Integer> limits = new HashMap<>();
+
+    /**
+     * Creates a new policy treating all templates the same and without concurrency limits.
+     */
+    public FairShareSchedulingPolicy() {
+        this(null, null);
+    }
+
+    /**
+     * Creates a new policy with the given weights and concurrency limits.
+     *
+     * @param weights - the template weights, as comma-separated list of templateId=weight pairs (can be null)
+     * @param limits - the template concurrency limits, as comma-separated list of templateId=limit pairs (can be null)
+     */
+    public FairShareSchedulingPolicy(String weights, String limits) {
+        for (Map.Entry<String, String> pair : parse(weights).entrySet()) {
+            try {
+                double weight = Double.parseDouble(pair.getValue());
+                if (weight > 0) {
+                    this.weights.put(pair.getKey(), weight);
+                } else {
+                    LOGGER.warn("Ignoring non-positive scheduling weight for template " + pair.getKey() + ": " + weight);
+                }
+            } catch (NumberFormatException nfe) {
+                LOGGER.warn("Ignoring invalid scheduling weight for template " + pair.getKey() + ": " + pair.getValue());
+            }
+        }
+        for (Map.Entry<String, String> pair : parse(limits).entrySet()) {
+            try {
+                this.limits.put(pair.getKey(), Integer.parseInt(pair.getValue()));
+            } catch (NumberFormatException nfe) {
+                LOGGER.warn("Ignoring invalid concurrency limit for template " + pair.getKey() + ": " + pair.getValue());
+            }
+        }
+    }
+
+    @Override
+    public RunQueue.Entry select(List<RunQueue.Entry> queued, Map<String, Integer> running) {
+        RunQueue.Entry selected = null;
+        int selectedPriority = 0;
+        double selectedShare = 0;
+
+        for (RunQueue.Entry entry : queued) {
+            Run run = entry.getRun();
+            String template = run.getTemplateId() == null ? NO_TEMPLATE : run.getTemplateId();
+            Integer count = running.get(template);
+            int active = count == null ? 0 : count;
+
+            int limit = this.getLimit(template);
+            if (limit > 0 && active >= limit) {
+                continue;
+            }
+
+            int priority = run.getPriority();
+            double share = active / this.getWeight(template);
+            // strict comparisons keep the queue order among equivalent runs
+            if (selected == null || priority > selectedPriority || (priority == selectedPriority && share < selectedShare)) {
+                selected = entry;
+                selectedPriority = priority;
+                selectedShare = share;
+            }
+        }
+
+        return selected;
+    }
+
+    /**
+     * Returns the weight of the given template.
+     *
+     * @param templateId - the template ID
+     * @return - the configured weight, or the default weight if the template has no weight configured
+     */
+    public double getWeight(String templateId) {
+        Double weight = this.weights.get(templateId);
+        if (weight == null) {
+            weight = this.weights.get(ANY_TEMPLATE);
+        }
+        return weight == null ? DEFAULT_WEIGHT : weight;
+    }
+
+    /**
+     * Returns the concurrency limit of the given template.
+     *
+     * @param templateId - the template ID
+     * @return - the configured limit, or the default limit if the template has no limit configured (0 = unlimited)
+     */
+    public int getLimit(String templateId) {
+        Integer limit = this.limits.get(templateId);
+        if (limit == null) {
+            limit = this.limits.get(ANY_TEMPLATE);
+        }
+        return limit == null ? DEFAULT_LIMIT : limit;
+    }
+
+    /**
+     * Parses a comma-separated list of key=value pairs.
+     *
+     * @param config - the configuration string (can be null)
+     * @return - the pairs in a map, malformed pairs are ignored
+     */
+    private static Map<String, String> parse(String config) {
+        Map<String, String> result = new HashMap<>();
+        if (config == null) {
+            return result;
+        }
+        for (String pair : config.split(",")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                result.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+            } else if (!pair.trim().isEmpty()) {
+                LOGGER.warn("Ignoring malformed scheduling configuration: " + pair);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,369 @@
+package com.ibm.au.optim.suro.core.controller;
+
+import com.ibm.au.optim.suro.model.entities.Run;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * FIFO queue of runs waiting to be executed, indexed by run ID. The queue keeps an index of the runs it contains, so
+ * that checking whether a run is already queued and removing a run (e.g. when it is aborted) are constant time
+ * operations and do not require scanning the queue or holding a lock on it.
+ *
+ * Removed runs are not taken out of the underlying deque straight away, they are only dropped from the index. The
+ * stale entries are discarded when they reach the head of the queue. An entry is only handed out to the caller that
+ * manages to remove it from the index, so a run is never returned twice, nor returned after it has been removed.
+ *
+ * Besides the strict FIFO order of {@link #poll()}, runs can be taken out of the queue according to a
+ * {@link RunSchedulingPolicy}, which picks the next run among all the queued ones (see {@link #poll(RunSchedulingPolicy, Map)}).
+ *
+ * All operations are thread-safe.
+ */
+public class RunQueue {
+
+    /**
+     * The queue entries in insertion order. Might contain entries that have already been removed from the index.
+     */
+    private final LinkedBlockingDeque<Entry> entries = new LinkedBlockingDeque<>();
+
+    /**
+     * The entries currently in the queue, indexed by run ID.
+     */
+    private final ConcurrentMap<String, Entry> index = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented every time the queue or the state a scheduling policy depends on changes. Used by callers waiting
+     * for a run to become eligible, to detect changes that happened while they were selecting.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * The number of callers currently waiting in {@link #poll(RunSchedulingPolicy, Map, long, TimeUnit)}. Signalling
+     * only takes the lock when there is somebody to wake up.
+     */
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * The lock used to wait for changes when polling with a scheduling policy.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The condition signalled when the queue or the scheduling state changes.
+     */
+    private final Condition changed = this.lock.newCondition();
+
+    /**
+     * Adds a run to the end of the queue, unless a run with the same ID is already queued.
+     *
+     * @param run - the run to add, it needs to have an ID
+     * @return - true if the run has been added, false if a run with the same ID is already in the queue
+     * @throws IllegalArgumentException - if the run or its ID is null
+     */
+    public boolean offer(Run run) {
+        if (run == null || run.getId() == null) {
+            throw new IllegalArgumentException("Only runs with an identifier can be added to the queue.");
+        }
+
+        Entry entry = new Entry(run);
+        if (this.index.putIfAbsent(run.getId(), entry) != null) {
+            return false;
+        }
+        this.entries.offerLast(entry);
+        this.signal();
+        return true;
+    }
+
+    /**
+     * Retrieves and removes the run at the head of the queue.
+     *
+     * @return - the head of the queue or null if the queue is empty
+     */
+    public Entry poll() {
+        Entry entry = this.entries.pollFirst();
+        while (entry != null && !this.claim(entry)) {
+            entry = this.entries.pollFirst();
+        }
+        return entry;
+    }
+
+    /**
+     * Retrieves and removes the run at the head of the queue, waiting up to the specified time for a run to be added
+     * if the queue is empty.
+     *
+     * @param timeout - how long to wait before giving up, in units of unit
+     * @param unit - the time unit of the timeout argument
+     * @return - the head of the queue or null if no run has been added before the timeout elapsed
+     * @throws InterruptedException - if the calling thread is interrupted while waiting
+     */
+    public Entry poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Entry entry = this.entries.pollFirst(timeout, unit);
+        while (entry != null && !this.claim(entry)) {
+            // stale entry: keep waiting for the rest of the timeout
+            long remaining = deadline - System.nanoTime();
+            entry = remaining > 0 ? this.entries.pollFirst(remaining, TimeUnit.NANOSECONDS) : this.poll();
+        }
+        return entry;
+    }
+
+    /**
+     * Retrieves and removes the run selected by the given scheduling policy among the queued runs.
+     *
+     * @param policy - the policy selecting the next run
+     * @param running - the number of runs currently executing, by template ID (see {@link RunSchedulingPolicy})
+     * @return - the selected run or null if the queue is empty or the policy does not select any of the queued runs
+     */
+    public Entry poll(RunSchedulingPolicy policy, Map<String, Integer> running) {
+        List<Entry> queued = this.snapshot();
+        while (!queued.isEmpty()) {
+            Entry entry = policy.select(queued, running);
+            if (entry == null) {
+                return null;
+            }
+            if (this.take(entry)) {
+                return entry;
+            }
+            // somebody else took or removed the selected run in the meantime
+            queued = this.snapshot();
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves and removes the run selected by the given scheduling policy among the queued runs, waiting up to the
+     * specified time for a run to become available. The selection is repeated every time a run is added to the queue
+     * or {@link #signal()} is invoked, e.g. because a run finished and the running counts changed.
+     *
+     * @param policy - the policy selecting the next run
+     * @param running - the number of runs currently executing, by template ID; the map is expected to be kept up to
+     *                  date by the caller while waiting
+     * @param timeout - how long to wait before giving up, in units of unit
+     * @param unit - the time unit of the timeout argument
+     * @return - the selected run or null if no run has been selected before the timeout elapsed
+     * @throws InterruptedException - if the calling thread is interrupted while waiting
+     */
+    public Entry poll(RunSchedulingPolicy policy, Map<String, Integer> running, long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + remaining;
+        while (true) {
+            long observed = this.version.get();
+            Entry entry = this.poll(policy, running);
+            remaining = deadline - System.nanoTime();
+            if (entry != null || remaining <= 0) {
+                return entry;
+            }
+
+            this.waiting.incrementAndGet();
+            try {
+                this.lock.lockInterruptibly();
+                try {
+                    // nothing changed since the selection: wait for the next change
+                    while (this.version.get() == observed && remaining > 0) {
+                        remaining = this.changed.awaitNanos(remaining);
+                    }
+                } finally {
+                    this.lock.unlock();
+                }
+            } finally {
+                this.waiting.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Wakes up the callers waiting for a run to be selected by a scheduling policy, so that they repeat the
+     * selection. Needs to be invoked whenever the state the policy depends on changes (e.g. a run finished).
+     */
+    public void signal() {
+        this.version.incrementAndGet();
+        if (this.waiting.get() > 0) {
+            this.lock.lock();
+            try {
+                this.changed.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes the run with the given ID from the queue.
+     *
+     * @param runId - the ID of the run to remove
+     * @return - the removed run, or null if no run with the given ID is in the queue
+     */
+    public Run remove(String runId) {
+        if (runId == null) {
+            return null;
+        }
+        Entry entry = this.index.remove(runId);
+        return entry == null ? null : entry.getRun();
+    }
+
+    /**
+     * Checks whether a run with the given ID is currently in the queue.
+     *
+     * @param runId - the ID of the run
+     * @return - true if the run is queued, false otherwise
+     */
+    public boolean contains(String runId) {
+        return runId != null && this.index.containsKey(runId);
+    }
+
+    /**
+     * Returns the run with the given ID, if it is in the queue.
+     *
+     * @param runId - the ID of the run
+     * @return - the queued run or null if no run with the given ID is in the queue
+     */
+    public Run get(String runId) {
+        if (runId == null) {
+            return null;
+        }
+        Entry entry = this.index.get(runId);
+        return entry == null ? null : entry.getRun();
+    }
+
+    /**
+     * Returns the number of runs in the queue.
+     *
+     * @return - the size of the queue
+     */
+    public int size() {
+        return this.index.size();
+    }
+
+    /**
+     * Checks whether the queue is empty.
+     *
+     * @return - true if there are no runs in the queue
+     */
+    public boolean isEmpty() {
+        return this.index.isEmpty();
+    }
+
+    /**
+     * Returns a snapshot of the runs in the queue, in queue order. Changes to the queue happening while the snapshot
+     * is taken may or may not be reflected in the result.
+     *
+     * @return - a new list containing the queued runs
+     */
+    public List<Run> toList() {
+        List<Run> result = new ArrayList<>();
+        for (Entry entry : this.entries) {
+            if (this.index.get(entry.getRun().getId()) == entry) {
+                result.add(entry.getRun());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a snapshot of the entries in the queue, in queue order. Stale entries found along the way (runs that
+     * have been removed) are purged from the underlying deque.
+     *
+     * @return - a new list containing the queued entries
+     */
+    public List<Entry> snapshot() {
+        List<Entry> result = new ArrayList<>();
+        Iterator<Entry> it = this.entries.iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (this.index.get(entry.getRun().getId()) == entry) {
+                result.add(entry);
+            } else {
+                it.remove();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the given entry from the queue, if it is still queued. Only one caller can take a given entry.
+     *
+     * @param entry - an entry previously returned by {@link #snapshot()}
+     * @return - true if the entry has been taken by this call, false if it has already been taken or removed
+     */
+    public boolean take(Entry entry) {
+        if (entry == null || !this.claim(entry)) {
+            return false;
+        }
+        this.entries.removeFirstOccurrence(entry);
+        return true;
+    }
+
+    /**
+     * Removes all the runs from the queue.
+     */
+    public void clear() {
+        this.index.clear();
+        this.entries.clear();
+    }
+
+    /**
+     * Attempts to take ownership of an entry that has been removed from the head of the deque.
+     *
+     * @param entry - the entry to claim
+     * @return - true if the entry was still indexed (and is now removed), false if it is stale
+     */
+    private boolean claim(Entry entry) {
+        return this.index.remove(entry.getRun().getId(), entry);
+    }
+
+
+    /**
+     * An element of the queue, holding the run and the time it has been added to the queue.
+     */
+    public static class Entry {
+
+        /**
+         * The queued run.
+         */
+        private final Run run;
+
+        /**
+         * The time (System.nanoTime) at which the run has been added to the queue.
+         */
+        private final long enqueued;
+
+        /**
+         * Creates a new entry for the given run, recording the current time as the time it has been queued.
+         *
+         * @param run - the queued run
+         */
+        Entry(Run run) {
+            this.run = run;
+            this.enqueued = System.nanoTime();
+        }
+
+        /**
+         * Returns the queued run.
+         *
+         * @return - the run
+         */
+        public Run getRun() {
+            return this.run;
+        }
+
+        /**
+         * Returns the time the run spent in the queue so far.
+         *
+         * @param unit - the time unit of the result
+         * @return - the waiting time in the given unit
+         */
+        public long getWaitTime(TimeUnit unit) {
+            return unit.convert(System.nanoTime() - this.enqueued, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ibm.au.optim.suro.core.controller;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Policy deciding which of the queued runs is handed out next to a job executor. The run controller invokes the
+ * policy every time an executor asks for the next run, passing the runs currently waiting in the queue and the number
+ * of runs currently executing for each template.
+ *
+ * Implementations must be thread-safe, as the policy is invoked concurrently by all the job executors.
+ */
+public interface RunSchedulingPolicy {
+
+    /**
+     * The key used in the map of running runs for runs that are not associated with any template.
+     */
+    String NO_TEMPLATE = "";
+
+    /**
+     * Selects the next run to execute.
+     *
+     * @param queued - the entries currently in the queue, in queue order (never empty)
+     * @param running - the number of runs currently executing, by template ID ({@link #NO_TEMPLATE} for runs without
+     *                  a template). Templates without running runs might not be in the map.
+     * @return - one of the queued entries, or null if none of the queued runs should be executed at this time (e.g.
+     *           because all of them have reached their concurrency limit)
+     */
+    RunQueue.Entry select(List<RunQueue.Entry> queued, Map<String, Integer> running);
+}
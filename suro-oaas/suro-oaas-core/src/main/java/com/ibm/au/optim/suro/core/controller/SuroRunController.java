@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.au.optim.suro.model.control.Core;
 import com.ibm.au.optim.suro.model.control.RunController;
+import com.ibm.au.optim.suro.model.control.RunQueueStatistics;
 import com.ibm.au.optim.suro.model.entities.Run;
 import com.ibm.au.optim.suro.model.impl.AbstractSuroService;
 import com.ibm.au.optim.suro.model.notify.NotificationBus;
@@ -15,25 +16,116 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of a run controller for the SURO application. It is using an in-memory queue to maintain the list of
  * waiting runs and has the ability to add and get runs from the configured repository.
  *
+ * The next run handed out to a job executor is chosen by a {@link RunSchedulingPolicy}. By default the
+ * {@link FairShareSchedulingPolicy} is used, which takes into account run priorities and shares the solver slots among
+ * templates. The queue can be switched back to strict FIFO order by configuration.
+ *
+ * Status changes ({@link #setRunStatus(Run, RunStatus)}, {@link #setJobStatus(Run, JobStatus)}) are written behind:
+ * back-to-back changes of the same run are merged into a single write of the run document, which happens after a
+ * short interval, when the run reaches a final state or when the run is read or updated through the controller.
+ *
  * @author Peter Ilfrich
  */
 public class SuroRunController extends AbstractSuroService implements RunController {
 
+    /**
+     * The configuration parameter selecting the scheduling policy (fairshare or fifo).
+     */
+    public static final String CFG_SCHEDULING_POLICY = "suro.scheduling.policy";
+    /**
+     * The configuration parameter defining the template weights of the fair-share policy (e.g. "t1=2,t2=1").
+     */
+    public static final String CFG_SCHEDULING_WEIGHTS = "suro.scheduling.weights";
+    /**
+     * The configuration parameter defining the template concurrency limits of the fair-share policy (e.g. "t1=1,*=2").
+     */
+    public static final String CFG_SCHEDULING_LIMITS = "suro.scheduling.limits";
+
+    /**
+     * The scheduling policy taking into account priorities, template weights and limits.
+     */
+    public static final String SCHEDULING_POLICY_FAIRSHARE = "fairshare";
+    /**
+     * The scheduling policy handing out the runs in the order they have been queued.
+     */
+    public static final String SCHEDULING_POLICY_FIFO = "fifo";
+    /**
+     * The scheduling policy used if none is configured.
+     */
+    public static final String DEFAULT_SCHEDULING_POLICY = SCHEDULING_POLICY_FAIRSHARE;
+
+    /**
+     * The configuration parameter defining how long (in milliseconds) status changes of a run are held back before
+     * they are written to the repository. A value of 0 writes every change straight away.
+     */
+    public static final String CFG_RUN_FLUSH_INTERVAL = "suro.run.flush.interval";
+    /**
+     * The interval used if none is configured.
+     */
+    public static final long DEFAULT_RUN_FLUSH_INTERVAL = 250;
+
+    /**
+     * The mapper used to serialise the runs broadcast to the notification bus. Thread-safe once configured.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     /**
      * The repository to access the runs.
      */
     private RunRepository repository = null;
 
     /**
-     * The queue of runs waiting to be executed.
+     * The queue of runs waiting to be executed. The queue is indexed by run ID and thread-safe, hence it does not need
+     * to be locked by the controller.
+     */
+    private RunQueue runQueue = new RunQueue();
+
+    /**
+     * The statistics about the time runs spend waiting in the queue.
+     */
+    private RunQueueStatistics queueStatistics = new RunQueueStatistics();
+
+    /**
+     * The policy selecting the next run from the queue. If null, runs are handed out in FIFO order.
+     */
+    private volatile RunSchedulingPolicy schedulingPolicy = new FairShareSchedulingPolicy();
+
+    /**
+     * The runs handed out to the job executors and not finished yet, mapped to their template ID.
      */
-    private LinkedBlockingDeque<Run> runQueue = new LinkedBlockingDeque<>();
+    private final ConcurrentMap<String, String> dispatched = new ConcurrentHashMap<>();
+
+    /**
+     * The number of dispatched runs, by template ID. Passed to the scheduling policy.
+     */
+    private final ConcurrentMap<String, Integer> running = new ConcurrentHashMap<>();
+
+    /**
+     * The runs with status changes that have not been written to the repository yet, by run ID.
+     */
+    private final ConcurrentMap<String, Run> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The interval (in milliseconds) after which pending status changes are written. 0 means write-through, which is
+     * the behaviour of a controller that has not been bound to an environment.
+     */
+    private long flushInterval = 0;
+
+    /**
+     * The executor writing the pending status changes, null if status changes are written straight away.
+     */
+    private volatile ScheduledExecutorService flusher = null;
 
     /**
      * The logger for this run controller instance.
@@ -57,30 +149,28 @@ public class SuroRunController extends AbstractSuroService implements RunControl
 
     @Override
     public Run getRun(String runId) {
+        // make sure the reader sees the pending status changes
+        this.flush(runId);
         return this.repository.getItem(runId);
     }
 
     @Override
     public boolean addRun(Run run) {
-        synchronized (this.runQueue) {
-            if (this.runQueue.contains(run)) {
-                return false;
-            } else {
-                this.runQueue.add(run);
-                return true;
-            }
-        }
+        // the queue rejects runs that are already queued
+        return this.runQueue.offer(run);
     }
 
     @Override
     public Run getNext() {
-        synchronized (this.runQueue) {
-            if (this.runQueue.isEmpty()) {
-                // return null if there are no runs in the queue
-                return null;
-            }
-            return this.runQueue.pollFirst();
-        }
+        // returns null if there are no runs in the queue (or none the policy wants to execute now)
+        RunSchedulingPolicy policy = this.schedulingPolicy;
+        return this.dequeued(policy == null ? this.runQueue.poll() : this.runQueue.poll(policy, this.running));
+    }
+
+    @Override
+    public Run getNext(long timeout, TimeUnit unit) throws InterruptedException {
+        RunSchedulingPolicy policy = this.schedulingPolicy;
+        return this.dequeued(policy == null ? this.runQueue.poll(timeout, unit) : this.runQueue.poll(policy, this.running, timeout, unit));
     }
 
     @Override
@@ -102,19 +192,14 @@ public class SuroRunController extends AbstractSuroService implements RunControl
             }
         }
 
-        // find the run in the queue and remove it
-        synchronized (this) {
-            Run r = getRunFromQueue(runId);
-            if (r != null) {
-                // remove the run from the queue
-                this.runQueue.remove(r);
-
-                // update the run if necessary
-                synchronized (this.repository) {
-                    setRunStatus(getRun(runId), RunStatus.ABORTED);
-                }
-                return true;
+        // remove the run from the queue, if it is still there
+        Run r = this.runQueue.remove(runId);
+        if (r != null) {
+            // update the run if necessary
+            synchronized (this.repository) {
+                setRunStatus(getRun(runId), RunStatus.ABORTED);
             }
+            return true;
         }
 
         return false;
@@ -123,9 +208,13 @@ public class SuroRunController extends AbstractSuroService implements RunControl
 
     @Override
     public boolean deleteRun(String runId) {
+        if (runId != null) {
+            this.pending.remove(runId);
+        }
         synchronized (this.repository) {
             this.repository.removeItem(runId);
         }
+        this.released(runId);
 
         return true;
     }
@@ -134,6 +223,7 @@ public class SuroRunController extends AbstractSuroService implements RunControl
     public void resetRun(String runId) {
         synchronized (this.repository) {
             Run run = getRun(runId);
+            this.released(runId);
             run.setJobId(null);
             run.setJobStatus(null);
             updateRun(run);
@@ -158,7 +248,12 @@ public class SuroRunController extends AbstractSuroService implements RunControl
 
     @Override
     public void updateRun(Run run) {
-        this.repository.updateItem(run);
+        Run held = this.pending.remove(run.getId());
+        if (held != null && held != run) {
+            // a different instance of the run has pending changes, write them first
+            this.write(held);
+        }
+        this.write(run);
     }
 
     @Override
@@ -173,11 +268,20 @@ public class SuroRunController extends AbstractSuroService implements RunControl
         // }
 
         LOGGER.debug("[RunStatus] Setting run " + run.getId() + " to " + runStatus.toString());
-        this.updateRun(run);
+
+        if ((runStatus == RunStatus.COMPLETED) || (runStatus == RunStatus.FAILED) ||
+            (runStatus == RunStatus.ABORTED) || (runStatus == RunStatus.INVALID)) {
+            // final states are written straight away, together with any pending change
+            this.updateRun(run);
+            // frees the solver slot of the run
+            this.released(run.getId());
+        } else {
+            this.hold(run);
+        }
 
         try {
-            String json = new ObjectMapper().writeValueAsString(run);
-            NotificationBus.getInstance().broadcast("job:" + run.getId(), json);
+            String json = MAPPER.writeValueAsString(run);
+            NotificationBus.getInstance().broadcast("job:" + run.getId(), json, NotificationBus.getRunTopics(run.getId(), run.getTemplateId()));
         } catch (JsonProcessingException jpe) {
             LOGGER.error("Error serialising run", jpe);
         }
@@ -187,19 +291,17 @@ public class SuroRunController extends AbstractSuroService implements RunControl
     public void setJobStatus(Run run, com.ibm.au.optim.suro.model.entities.JobStatus status) {
         run.setJobStatus(status);
         LOGGER.debug("[JobStatus] Setting run " + run.getId() + " to " + status.toString());
-        this.updateRun(run);
+        this.hold(run);
     }
 
     @Override
     public List<Run> getQueue() {
-        List<Run> result = new ArrayList<>();
-        synchronized (this.runQueue) {
-            for (Run run : this.runQueue) {
-                result.add(run);
-            }
-        }
+        return this.runQueue.toList();
+    }
 
-        return result;
+    @Override
+    public RunQueueStatistics getQueueStatistics() {
+        return this.queueStatistics;
     }
 
     @Override
@@ -207,7 +309,12 @@ public class SuroRunController extends AbstractSuroService implements RunControl
         if (jobId == null) {
             return null;
         }
-        return repository.findByJobId(jobId);
+        Run run = repository.findByJobId(jobId);
+        if (run != null && this.pending.containsKey(run.getId())) {
+            // the stored version is outdated, read it again once the pending changes are written
+            run = this.getRun(run.getId());
+        }
+        return run;
     }
 
     @Override
@@ -215,6 +322,89 @@ public class SuroRunController extends AbstractSuroService implements RunControl
         this.repository = repository;
     }
 
+    /**
+     * Sets the policy used to select the next run from the queue.
+     *
+     * @param policy - the scheduling policy, or null to hand out the runs in FIFO order
+     */
+    public void setSchedulingPolicy(RunSchedulingPolicy policy) {
+        this.schedulingPolicy = policy;
+        // let waiting executors re-evaluate the queue with the new policy
+        this.runQueue.signal();
+    }
+
+    /**
+     * Returns the policy used to select the next run from the queue.
+     *
+     * @return - the scheduling policy, or null if the runs are handed out in FIFO order
+     */
+    public RunSchedulingPolicy getSchedulingPolicy() {
+        return this.schedulingPolicy;
+    }
+
+    /**
+     * Sets the interval after which pending status changes are written to the repository. Changes pending at the time
+     * of the call are written straight away.
+     *
+     * @param interval - the interval in milliseconds, 0 to write every status change straight away
+     */
+    public synchronized void setFlushInterval(long interval) {
+        if (this.flusher != null) {
+            this.flusher.shutdown();
+            this.flusher = null;
+        }
+        this.flushAll();
+
+        this.flushInterval = Math.max(0, interval);
+        if (this.flushInterval > 0) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "suro-run-flusher");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            this.flusher.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        flushAll();
+                    } catch (Exception ex) {
+                        LOGGER.error("Error writing pending run status changes", ex);
+                    }
+                }
+            }, this.flushInterval, this.flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns the interval after which pending status changes are written to the repository.
+     *
+     * @return - the interval in milliseconds, 0 if status changes are written straight away
+     */
+    public synchronized long getFlushInterval() {
+        return this.flushInterval;
+    }
+
+    /**
+     * Writes all the pending status changes to the repository.
+     */
+    public void flushAll() {
+        for (String runId : this.pending.keySet()) {
+            this.flush(runId);
+        }
+    }
+
+    /**
+     * Returns the number of runs handed out to the job executors that have not finished yet, by template ID.
+     *
+     * @return - a snapshot of the running counts
+     */
+    public Map<String, Integer> getRunningCounts() {
+        return new HashMap<>(this.running);
+    }
+
 
     /*
      * ##########################################################################################################
@@ -223,18 +413,115 @@ public class SuroRunController extends AbstractSuroService implements RunControl
      */
 
 
-    protected Run getRunFromQueue(String runId) {
-        if (runId == null) {
+    /**
+     * Records the time the given entry spent in the queue, after it has been taken out of it.
+     *
+     * @param entry - the queue entry that has been taken out of the queue (can be null)
+     * @return - the run held by the entry or null if the entry is null
+     */
+    protected Run dequeued(RunQueue.Entry entry) {
+        if (entry == null) {
             return null;
         }
+        Run run = entry.getRun();
+        String template = run.getTemplateId() == null ? RunSchedulingPolicy.NO_TEMPLATE : run.getTemplateId();
+        if (this.dispatched.put(run.getId(), template) == null) {
+            this.adjustRunning(template, 1);
+        }
+
+        long waitTime = entry.getWaitTime(TimeUnit.MILLISECONDS);
+        this.queueStatistics.record(waitTime);
+        LOGGER.debug("[RunQueue] Run " + run.getId() + " waited " + waitTime + "ms in the queue (" + this.queueStatistics + ")");
+        return run;
+    }
+
+    /**
+     * Marks a dispatched run as finished, freeing its slot for the scheduling policy. Runs that are not dispatched are
+     * ignored, hence the method can be invoked multiple times for the same run.
+     *
+     * @param runId - the ID of the run
+     */
+    protected void released(String runId) {
+        if (runId == null) {
+            return;
+        }
+        String template = this.dispatched.remove(runId);
+        if (template != null) {
+            this.adjustRunning(template, -1);
+            // executors might be waiting for a template to fall below its limit
+            this.runQueue.signal();
+        }
+    }
 
-        for (Run r : this.runQueue) {
-            if (runId.equals(r.getId())) {
-                return r;
+    /**
+     * Atomically changes the number of running runs of the given template.
+     *
+     * @param template - the template ID
+     * @param delta - the change to apply
+     */
+    private void adjustRunning(String template, int delta) {
+        while (true) {
+            Integer current = this.running.get(template);
+            if (current == null) {
+                if (delta <= 0 || this.running.putIfAbsent(template, delta) == null) {
+                    return;
+                }
+            } else {
+                int updated = current + delta;
+                boolean done = updated > 0 ? this.running.replace(template, current, updated) : this.running.remove(template, current);
+                if (done) {
+                    return;
+                }
             }
         }
+    }
+
+    /**
+     * Holds back the write of a run whose status changed, so that it can be merged with the following changes. If
+     * the controller is not writing behind, the run is written straight away.
+     *
+     * @param run - the changed run
+     */
+    protected void hold(Run run) {
+        if (this.flusher == null) {
+            this.updateRun(run);
+            return;
+        }
+        Run held = this.pending.put(run.getId(), run);
+        if (held != null && held != run) {
+            // changes made to another instance of the same run are not lost
+            this.write(held);
+        }
+    }
+
+    /**
+     * Writes the pending status changes of the given run, if any.
+     *
+     * @param runId - the ID of the run
+     */
+    protected void flush(String runId) {
+        if (runId == null) {
+            return;
+        }
+        Run run = this.pending.remove(runId);
+        if (run != null) {
+            this.write(run);
+        }
+    }
+
+    /**
+     * Writes the given run to the repository.
+     *
+     * @param run - the run to write
+     */
+    private void write(Run run) {
+        synchronized (this.repository) {
+            this.repository.updateItem(run);
+        }
+    }
 
-        return null;
+    protected Run getRunFromQueue(String runId) {
+        return this.runQueue.get(runId);
     }
 
     /**
@@ -284,6 +571,8 @@ public class SuroRunController extends AbstractSuroService implements RunControl
 
     @Override
     protected void doRelease() {
+        // writes the pending changes before letting the repository go
+        this.setFlushInterval(0);
         this.repository = null;
         this.runQueue = null;
     }
@@ -292,8 +581,32 @@ public class SuroRunController extends AbstractSuroService implements RunControl
     protected void doBind(Environment environment) {
         this.repository = (RunRepository) environment.getAttribute(RunRepository.RUN_REPOSITORY_INSTANCE);
         if (this.runQueue == null) {
-            this.runQueue = new LinkedBlockingDeque<>();
+            this.runQueue = new RunQueue();
+        }
+
+        String policy = environment.getParameter(CFG_SCHEDULING_POLICY);
+        if (policy == null) {
+            policy = DEFAULT_SCHEDULING_POLICY;
+        } else if (!SCHEDULING_POLICY_FAIRSHARE.equals(policy) && !SCHEDULING_POLICY_FIFO.equals(policy)) {
+            LOGGER.warn("Configuration for " + CFG_SCHEDULING_POLICY + " has an unknown value (" + policy + "). Falling back to default value: " + DEFAULT_SCHEDULING_POLICY);
+            policy = DEFAULT_SCHEDULING_POLICY;
+        }
+        if (SCHEDULING_POLICY_FIFO.equals(policy)) {
+            this.schedulingPolicy = null;
+        } else {
+            this.schedulingPolicy = new FairShareSchedulingPolicy(environment.getParameter(CFG_SCHEDULING_WEIGHTS), environment.getParameter(CFG_SCHEDULING_LIMITS));
+        }
+
+        long interval = DEFAULT_RUN_FLUSH_INTERVAL;
+        String flush = environment.getParameter(CFG_RUN_FLUSH_INTERVAL);
+        if (flush != null) {
+            try {
+                interval = Long.parseLong(flush);
+            } catch (NumberFormatException nfe) {
+                LOGGER.warn("Configuration for " + CFG_RUN_FLUSH_INTERVAL + " could not be read. Falling back to default value: " + interval);
+            }
         }
+        this.setFlushInterval(interval);
 
         // delay adding already created runs to the queue (on startup)
         SuroRunControllerResumeRunReminder reminder = new SuroRunControllerResumeRunReminder(environment, this);
@@ -2,6 +2,7 @@ package com.ibm.au.optim.suro.core.migration.preparer.v004;
 
 import com.ibm.au.jaws.web.core.runtime.Environment;
 import com.ibm.au.optim.suro.core.composer.NTuple;
+import com.ibm.au.optim.suro.core.composer.NTupleReader;
 import com.ibm.au.optim.suro.core.composer.components.TemporalInputComponent;
 import com.ibm.au.optim.suro.model.control.domain.HospitalController;
 import com.ibm.au.optim.suro.model.control.domain.ingestion.IngestionController;
@@ -134,8 +135,10 @@ public class IngestionDatabasePreparer implements DatabasePreparer {
         Hospital hospital = hospitalController.getHospital(hospitalId);
 
         // read all tuples
-        while (NTuple.hasNextNTuple(reader)) {
-            NTuple tuple = NTuple.readTuple(reader);
+        NTupleReader tuples = new NTupleReader(reader);
+        NTuple tuple;
+
+        while ((tuple = tuples.readTuple()) != null) {
 
             // create and add the department
             Department department = new Department((String) tuple.getElement(1),
@@ -166,8 +169,10 @@ public class IngestionDatabasePreparer implements DatabasePreparer {
         List<String> specialistTypes = new ArrayList<>();
 
         // read all tuples
-        while (NTuple.hasNextNTuple(reader)) {
-            NTuple tuple = NTuple.readTuple(reader);
+        NTupleReader tuples = new NTupleReader(reader);
+        NTuple tuple;
+
+        while ((tuple = tuples.readTuple()) != null) {
 
             // store the specialist type if it doesn't exist
             String specialistTypeId = (String) tuple.getElement(0);
@@ -213,8 +218,10 @@ public class IngestionDatabasePreparer implements DatabasePreparer {
         Map<String, List<Integer>> availabilities = new HashMap<>();
 
         // read all tuples
-        while (NTuple.hasNextNTuple(reader)) {
-            NTuple tuple = NTuple.readTuple(reader);
+        NTupleReader tuples = new NTupleReader(reader);
+        NTuple tuple;
+
+        while ((tuple = tuples.readTuple()) != null) {
 
             // get the list od bed availabilities from the ward name
             List<Integer> bedsByDay = availabilities.get(tuple.getElement(0));
@@ -288,8 +295,10 @@ public class IngestionDatabasePreparer implements DatabasePreparer {
                 MachineLearningController.MACHINE_LEARNING_CONTROLLER_INSTANCE);
 
         // read all tuples
-        while (NTuple.hasNextNTuple(reader)) {
-            NTuple tuple = NTuple.readTuple(reader);
+        NTupleReader tuples = new NTupleReader(reader);
+        NTuple tuple;
+
+        while ((tuple = tuples.readTuple()) != null) {
 
             // create and add the arriving patient
             machineLearningController.addArrivingPatient(new ArrivingPatient(tuple.getElement(0).toString(),
@@ -315,8 +324,10 @@ public class IngestionDatabasePreparer implements DatabasePreparer {
         List<InitialPatient> initialPatients = new ArrayList<>();
 
         // read all tuples
-        while (NTuple.hasNextNTuple(reader)) {
-            NTuple tuple = NTuple.readTuple(reader);
+        NTupleReader tuples = new NTupleReader(reader);
+        NTuple tuple;
+
+        while ((tuple = tuples.readTuple()) != null) {
 
             initialPatients.add(new InitialPatient(tuple.getElement(0).toString(),
                     ((Number) tuple.getElement(1)).intValue(),
@@ -344,8 +355,10 @@ public class IngestionDatabasePreparer implements DatabasePreparer {
         List<BasePlanEntry> basePlanEntries = new ArrayList<>();
 
         // read all tuples
-        while (NTuple.hasNextNTuple(reader)) {
-            NTuple tuple = NTuple.readTuple(reader);
+        NTupleReader tuples = new NTupleReader(reader);
+        NTuple tuple;
+
+        while ((tuple = tuples.readTuple()) != null) {
 
             basePlanEntries.add(new BasePlanEntry(((NTuple) tuple.getElement(0)).getElement(0).toString(),
                     ((Number) tuple.getElement(1)).intValue(),
@@ -373,8 +386,10 @@ public class IngestionDatabasePreparer implements DatabasePreparer {
         List<SurgeryCluster> surgeryClusterList = new ArrayList<>();
 
         // read all tuples
-        while (NTuple.hasNextNTuple(reader)) {
-            NTuple tuple = NTuple.readTuple(reader);
+        NTupleReader tuples = new NTupleReader(reader);
+        NTuple tuple;
+
+        while ((tuple = tuples.readTuple()) != null) {
 
             surgeryClusterList.add(new SurgeryCluster(tuple.getElement(0).toString(),
                     tuple.getElement(1).toString(),
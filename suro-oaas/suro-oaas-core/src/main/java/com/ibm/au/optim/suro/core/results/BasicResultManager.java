@@ -8,10 +8,12 @@ import com.ibm.au.optim.suro.core.results.mapper.JsonCategoryResultMapper;
 import com.ibm.au.optim.suro.core.results.mapper.KeyToColumnResultMapper;
 import com.ibm.au.optim.suro.model.control.ResultManager;
 import com.ibm.au.optim.suro.model.control.ResultMapper;
+import com.ibm.au.optim.suro.model.entities.Attachment;
 import com.ibm.au.optim.suro.model.entities.Model;
 import com.ibm.au.optim.suro.model.entities.Run;
 import com.ibm.au.optim.suro.model.entities.mapping.MappingType;
 import com.ibm.au.optim.suro.model.entities.mapping.OutputMapping;
+import com.ibm.au.optim.suro.model.store.AttachmentException;
 import com.ibm.au.optim.suro.model.store.ModelRepository;
 import com.ibm.au.optim.suro.model.store.RunRepository;
 import com.ibm.au.optim.suro.util.ProcessResponse;
@@ -22,12 +24,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Default implementation of the result manager.
@@ -40,14 +49,28 @@ import java.util.Map;
  * The transformation specification is stored as {@link Model#outputMappings} and can specifies multiple
  * different transformations resulting in multiple files that are attached to the run as result.
  *
+ * The output mappings are processed concurrently, by up to {@link #CFG_MAPPING_THREADS} threads, and the resulting
+ * files are attached to the run with a single call to {@link RunRepository#attachAll(Run, List)}, so that the time
+ * needed to store the results is not the sum of the time needed by each mapping and its upload.
+ *
  * @author Peter Ilfrich
  */
 public class BasicResultManager implements ResultManager {
 
+    /**
+     * Configuration parameter for the maximum number of threads used to process the output mappings of a run. A value
+     * of 1 or lower processes the mappings one after the other.
+     */
+    public static final String CFG_MAPPING_THREADS = "suro.results.mapping.threads";
+
+    /**
+     * Default value for {@link #CFG_MAPPING_THREADS}.
+     */
+    public static final int DEFAULT_MAPPING_THREADS = 4;
+
     private Environment environment;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BasicResultManager.class);
-    private static final char CSV_DELIMITER = ',';
     
     private static final Map<MappingType, Class<?>> mappings = new HashMap<MappingType, Class<?>>();
 
@@ -71,7 +94,7 @@ public class BasicResultManager implements ResultManager {
 
 
     @Override
-    public ProcessResponse storeResults(Run run, JsonNode resultNode) throws IOException {
+    public ProcessResponse storeResults(Run run, final JsonNode resultNode) throws IOException {
         // invalid parameters
         if (run == null || resultNode == null || run.getModelId() == null) {
             return new ProcessResponse(false);
@@ -82,22 +105,22 @@ public class BasicResultManager implements ResultManager {
             return new ProcessResponse(false);
         }
 
-        List<String> failedOutput = new ArrayList<>();
-        List<String> successOutput = new ArrayList<>();
-        for (OutputMapping mapping : model.getOutputMappings()) {
-            try {
-                boolean res = processMapping(run, resultNode, mapping);
-                if (res) {
-                    successOutput.add(mapping.getFileName());
-                    continue;
+        List<String> fileNames = new ArrayList<>();
+        List<Callable<Attachment>> tasks = new ArrayList<>();
+        for (final OutputMapping mapping : model.getOutputMappings()) {
+            fileNames.add(mapping.getFileName());
+            tasks.add(new Callable<Attachment>() {
+                @Override
+                public Attachment call() throws IOException {
+                    return transformMapping(resultNode, mapping);
                 }
-            }
-            catch (IOException e) {
-                LOGGER.error("IOException during result processing for mapping " + mapping.getFileName(), e);
-            }
-            failedOutput.add(mapping.getFileName());
+            });
         }
 
+        List<String> failedOutput = new ArrayList<>();
+        List<Attachment> attachments = executeMappings(fileNames, tasks, failedOutput);
+        storeAttachments(run, attachments, failedOutput);
+
 
         if (failedOutput.isEmpty()) {
             return new ProcessResponse(true);
@@ -107,15 +130,70 @@ public class BasicResultManager implements ResultManager {
         }
     }
 
+    /**
+     * Extracts the results from the provided solution stream in a single pass, without building a JSON tree of the
+     * whole solution. The entries of the solution are passed to a {@link SolutionConsumer} for each output mapping as
+     * they are read, and the output files are written concurrently and attached to the run once the solution has been
+     * read. Mappers that are not
+     * {@link StreamingResultMapper}s receive a tree containing only the solution keys of their sources.
+     */
     @Override
     public ProcessResponse storeResults(Run run, InputStream resultStream) throws IOException {
-        if (resultStream == null) {
+        if (run == null || resultStream == null || run.getModelId() == null) {
+            return new ProcessResponse(false);
+        }
+
+        Model model = getModelRepository().getItem(run.getModelId());
+        if (model == null || model.getOutputMappings() == null || model.getOutputMappings().isEmpty()) {
             return new ProcessResponse(false);
         }
 
-        JsonNode node = new ObjectMapper().readTree(resultStream);
-        return storeResults(run, node);
+        SolutionStreamReader reader = new SolutionStreamReader();
+        Map<OutputMapping, SolutionConsumer> consumers = new LinkedHashMap<>();
+        List<String> failedOutput = new ArrayList<>();
+
+        for (OutputMapping mapping : model.getOutputMappings()) {
+            try {
+                SolutionConsumer consumer = createConsumer(mapping);
+                reader.register(consumer);
+                consumers.put(mapping, consumer);
+            }
+            catch (IOException e) {
+                LOGGER.error("IOException during result processing for mapping " + mapping.getFileName(), e);
+                failedOutput.add(mapping.getFileName());
+            }
+        }
+
+        reader.read(resultStream);
+
+        List<String> fileNames = new ArrayList<>();
+        List<Callable<Attachment>> tasks = new ArrayList<>();
+        for (Map.Entry<OutputMapping, SolutionConsumer> entry : consumers.entrySet()) {
+            final String fileName = entry.getKey().getFileName();
+            final SolutionConsumer consumer = entry.getValue();
+            if (reader.getFailure(consumer) != null) {
+                failedOutput.add(fileName);
+                continue;
+            }
+            fileNames.add(fileName);
+            tasks.add(new Callable<Attachment>() {
+                @Override
+                public Attachment call() {
+                    return createConsumerAttachment(fileName, consumer);
+                }
+            });
+        }
+
+        List<Attachment> attachments = executeMappings(fileNames, tasks, failedOutput);
+        storeAttachments(run, attachments, failedOutput);
+
 
+        if (failedOutput.isEmpty()) {
+            return new ProcessResponse(true);
+        } else {
+            String join = Arrays.toString(failedOutput.toArray());
+            return new ProcessResponse(true, join);
+        }
     }
 
     @Override
@@ -129,11 +207,15 @@ public class BasicResultManager implements ResultManager {
     }
 
 
-    protected boolean processMapping(Run run, JsonNode data, OutputMapping mapping) throws IOException {
-        if (run == null || data == null || mapping == null) {
-            return false;
-        }
-
+    /**
+     * Transforms the solution according to the given mapping, without attaching the output to the run.
+     * @param data - the solution
+     * @param mapping - the output mapping
+     * @return - the output file, with its content stored, or null if the mapper did not produce any output.
+     * @throws IOException - if the mapper cannot be found, the mapping is not valid or the file extension is not
+     * supported.
+     */
+    protected Attachment transformMapping(JsonNode data, OutputMapping mapping) throws IOException {
         ResultMapper mapper = this.getMapperInstance(mapping);
         if (mapper == null) {
             throw new IOException("Could not find mapper for " + mapping.getFileName() + " (" + mapping.getMappingType() + ")");
@@ -145,23 +227,78 @@ public class BasicResultManager implements ResultManager {
 
         if (mapping.getFileName().toLowerCase().endsWith(".json")) {
             JsonNode transformedResult = mapper.transformToJson(data, mapping);
-            return storeJsonResult(run, mapping.getFileName(), transformedResult);
+            return createJsonAttachment(mapping.getFileName(), transformedResult);
 
         } else if (mapping.getFileName().toLowerCase().endsWith(".csv")) {
             List<String[]> transformedResult = mapper.transformToCsv(data, mapping);
-            return storeCsvResult(run, mapping.getFileName(), transformedResult);
+            return createCsvAttachment(mapping.getFileName(), transformedResult);
 
         } else {
             throw new IOException("Unsupported file extension.");
         }
     }
 
-    protected boolean storeJsonResult(Run run, String fileName, JsonNode jsonResult) throws IOException {
-        if (run == null || fileName == null || jsonResult == null) {
-            return false;
+    /**
+     * Creates the consumer producing the output file of the given mapping from the solution stream.
+     * @param mapping - the output mapping
+     * @return - the consumer provided by the mapper, or a {@link TreeSolutionConsumer} if the mapper does not support
+     * streaming.
+     * @throws IOException - if the mapper cannot be found, the mapping is not valid or the file extension is not
+     * supported.
+     */
+    protected SolutionConsumer createConsumer(OutputMapping mapping) throws IOException {
+        ResultMapper mapper = this.getMapperInstance(mapping);
+        if (mapper == null) {
+            throw new IOException("Could not find mapper for " + mapping.getFileName() + " (" + mapping.getMappingType() + ")");
         }
-        getRunRepository().attach(run, fileName, ContentType.APPLICATION_JSON.toString(), new ByteArrayInputStream(new ObjectMapper().writeValueAsBytes(jsonResult)));
-        return true;
+
+        if (!mapper.validate(mapping)) {
+            throw new IOException("Output mapping does not comply with the specified mapping type.");
+        }
+
+        String fileName = mapping.getFileName().toLowerCase();
+        if (!fileName.endsWith(".json") && !fileName.endsWith(".csv")) {
+            throw new IOException("Unsupported file extension.");
+        }
+
+        if (mapper instanceof StreamingResultMapper) {
+            return ((StreamingResultMapper) mapper).createConsumer(mapping);
+        }
+        return new TreeSolutionConsumer(mapper, mapping);
+    }
+
+    /**
+     * Writes the output of a consumer, without attaching it to the run.
+     * @param fileName - the name of the output file, which determines its content type
+     * @param consumer - the consumer which has processed the solution
+     * @return - the output file, with its content stored, or null if the consumer could not produce it.
+     */
+    protected Attachment createConsumerAttachment(String fileName, SolutionConsumer consumer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            consumer.write(out);
+        }
+        catch (IOException | RuntimeException e) {
+            LOGGER.error("Error during result processing for mapping " + fileName, e);
+            return null;
+        }
+
+        String contentType = fileName.toLowerCase().endsWith(".json") ? ContentType.APPLICATION_JSON.toString() : "text/csv";
+        return createAttachment(fileName, contentType, out.toByteArray());
+    }
+
+    /**
+     * Serialises a JSON output, without attaching it to the run.
+     * @param fileName - the name of the output file
+     * @param jsonResult - the output of the mapper
+     * @return - the output file, with its content stored, or null if any parameter is null.
+     * @throws IOException - if the output cannot be serialised.
+     */
+    protected Attachment createJsonAttachment(String fileName, JsonNode jsonResult) throws IOException {
+        if (fileName == null || jsonResult == null) {
+            return null;
+        }
+        return createAttachment(fileName, ContentType.APPLICATION_JSON.toString(), new ObjectMapper().writeValueAsBytes(jsonResult));
     }
 
     protected ResultMapper getMapperInstance(OutputMapping mapping) {
@@ -193,41 +330,159 @@ public class BasicResultManager implements ResultManager {
 
     }
 
-    protected boolean storeCsvResult(Run run, String fileName, List<String[]> csvResult) {
-        if (run == null || fileName == null || csvResult == null) {
-            return false;
+    /**
+     * Writes a CSV output, without attaching it to the run.
+     * @param fileName - the name of the output file
+     * @param csvResult - the rows produced by the mapper
+     * @return - the output file, with its content stored, or null if any parameter is null.
+     */
+    protected Attachment createCsvAttachment(String fileName, List<String[]> csvResult) {
+        if (fileName == null || csvResult == null) {
+            return null;
         }
 
         ByteArrayOutputStream out = new ByteArrayOutputStream();
 
         // write data to output stream
-        PrintWriter pw = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
-        boolean first = true;
+        CsvWriter writer = new CsvWriter(out);
         for (String[] row : csvResult) {
-            if (first) {
-                first = false;
-            } else {
-                pw.println();
-            }
-            arrayToDelimitedString(row, pw);
+            writer.writeRow(row);
         }
-        pw.close();
+        writer.close();
 
-        // store as attachment
-        getRunRepository().attach(run, fileName, "text/csv", new ByteArrayInputStream(out.toByteArray()));
+        return createAttachment(fileName, "text/csv", out.toByteArray());
+    }
 
-        return true;
+    /**
+     * Attaches the output files to the run with {@link RunRepository#attachAll(Run, List)}. If the repository reports
+     * the files it could not store, only those are reported as failed, otherwise all the files are reported as failed if
+     * the update fails. The update is made while holding the lock of the run repository, as the other updates of the run are
+     * (e.g. the job executor attaching the solution while the results are being mapped from it).
+     * @param run - the run to attach the files to
+     * @param attachments - the output files
+     * @param failedOutput - the list collecting the names of the files that could not be stored
+     */
+    protected void storeAttachments(Run run, List<Attachment> attachments, List<String> failedOutput) {
+        if (attachments.isEmpty()) {
+            return;
+        }
+        RunRepository repository = getRunRepository();
+        try {
+            synchronized (repository) {
+                repository.attachAll(run, attachments);
+            }
+        }
+        catch (AttachmentException e) {
+            LOGGER.error("Could not attach some of the results to run " + run.getId(), e);
+            failedOutput.addAll(e.getNames());
+        }
+        catch (RuntimeException e) {
+            LOGGER.error("Could not attach the results to run " + run.getId(), e);
+            for (Attachment attachment : attachments) {
+                failedOutput.add(attachment.getName());
+            }
+        }
     }
 
+    /**
+     * Retrieves the maximum number of threads used to process the output mappings of a run.
+     * @return - the value of {@link #CFG_MAPPING_THREADS}, or {@link #DEFAULT_MAPPING_THREADS} if it is not configured.
+     */
+    protected int getMappingThreads() {
+        String threads = environment == null ? null : environment.getParameter(CFG_MAPPING_THREADS, null);
+        if (threads != null) {
+            try {
+                return Integer.parseInt(threads);
+            } catch (NumberFormatException nfe) {
+                LOGGER.warn("Configuration for " + CFG_MAPPING_THREADS + " could not be read. Falling back to default value: " + DEFAULT_MAPPING_THREADS);
+            }
+        }
+        return DEFAULT_MAPPING_THREADS;
+    }
 
-    protected void arrayToDelimitedString(String[] values, PrintWriter pw) {
-        boolean first = true;
-        for (String s : values) {
-            if (!first) {
-                pw.print(CSV_DELIMITER);
+    /**
+     * Executes the tasks producing the output files of the mappings, concurrently if more than one thread is
+     * configured, and collects their output in the order of the mappings.
+     * @param fileNames - the names of the output files, one for each task
+     * @param tasks - the tasks producing the output files
+     * @param failedOutput - the list collecting the names of the files that could not be produced
+     * @return - the output files that have been produced.
+     */
+    private List<Attachment> executeMappings(List<String> fileNames, List<Callable<Attachment>> tasks, List<String> failedOutput) {
+        List<Attachment> attachments = new ArrayList<>();
+        int threads = Math.min(getMappingThreads(), tasks.size());
+
+        if (threads <= 1) {
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    addAttachment(fileNames.get(i), tasks.get(i).call(), attachments, failedOutput);
+                } catch (Exception e) {
+                    LOGGER.error("Error during result processing for mapping " + fileNames.get(i), e);
+                    failedOutput.add(fileNames.get(i));
+                }
+            }
+            return attachments;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "suro-result-mapping-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        try {
+            List<Future<Attachment>> futures = new ArrayList<>();
+            for (Callable<Attachment> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    addAttachment(fileNames.get(i), futures.get(i).get(), attachments, failedOutput);
+                } catch (ExecutionException e) {
+                    LOGGER.error("Error during result processing for mapping " + fileNames.get(i), e.getCause());
+                    failedOutput.add(fileNames.get(i));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOGGER.error("Interrupted during result processing for mapping " + fileNames.get(i), e);
+                    failedOutput.add(fileNames.get(i));
+                }
             }
-            pw.print(s);
-            first = false;
+        } finally {
+            executor.shutdownNow();
         }
+
+        return attachments;
+    }
+
+    /**
+     * Collects the output file of a mapping, or its name if the mapping did not produce any output.
+     */
+    private void addAttachment(String fileName, Attachment attachment, List<Attachment> attachments, List<String> failedOutput) {
+        if (attachment == null) {
+            failedOutput.add(fileName);
+        } else {
+            attachments.add(attachment);
+        }
+    }
+
+    /**
+     * Creates an output file with the given content.
+     */
+    private Attachment createAttachment(String fileName, String contentType, byte[] content) {
+        Attachment attachment = new Attachment(fileName, content.length, contentType);
+        attachment.store(new ByteArrayInputStream(content));
+        return attachment;
+    }
+
+
+    protected void arrayToDelimitedString(String[] values, PrintWriter pw) {
+        CsvWriter.writeValues(values, pw);
     }
 }
@@ -0,0 +1,83 @@
+package com.ibm.au.optim.suro.core.results;
+
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the rows of a CSV output one by one, in the format used for the results attached to a run: the values are
+ * separated by a comma and the rows by a line separator, without a line separator after the last row. The rows are
+ * written as they are provided, hence the output never needs to be held as a list of rows.
+ */
+public class CsvWriter implements Closeable {
+
+    /**
+     * The character separating the values of a row.
+     */
+    public static final char DELIMITER = ',';
+
+    /**
+     * The writer the rows are written to.
+     */
+    private final PrintWriter writer;
+
+    /**
+     * Whether no row has been written yet.
+     */
+    private boolean first = true;
+
+    /**
+     * Creates a new writer, writing the rows to the given stream encoded as UTF-8.
+     * @param output - the stream to write the rows to
+     */
+    public CsvWriter(OutputStream output) {
+        this(new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Creates a new writer, writing the rows to the given writer.
+     * @param writer - the writer to write the rows to
+     */
+    public CsvWriter(PrintWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes a row, preceded by a line separator if it is not the first one.
+     * @param values - the values of the row, null values are written as "null".
+     */
+    public void writeRow(String[] values) {
+        if (first) {
+            first = false;
+        } else {
+            writer.println();
+        }
+        writeValues(values, writer);
+    }
+
+    /**
+     * Flushes and closes the underlying writer.
+     */
+    @Override
+    public void close() {
+        writer.close();
+    }
+
+    /**
+     * Writes the values of a row separated by the delimiter, without a line separator.
+     * @param values - the values of the row
+     * @param writer - the writer to write the values to
+     */
+    public static void writeValues(String[] values, PrintWriter writer) {
+        boolean first = true;
+        for (String s : values) {
+            if (!first) {
+                writer.print(DELIMITER);
+            }
+            writer.print(s);
+            first = false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ibm.au.optim.suro.core.results;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * A solution consumer produces the output file of a single output mapping from the entries of the solution, while the
+ * solution is being read by a {@link SolutionStreamReader}. The solution is never available as a whole: the consumer
+ * receives the entries of the arrays stored under the solution keys it is interested in, one by one and in the order
+ * they appear in the solution, and keeps only what it needs to produce its output.
+ *
+ * Consumers are created by the {@link StreamingResultMapper}s for each output mapping, and are used only once.
+ */
+public interface SolutionConsumer {
+
+    /**
+     * Retrieves the keys of the solution whose entries are needed to produce the output.
+     * @return - the solution keys, the entries of the arrays stored under any other key are not passed to the consumer.
+     */
+    Collection<String> getSolutionKeys();
+
+    /**
+     * Processes an entry of the array stored under one of the solution keys of the consumer.
+     * @param solutionKey - the solution key of the array containing the entry
+     * @param entry - the entry
+     * @throws IOException - if the entry cannot be processed.
+     */
+    void accept(String solutionKey, JsonNode entry) throws IOException;
+
+    /**
+     * Signals that all the entries of the array stored under a solution key have been passed to the consumer.
+     * @param solutionKey - the solution key
+     * @throws IOException - if the entries cannot be processed.
+     */
+    void complete(String solutionKey) throws IOException;
+
+    /**
+     * Writes the output, once the whole solution has been read.
+     * @param output - the stream to write the output file to, which may be closed once the output is written
+     * @throws IOException - if the output cannot be produced or written.
+     */
+    void write(OutputStream output) throws IOException;
+}
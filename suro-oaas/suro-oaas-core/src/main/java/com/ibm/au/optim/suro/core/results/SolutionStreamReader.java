@@ -0,0 +1,180 @@
+package com.ibm.au.optim.suro.core.results;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a solution (e.g. solution.json) in a single pass and passes the entries of its arrays to all the registered
+ * {@link SolutionConsumer}s interested in the solution key of the array. Only one entry at a time is held in memory
+ * as a JSON tree: arrays no consumer is interested in are skipped without being parsed into nodes, and values that
+ * are not arrays (e.g. "finalGap") are collected in a summary node, which is available once the solution has been
+ * read.
+ *
+ * A consumer that fails while processing an entry does not receive any further entry, the other consumers are not
+ * affected. The failure is available from {@link #getFailure(SolutionConsumer)}.
+ */
+public class SolutionStreamReader {
+
+    /**
+     * A logger instance
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SolutionStreamReader.class);
+
+    /**
+     * The object mapper used to parse the solution.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * The consumers interested in each solution key.
+     */
+    private final Map<String, List<SolutionConsumer>> consumers = new HashMap<>();
+
+    /**
+     * The failures of the consumers that could not process the solution.
+     */
+    private final Map<SolutionConsumer, Exception> failures = new IdentityHashMap<>();
+
+    /**
+     * The values of the solution that are not arrays.
+     */
+    private final ObjectNode summary = MAPPER.createObjectNode();
+
+    /**
+     * Registers a consumer, which will receive the entries of the arrays stored under its solution keys.
+     * @param consumer - the consumer to register
+     */
+    public void register(SolutionConsumer consumer) {
+        for (String solutionKey : consumer.getSolutionKeys()) {
+            List<SolutionConsumer> list = consumers.get(solutionKey);
+            if (list == null) {
+                list = new ArrayList<>();
+                consumers.put(solutionKey, list);
+            }
+            if (!list.contains(consumer)) {
+                list.add(consumer);
+            }
+        }
+    }
+
+    /**
+     * Reads the solution and passes the entries of its arrays to the registered consumers.
+     * @param input - the stream containing the solution, which must be a JSON object. The stream is not closed.
+     * @throws IOException - if the solution cannot be read or is not a JSON object. A consumer failing does not cause
+     * an exception.
+     */
+    public void read(InputStream input) throws IOException {
+        JsonParser parser = MAPPER.getFactory().createParser(input);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("The solution is not a JSON object.");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String solutionKey = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+
+                if (token != JsonToken.START_ARRAY) {
+                    JsonNode value = MAPPER.readTree(parser);
+                    summary.set(solutionKey, value);
+                    continue;
+                }
+
+                List<SolutionConsumer> interested = consumers.get(solutionKey);
+                if (interested == null) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    JsonNode entry = MAPPER.readTree(parser);
+                    for (SolutionConsumer consumer : interested) {
+                        accept(consumer, solutionKey, entry);
+                    }
+                }
+                for (SolutionConsumer consumer : interested) {
+                    complete(consumer, solutionKey);
+                }
+            }
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Retrieves the values of the solution that are not arrays, once the solution has been read.
+     * @return - an object node containing the values that are not arrays, under their solution key.
+     */
+    public JsonNode getSummary() {
+        return summary;
+    }
+
+    /**
+     * Retrieves the reason why a consumer could not process the solution.
+     * @param consumer - a registered consumer
+     * @return - the exception thrown by the consumer, or null if it processed all its entries.
+     */
+    public Exception getFailure(SolutionConsumer consumer) {
+        return failures.get(consumer);
+    }
+
+    /**
+     * Passes an entry to a consumer, unless it has failed already.
+     * @param consumer - the consumer
+     * @param solutionKey - the solution key of the entry
+     * @param entry - the entry
+     */
+    private void accept(SolutionConsumer consumer, String solutionKey, JsonNode entry) {
+        if (failures.containsKey(consumer)) {
+            return;
+        }
+        try {
+            consumer.accept(solutionKey, entry);
+        } catch (IOException | RuntimeException e) {
+            fail(consumer, solutionKey, e);
+        }
+    }
+
+    /**
+     * Signals the end of an array to a consumer, unless it has failed already.
+     * @param consumer - the consumer
+     * @param solutionKey - the solution key of the array
+     */
+    private void complete(SolutionConsumer consumer, String solutionKey) {
+        if (failures.containsKey(consumer)) {
+            return;
+        }
+        try {
+            consumer.complete(solutionKey);
+        } catch (IOException | RuntimeException e) {
+            fail(consumer, solutionKey, e);
+        }
+    }
+
+    /**
+     * Records the failure of a consumer.
+     * @param consumer - the consumer
+     * @param solutionKey - the solution key being processed
+     * @param e - the exception thrown by the consumer
+     */
+    private void fail(SolutionConsumer consumer, String solutionKey, Exception e) {
+        LOGGER.error("Error processing the entries of solution key " + solutionKey, e);
+        failures.put(consumer, e);
+    }
+}
@@ -0,0 +1,23 @@
+package com.ibm.au.optim.suro.core.results;
+
+import com.ibm.au.optim.suro.model.control.ResultMapper;
+import com.ibm.au.optim.suro.model.entities.mapping.OutputMapping;
+
+/**
+ * Result mappers implementing this interface can produce their output while the solution is being read, from the
+ * entries of the solution keys they need, instead of requiring the whole solution as a JSON tree. The output of the
+ * consumers is the same as the one of {@link ResultMapper#transformToCsv} or {@link ResultMapper#transformToJson}
+ * for the same mapping, depending on the extension of the file.
+ *
+ * Mappers that do not implement this interface are still supported by the {@link BasicResultManager}, which provides
+ * them with a tree containing only the solution keys of the sources of their mapping.
+ */
+public interface StreamingResultMapper extends ResultMapper {
+
+    /**
+     * Creates the consumer producing the output file of the given mapping.
+     * @param mapping - the output mapping, which has already been validated by the mapper
+     * @return - a new consumer for the mapping
+     */
+    SolutionConsumer createConsumer(OutputMapping mapping);
+}
@@ -0,0 +1,104 @@
+package com.ibm.au.optim.suro.core.results;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ibm.au.optim.suro.model.control.ResultMapper;
+import com.ibm.au.optim.suro.model.entities.mapping.MappingSource;
+import com.ibm.au.optim.suro.model.entities.mapping.OutputMapping;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consumer used for the result mappers that cannot process the solution as a stream. It collects the entries of the
+ * solution keys of the sources of the mapping into a partial solution tree, which is passed to the mapper once the
+ * whole solution has been read. The rest of the solution is never held in memory.
+ */
+public class TreeSolutionConsumer implements SolutionConsumer {
+
+    /**
+     * The object mapper used to create and write the nodes.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * The mapper producing the output.
+     */
+    private final ResultMapper mapper;
+
+    /**
+     * The output mapping.
+     */
+    private final OutputMapping mapping;
+
+    /**
+     * The solution keys of the sources of the mapping.
+     */
+    private final Set<String> solutionKeys = new LinkedHashSet<>();
+
+    /**
+     * The partial solution containing the entries of the solution keys of the mapping.
+     */
+    private final ObjectNode solution = MAPPER.createObjectNode();
+
+    /**
+     * Creates a new consumer for the given mapping.
+     * @param mapper - the mapper producing the output from the partial solution
+     * @param mapping - the output mapping, which has already been validated by the mapper
+     */
+    public TreeSolutionConsumer(ResultMapper mapper, OutputMapping mapping) {
+        this.mapper = mapper;
+        this.mapping = mapping;
+
+        for (MappingSource source : mapping.getSources()) {
+            solutionKeys.add(source.getSolutionKey());
+        }
+    }
+
+    @Override
+    public Collection<String> getSolutionKeys() {
+        return solutionKeys;
+    }
+
+    @Override
+    public void accept(String solutionKey, JsonNode entry) {
+        JsonNode entries = solution.get(solutionKey);
+        if (entries == null) {
+            entries = solution.putArray(solutionKey);
+        }
+        ((ArrayNode) entries).add(entry);
+    }
+
+    @Override
+    public void complete(String solutionKey) {
+        // the partial solution is only processed once complete
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        if (mapping.getFileName().toLowerCase().endsWith(".json")) {
+            JsonNode result = mapper.transformToJson(solution, mapping);
+            if (result == null) {
+                throw new IOException("No JSON output produced for " + mapping.getFileName());
+            }
+            MAPPER.writeValue(output, result);
+
+        } else {
+            List<String[]> result = mapper.transformToCsv(solution, mapping);
+            if (result == null) {
+                throw new IOException("No CSV output produced for " + mapping.getFileName());
+            }
+            CsvWriter writer = new CsvWriter(output);
+            for (String[] row : result) {
+                writer.writeRow(row);
+            }
+            writer.close();
+        }
+    }
+}
@@ -1,17 +1,22 @@
 package com.ibm.au.optim.suro.core.results.mapper;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.au.optim.suro.core.results.SolutionConsumer;
 import com.ibm.au.optim.suro.model.entities.mapping.ComplexStringKey;
 import com.ibm.au.optim.suro.model.entities.mapping.MappingSource;
 import com.ibm.au.optim.suro.model.entities.mapping.MappingSpecification;
 import com.ibm.au.optim.suro.model.entities.mapping.OutputMapping;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +25,10 @@ import org.slf4j.LoggerFactory;
  * Parent class for all the JSON and CSV mappers and transformers. This method provides base functionality to all
  * sub-classes to transform between the original JSON and the desired output format.
  *
+ * Columns are collected in insertion ordered hash sets and the position of the column of each entry is looked up in a
+ * column index (see {@link #indexColumns(String[])}), so that extracting the columns and the rows is linear in the
+ * number of entries of the solution.
+ *
  * @author Peter Ilfrich
  */
 public abstract class AbstractJsonMapper {
@@ -102,6 +111,30 @@ public abstract class AbstractJsonMapper {
         return max;
     }
 
+    /**
+     * Passes the entries of the arrays stored under the solution keys of the consumer to the consumer, as a
+     * {@link com.ibm.au.optim.suro.core.results.SolutionStreamReader} does while reading the solution, so that the
+     * mappers produce their output from a JSON tree with the same consumer they use for a stream. Solution keys that
+     * are missing from the tree, or are not arrays, are not passed to the consumer.
+     *
+     * @param node - the entire solution JSON node.
+     * @param consumer - the consumer producing the output of a mapping
+     * @throws IOException - if the consumer cannot process an entry.
+     */
+    protected void consume(JsonNode node, SolutionConsumer consumer) throws IOException {
+        for (String solutionKey : consumer.getSolutionKeys()) {
+            JsonNode entries = node.get(solutionKey);
+            if (entries == null || !entries.isArray()) {
+                continue;
+            }
+
+            for (JsonNode entry : entries) {
+                consumer.accept(solutionKey, entry);
+            }
+            consumer.complete(solutionKey);
+        }
+    }
+
     /**
      * Retrieves the value from a JSON node and makes sure to return it as String (performing the necessary conversions)
      * @param node - the node to extract the value from
@@ -141,7 +174,9 @@ public abstract class AbstractJsonMapper {
      * the specified columns.
      */
     protected String[] extractSingleKeyRows(MappingSource source, Iterator<JsonNode> solutionData, String[] columns) {
+        Map<String, Integer> columnIndex = indexColumns(columns);
         MappingSpecification row = source.getRow();
+        String columnKey = source.getColumn().getEntryKeys()[0];
 
         String[] currentRow = new String[columns.length + 1];
         currentRow[0] = row.getLabels()[0];
@@ -150,11 +185,16 @@ public abstract class AbstractJsonMapper {
             JsonNode entry = solutionData.next();
 
             // if entry cannot be matched to column, skip entry
-            String currentColumn = extractStringValue(entry.get(source.getColumn().getEntryKeys()[0]));
+            String currentColumn = extractStringValue(entry.get(columnKey));
             if (currentColumn == null) {
                 continue;
             }
 
+            Integer index = columnIndex.get(currentColumn);
+            if (index == null) {
+                continue;
+            }
+
             // extract current value
             String currentValue;
             if (source.getValue() != null) {
@@ -168,12 +208,8 @@ public abstract class AbstractJsonMapper {
                 currentValue = "";
             }
 
-            for (int i = 0; i < columns.length; i++) {
-                if (columns[i].equals(currentColumn)) {
-                    // shift + 1 for the row label
-                    currentRow[i + 1] = currentValue;
-                }
-            }
+            // shift + 1 for the row label
+            currentRow[index + 1] = currentValue;
         }
 
         return currentRow;
@@ -191,10 +227,12 @@ public abstract class AbstractJsonMapper {
     protected List<String[]> extractMultiKeyRows(MappingSource source, Iterator<JsonNode> solutionData, String[] columns) {
         List<String[]> rows = new ArrayList<>();
         Map<ComplexStringKey, String[]> rowValues = new HashMap<>();
+        Map<String, Integer> columnIndex = indexColumns(columns);
 
 
         MappingSpecification row = source.getRow();
         String[] keys = row.getEntryKeys();
+        String columnKey = source.getColumn().getEntryKeys()[0];
 
         while (solutionData.hasNext()) {
             JsonNode entry = solutionData.next();
@@ -210,14 +248,11 @@ public abstract class AbstractJsonMapper {
                 rowValues.put(rowKey, values);
             }
 
-            String currentColumn = extractStringValue(entry.get(source.getColumn().getEntryKeys()[0]));
-
-            for (int i = 0; i < columns.length; i++) {
-                if (columns[i].equals(currentColumn)) {
-                    // extract value
-                    String currentValue = extractStringValue(entry.get(source.getValue().getKeys()[0]));
-                    values[i] = currentValue;
-                }
+            String currentColumn = extractStringValue(entry.get(columnKey));
+            Integer index = currentColumn == null ? null : columnIndex.get(currentColumn);
+            if (index != null) {
+                // extract value
+                values[index] = extractStringValue(entry.get(source.getValue().getKeys()[0]));
             }
         }
 
@@ -294,24 +329,41 @@ public abstract class AbstractJsonMapper {
      * the ComplexStringKey).
      */
     protected String[] extractColumns(MappingSource[] sources, JsonNode node) {
-        List<String> columns = new ArrayList<>();
+        Set<String> columns = new LinkedHashSet<>();
 
         for (MappingSource source : sources) {
             if (source.getColumn() == null || source.getColumn().getEntryKeys() == null || source.getColumn().getEntryKeys().length != 1) {
                 continue;
             }
 
+            String columnKey = source.getColumn().getEntryKeys()[0];
             Iterator<JsonNode> entries = node.get(source.getSolutionKey()).iterator();
             while (entries.hasNext()) {
                 JsonNode entry = entries.next();
-                String columnValue = extractStringValue(entry.get(source.getColumn().getEntryKeys()[0]));
-                if (!columns.contains(columnValue)) {
-                    columns.add(columnValue);
-                }
+                String columnValue = extractStringValue(entry.get(columnKey));
+                columns.add(columnValue);
             }
         }
 
-        return getStringArray(columns);
+        return columns.toArray(new String[columns.size()]);
+    }
+
+    /**
+     * Creates the index of the given columns, mapping each column label to its position, so that the position of the
+     * column of an entry is found without searching the columns. If a label appears more than once, only its first
+     * position is used.
+     *
+     * @param columns - the list of column labels
+     * @return - the position of each column label, iterated in the order of the columns.
+     */
+    protected Map<String, Integer> indexColumns(String[] columns) {
+        Map<String, Integer> columnIndex = new LinkedHashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            if (!columnIndex.containsKey(columns[i])) {
+                columnIndex.put(columns[i], i);
+            }
+        }
+        return columnIndex;
     }
 
     /**
@@ -1,6 +1,8 @@
 package com.ibm.au.optim.suro.core.results.mapper;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.au.optim.suro.core.results.SolutionConsumer;
+import com.ibm.au.optim.suro.core.results.TreeSolutionConsumer;
 import com.ibm.au.optim.suro.model.control.ResultMapper;
 import com.ibm.au.optim.suro.model.entities.mapping.ComplexStringKey;
 import com.ibm.au.optim.suro.model.entities.mapping.MappingSource;
@@ -49,8 +51,9 @@ public class ComplexAppendResultMapper extends ComplexResultMapper implements Re
         String[] columnLabels = Arrays.copyOf(rowLabels, rowLabels.length);
 
         for (MappingSource source : mapping.getSources()) {
-            List<String[]> rows = this.extractRows(node.get(source.getSolutionKey()).iterator(), source, extractColumns(new MappingSource[] { source }, node));
-            columnLabels = appendColumnLabels(columnLabels, extractColumns(new MappingSource[]{ source }, node), source);
+            String[] columns = extractColumns(new MappingSource[] { source }, node);
+            List<String[]> rows = this.extractRows(node.get(source.getSolutionKey()).iterator(), source, columns);
+            columnLabels = appendColumnLabels(columnLabels, columns, source);
 
 
             if (result.isEmpty()) {
@@ -66,6 +69,15 @@ public class ComplexAppendResultMapper extends ComplexResultMapper implements Re
 
     }
 
+    /**
+     * The sub-matrices of the sources are appended to each other, which requires the rows of all the sources. Hence
+     * this mapper collects the entries of its sources and processes them as a tree.
+     */
+    @Override
+    public SolutionConsumer createConsumer(OutputMapping mapping) {
+        return new TreeSolutionConsumer(this, mapping);
+    }
+
     /**
      * 
      */
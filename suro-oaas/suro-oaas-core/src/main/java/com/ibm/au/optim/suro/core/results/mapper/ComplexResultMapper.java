@@ -1,16 +1,27 @@
 package com.ibm.au.optim.suro.core.results.mapper;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.ibm.au.optim.suro.model.control.ResultMapper;
+import com.ibm.au.optim.suro.core.results.CsvWriter;
+import com.ibm.au.optim.suro.core.results.SolutionConsumer;
+import com.ibm.au.optim.suro.core.results.StreamingResultMapper;
+import com.ibm.au.optim.suro.model.entities.mapping.ComplexStringKey;
 import com.ibm.au.optim.suro.model.entities.mapping.MappingSource;
+import com.ibm.au.optim.suro.model.entities.mapping.MappingSpecification;
 import com.ibm.au.optim.suro.model.entities.mapping.OutputMapping;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This is the default result mapper used for most output sources. It will take a list of sources (solutionKeys) and
@@ -18,7 +29,7 @@ import java.util.List;
  *
  * @author Peter Ilfrich
  */
-public class ComplexResultMapper extends AbstractJsonMapper implements ResultMapper {
+public class ComplexResultMapper extends AbstractJsonMapper implements StreamingResultMapper {
 
 
     /**
@@ -28,25 +39,10 @@ public class ComplexResultMapper extends AbstractJsonMapper implements ResultMap
 
     @Override
     public List<String[]> transformToCsv(JsonNode node, OutputMapping mapping) throws IOException {
+        ComplexConsumer consumer = new ComplexConsumer(mapping);
+        consume(node, consumer);
 
-        MappingSource[] sources = mapping.getSources();
-
-        List<String[]> result = new ArrayList<>();
-        String[] columns = extractColumns(sources, node);
-
-        result.add(createHeader(mapping, columns));
-
-        for(MappingSource source : sources) {
-            JsonNode solutionPart = node.get(source.getSolutionKey());
-
-            if (solutionPart.isArray()) {
-                result.addAll(this.extractRows(solutionPart.iterator(), source, columns));
-            } else {
-                // add differently structured data (TODO: check if such data exists)
-            }
-        }
-
-        return result;
+        return consumer.createRows();
     }
 
     @Override
@@ -54,6 +50,11 @@ public class ComplexResultMapper extends AbstractJsonMapper implements ResultMap
         return null;
     }
 
+    @Override
+    public SolutionConsumer createConsumer(OutputMapping mapping) {
+        return new ComplexConsumer(mapping);
+    }
+
     @Override
     public boolean validate(OutputMapping mapping) {
         boolean baseValidation = validate(mapping, new String[] { "csv" });
@@ -92,5 +93,261 @@ public class ComplexResultMapper extends AbstractJsonMapper implements ResultMap
         return true;
     }
 
+    /**
+     * Produces the CSV of the mapping from the entries of the solution, both while the solution is read and, for
+     * {@link #transformToCsv(JsonNode, OutputMapping)}, from a JSON tree. The columns are only known once all the
+     * entries have been read, hence the values of each row are stored by column value in the order the column values
+     * are found, and arranged in the order of the columns when the rows are created.
+     */
+    protected class ComplexConsumer implements SolutionConsumer {
+
+        /**
+         * The output mapping.
+         */
+        private final OutputMapping mapping;
+
+        /**
+         * The state of each source of the mapping.
+         */
+        private final SourceState[] states;
+
+        /**
+         * The index of each column value found in the entries, used to store the values of the rows.
+         */
+        private final Map<String, Integer> found = new HashMap<>();
+
+        /**
+         * Creates a new consumer for the given mapping.
+         * @param mapping - the output mapping
+         */
+        protected ComplexConsumer(OutputMapping mapping) {
+            this.mapping = mapping;
+
+            MappingSource[] sources = mapping.getSources();
+            this.states = new SourceState[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                states[i] = new SourceState(sources[i]);
+            }
+        }
+
+        @Override
+        public Collection<String> getSolutionKeys() {
+            Set<String> keys = new LinkedHashSet<>();
+            for (SourceState state : states) {
+                keys.add(state.source.getSolutionKey());
+            }
+            return keys;
+        }
+
+        @Override
+        public void accept(String solutionKey, JsonNode entry) {
+            for (SourceState state : states) {
+                if (solutionKey.equals(state.source.getSolutionKey())) {
+                    state.accept(entry);
+                }
+            }
+        }
+
+        @Override
+        public void complete(String solutionKey) {
+            // the columns are only known once the whole solution has been read
+        }
+
+        @Override
+        public void write(OutputStream output) {
+            CsvWriter writer = new CsvWriter(output);
+            for (String[] row : createRows()) {
+                writer.writeRow(row);
+            }
+            writer.close();
+        }
+
+        /**
+         * Creates the rows of the CSV, header included, from the entries received so far. This method can only be
+         * called once.
+         * @return - the rows of the CSV.
+         */
+        protected List<String[]> createRows() {
+            // same order as extractColumns(): by source, then by entry
+            Set<String> columnSet = new LinkedHashSet<>();
+            for (SourceState state : states) {
+                if (state.columns != null) {
+                    columnSet.addAll(state.columns);
+                }
+            }
+            String[] columns = getStringArray(new ArrayList<>(columnSet));
+            int[] indices = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                indices[i] = found.get(columns[i]);
+            }
+
+            List<String[]> result = new ArrayList<>();
+            result.add(createHeader(mapping, columns));
+
+            for (SourceState state : states) {
+                MappingSpecification row = state.source.getRow();
 
+                if (row.getLabels() != null && row.getLabels().length == 1) {
+                    result.add(createRow(new String[] { row.getLabels()[0] }, arrange(state.single, indices)));
+
+                } else if (row.getEntryKeys() != null && row.getEntryKeys().length >= 1) {
+                    // the values are replaced in place, so that the rows keep the order of the map
+                    for (Map.Entry<ComplexStringKey, String[]> rowValues : state.multi.entrySet()) {
+                        rowValues.setValue(arrange(rowValues.getValue(), indices));
+                    }
+                    result.addAll(createMultiKeyRows(state.multi, columns));
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Retrieves the index of a column value, assigning the next index to values that have not been found yet.
+         * @param column - the column value
+         * @return - the index under which the values of the column are stored.
+         */
+        private int indexOf(String column) {
+            Integer index = found.get(column);
+            if (index == null) {
+                index = found.size();
+                found.put(column, index);
+            }
+            return index;
+        }
+
+        /**
+         * Stores a value under the index of its column, growing the array of values if needed.
+         * @param values - the values of a row
+         * @param column - the column of the value
+         * @param value - the value
+         * @return - the values of the row, which may be a new array.
+         */
+        private String[] store(String[] values, String column, String value) {
+            int index = indexOf(column);
+            if (index >= values.length) {
+                values = Arrays.copyOf(values, found.size());
+            }
+            values[index] = value;
+            return values;
+        }
+
+        /**
+         * Arranges the values of a row, stored by the index of their column value, in the order of the columns.
+         * @param values - the values of the row
+         * @param indices - the index of the column value of each column
+         * @return - the values of the row in the order of the columns.
+         */
+        private String[] arrange(String[] values, int[] indices) {
+            String[] result = new String[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                result[i] = indices[i] < values.length ? values[indices[i]] : null;
+            }
+            return result;
+        }
+
+        /**
+         * The column values and rows extracted so far for a source.
+         */
+        private class SourceState {
+
+            /**
+             * The source.
+             */
+            private final MappingSource source;
+
+            /**
+             * The column values found in the entries, or null if the source does not define the columns.
+             */
+            private final Set<String> columns;
+
+            /**
+             * The values of the single row of a source with a row label.
+             */
+            private String[] single = new String[0];
+
+            /**
+             * The values of the rows of a source with row entry keys, by row key.
+             */
+            private final Map<ComplexStringKey, String[]> multi = new HashMap<>();
+
+            /**
+             * Creates the state of the given source.
+             * @param source - the source
+             */
+            private SourceState(MappingSource source) {
+                this.source = source;
+
+                MappingSpecification column = source.getColumn();
+                boolean defines = column != null && column.getEntryKeys() != null && column.getEntryKeys().length == 1;
+                this.columns = defines ? new LinkedHashSet<String>() : null;
+            }
+
+            /**
+             * Extracts the column value and the row value of an entry, same as extractColumns() and extractRows().
+             * @param entry - the entry
+             */
+            private void accept(JsonNode entry) {
+                if (columns != null) {
+                    columns.add(extractStringValue(entry.get(source.getColumn().getEntryKeys()[0])));
+                }
+
+                MappingSpecification row = source.getRow();
+                if (row.getLabels() != null && row.getLabels().length == 1) {
+                    acceptSingleKey(entry, row);
+
+                } else if (row.getEntryKeys() != null && row.getEntryKeys().length >= 1) {
+                    acceptMultiKey(entry, row);
+                }
+            }
+
+            /**
+             * Extracts the value of an entry for the single row of the source, same as extractSingleKeyRows().
+             * @param entry - the entry
+             * @param row - the row specification of the source
+             */
+            private void acceptSingleKey(JsonNode entry, MappingSpecification row) {
+                String currentColumn = extractStringValue(entry.get(source.getColumn().getEntryKeys()[0]));
+                if (currentColumn == null) {
+                    return;
+                }
+
+                String currentValue;
+                if (source.getValue() != null) {
+                    currentValue = extractStringValue(entry.get(source.getValue().getKeys()[0]));
+                } else if (row.getEntryKeys() != null) {
+                    currentValue = extractStringValue(entry.get(row.getEntryKeys()[0]));
+                } else {
+                    currentValue = "";
+                }
+
+                single = store(single, currentColumn, currentValue);
+            }
+
+            /**
+             * Extracts the value of an entry for the row identified by its row key, same as extractMultiKeyRows().
+             * @param entry - the entry
+             * @param row - the row specification of the source
+             */
+            private void acceptMultiKey(JsonNode entry, MappingSpecification row) {
+                String[] keys = row.getEntryKeys();
+                String[] complexKeyBase = new String[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    complexKeyBase[i] = extractStringValue(entry.get(keys[i]));
+                }
+                ComplexStringKey rowKey = new ComplexStringKey(complexKeyBase);
+
+                String[] values = multi.get(rowKey);
+                if (values == null) {
+                    values = new String[0];
+                }
+
+                String currentColumn = extractStringValue(entry.get(source.getColumn().getEntryKeys()[0]));
+                if (currentColumn != null) {
+                    values = store(values, currentColumn, extractStringValue(entry.get(source.getValue().getKeys()[0])));
+                }
+                multi.put(rowKey, values);
+            }
+        }
+    }
 }
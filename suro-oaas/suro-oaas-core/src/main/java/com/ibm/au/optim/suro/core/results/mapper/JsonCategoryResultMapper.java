@@ -4,7 +4,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.ibm.au.optim.suro.model.control.ResultMapper;
+import com.ibm.au.optim.suro.core.results.SolutionConsumer;
+import com.ibm.au.optim.suro.core.results.StreamingResultMapper;
 import com.ibm.au.optim.suro.model.entities.mapping.MappingSource;
 import com.ibm.au.optim.suro.model.entities.mapping.OutputMapping;
 
@@ -12,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 
 /**
@@ -22,7 +24,7 @@ import java.util.*;
  *
  * @author Peter Ilfrich
  */
-public class JsonCategoryResultMapper extends AbstractJsonMapper implements ResultMapper {
+public class JsonCategoryResultMapper extends AbstractJsonMapper implements StreamingResultMapper {
 
     /**
      * A logger instance
@@ -38,23 +40,15 @@ public class JsonCategoryResultMapper extends AbstractJsonMapper implements Resu
 
     @Override
     public JsonNode transformToJson(JsonNode node, OutputMapping mapping) throws IOException {
-        // transform the array with n elements into 1 entry with n fields
-        Map<String, JsonNode> nodes = new HashMap<>();
-        for (MappingSource source : mapping.getSources()) {
-            Iterator<JsonNode> data = node.get(source.getSolutionKey()).iterator();
-            while (data.hasNext()) {
-                JsonNode entry = data.next();
-                String key = extractStringValue(entry.get(source.getRow().getEntryKeys()[0]));
-                JsonNode value = removeFields(entry, source.getRow().getEntryKeys());
-
-                nodes.put(key, value);
-            }
-        }
+        JsonCategoryConsumer consumer = new JsonCategoryConsumer(mapping);
+        consume(node, consumer);
 
-        // create json array
-        JsonNode result = createJsonObject(nodes);
+        return consumer.createJson();
+    }
 
-        return result;
+    @Override
+    public SolutionConsumer createConsumer(OutputMapping mapping) {
+        return new JsonCategoryConsumer(mapping);
     }
 
     @Override
@@ -126,4 +120,67 @@ public class JsonCategoryResultMapper extends AbstractJsonMapper implements Resu
         return node;
     }
 
+    /**
+     * Produces the JSON of the mapping from the entries of the solution, both while the solution is read and, for
+     * {@link #transformToJson(JsonNode, OutputMapping)}, from a JSON tree. Each entry is reduced to its values as soon
+     * as it is received.
+     */
+    protected class JsonCategoryConsumer implements SolutionConsumer {
+
+        /**
+         * The sources of the mapping.
+         */
+        private final MappingSource[] sources;
+
+        /**
+         * The values of each category.
+         */
+        private final Map<String, JsonNode> nodes = new HashMap<>();
+
+        /**
+         * Creates a new consumer for the given mapping.
+         * @param mapping - the output mapping
+         */
+        protected JsonCategoryConsumer(OutputMapping mapping) {
+            this.sources = mapping.getSources();
+        }
+
+        @Override
+        public Collection<String> getSolutionKeys() {
+            Set<String> keys = new LinkedHashSet<>();
+            for (MappingSource source : sources) {
+                keys.add(source.getSolutionKey());
+            }
+            return keys;
+        }
+
+        @Override
+        public void accept(String solutionKey, JsonNode entry) {
+            for (MappingSource source : sources) {
+                if (solutionKey.equals(source.getSolutionKey())) {
+                    String key = extractStringValue(entry.get(source.getRow().getEntryKeys()[0]));
+                    nodes.put(key, removeFields(entry, source.getRow().getEntryKeys()));
+                }
+            }
+        }
+
+        @Override
+        public void complete(String solutionKey) {
+            // the categories are written once the whole solution has been read
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            new ObjectMapper().writeValue(output, createJson());
+        }
+
+        /**
+         * Creates the JSON node containing a field for each category received so far.
+         * @return - the JSON node of the categories.
+         */
+        protected JsonNode createJson() {
+            // transform the array with n elements into 1 entry with n fields
+            return createJsonObject(nodes);
+        }
+    }
 }
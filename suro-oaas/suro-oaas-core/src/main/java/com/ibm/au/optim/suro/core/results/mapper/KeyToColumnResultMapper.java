@@ -1,7 +1,9 @@
 package com.ibm.au.optim.suro.core.results.mapper;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.ibm.au.optim.suro.model.control.ResultMapper;
+import com.ibm.au.optim.suro.core.results.CsvWriter;
+import com.ibm.au.optim.suro.core.results.SolutionConsumer;
+import com.ibm.au.optim.suro.core.results.StreamingResultMapper;
 import com.ibm.au.optim.suro.model.entities.mapping.MappingSource;
 import com.ibm.au.optim.suro.model.entities.mapping.OutputMapping;
 
@@ -9,9 +11,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This will create a CSV structure by converting arrays of JSON entries. Each field name in the original JSON solution
@@ -19,7 +28,7 @@ import java.util.List;
  *
  * @author Peter Ilfrich
  */
-public class KeyToColumnResultMapper extends AbstractJsonMapper implements ResultMapper {
+public class KeyToColumnResultMapper extends AbstractJsonMapper implements StreamingResultMapper {
 
     /**
      * A logger instance
@@ -28,17 +37,10 @@ public class KeyToColumnResultMapper extends AbstractJsonMapper implements Resul
 
     @Override
     public List<String[]> transformToCsv(JsonNode node, OutputMapping mapping) throws IOException {
+        KeyToColumnConsumer consumer = new KeyToColumnConsumer(mapping);
+        consume(node, consumer);
 
-        List<String[]> result = new ArrayList<>();
-
-        String[] columns = this.getStringArray(createKeyToColumnHeader(node.get(mapping.getSources()[0].getSolutionKey())));
-        result.add(columns);
-
-        for (MappingSource source : mapping.getSources()) {
-            result.addAll(extractKeyToColumnValues(node.get(source.getSolutionKey()), columns));
-        }
-
-        return result;
+        return consumer.createRows();
     }
 
     @Override
@@ -47,6 +49,11 @@ public class KeyToColumnResultMapper extends AbstractJsonMapper implements Resul
     }
 
 
+    @Override
+    public SolutionConsumer createConsumer(OutputMapping mapping) {
+        return new KeyToColumnConsumer(mapping);
+    }
+
     @Override
     public boolean validate(OutputMapping mapping) {
         boolean mainValidation = validate(mapping, new String[] { "csv" });
@@ -124,4 +131,126 @@ public class KeyToColumnResultMapper extends AbstractJsonMapper implements Resul
 
         return result;
     }
+
+    /**
+     * Produces the CSV of the mapping from the entries of the solution, both while the solution is read and, for
+     * {@link #transformToCsv(JsonNode, OutputMapping)}, from a JSON tree. The values of each entry are extracted as
+     * soon as the entry is received and stored by field, because the header (the field names of the entries of the
+     * first source) is only known once all the entries have been read.
+     */
+    protected class KeyToColumnConsumer implements SolutionConsumer {
+
+        /**
+         * The sources of the mapping.
+         */
+        private final MappingSource[] sources;
+
+        /**
+         * The index of each field name found in the entries, used to store the values of the rows.
+         */
+        private final Map<String, Integer> fields = new HashMap<>();
+
+        /**
+         * The field names of the entries of the first source, in the order they are found.
+         */
+        private final Set<String> header = new LinkedHashSet<>();
+
+        /**
+         * The rows of each source, each row contains the values of an entry indexed by field.
+         */
+        private final List<List<String[]>> rows = new ArrayList<>();
+
+        /**
+         * Creates a new consumer for the given mapping.
+         * @param mapping - the output mapping
+         */
+        protected KeyToColumnConsumer(OutputMapping mapping) {
+            this.sources = mapping.getSources();
+            for (int i = 0; i < sources.length; i++) {
+                rows.add(new ArrayList<String[]>());
+            }
+        }
+
+        @Override
+        public Collection<String> getSolutionKeys() {
+            Set<String> keys = new LinkedHashSet<>();
+            for (MappingSource source : sources) {
+                keys.add(source.getSolutionKey());
+            }
+            return keys;
+        }
+
+        @Override
+        public void accept(String solutionKey, JsonNode entry) {
+            String[] values = new String[fields.size()];
+            Iterator<Map.Entry<String, JsonNode>> entryFields = entry.fields();
+            while (entryFields.hasNext()) {
+                Map.Entry<String, JsonNode> field = entryFields.next();
+
+                Integer index = fields.get(field.getKey());
+                if (index == null) {
+                    index = fields.size();
+                    fields.put(field.getKey(), index);
+                }
+                if (index >= values.length) {
+                    values = Arrays.copyOf(values, index + 1);
+                }
+                values[index] = extractStringValue(field.getValue());
+            }
+
+            if (solutionKey.equals(sources[0].getSolutionKey())) {
+                Iterator<String> fieldNames = entry.fieldNames();
+                while (fieldNames.hasNext()) {
+                    header.add(fieldNames.next());
+                }
+            }
+
+            for (int i = 0; i < sources.length; i++) {
+                if (solutionKey.equals(sources[i].getSolutionKey())) {
+                    rows.get(i).add(values);
+                }
+            }
+        }
+
+        @Override
+        public void complete(String solutionKey) {
+            // the header is only known once the whole solution has been read
+        }
+
+        @Override
+        public void write(OutputStream output) {
+            CsvWriter writer = new CsvWriter(output);
+            for (String[] row : createRows()) {
+                writer.writeRow(row);
+            }
+            writer.close();
+        }
+
+        /**
+         * Creates the rows of the CSV, header included, from the entries received so far.
+         * @return - the rows of the CSV.
+         */
+        protected List<String[]> createRows() {
+            String[] columns = getStringArray(new ArrayList<>(header));
+            int[] indices = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                indices[i] = fields.get(columns[i]);
+            }
+
+            List<String[]> result = new ArrayList<>();
+            result.add(columns);
+
+            for (List<String[]> sourceRows : rows) {
+                for (String[] values : sourceRows) {
+                    String[] row = new String[columns.length];
+                    for (int i = 0; i < columns.length; i++) {
+                        row[i] = indices[i] < values.length ? values[indices[i]] : null;
+                    }
+                    result.add(row);
+                }
+            }
+
+            return result;
+        }
+    }
 }
@@ -1,30 +1,52 @@
 package com.ibm.au.optim.suro.core.results.transformer;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ibm.au.optim.suro.core.results.SolutionConsumer;
+import com.ibm.au.optim.suro.core.results.StreamingResultMapper;
 import com.ibm.au.optim.suro.core.results.mapper.AbstractJsonMapper;
-import com.ibm.au.optim.suro.model.control.ResultMapper;
 import com.ibm.au.optim.suro.model.entities.mapping.OutputMapping;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This is a custom transformer, which extracts schedule data from the solution.json and returns it in the desired
  * output format. This transformer hard-codes field names and structure, which means it highly depends on the solution
  * output
  *
+ * The entries are collected in a {@link ScheduleIndex}, keyed by week, day and medical unit, in a single pass over the
+ * solution. The schedule is then either built as a JSON tree or, when the solution is streamed, written straight to
+ * the output.
+ *
  * @author Peter Ilfrich
  */
-public class ScheduleTransformer extends AbstractJsonMapper implements ResultMapper {
+public class ScheduleTransformer extends AbstractJsonMapper implements StreamingResultMapper {
 
     /**
      * The object mapper used to create nodes.
      */
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    /**
+     * The solution key of the sessions allocated to the medical units.
+     */
+    private static final String SCHEDULE = "schedule";
+
+    /**
+     * The solution key of the patients treated in the sessions.
+     */
+    private static final String SCHEDULE_WITH_PATIENT = "scheduleWithPatient";
+
 
     @Override
     public List<String[]> transformToCsv(JsonNode node, OutputMapping mapping) throws IOException {
@@ -33,128 +55,261 @@ public class ScheduleTransformer extends AbstractJsonMapper implements ResultMap
 
     @Override
     public JsonNode transformToJson(JsonNode node, OutputMapping mapping) throws IOException {
-        ObjectNode schedule = MAPPER.createObjectNode();
-
-        ArrayNode scheduleData = (ArrayNode) node.get("schedule");
-        ArrayNode schedulePatientsData = (ArrayNode) node
-                .get("scheduleWithPatient");
+        ScheduleConsumer consumer = new ScheduleConsumer();
+        consume(node, consumer);
 
-        for (JsonNode entry : scheduleData) {
-            schedule = processScheduleEntry(schedule, ((ObjectNode) entry));
-        }
+        return consumer.toJson();
+    }
 
-        for (JsonNode entry : schedulePatientsData) {
-            schedule = processScheduleEntry(schedule, ((ObjectNode) entry));
-        }
 
-        return schedule;
+    @Override
+    public SolutionConsumer createConsumer(OutputMapping mapping) {
+        return new ScheduleConsumer();
     }
 
-
     @Override
     public boolean validate(OutputMapping mapping) {
         return validate(mapping, new String[] { "json" });
     }
 
     /**
-     * Processes the content of a JSON node and integrates the data into the existing schedule that is returned.
-     * @param schedule - the current schedule
-     * @param item - the item to add to the schedule
-     * @return - the schedule after adding the item.
+     * The schedule indexed by week, day and medical unit. Weeks, days and medical units are kept in the order they are
+     * first found, so that the schedule is written in the same order as the entries of the solution.
      */
-    private ObjectNode processScheduleEntry(ObjectNode schedule, ObjectNode item) {
+    private static class ScheduleIndex {
+
+        /**
+         * The medical units of each day of each week, by medical unit id.
+         */
+        private final Map<String, Map<String, Map<Integer, MedicalUnitSlot>>> weeks = new LinkedHashMap<>();
 
-        int medicalUnitId = item.get("medicalUnitId").intValue();
+        /**
+         * Adds an entry of the solution to the schedule. The sessions of a medical unit are taken from the first entry
+         * found for the unit on the day, the patient of the entry, if any, is added to the treated patients.
+         * @param item - the entry of the solution
+         */
+        private void add(JsonNode item) {
+            String week = item.get("week").textValue();
+            String day = item.get("day").textValue();
+            int medicalUnitId = item.get("medicalUnitId").intValue();
 
-        ArrayNode dateEntry = initDate(schedule, item);
-        ObjectNode medicalUnitItem = lookupByMedicalUnit(medicalUnitId,
-                dateEntry);
+            Map<String, Map<Integer, MedicalUnitSlot>> days = weeks.get(week);
+            if (days == null) {
+                days = new LinkedHashMap<>();
+                weeks.put(week, days);
+            }
 
-        if (medicalUnitItem == null) {
-            medicalUnitItem = MAPPER.createObjectNode();
+            Map<Integer, MedicalUnitSlot> units = days.get(day);
+            if (units == null) {
+                units = new LinkedHashMap<>();
+                days.put(day, units);
+            }
 
-            medicalUnitItem.put("medicalUnitId", medicalUnitId);
-            medicalUnitItem.put("allocatedSessions",
-                    item.get("allocatedSessions").intValue());
-            medicalUnitItem.put("allocatedSessionsBase",
-                    item.get("allocatedSessionsBase").intValue());
-            medicalUnitItem.set("treatedPatients", MAPPER.createArrayNode());
+            MedicalUnitSlot unit = units.get(medicalUnitId);
+            if (unit == null) {
+                unit = new MedicalUnitSlot(medicalUnitId, item.get("allocatedSessions").intValue(),
+                        item.get("allocatedSessionsBase").intValue());
+                units.put(medicalUnitId, unit);
+            }
 
-            dateEntry.add(medicalUnitItem);
+            // only if treatedPatients are defined.
+            JsonNode surgeryType = item.get("treatedPatient.surgeryType");
+            if (surgeryType != null) {
+                unit.patients.add(new TreatedPatient(surgeryType.textValue(),
+                        item.get("treatedPatient.isOverdue").booleanValue(),
+                        item.get("treatedPatient.daysUntilOverdue").intValue()));
+            }
         }
 
-        ObjectNode patientObject = extractPatientObject(item);
-        if (patientObject != null) {
-            ((ArrayNode) medicalUnitItem.get("treatedPatients"))
-                    .add(patientObject);
+        /**
+         * Builds the schedule as a JSON tree.
+         * @return - an object node containing an object for each week, containing an array of medical units for each
+         * day.
+         */
+        private ObjectNode toJson() {
+            ObjectNode schedule = MAPPER.createObjectNode();
+
+            for (Map.Entry<String, Map<String, Map<Integer, MedicalUnitSlot>>> week : weeks.entrySet()) {
+                ObjectNode weekNode = schedule.putObject(week.getKey());
+
+                for (Map.Entry<String, Map<Integer, MedicalUnitSlot>> day : week.getValue().entrySet()) {
+                    ArrayNode dayNode = weekNode.putArray(day.getKey());
+
+                    for (MedicalUnitSlot unit : day.getValue().values()) {
+                        ObjectNode unitNode = dayNode.addObject();
+                        unitNode.put("medicalUnitId", unit.medicalUnitId);
+                        unitNode.put("allocatedSessions", unit.allocatedSessions);
+                        unitNode.put("allocatedSessionsBase", unit.allocatedSessionsBase);
+
+                        ArrayNode patients = unitNode.putArray("treatedPatients");
+                        for (TreatedPatient patient : unit.patients) {
+                            ObjectNode patientNode = patients.addObject();
+                            patientNode.put("surgeryType", patient.surgeryType);
+                            patientNode.put("isOverdue", patient.overdue);
+                            patientNode.put("daysUntilOverdue", patient.daysUntilOverdue);
+                        }
+                    }
+                }
+            }
+
+            return schedule;
         }
 
-        return schedule;
+        /**
+         * Writes the schedule, same as the tree built by {@link #toJson()}, without building it.
+         * @param generator - the generator to write the schedule with
+         * @throws IOException - if the schedule cannot be written.
+         */
+        private void write(JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+
+            for (Map.Entry<String, Map<String, Map<Integer, MedicalUnitSlot>>> week : weeks.entrySet()) {
+                generator.writeObjectFieldStart(week.getKey());
+
+                for (Map.Entry<String, Map<Integer, MedicalUnitSlot>> day : week.getValue().entrySet()) {
+                    generator.writeArrayFieldStart(day.getKey());
+
+                    for (MedicalUnitSlot unit : day.getValue().values()) {
+                        generator.writeStartObject();
+                        generator.writeNumberField("medicalUnitId", unit.medicalUnitId);
+                        generator.writeNumberField("allocatedSessions", unit.allocatedSessions);
+                        generator.writeNumberField("allocatedSessionsBase", unit.allocatedSessionsBase);
+
+                        generator.writeArrayFieldStart("treatedPatients");
+                        for (TreatedPatient patient : unit.patients) {
+                            generator.writeStartObject();
+                            generator.writeStringField("surgeryType", patient.surgeryType);
+                            generator.writeBooleanField("isOverdue", patient.overdue);
+                            generator.writeNumberField("daysUntilOverdue", patient.daysUntilOverdue);
+                            generator.writeEndObject();
+                        }
+                        generator.writeEndArray();
+
+                        generator.writeEndObject();
+                    }
+
+                    generator.writeEndArray();
+                }
+
+                generator.writeEndObject();
+            }
+
+            generator.writeEndObject();
+        }
     }
 
     /**
-     * Creates a new array node for the given item in the provided schedule. It extracts day and week from the item and
-     * creates a new node in the schedule, which will store the data for this day of this week.
-     * @param schedule - the current schedule object with all the schedule entries that have already been processed.
-     * @param item - the item to use to retrieve day and week from
-     * @return - the schedule after the new day/week has been added.
+     * The sessions allocated to a medical unit on a day, and the patients treated in them.
      */
-    private ArrayNode initDate(ObjectNode schedule, ObjectNode item) {
-        // extract data
-        String week = item.get("week").textValue();
-        String day = item.get("day").textValue();
-
-        // make sure the week node exists
-        if (!schedule.has(week)) {
-            schedule.set(week, MAPPER.createObjectNode());
-        }
+    private static class MedicalUnitSlot {
 
-        // fetch the week node
-        ObjectNode weekNode = (ObjectNode) schedule.get(week);
+        private final int medicalUnitId;
 
-        // make sure the day node exists
-        if (!weekNode.has(day)) {
-            weekNode.set(day, MAPPER.createArrayNode());
-        }
+        private final int allocatedSessions;
+
+        private final int allocatedSessionsBase;
+
+        private final List<TreatedPatient> patients = new ArrayList<>();
 
-        // return the day node
-        return (ArrayNode) schedule.get(week).get(day);
+        private MedicalUnitSlot(int medicalUnitId, int allocatedSessions, int allocatedSessionsBase) {
+            this.medicalUnitId = medicalUnitId;
+            this.allocatedSessions = allocatedSessions;
+            this.allocatedSessionsBase = allocatedSessionsBase;
+        }
     }
 
     /**
-     * Extracts patient information from the `treatedPatient` sub element of an item and returns it as JSON object
-     * @param data - the data for a specific day containing the schedule and patient information
-     * @return - the extracted patient information from the provided data node.
+     * A patient treated in the sessions of a medical unit.
      */
-    private ObjectNode extractPatientObject(ObjectNode data) {
-        // only if treatedPatients are defined.
-        if (data.has("treatedPatient.surgeryType")) {
-            // create new node
-            ObjectNode treatedPatient = MAPPER.createObjectNode();
-            // add fields
-            treatedPatient.put("surgeryType", data.get("treatedPatient.surgeryType").textValue());
-            treatedPatient.put("isOverdue", data.get("treatedPatient.isOverdue").booleanValue());
-            treatedPatient.put("daysUntilOverdue", data.get("treatedPatient.daysUntilOverdue").intValue());
-            // return patient node
-            return treatedPatient;
+    private static class TreatedPatient {
+
+        private final String surgeryType;
+
+        private final boolean overdue;
+
+        private final int daysUntilOverdue;
+
+        private TreatedPatient(String surgeryType, boolean overdue, int daysUntilOverdue) {
+            this.surgeryType = surgeryType;
+            this.overdue = overdue;
+            this.daysUntilOverdue = daysUntilOverdue;
         }
-        return null;
     }
 
     /**
-     * Retrieves the node containing the medical unit information from the provided data.
-     * @param medicalUnitId - the medical unit to retrieve
-     * @param data - the data containing the medical unit
-     * @return - the json node containing the medical unit data or null, if the medical unit could not be found.
+     * Produces the schedule from the entries of the solution, both while the solution is read and, for
+     * {@link #transformToJson(JsonNode, OutputMapping)}, from a JSON tree. The entries are added to the index as they
+     * are received, but the entries with patients are held back until all the entries of the schedule have been
+     * added, should they be read first. When streaming, the schedule is written straight from the index.
      */
-    private ObjectNode lookupByMedicalUnit(int medicalUnitId, ArrayNode data) {
-        for (int idx = 0; idx < data.size(); idx++) {
-            ObjectNode node = (ObjectNode) data.get(idx);
-            if (node.get("medicalUnitId").intValue() == medicalUnitId) {
-                return node;
+    private class ScheduleConsumer implements SolutionConsumer {
+
+        /**
+         * The schedule indexed so far.
+         */
+        private final ScheduleIndex index = new ScheduleIndex();
+
+        /**
+         * The entries with patients read before the end of the schedule.
+         */
+        private final List<JsonNode> pending = new ArrayList<>();
+
+        /**
+         * Whether all the entries of the schedule have been added.
+         */
+        private boolean scheduled;
+
+        @Override
+        public Collection<String> getSolutionKeys() {
+            return Arrays.asList(SCHEDULE, SCHEDULE_WITH_PATIENT);
+        }
+
+        @Override
+        public void accept(String solutionKey, JsonNode entry) {
+            if (SCHEDULE.equals(solutionKey) || scheduled) {
+                index.add(entry);
+            } else {
+                pending.add(entry);
             }
         }
 
-        return null;
+        @Override
+        public void complete(String solutionKey) {
+            if (SCHEDULE.equals(solutionKey)) {
+                scheduled = true;
+                for (JsonNode entry : pending) {
+                    index.add(entry);
+                }
+                pending.clear();
+            }
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            checkScheduled();
+            JsonGenerator generator = MAPPER.getFactory().createGenerator(output);
+            index.write(generator);
+            generator.close();
+        }
+
+        /**
+         * Builds the schedule indexed so far as a JSON tree.
+         * @return - the schedule.
+         * @throws IOException - if the entries of the schedule have not been received.
+         */
+        private ObjectNode toJson() throws IOException {
+            checkScheduled();
+            return index.toJson();
+        }
+
+        /**
+         * Verifies that all the entries of the schedule have been received.
+         * @throws IOException - if the entries of the schedule have not been received.
+         */
+        private void checkScheduled() throws IOException {
+            if (!scheduled) {
+                throw new IOException("The solution does not contain the " + SCHEDULE + " entries.");
+            }
+        }
     }
 }
@@ -0,0 +1,136 @@
+package com.ibm.au.optim.suro.core.composer;
+
+import com.ibm.au.optim.suro.model.control.domain.HospitalController;
+import com.ibm.au.optim.suro.model.entities.domain.Hospital;
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.WardAvailability;
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.WardAvailabilityList;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Verifies that the {@link CompositionContext} reads each piece of data once and counts hits and misses.
+ */
+public class CompositionContextTest extends InputComposerTest {
+
+	private static final long DELAY = 100;
+
+	@Test
+	public void testMemoisation() {
+		WardAvailabilityList list = new WardAvailabilityList(TEST_TIME_FROM);
+		list.setRecords(new ArrayList<WardAvailability>());
+		this.waRepo.addItem(list);
+
+		CompositionContext context = new CompositionContext(environment);
+		Assert.assertSame(environment, context.getEnvironment());
+
+		Hospital first = context.getHospital(hospital.getId());
+		Assert.assertNotNull(first);
+		Assert.assertSame(first, context.getHospital(hospital.getId()));
+		Assert.assertEquals(1, context.getMisses());
+		Assert.assertEquals(1, context.getHits());
+
+		// missing data is remembered as well
+		Assert.assertNull(context.getHospital("unknown"));
+		Assert.assertNull(context.getHospital("unknown"));
+		Assert.assertEquals(2, context.getMisses());
+		Assert.assertEquals(2, context.getHits());
+
+		// snapshots are kept by record type and time
+		List<WardAvailability> records = context.getLatestRecordBeforeTime(WardAvailability.class, TEST_TIME_FROM);
+		Assert.assertNotNull(records);
+		Assert.assertSame(records, context.getLatestRecordBeforeTime(WardAvailability.class, TEST_TIME_FROM));
+		context.getLatestRecordBeforeTime(WardAvailability.class, TEST_TIME_TO);
+		Assert.assertEquals(4, context.getMisses());
+		Assert.assertEquals(3, context.getHits());
+
+		// a new context does not share anything
+		CompositionContext other = new CompositionContext(environment);
+		other.getHospital(hospital.getId());
+		Assert.assertEquals(1, other.getMisses());
+		Assert.assertEquals(0, other.getHits());
+	}
+
+	@Test
+	public void testConcurrentRequests() throws InterruptedException {
+		final AtomicInteger reads = new AtomicInteger();
+		final HospitalController delegate = this.hospitalController;
+		HospitalController slow = (HospitalController) Proxy.newProxyInstance(HospitalController.class.getClassLoader(),
+						new Class<?>[] { HospitalController.class }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ("getHospital".equals(method.getName())) {
+					reads.incrementAndGet();
+					Thread.sleep(DELAY);
+				}
+				return method.invoke(delegate, args);
+			}
+		});
+		this.environment.setAttribute(HospitalController.HOSPITAL_CONTROLLER_INSTANCE, slow);
+
+		final CompositionContext context = new CompositionContext(environment);
+		final int threads = 4;
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(threads);
+		final List<Hospital> results = new ArrayList<>();
+
+		for (int i = 0; i < threads; i++) {
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						Hospital result = context.getHospital(hospital.getId());
+						synchronized (results) {
+							results.add(result);
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						done.countDown();
+					}
+				}
+			}).start();
+		}
+
+		start.countDown();
+		done.await();
+
+		// the threads waited for the first read rather than reading the hospital again
+		Assert.assertEquals(1, reads.get());
+		Assert.assertEquals(threads, results.size());
+		for (Hospital result : results) {
+			Assert.assertSame(results.get(0), result);
+		}
+		Assert.assertEquals(1, context.getMisses());
+		Assert.assertEquals(threads - 1, context.getHits());
+	}
+
+	@Test
+	public void testFailure() {
+		HospitalController failing = (HospitalController) Proxy.newProxyInstance(HospitalController.class.getClassLoader(),
+						new Class<?>[] { HospitalController.class }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				throw new IllegalStateException("Database not available.");
+			}
+		});
+		this.environment.setAttribute(HospitalController.HOSPITAL_CONTROLLER_INSTANCE, failing);
+
+		CompositionContext context = new CompositionContext(environment);
+		try {
+			context.getHospital(hospital.getId());
+			Assert.fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("Database not available.", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package com.ibm.au.optim.suro.core.composer;
+
+import com.ibm.au.jaws.web.core.runtime.Environment;
+import com.ibm.au.jaws.web.core.runtime.impl.EnvironmentHelper;
+import com.ibm.au.optim.suro.core.composer.components.DepartmentInputComponent;
+import com.ibm.au.optim.suro.core.composer.components.StaticInputComponent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Verifies that the {@link FragmentCache} only serves the values stored for the requested revision of a hospital.
+ */
+public class FragmentCacheTest {
+
+	private static final String HOSPITAL_ID = "hospital";
+
+	@Test
+	public void testGetPut() {
+		FragmentCache cache = new FragmentCache();
+		InputComponentSpecification departments = createSpecification(DepartmentInputComponent.class, "departments");
+		List<String> values = Arrays.asList("{\n}");
+
+		Assert.assertNull(cache.get(HOSPITAL_ID, "1", departments));
+		cache.put(HOSPITAL_ID, "1", departments, values);
+		Assert.assertSame(values, cache.get(HOSPITAL_ID, "1", departments));
+
+		// an equal specification finds the same values, a different one does not
+		Assert.assertSame(values, cache.get(HOSPITAL_ID, "1", createSpecification(DepartmentInputComponent.class, "departments")));
+		Assert.assertNull(cache.get(HOSPITAL_ID, "1", createSpecification(StaticInputComponent.class, "departments")));
+		Assert.assertNull(cache.get(HOSPITAL_ID, "1", createSpecification(DepartmentInputComponent.class, "other")));
+		Assert.assertNull(cache.get("other", "1", departments));
+
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertEquals(4, cache.getMisses());
+
+		// nothing is kept without a revision
+		cache.put(HOSPITAL_ID, null, departments, values);
+		Assert.assertNull(cache.get(HOSPITAL_ID, null, departments));
+	}
+
+	@Test
+	public void testRevision() {
+		FragmentCache cache = new FragmentCache();
+		InputComponentSpecification departments = createSpecification(DepartmentInputComponent.class, "departments");
+		InputComponentSpecification statics = createSpecification(StaticInputComponent.class, "static");
+
+		cache.put(HOSPITAL_ID, "1", departments, Arrays.asList("1"));
+		cache.put(HOSPITAL_ID, "1", statics, Arrays.asList("static"));
+		Assert.assertNull(cache.get(HOSPITAL_ID, "2", departments));
+
+		// the values of a new revision replace all the values of the previous one
+		cache.put(HOSPITAL_ID, "2", departments, Arrays.asList("2"));
+		Assert.assertEquals(Arrays.asList("2"), cache.get(HOSPITAL_ID, "2", departments));
+		Assert.assertNull(cache.get(HOSPITAL_ID, "2", statics));
+		Assert.assertNull(cache.get(HOSPITAL_ID, "1", departments));
+	}
+
+	@Test
+	public void testInvalidate() {
+		FragmentCache cache = new FragmentCache();
+		InputComponentSpecification departments = createSpecification(DepartmentInputComponent.class, "departments");
+
+		cache.put(HOSPITAL_ID, "1", departments, Arrays.asList("1"));
+		cache.put("other", "1", departments, Arrays.asList("1"));
+
+		cache.invalidate(HOSPITAL_ID);
+		Assert.assertNull(cache.get(HOSPITAL_ID, "1", departments));
+		Assert.assertNotNull(cache.get("other", "1", departments));
+
+		cache.invalidate(null);
+		cache.clear();
+		Assert.assertNull(cache.get("other", "1", departments));
+	}
+
+	@Test
+	public void testGetInstance() {
+		Environment environment = EnvironmentHelper.mockEnvironment((Properties) null);
+		FragmentCache cache = FragmentCache.getInstance(environment);
+
+		Assert.assertNotNull(cache);
+		Assert.assertSame(cache, FragmentCache.getInstance(environment));
+		Assert.assertSame(cache, environment.getAttribute(FragmentCache.FRAGMENT_CACHE_INSTANCE));
+		Assert.assertNotSame(cache, FragmentCache.getInstance(EnvironmentHelper.mockEnvironment((Properties) null)));
+	}
+
+	private static InputComponentSpecification createSpecification(Class<?> componentClass, String sectionName) {
+		Map<Integer, String> sections = new HashMap<>();
+		sections.put(1, sectionName);
+		InputComponentSpecification specification = new InputComponentSpecification();
+		specification.setComponentClassName(componentClass.getName());
+		specification.setSections(sections);
+		return specification;
+	}
+}
@@ -1,5 +1,8 @@
 package com.ibm.au.optim.suro.core.composer;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -33,4 +36,29 @@ public class InputSectionTest  {
 
 		Assert.assertEquals("Steve = {\n<\"some\" \"typical\" \"value\">\n};", section.toString());
 	}
+
+	/**
+	 * 
+	 */
+	@Test
+	public void testWrittenValue() throws IOException {
+		InputSection section = new InputSection(1, "Steve");
+		section.setValue(new SectionValue() {
+			@Override
+			public void write(SectionWriter writer) throws IOException {
+				writer.beginSet().tuple("some", "typical", "value").endSet();
+			}
+		});
+
+		Assert.assertEquals("{\n<\"some\" \"typical\" \"value\">\n}", section.getValue());
+		Assert.assertEquals("Steve = {\n<\"some\" \"typical\" \"value\">\n};", section.toString());
+
+		StringWriter result = new StringWriter();
+		section.write(new SectionWriter(result));
+		Assert.assertEquals(section.toString(), result.toString());
+
+		// a String value replaces the written one
+		section.setValue("1");
+		Assert.assertEquals("Steve = 1;", section.toString());
+	}
 }
@@ -0,0 +1,188 @@
+package com.ibm.au.optim.suro.core.composer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Verifies that the {@link NTupleReader} reads the same tuples as {@link NTuple#readTuple(Reader)}, including for the
+ * .dat files of the optimisation models.
+ */
+@SuppressWarnings("deprecation")
+public class NTupleReaderTest {
+
+	/**
+	 * The .dat files read by both implementations, in the classpath: the file used to populate the database and an
+	 * excerpt of the .dat file of the model (OaaSFirstRun.dat), with every statement but only the first tuples of each set.
+	 */
+	private static final String[] DAT_FILES = { "migration/0.0.4/model/optimization-model-data.dat", "opl/model-tuples.dat" };
+
+	@Test
+	public void testReadTuple() throws Exception {
+		String tupleString = " < 1 2.3 \"This is a string\" 4 <\"This is a nested tuple\" 5   > \"This is not a nested tuple <_< >_>\">";
+		NTupleReader reader = new NTupleReader(new StringReader(tupleString + "\n<\"\" -40000 3000000000 2e3 abc>};"));
+
+		NTuple tuple = reader.readTuple();
+		Assert.assertEquals("<1 2.3 \"This is a string\" 4 <\"This is a nested tuple\" 5> \"This is not a nested tuple <_< >_>\">",
+						tuple.toString());
+		Assert.assertEquals(Byte.valueOf((byte) 1), tuple.getElement(0));
+		Assert.assertEquals(Float.valueOf(2.3f), tuple.getElement(1));
+
+		tuple = reader.readTuple();
+		Assert.assertEquals("", tuple.getElement(0));
+		Assert.assertEquals(Integer.valueOf(-40000), tuple.getElement(1));
+		Assert.assertEquals(Long.valueOf(3000000000L), tuple.getElement(2));
+		Assert.assertEquals(Float.valueOf(2000f), tuple.getElement(3));
+		Assert.assertEquals("abc", tuple.getElement(4));
+
+		// the end of the set
+		Assert.assertNull(reader.readTuple());
+		Assert.assertNull(reader.readTuple());
+	}
+
+	@Test
+	public void testParseNumber() {
+		Object[][] cases = {
+						{ "0", (byte) 0 }, { "-128", (byte) -128 }, { "+127", (byte) 127 }, { "128", (short) 128 },
+						{ "-32769", -32769 }, { "2147483648", 2147483648L },
+						{ "9223372036854775807", Long.MAX_VALUE }, { "-9223372036854775808", Long.MIN_VALUE },
+						{ "00000000000000000000042", (byte) 42 }, { "9223372036854775808", 9.223372E18f },
+						{ "1.5", 1.5f }, { ".5", 0.5f }, { "5.", 5f }, { "-1e-3", -0.001f }, { "2.5E+2", 250f }, { "3f", 3f },
+						{ "NaN", Float.NaN }, { "-Infinity", Float.NEGATIVE_INFINITY },
+						{ "-", null }, { "e5", null }, { "1e", null }, { "1.2.3", null }, { "abc", null }, { "12a", null }, { "", null }
+		};
+
+		for (Object[] c : cases) {
+			String token = (String) c[0];
+			Assert.assertEquals(token, c[1], NTupleReader.parseNumber(token.toCharArray(), 0, token.length()));
+		}
+	}
+
+	@Test
+	public void testIterator() {
+		Iterator<NTuple> it = new NTupleReader(new StringReader("<1> <2>\n <3>}")).iterator();
+		List<Object> elements = new ArrayList<>();
+
+		while (it.hasNext()) {
+			elements.add(it.next().getElement(0));
+		}
+
+		Assert.assertEquals(Arrays.<Object>asList((byte) 1, (byte) 2, (byte) 3), elements);
+
+		try {
+			it.next();
+			Assert.fail("NoSuchElementException expected");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+
+		// malformed tuples are reported when the iterator moves to them
+		it = new NTupleReader(new StringReader("<1> <2")).iterator();
+		Assert.assertNotNull(it.next());
+
+		try {
+			it.hasNext();
+			Assert.fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(e.getCause() instanceof IOException);
+		}
+	}
+
+	/**
+	 * Reads all the sets of the model .dat files with both implementations and verifies they read the same tuples.
+	 */
+	@Test
+	public void testModelFiles() throws IOException {
+		for (String file : DAT_FILES) {
+			InputStream stream = getClass().getClassLoader().getResourceAsStream(file);
+			Assert.assertNotNull("Missing test resource " + file, stream);
+
+			String content = read(stream);
+			List<NTuple> expected = readAllWithNTuple(content);
+			List<NTuple> actual = readAllWithReader(content);
+
+			Assert.assertFalse(file, expected.isEmpty());
+			Assert.assertEquals(file, expected.size(), actual.size());
+
+			for (int i = 0; i < expected.size(); ++i) {
+				Assert.assertEquals(file, expected.get(i).toString(), actual.get(i).toString());
+				Assert.assertEquals(file, types(expected.get(i)), types(actual.get(i)));
+			}
+		}
+	}
+
+	/**
+	 * Reads all the tuples of all the sets with {@link NTuple#hasNextNTuple(Reader)} and {@link NTuple#readTuple(Reader)}.
+	 */
+	private static List<NTuple> readAllWithNTuple(String content) throws IOException {
+		List<NTuple> result = new ArrayList<>();
+
+		for (int start = content.indexOf('{'); start >= 0; start = content.indexOf('{', start + 1)) {
+			Reader reader = new BufferedReader(new StringReader(content.substring(start + 1)));
+
+			while (NTuple.hasNextNTuple(reader)) {
+				result.add(NTuple.readTuple(reader));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Reads all the tuples of all the sets with an {@link NTupleReader}.
+	 */
+	private static List<NTuple> readAllWithReader(String content) throws IOException {
+		List<NTuple> result = new ArrayList<>();
+
+		for (int start = content.indexOf('{'); start >= 0; start = content.indexOf('{', start + 1)) {
+			for (NTuple tuple : new NTupleReader(new StringReader(content.substring(start + 1)))) {
+				result.add(tuple);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Describes the types of the elements of a tuple.
+	 */
+	private static String types(NTuple tuple) {
+		StringBuilder result = new StringBuilder("<");
+
+		for (Object element : tuple.getElements()) {
+			result.append(element instanceof NTuple ? types((NTuple) element) : element.getClass().getSimpleName()).append(" ");
+		}
+
+		return result.append(">").toString();
+	}
+
+	/**
+	 * Reads a stream into a String.
+	 */
+	private static String read(InputStream stream) throws IOException {
+		StringBuilder result = new StringBuilder();
+
+		try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+			char[] buffer = new char[8192];
+			int read;
+
+			while ((read = reader.read(buffer)) > 0) {
+				result.append(buffer, 0, read);
+			}
+		}
+
+		return result.toString();
+	}
+}
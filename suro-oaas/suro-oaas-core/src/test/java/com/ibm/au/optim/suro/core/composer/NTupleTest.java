@@ -18,6 +18,7 @@ public class NTupleTest {
 	}
 
 	@Test
+	@SuppressWarnings("deprecation")
 	public void testReadTuple() throws Exception {
 		String tupleString = " < 1 2.3 \"This is a string\" 4 <\"This is a nested tuple\" 5   > \"This is not a nested tuple <_< >_>\">";
 		StringReader reader = new StringReader(tupleString);
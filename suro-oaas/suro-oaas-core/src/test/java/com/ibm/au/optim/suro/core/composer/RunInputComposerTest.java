@@ -1,13 +1,30 @@
 package com.ibm.au.optim.suro.core.composer;
 
+import com.ibm.au.jaws.web.core.runtime.Environment;
+import com.ibm.au.optim.suro.core.composer.components.DepartmentInputComponent;
+import com.ibm.au.optim.suro.core.composer.components.InputComponent;
+import com.ibm.au.optim.suro.core.composer.components.MaxWaitInputComponent;
+import com.ibm.au.optim.suro.core.composer.components.SpecialistInputComponent;
+import com.ibm.au.optim.suro.core.controller.BasicHospitalController;
+import com.ibm.au.optim.suro.model.control.domain.HospitalController;
+import com.ibm.au.optim.suro.model.entities.domain.Department;
+import com.ibm.au.optim.suro.model.entities.domain.SpecialistType;
 import com.ibm.au.optim.suro.model.entities.domain.UrgencyCategory;
 import com.ibm.au.optim.suro.model.entities.domain.learning.SurgeryCluster;
 import com.ibm.au.optim.suro.model.entities.domain.learning.SurgeryClusterList;
 
 import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 /**
@@ -58,4 +75,203 @@ public class RunInputComposerTest extends InputComposerTest {
 		
 		// [CV] NOTE: where is the test here?
 	}
+
+	@Test
+	public void testParallelConstruction() {
+		final List<InputComponentSpecification> specifications = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			specifications.add(createSpecification(SlowComponent.class, 4 - i));
+		}
+
+		RunInputComposer composer = new RunInputComposer() {
+			@Override
+			protected List<InputComponentSpecification> readComponentSpecification() {
+				return specifications;
+			}
+		};
+		composer.setEnvironment(environment);
+
+		StringWriter stringWriter = new StringWriter();
+		long start = System.currentTimeMillis();
+		Assert.assertTrue(composer.compose(stringWriter));
+		long elapsed = System.currentTimeMillis() - start;
+
+		// the components ran at the same time, and the sections are still written in order
+		Assert.assertTrue("Composition took " + elapsed + " ms", elapsed < 4 * SlowComponent.DELAY);
+		Assert.assertEquals("section1 = 1;\nsection2 = 2;\nsection3 = 3;\nsection4 = 4;\n", stringWriter.toString().replace("\r", ""));
+	}
+
+	@Test
+	public void testConstructionFailure() {
+		final List<InputComponentSpecification> specifications = new ArrayList<>();
+		specifications.add(createSpecification(SlowComponent.class, 1));
+		specifications.add(createSpecification(FailingComponent.class, 2));
+
+		RunInputComposer composer = new RunInputComposer() {
+			@Override
+			protected List<InputComponentSpecification> readComponentSpecification() {
+				return specifications;
+			}
+		};
+		composer.setEnvironment(environment);
+
+		try {
+			composer.compose(new StringWriter());
+			Assert.fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals(FailingComponent.MESSAGE, e.getMessage());
+		}
+	}
+
+	@Test
+	public void testSharedData() {
+		final AtomicInteger hospitalReads = new AtomicInteger();
+		final HospitalController delegate = this.hospitalController;
+		HospitalController counting = (HospitalController) Proxy.newProxyInstance(HospitalController.class.getClassLoader(),
+						new Class<?>[] { HospitalController.class }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ("getHospital".equals(method.getName())) {
+					hospitalReads.incrementAndGet();
+				}
+				return method.invoke(delegate, args);
+			}
+		});
+		this.environment.setAttribute(HospitalController.HOSPITAL_CONTROLLER_INSTANCE, counting);
+
+		this.hospital.setDepartments(new ArrayList<Department>());
+		this.hospital.setSpecialistTypes(new ArrayList<SpecialistType>());
+		this.hospital.setUrgencyCategories(new ArrayList<UrgencyCategory>());
+
+		final List<InputComponentSpecification> specifications = new ArrayList<>();
+		specifications.add(createSpecification(DepartmentInputComponent.class, 1));
+		specifications.add(createSpecification(MaxWaitInputComponent.class, 2));
+		specifications.add(createSpecification(SpecialistInputComponent.class, 3));
+
+		RunInputComposer composer = new RunInputComposer() {
+			@Override
+			protected List<InputComponentSpecification> readComponentSpecification() {
+				return specifications;
+			}
+		};
+		composer.setEnvironment(environment);
+		composer.setHospitalId(hospital.getId());
+		Assert.assertNull(composer.getContext());
+
+		StringWriter stringWriter = new StringWriter();
+		Assert.assertTrue(composer.compose(stringWriter));
+		Assert.assertEquals("section1 = {\n};\nsection2 = {\n[]\n};\nsection3 = {\n};\n", stringWriter.toString());
+
+		// the composer and all the components need the hospital, which is only read once
+		CompositionContext context = composer.getContext();
+		Assert.assertEquals(1, hospitalReads.get());
+		Assert.assertEquals(1, context.getMisses());
+		Assert.assertEquals(3, context.getHits());
+
+		// each composition reads the data again
+		Assert.assertTrue(composer.compose(new StringWriter()));
+		Assert.assertEquals(2, hospitalReads.get());
+		Assert.assertNotSame(context, composer.getContext());
+	}
+
+	@Test
+	public void testFragmentCache() {
+		BasicHospitalController controller = (BasicHospitalController) this.hospitalController;
+		controller.bind(environment);
+
+		Department department = new Department();
+		department.setId("D01");
+		department.setName("Cardiology");
+		department.setMaxSimultaneousSessions(2);
+		this.hospital.setDepartments(new ArrayList<>(Arrays.asList(department)));
+		this.hospital.setSpecialistTypes(new ArrayList<SpecialistType>());
+		this.hospital.setUrgencyCategories(new ArrayList<UrgencyCategory>());
+		controller.updateHospital(this.hospital);
+
+		final List<InputComponentSpecification> specifications = new ArrayList<>();
+		specifications.add(createSpecification(DepartmentInputComponent.class, 1));
+		specifications.add(createSpecification(SpecialistInputComponent.class, 2));
+
+		RunInputComposer composer = new RunInputComposer() {
+			@Override
+			protected List<InputComponentSpecification> readComponentSpecification() {
+				return specifications;
+			}
+		};
+		composer.setEnvironment(environment);
+		composer.setHospitalId(hospital.getId());
+
+		FragmentCache cache = FragmentCache.getInstance(environment);
+		String expected = "section1 = {\n<\"D01\" \"Cardiology\" 2>\n};\nsection2 = {\n};\n";
+
+		StringWriter stringWriter = new StringWriter();
+		Assert.assertTrue(composer.compose(stringWriter));
+		Assert.assertEquals(expected, stringWriter.toString());
+		Assert.assertEquals(0, cache.getHits());
+		Assert.assertEquals(2, cache.getMisses());
+
+		// the following compositions for the same revision use the rendered sections
+		composer = new RunInputComposer() {
+			@Override
+			protected List<InputComponentSpecification> readComponentSpecification() {
+				return specifications;
+			}
+		};
+		composer.setEnvironment(environment);
+		composer.setHospitalId(hospital.getId());
+
+		stringWriter = new StringWriter();
+		Assert.assertTrue(composer.compose(stringWriter));
+		Assert.assertEquals(expected, stringWriter.toString());
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertEquals(2, cache.getMisses());
+
+		// updating the hospital invalidates them
+		department.setMaxSimultaneousSessions(3);
+		controller.updateHospital(this.hospital);
+
+		stringWriter = new StringWriter();
+		Assert.assertTrue(composer.compose(stringWriter));
+		Assert.assertTrue(stringWriter.toString().startsWith("section1 = {\n<\"D01\" \"Cardiology\" 3>\n};\n"));
+	}
+
+	private static InputComponentSpecification createSpecification(Class<?> componentClass, int order) {
+		Map<Integer, String> sections = new HashMap<>();
+		sections.put(order, "section" + order);
+		InputComponentSpecification specification = new InputComponentSpecification();
+		specification.setComponentClassName(componentClass.getName());
+		specification.setSections(sections);
+		return specification;
+	}
+
+	/**
+	 * Component simulating a database query before setting the value of its section to its order.
+	 */
+	public static class SlowComponent extends InputComponent {
+
+		private static final long DELAY = 200;
+
+		@Override
+		public void constructValues(Environment environment) {
+			try {
+				Thread.sleep(DELAY);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			setSectionValue(0, String.valueOf(getSections().get(0).getOrder()));
+		}
+	}
+
+	/**
+	 * Component failing to construct its values.
+	 */
+	public static class FailingComponent extends InputComponent {
+
+		private static final String MESSAGE = "No data available.";
+
+		@Override
+		public void constructValues(Environment environment) {
+			throw new IllegalStateException(MESSAGE);
+		}
+	}
 }
@@ -0,0 +1,56 @@
+package com.ibm.au.optim.suro.core.composer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Verifies that the {@link SectionWriter} writes the same values as {@link NTuple#toString()}.
+ */
+public class SectionWriterTest {
+
+	@Test
+	public void testTuples() throws IOException {
+		StringWriter result = new StringWriter();
+		SectionWriter writer = new SectionWriter(result);
+
+		writer.beginSet();
+		writer.beginTuple().value("S01").value(1).value(-27L).value(0).endTuple();
+		writer.beginTuple().beginTuple().value("D01").endTuple().value(0.5f).value(2.25).value((String) null).endTuple();
+		writer.beginTuple().value(Long.MIN_VALUE).value(Integer.MAX_VALUE).beginTuple().value(3).endTuple().endTuple();
+		writer.endSet();
+
+		Assert.assertEquals("{\n" +
+						new NTuple("S01", 1, -27L, 0) + "\n" +
+						new NTuple(new NTuple("D01"), 0.5f, 2.25, null) + "\n" +
+						new NTuple(Long.MIN_VALUE, Integer.MAX_VALUE, new NTuple(3)) + "\n}", result.toString());
+	}
+
+	@Test
+	public void testObjects() throws IOException {
+		NTuple tuple = new NTuple(12, "Hello World!", new NTuple(4), new NTuple("roflcopter"), (short) -3, 1.5f, true, null);
+
+		StringWriter result = new StringWriter();
+		new SectionWriter(result).value(tuple);
+
+		Assert.assertEquals(tuple + "\n", result.toString());
+	}
+
+	@Test
+	public void testArrays() throws IOException {
+		StringWriter result = new StringWriter();
+		SectionWriter writer = new SectionWriter(result);
+
+		writer.beginSet().beginArray().value(30).value(90).value(365).endArray().endSet();
+		writer.write(" ").beginArray().endArray();
+
+		Assert.assertEquals("{\n[30 90 365]\n} []\n", result.toString());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testUnbalanced() throws IOException {
+		new SectionWriter(new StringWriter()).beginTuple().endTuple().endTuple();
+	}
+}
@@ -1,6 +1,7 @@
 package com.ibm.au.optim.suro.core.composer.components;
 
 import com.ibm.au.optim.suro.core.composer.InputComponentSpecification;
+import com.ibm.au.jaws.web.core.runtime.Environment;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -34,7 +35,7 @@ public class StaticInputComponentTest extends InputComponentTestBase {
 		spec.setMetadata(metadata);
 
 		component.readSpecification(spec);
-		component.constructValues(null);
+		component.constructValues((Environment) null);
 
 		Assert.assertEquals("value 0", component.getSections().get(0).getValue());
 		Assert.assertEquals("value 1", component.getSections().get(1).getValue());
@@ -4,6 +4,7 @@ package com.ibm.au.optim.suro.core.controller;
 import com.ibm.au.jaws.web.core.runtime.Environment;
 import com.ibm.au.jaws.web.core.runtime.impl.EnvironmentHelper;
 
+import com.ibm.au.optim.suro.model.control.domain.ingestion.RecordStream;
 import com.ibm.au.optim.suro.model.entities.Run;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.BasePlanEntry;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.BasePlanList;
@@ -11,6 +12,7 @@ import com.ibm.au.optim.suro.model.entities.domain.ingestion.IcuAvailability;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.IcuAvailabilityList;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.SpecialistAvailability;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.SpecialistAvailabilityList;
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.TemporalDelta;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WaitingPatient;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WaitingPatientList;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WardAvailability;
@@ -24,7 +26,9 @@ import com.ibm.au.optim.suro.model.store.domain.ingestion.impl.TransientBasePlan
 import com.ibm.au.optim.suro.model.store.domain.ingestion.impl.TransientWaitingPatientListRepository;
 
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
@@ -186,4 +190,154 @@ public class BasicIngestionControllerTest {
         Assert.assertEquals(2, control.getLatestRecordBeforeTime(BasePlanEntry.class, ts + 5000).size());
 
     }
+
+	/**
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+    public void testApplyDelta() throws Exception {
+        // prepare
+        Properties props = new Properties();
+        props.setProperty(BasicIngestionController.CFG_COMPACTION_THRESHOLD, "3");
+        Environment env = EnvironmentHelper.mockEnvironment(props);
+        TransientWaitingPatientListRepository repo = new TransientWaitingPatientListRepository();
+        env.setAttribute(WaitingPatientListRepository.WAITING_PATIENT_REPOSITORY_INSTANCE, repo);
+
+        BasicIngestionController control = new BasicIngestionController();
+        control.doBind(env);
+        Assert.assertEquals(3, control.compactionThreshold);
+
+        // without any list the first delta becomes the base
+        WaitingPatientList base = control.applyDelta(WaitingPatient.class, 1000, new TemporalDelta<>(
+                Arrays.asList(patient("P1", "S1", 1), patient("P2", "S2", 1), patient("P2", "S3", 2)), null, null));
+        Assert.assertFalse(base.isDelta());
+        Assert.assertEquals(3, base.getRecords().size());
+
+        // add P3, update P1, remove P2 (both surgeries)
+        WaitingPatientList first = control.applyDelta(WaitingPatient.class, 2000, new TemporalDelta<>(
+                Arrays.asList(patient("P3", "S1", 3)), Arrays.asList(patient("P1", "S1", 2)), Arrays.asList("P2")));
+        Assert.assertTrue(first.isDelta());
+        Assert.assertEquals(base.getId(), first.getBase());
+        Assert.assertEquals(2, first.getRecords().size());
+
+        List<WaitingPatient> current = control.getLatestRecordBeforeTime(WaitingPatient.class, 2000);
+        Assert.assertEquals(2, current.size());
+        Assert.assertEquals(patient("P1", "S1", 2), current.get(0));
+        Assert.assertEquals(patient("P3", "S1", 3), current.get(1));
+
+        // the history is still available
+        Assert.assertEquals(3, control.getLatestRecordBeforeTime(WaitingPatient.class, 1500).size());
+
+        // a timestamp before the current list does not reorder the lists
+        WaitingPatientList second = control.applyDelta(WaitingPatient.class, 500, new TemporalDelta<WaitingPatient>(
+                null, null, Arrays.asList("P3")));
+        Assert.assertTrue(second.isDelta());
+        Assert.assertEquals(2001, second.getTimestamp());
+        Assert.assertEquals(Arrays.asList(patient("P1", "S1", 2)), control.getLatestRecordBeforeTime(WaitingPatient.class, 3000));
+
+        // the third list after the base is compacted
+        WaitingPatientList third = control.applyDelta(WaitingPatient.class, 4000, new TemporalDelta<>(
+                Arrays.asList(patient("P4", "S4", 1)), null, null));
+        Assert.assertFalse(third.isDelta());
+        Assert.assertEquals(Arrays.asList(patient("P1", "S1", 2), patient("P4", "S4", 1)), third.getRecords());
+        Assert.assertEquals(4, repo.getAll().size());
+
+        // a new controller has to materialise the data from the repository
+        WaitingPatientList fourth = control.applyDelta(WaitingPatient.class, 5000, new TemporalDelta<>(
+                null, Arrays.asList(patient("P4", "S4", 5)), null));
+        Assert.assertTrue(fourth.isDelta());
+        BasicIngestionController other = new BasicIngestionController();
+        other.doBind(env);
+        Assert.assertEquals(Arrays.asList(patient("P1", "S1", 2), patient("P4", "S4", 5)), other.getLatestRecordBeforeTime(WaitingPatient.class, 5000));
+        Assert.assertEquals(Arrays.asList(patient("P1", "S1", 2)), other.getLatestRecordBeforeTime(WaitingPatient.class, 3000));
+
+        // error cases
+        Assert.assertNull(control.applyDelta(WaitingPatient.class, 6000, null));
+        Assert.assertNull(control.applyDelta(WaitingPatient.class, 6000, new TemporalDelta<WaitingPatient>()));
+        Assert.assertNull(control.applyDelta(BasePlanEntry.class, 6000, new TemporalDelta<>(Arrays.asList(new BasePlanEntry()), null, null)));
+        Assert.assertNull(control.applyDelta(Run.class, 6000, new TemporalDelta<>(Arrays.asList(new Run()), null, null)));
+        Assert.assertEquals(5, repo.getAll().size());
+    }
+
+	/**
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+    public void testRecordCreationInParts() throws Exception {
+        // prepare
+        Properties props = new Properties();
+        props.setProperty(BasicIngestionController.CFG_BATCH_SIZE, "2");
+        Environment env = EnvironmentHelper.mockEnvironment(props);
+        TransientWaitingPatientListRepository repo = new TransientWaitingPatientListRepository();
+        env.setAttribute(WaitingPatientListRepository.WAITING_PATIENT_REPOSITORY_INSTANCE, repo);
+
+        BasicIngestionController control = new BasicIngestionController();
+        control.doBind(env);
+        Assert.assertEquals(2, control.batchSize);
+
+        // a list of 5 records is stored in 3 parts
+        List<WaitingPatient> records = Arrays.asList(patient("P1", "S1", 1), patient("P2", "S1", 1), patient("P2", "S2", 1), patient("P3", "S1", 1), patient("P4", "S1", 1));
+        WaitingPatientList last = control.createRecordFromList(1000, records);
+        Assert.assertEquals(3, repo.getAll().size());
+        Assert.assertEquals(1000, last.getTimestamp());
+        Assert.assertTrue(last.isAppend());
+        Assert.assertEquals(1, last.getRecords().size());
+
+        // the parts are only visible as a whole
+        Assert.assertEquals(last, repo.findByTime(Long.MAX_VALUE));
+        Assert.assertEquals(records, control.getLatestRecordBeforeTime(WaitingPatient.class, 1000));
+        Assert.assertEquals(0, control.getLatestRecordBeforeTime(WaitingPatient.class, 999).size());
+
+        // the parts do not count as deltas
+        control.applyDelta(WaitingPatient.class, 2000, new TemporalDelta<WaitingPatient>(null, null, Arrays.asList("P3")));
+        Assert.assertEquals(1, control.snapshots.get(WaitingPatient.class).depth);
+        Assert.assertEquals(4, control.getLatestRecordBeforeTime(WaitingPatient.class, 2000).size());
+
+        // streamed records
+        final List<WaitingPatient> streamed = new ArrayList<>(records);
+        WaitingPatientList streamedLast = control.createRecordFromStream(WaitingPatient.class, 3000, new RecordStream<WaitingPatient>() {
+            @Override
+            public WaitingPatient next() {
+                return streamed.isEmpty() ? null : streamed.remove(0);
+            }
+        });
+        Assert.assertEquals(3000, streamedLast.getTimestamp());
+        Assert.assertEquals(7, repo.getAll().size());
+        Assert.assertEquals(records, control.getLatestRecordBeforeTime(WaitingPatient.class, 3000));
+
+        // nothing is stored if the stream fails
+        try {
+            final List<WaitingPatient> failing = new ArrayList<>(records);
+            control.createRecordFromStream(WaitingPatient.class, 4000, new RecordStream<WaitingPatient>() {
+                @Override
+                public WaitingPatient next() throws IOException {
+                    if (failing.isEmpty()) {
+                        throw new IOException("truncated");
+                    }
+                    return failing.remove(0);
+                }
+            });
+            Assert.fail("IOException expected");
+        } catch (IOException e) {
+            Assert.assertEquals(7, repo.getAll().size());
+        }
+
+        // empty streams
+        Assert.assertNull(control.createRecordFromStream(WaitingPatient.class, 5000, new RecordStream<WaitingPatient>() {
+            @Override
+            public WaitingPatient next() {
+                return null;
+            }
+        }));
+        Assert.assertEquals(7, repo.getAll().size());
+    }
+
+	/**
+	 * Creates a waiting patient record.
+	 */
+	private static WaitingPatient patient(String patientId, String surgeryId, int urgencyCategory) {
+		return new WaitingPatient(patientId, surgeryId, surgeryId, 0, urgencyCategory);
+	}
 }
@@ -0,0 +1,126 @@
+package com.ibm.au.optim.suro.core.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.au.optim.suro.model.entities.Run;
+
+/**
+ *
+ */
+public class FairShareSchedulingPolicyTest {
+
+    /**
+     *
+     */
+    @Test
+    public void testQueueOrderWithoutRunning() {
+
+        RunQueue queue = new RunQueue();
+        Run run1 = this.createRun("a", 0);
+        Run run2 = this.createRun("b", 0);
+        queue.offer(run1);
+        queue.offer(run2);
+
+        RunSchedulingPolicy policy = new FairShareSchedulingPolicy();
+        Assert.assertSame(run1, policy.select(queue.snapshot(), new HashMap<String, Integer>()).getRun());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testFairShare() {
+
+        RunQueue queue = new RunQueue();
+        Run a1 = this.createRun("a", 0);
+        Run a2 = this.createRun("a", 0);
+        Run b1 = this.createRun("b", 0);
+        queue.offer(a1);
+        queue.offer(a2);
+        queue.offer(b1);
+
+        Map<String, Integer> running = new HashMap<>();
+        running.put("a", 1);
+
+        // template b has no running runs, hence it is selected before the older runs of a
+        RunSchedulingPolicy policy = new FairShareSchedulingPolicy();
+        Assert.assertSame(b1, policy.select(queue.snapshot(), running).getRun());
+
+        // with a weight of 2, a is still below its share with one running run
+        policy = new FairShareSchedulingPolicy("a=2, b=1", null);
+        running.put("b", 1);
+        Assert.assertSame(a1, policy.select(queue.snapshot(), running).getRun());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testPriority() {
+
+        RunQueue queue = new RunQueue();
+        Run normal = this.createRun("a", 0);
+        Run urgent = this.createRun("a", 10);
+        queue.offer(normal);
+        queue.offer(urgent);
+
+        Map<String, Integer> running = new HashMap<>();
+        running.put("a", 5);
+
+        // the priority wins over queue order and fair share
+        RunSchedulingPolicy policy = new FairShareSchedulingPolicy();
+        Assert.assertSame(urgent, policy.select(queue.snapshot(), running).getRun());
+
+        Run other = this.createRun("b", 0);
+        queue.offer(other);
+        Assert.assertSame(urgent, policy.select(queue.snapshot(), running).getRun());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testLimits() {
+
+        FairShareSchedulingPolicy policy = new FairShareSchedulingPolicy(null, "a=1,*=2,c=invalid,malformed");
+        Assert.assertEquals(1, policy.getLimit("a"));
+        Assert.assertEquals(2, policy.getLimit("b"));
+        Assert.assertEquals(2, policy.getLimit("c"));
+        Assert.assertEquals(FairShareSchedulingPolicy.DEFAULT_WEIGHT, policy.getWeight("a"), 0.0);
+
+        RunQueue queue = new RunQueue();
+        Run a1 = this.createRun("a", 100);
+        Run b1 = this.createRun("b", 0);
+        queue.offer(a1);
+        queue.offer(b1);
+
+        Map<String, Integer> running = new HashMap<>();
+        running.put("a", 1);
+
+        // a reached its limit, even if its run has a higher priority
+        List<RunQueue.Entry> queued = queue.snapshot();
+        Assert.assertSame(b1, policy.select(queued, running).getRun());
+
+        // all templates reached their limits
+        running.put("b", 2);
+        Assert.assertNull(policy.select(queued, running));
+    }
+
+    /**
+     *
+     */
+    private Run createRun(String templateId, int priority) {
+
+        Run run = new Run();
+        run.setId(UUID.randomUUID().toString());
+        run.setTemplateId(templateId);
+        run.setPriority(priority);
+        return run;
+    }
+}
@@ -0,0 +1,276 @@
+package com.ibm.au.optim.suro.core.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.au.optim.suro.model.entities.Run;
+
+/**
+ *
+ */
+public class RunQueueTest {
+
+    /**
+     *
+     */
+    private static final int THREADS = 8;
+
+    /**
+     *
+     */
+    private static final int RUNS_PER_THREAD = 2000;
+
+
+    /**
+     *
+     */
+    @Test
+    public void testFifoOrder() {
+
+        RunQueue queue = new RunQueue();
+        Run run1 = this.createRun();
+        Run run2 = this.createRun();
+        Run run3 = this.createRun();
+
+        Assert.assertTrue(queue.offer(run1));
+        Assert.assertTrue(queue.offer(run2));
+        Assert.assertTrue(queue.offer(run3));
+        Assert.assertEquals(3, queue.size());
+
+        Assert.assertEquals(run1.getId(), queue.poll().getRun().getId());
+        Assert.assertEquals(run2.getId(), queue.poll().getRun().getId());
+        Assert.assertEquals(run3.getId(), queue.poll().getRun().getId());
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testDeduplication() {
+
+        RunQueue queue = new RunQueue();
+        Run run = this.createRun();
+
+        Assert.assertTrue(queue.offer(run));
+        Assert.assertFalse(queue.offer(run));
+
+        // a different instance of the same run is a duplicate too
+        Run copy = new Run();
+        copy.setId(run.getId());
+        Assert.assertFalse(queue.offer(copy));
+
+        Assert.assertEquals(1, queue.size());
+        Assert.assertEquals(1, queue.toList().size());
+    }
+
+    /**
+     *
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRunWithoutId() {
+
+        new RunQueue().offer(new Run());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testRemove() {
+
+        RunQueue queue = new RunQueue();
+        Run run1 = this.createRun();
+        Run run2 = this.createRun();
+        queue.offer(run1);
+        queue.offer(run2);
+
+        Assert.assertNull(queue.remove(null));
+        Assert.assertNull(queue.remove("not-existing"));
+        Assert.assertSame(run1, queue.remove(run1.getId()));
+        Assert.assertNull(queue.remove(run1.getId()));
+        Assert.assertFalse(queue.contains(run1.getId()));
+        Assert.assertEquals(1, queue.size());
+        Assert.assertEquals(1, queue.toList().size());
+
+        // the removed run is skipped
+        Assert.assertSame(run2, queue.poll().getRun());
+        Assert.assertNull(queue.poll());
+
+        // a removed run can be queued again and is not returned twice
+        queue.offer(run1);
+        queue.offer(run2);
+        queue.remove(run1.getId());
+        queue.offer(run1);
+        Assert.assertEquals(2, queue.size());
+        Assert.assertSame(run2, queue.poll().getRun());
+        Assert.assertSame(run1, queue.poll().getRun());
+        Assert.assertNull(queue.poll());
+    }
+
+    /**
+     *
+     */
+    @Test
+    public void testBlockingPoll() throws Exception {
+
+        final RunQueue queue = new RunQueue();
+        Assert.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+
+        // a stale entry at the head does not end the wait
+        final Run aborted = this.createRun();
+        queue.offer(aborted);
+        queue.remove(aborted.getId());
+
+        final Run run = this.createRun();
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ie) {
+                    // ignore
+                }
+                queue.offer(run);
+            }
+        });
+        producer.start();
+
+        RunQueue.Entry entry = queue.poll(10, TimeUnit.SECONDS);
+        producer.join();
+
+        Assert.assertNotNull(entry);
+        Assert.assertSame(run, entry.getRun());
+        Assert.assertTrue(entry.getWaitTime(TimeUnit.MILLISECONDS) >= 0);
+    }
+
+    /**
+     * Submits, aborts and takes runs from many threads at the same time and verifies that every successful
+     * submission results in exactly one of: the run being taken, the run being aborted or the run still being queued.
+     */
+    @Test
+    public void testConcurrentSubmitAndAbort() throws Exception {
+
+        final RunQueue queue = new RunQueue();
+        final List<Run> runs = new ArrayList<>();
+        final Map<String, AtomicInteger> offered = new HashMap<>();
+        final Map<String, AtomicInteger> taken = new HashMap<>();
+        final Map<String, AtomicInteger> aborted = new HashMap<>();
+        for (int i = 0; i < THREADS * RUNS_PER_THREAD; i++) {
+            Run run = this.createRun();
+            runs.add(run);
+            offered.put(run.getId(), new AtomicInteger());
+            taken.put(run.getId(), new AtomicInteger());
+            aborted.put(run.getId(), new AtomicInteger());
+        }
+
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS * 3);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            final int offset = t * RUNS_PER_THREAD;
+
+            // submitters: each run is submitted twice, the second submission only succeeds if the run has been
+            // taken or aborted in the meantime
+            futures.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    for (int i = 0; i < RUNS_PER_THREAD; i++) {
+                        Run run = runs.get(offset + i);
+                        for (int k = 0; k < 2; k++) {
+                            if (queue.offer(run)) {
+                                offered.get(run.getId()).incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            }));
+
+            // aborters: try to abort every other run of the same slice
+            futures.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    for (int i = 0; i < RUNS_PER_THREAD; i += 2) {
+                        Run run = queue.remove(runs.get(offset + i).getId());
+                        if (run != null) {
+                            aborted.get(run.getId()).incrementAndGet();
+                        }
+                    }
+                }
+            }));
+
+            // consumers: take runs until the queue stays empty
+            futures.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    try {
+                        RunQueue.Entry entry = queue.poll(200, TimeUnit.MILLISECONDS);
+                        while (entry != null) {
+                            taken.get(entry.getRun().getId()).incrementAndGet();
+                            entry = queue.poll(200, TimeUnit.MILLISECONDS);
+                        }
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        List<Run> remaining = queue.toList();
+        Assert.assertEquals(remaining.size(), queue.size());
+
+        for (Run run : runs) {
+            String id = run.getId();
+            int queued = queue.contains(id) ? 1 : 0;
+
+            Assert.assertTrue(offered.get(id).get() >= 1);
+            Assert.assertEquals("Run " + id + " has been lost or handed out twice", offered.get(id).get(), taken.get(id).get() + aborted.get(id).get() + queued);
+        }
+    }
+
+
+    /**
+     *
+     */
+    private Run createRun() {
+
+        Run run = new Run();
+        run.setId(UUID.randomUUID().toString());
+        return run;
+    }
+
+    /**
+     *
+     */
+    private static void await(CountDownLatch latch) {
+
+        try {
+            latch.await();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
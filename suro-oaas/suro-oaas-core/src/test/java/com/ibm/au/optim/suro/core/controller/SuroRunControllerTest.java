@@ -1,6 +1,7 @@
 package com.ibm.au.optim.suro.core.controller;
 
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -471,4 +472,155 @@ public class SuroRunControllerTest {
         Assert.assertEquals(RunStatus.ABORTING, run4.getStatus());
     }
 
+    /**
+     * 
+     */
+    @Test
+    public void testBlockingGetNext() throws Exception {
+        // reset the repo
+        this.controller.getRepository().removeAll();
+
+        // empty queue, the call returns null once the timeout elapses
+        Assert.assertNull(this.controller.getNext(10, TimeUnit.MILLISECONDS));
+
+        final Run run = new Run();
+        this.controller.getRepository().addItem(run);
+
+        // add the run from another thread while waiting on the queue
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ie) {
+                    // ignore
+                }
+                controller.addRun(run);
+            }
+        });
+        producer.start();
+
+        Run nextRun = this.controller.getNext(10, TimeUnit.SECONDS);
+        producer.join();
+
+        Assert.assertNotNull(nextRun);
+        Assert.assertEquals(run.getId(), nextRun.getId());
+        Assert.assertEquals(0, this.controller.getQueue().size());
+
+        // the waiting time of the run has been recorded
+        Assert.assertEquals(1, this.controller.getQueueStatistics().getCount());
+        Assert.assertTrue(this.controller.getQueueStatistics().getMaxWaitTime() < 10000);
+    }
+
+
+    /**
+     * 
+     */
+    @Test
+    public void testSchedulingLimits() throws Exception {
+        // reset the repo
+        this.controller.getRepository().removeAll();
+        this.controller.setSchedulingPolicy(new FairShareSchedulingPolicy(null, "a=1"));
+
+        final Run a1 = this.createQueuedRun("a");
+        Run a2 = this.createQueuedRun("a");
+        Run b1 = this.createQueuedRun("b");
+
+        // template a can only have one run executing at a time
+        Assert.assertEquals(a1.getId(), this.controller.getNext().getId());
+        Assert.assertEquals(b1.getId(), this.controller.getNext().getId());
+        Assert.assertNull(this.controller.getNext());
+        Assert.assertNull(this.controller.getNext(10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(Integer.valueOf(1), this.controller.getRunningCounts().get("a"));
+
+        // completing the running run of template a wakes up the waiting executor
+        Thread completer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ie) {
+                    // ignore
+                }
+                controller.completeRun(a1.getId());
+            }
+        });
+        completer.start();
+
+        Run nextRun = this.controller.getNext(10, TimeUnit.SECONDS);
+        completer.join();
+
+        Assert.assertNotNull(nextRun);
+        Assert.assertEquals(a2.getId(), nextRun.getId());
+        Assert.assertEquals(0, this.controller.getQueue().size());
+
+        // switching to FIFO ignores the limits
+        this.controller.setSchedulingPolicy(null);
+        Run a3 = this.createQueuedRun("a");
+        Assert.assertEquals(a3.getId(), this.controller.getNext().getId());
+    }
+
+    /**
+     * 
+     */
+    @Test
+    public void testWriteBehind() throws Exception {
+
+        final int[] writes = new int[1];
+        this.controller.setRepository(new TransientRunRepository() {
+            @Override
+            public void updateItem(Run item) {
+                writes[0]++;
+                super.updateItem(item);
+            }
+        });
+        this.controller.setFlushInterval(60000);
+
+        try {
+            Run run = this.controller.createRun(new Run());
+
+            // back-to-back changes are held back
+            this.controller.setRunStatus(run, RunStatus.CREATE_JOB);
+            this.controller.setJobStatus(run, JobStatus.CREATED);
+            this.controller.setRunStatus(run, RunStatus.PROCESSING);
+            this.controller.setJobStatus(run, JobStatus.RUNNING);
+            Assert.assertEquals(0, writes[0]);
+
+            // reading the run through the controller writes them in one go
+            Assert.assertEquals(RunStatus.PROCESSING, this.controller.getRun(run.getId()).getStatus());
+            Assert.assertEquals(1, writes[0]);
+
+            // final states are written straight away
+            this.controller.setRunStatus(run, RunStatus.COLLECTING_RESULTS);
+            this.controller.setRunStatus(run, RunStatus.COMPLETED);
+            Assert.assertEquals(2, writes[0]);
+
+            // pending changes are written after the interval
+            Run other = this.controller.createRun(new Run());
+            this.controller.setFlushInterval(20);
+            this.controller.setRunStatus(other, RunStatus.PROCESSING);
+            this.controller.setJobStatus(other, JobStatus.RUNNING);
+            long deadline = System.currentTimeMillis() + 10000;
+            while (writes[0] < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(3, writes[0]);
+        } finally {
+            this.controller.setFlushInterval(0);
+        }
+    }
+
+    /**
+     * 
+     */
+    private Run createQueuedRun(String templateId) {
+
+        Run run = new Run();
+        run.setTemplateId(templateId);
+        run.setParameters(new ArrayList<Parameter>());
+        Run created = this.controller.createRun(run);
+        Assert.assertTrue(this.controller.addRun(created));
+        return created;
+    }
+
 }
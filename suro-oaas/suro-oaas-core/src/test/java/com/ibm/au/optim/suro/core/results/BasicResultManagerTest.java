@@ -10,9 +10,11 @@ import com.ibm.au.optim.suro.core.results.mapper.ComplexResultMapper;
 import com.ibm.au.optim.suro.core.results.mapper.JsonCategoryResultMapper;
 import com.ibm.au.optim.suro.core.results.mapper.KeyToColumnResultMapper;
 import com.ibm.au.optim.suro.core.results.transformer.ScheduleTransformer;
+import com.ibm.au.optim.suro.model.entities.Attachment;
 import com.ibm.au.optim.suro.model.entities.Model;
 import com.ibm.au.optim.suro.model.entities.Run;
 import com.ibm.au.optim.suro.model.entities.mapping.*;
+import com.ibm.au.optim.suro.model.store.AttachmentException;
 import com.ibm.au.optim.suro.model.store.ModelRepository;
 import com.ibm.au.optim.suro.model.store.RunRepository;
 import com.ibm.au.optim.suro.model.store.impl.TransientModelRepository;
@@ -27,8 +29,10 @@ import org.junit.Assert;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * @author Peter Ilfrich
@@ -125,28 +129,27 @@ public class BasicResultManagerTest {
      * @throws IOException
      */
     @Test
-    public void testStoreCsvResult() throws IOException {
+    public void testCreateCsvAttachment() throws IOException {
         BasicResultManager manager = new BasicResultManager(setupEnvironment(null));
 
-        Assert.assertFalse(manager.storeCsvResult(null, null, null));
+        Assert.assertNull(manager.createCsvAttachment(null, null));
 
         Run run = new Run();
         manager.getRunRepository().addItem(run);
-        Assert.assertFalse(manager.storeCsvResult(run, null, null));
 
         String fileName = "file.csv";
-        Assert.assertFalse(manager.storeCsvResult(run, fileName, null));
+        Assert.assertNull(manager.createCsvAttachment(fileName, null));
 
         List<String[]> result = new ArrayList<>();
 
-        Assert.assertTrue(manager.storeCsvResult(run, fileName, result));
+        storeAttachment(manager, run, manager.createCsvAttachment(fileName, result));
         Assert.assertEquals("", IOUtils.toString(manager.getRunRepository().getAttachment(run.getId(), fileName)));
 
         result.add(new String[] { "1", "2" });
         result.add(new String[] { "foo", "bar" });
 
         String newFileName = "file2.csv";
-        Assert.assertTrue(manager.storeCsvResult(run, newFileName, result));
+        storeAttachment(manager, run, manager.createCsvAttachment(newFileName, result));
 
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         PrintWriter pw = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
@@ -164,22 +167,21 @@ public class BasicResultManagerTest {
      * @throws IOException
      */
     @Test
-    public void testStoreJsonResult() throws IOException {
+    public void testCreateJsonAttachment() throws IOException {
         BasicResultManager manager = new BasicResultManager(setupEnvironment(null));
 
-        Assert.assertFalse(manager.storeJsonResult(null, null, null));
+        Assert.assertNull(manager.createJsonAttachment(null, null));
 
         Run run = new Run();
         manager.getRunRepository().addItem(run);
-        Assert.assertFalse(manager.storeJsonResult(run, null, null));
 
         String fileName = "file.json";
-        Assert.assertFalse(manager.storeJsonResult(run, fileName, null));
+        Assert.assertNull(manager.createJsonAttachment(fileName, null));
 
         ObjectNode node = this.mapper.createObjectNode();
         node.put("foo", "bar");
 
-        Assert.assertTrue(manager.storeJsonResult(run, fileName, node));
+        storeAttachment(manager, run, manager.createJsonAttachment(fileName, node));
 
         JsonNode result = this.mapper.readTree(manager.getRunRepository().getAttachment(run.getId(), fileName));
         Assert.assertEquals("bar", result.get("foo").textValue());
@@ -191,7 +193,7 @@ public class BasicResultManagerTest {
      * @throws IOException
      */
     @Test
-    public void testProcessMappingCsv() throws IOException {
+    public void testTransformMappingCsv() throws IOException {
         BasicResultManager manager = new BasicResultManager(setupEnvironment(null));
 
         OutputMapping mapping = new OutputMapping(csvFile, MappingType.KEY_TO_COLUMN);
@@ -212,7 +214,7 @@ public class BasicResultManagerTest {
         array.add(entry2);
         data.set(this.solutionKey1, array);
 
-        manager.processMapping(run, data, mapping);
+        storeAttachment(manager, run, manager.transformMapping(data, mapping));
 
         String output = IOUtils.toString(manager.getRunRepository().getAttachment(run.getId(), this.csvFile));
 
@@ -232,7 +234,7 @@ public class BasicResultManagerTest {
      * @throws IOException
      */
     @Test
-    public void testProcessMappingJson() throws IOException {
+    public void testTransformMappingJson() throws IOException {
         // prepare output mapping (see schedule_surgery_types)
         OutputMapping mapping = new OutputMapping(this.jsonFile, MappingType.JSON_CATEGORY);
         MappingSource source = new MappingSource(this.solutionKey1);
@@ -266,7 +268,7 @@ public class BasicResultManagerTest {
         manager.getRunRepository().addItem(run);
 
         // action
-        Assert.assertTrue(manager.processMapping(run, solution, mapping));
+        storeAttachment(manager, run, manager.transformMapping(solution, mapping));
 
         // compare result
         JsonNode node = this.mapper.readTree(manager.getRunRepository().getAttachment(run.getId(), this.jsonFile));
@@ -281,20 +283,14 @@ public class BasicResultManagerTest {
      * @throws IOException
      */
     @Test
-    public void testProcessMappingFlow() throws IOException {
+    public void testTransformMappingFlow() throws IOException {
         BasicResultManager manager = new BasicResultManager(setupEnvironment(null));
-        Assert.assertFalse(manager.processMapping(null, null, null));
 
         ObjectNode data = this.mapper.createObjectNode();
 
-        Run run = new Run();
-        manager.getRunRepository().addItem(run);
-        Assert.assertFalse(manager.processMapping(run, null, null));
-        Assert.assertFalse(manager.processMapping(run, data, null));
-
         boolean exceptionOccurred = false;
         try {
-            manager.processMapping(run, data, new OutputMapping("test.na", MappingType.KEY_TO_COLUMN));
+            manager.transformMapping(data, new OutputMapping("test.na", MappingType.KEY_TO_COLUMN));
         }
         catch (IOException ioe) {
             exceptionOccurred = true;
@@ -303,7 +299,7 @@ public class BasicResultManagerTest {
 
         exceptionOccurred = false;
         try {
-            manager.processMapping(run, data, new OutputMapping(this.csvFile, null));
+            manager.transformMapping(data, new OutputMapping(this.csvFile, null));
         }
         catch (IOException ioe) {
             exceptionOccurred = true;
@@ -312,7 +308,7 @@ public class BasicResultManagerTest {
 
         exceptionOccurred = false;
         try {
-            manager.processMapping(run, data, new OutputMapping(this.jsonFile, null));
+            manager.transformMapping(data, new OutputMapping(this.jsonFile, null));
         }
         catch (IOException ioe) {
             exceptionOccurred = true;
@@ -488,6 +484,213 @@ public class BasicResultManagerTest {
 
 
 
+    /**
+     * The output files produced from the solution stream must be the same as the ones produced from the solution tree,
+     * for all the output mappings of the packaged model.
+     * @throws IOException
+     */
+    @Test
+    public void testStoreResultsStream() throws IOException {
+        Properties props = new Properties();
+        props.setProperty("resultmapper.transformer.ScheduleTransformer", ScheduleTransformer.class.getName());
+        BasicResultManager manager = new BasicResultManager(setupEnvironment(props));
+
+        Model model = this.mapper.readValue(this.getClass().getResourceAsStream("/migration/0.0.5/package/model.json"), Model.class);
+        manager.getModelRepository().addItem(model);
+
+        Run treeRun = new Run();
+        treeRun.setModelId(model.getId());
+        manager.getRunRepository().addItem(treeRun);
+
+        Run streamRun = new Run();
+        streamRun.setModelId(model.getId());
+        manager.getRunRepository().addItem(streamRun);
+
+        JsonNode solution = this.mapper.readTree(this.getClass().getResourceAsStream("/solution.json"));
+        ProcessResponse res = manager.storeResults(treeRun, solution);
+        Assert.assertTrue(res.isResult());
+        Assert.assertNull(res.getMessage());
+
+        res = manager.storeResults(streamRun, this.getClass().getResourceAsStream("/solution.json"));
+        Assert.assertTrue(res.isResult());
+        Assert.assertNull(res.getMessage());
+
+        for (OutputMapping mapping : model.getOutputMappings()) {
+            String fileName = mapping.getFileName();
+            String expected = IOUtils.toString(manager.getRunRepository().getAttachment(treeRun.getId(), fileName));
+            String actual = IOUtils.toString(manager.getRunRepository().getAttachment(streamRun.getId(), fileName));
+
+            if (fileName.endsWith(".json")) {
+                Assert.assertEquals(fileName, this.mapper.readTree(expected), this.mapper.readTree(actual));
+            } else {
+                Assert.assertEquals(fileName, expected, actual);
+            }
+        }
+
+        // a mapping failing does not prevent the others from being stored
+        OutputMapping failing = new OutputMapping("failing.json", MappingType.TRANSFORMER);
+        failing.setTransformer("ScheduleTransformer");
+        failing.setSources(new MappingSource[] { new MappingSource("schedule") });
+        model.getOutputMappings().add(0, failing);
+        manager.getModelRepository().updateItem(model);
+
+        ObjectNode partial = this.mapper.createObjectNode();
+        partial.set("targetsRes", solution.get("targetsRes"));
+
+        Run partialRun = new Run();
+        partialRun.setModelId(model.getId());
+        manager.getRunRepository().addItem(partialRun);
+
+        res = manager.storeResults(partialRun, new ByteArrayInputStream(this.mapper.writeValueAsBytes(partial)));
+        Assert.assertTrue(res.isResult());
+        Assert.assertTrue(res.getMessage().contains("failing.json"));
+        Assert.assertEquals(IOUtils.toString(manager.getRunRepository().getAttachment(treeRun.getId(), "targets.csv")),
+                IOUtils.toString(manager.getRunRepository().getAttachment(partialRun.getId(), "targets.csv")));
+    }
+
+    /**
+     * The output mappings processed concurrently must produce the same files as the ones processed one after the other,
+     * and the files must be attached to the run in a single update.
+     * @throws IOException
+     */
+    @Test
+    public void testStoreResultsParallel() throws IOException {
+        Properties props = new Properties();
+        props.setProperty("resultmapper.transformer.ScheduleTransformer", ScheduleTransformer.class.getName());
+        props.setProperty(BasicResultManager.CFG_MAPPING_THREADS, "1");
+        Environment env = setupEnvironment(props);
+        CountingRunRepository repository = new CountingRunRepository();
+        env.setAttribute(RunRepository.RUN_REPOSITORY_INSTANCE, repository);
+
+        BasicResultManager sequential = new BasicResultManager(env);
+        Assert.assertEquals(1, sequential.getMappingThreads());
+
+        props = new Properties();
+        props.setProperty("resultmapper.transformer.ScheduleTransformer", ScheduleTransformer.class.getName());
+        props.setProperty(BasicResultManager.CFG_MAPPING_THREADS, "notANumber");
+        Environment parallelEnv = setupEnvironment(props);
+        parallelEnv.setAttribute(RunRepository.RUN_REPOSITORY_INSTANCE, repository);
+        parallelEnv.setAttribute(ModelRepository.OPTIMISATION_MODEL_REPOSITORY_INSTANCE, sequential.getModelRepository());
+
+        BasicResultManager parallel = new BasicResultManager(parallelEnv);
+        Assert.assertEquals(BasicResultManager.DEFAULT_MAPPING_THREADS, parallel.getMappingThreads());
+
+        Model model = this.mapper.readValue(this.getClass().getResourceAsStream("/migration/0.0.5/package/model.json"), Model.class);
+        sequential.getModelRepository().addItem(model);
+
+        Run sequentialRun = new Run();
+        sequentialRun.setModelId(model.getId());
+        repository.addItem(sequentialRun);
+
+        Run treeRun = new Run();
+        treeRun.setModelId(model.getId());
+        repository.addItem(treeRun);
+
+        Run streamRun = new Run();
+        streamRun.setModelId(model.getId());
+        repository.addItem(streamRun);
+
+        JsonNode solution = this.mapper.readTree(this.getClass().getResourceAsStream("/solution.json"));
+        Assert.assertNull(sequential.storeResults(sequentialRun, solution).getMessage());
+        Assert.assertNull(parallel.storeResults(treeRun, solution).getMessage());
+        Assert.assertNull(parallel.storeResults(streamRun, this.getClass().getResourceAsStream("/solution.json")).getMessage());
+
+        // one update for each run, no attachment uploaded on its own
+        Assert.assertEquals(3, repository.attachAllCount);
+        Assert.assertEquals(0, repository.attachCount);
+
+        for (OutputMapping mapping : model.getOutputMappings()) {
+            String fileName = mapping.getFileName();
+            String expected = IOUtils.toString(repository.getAttachment(sequentialRun.getId(), fileName));
+
+            Assert.assertEquals(fileName, expected, IOUtils.toString(repository.getAttachment(treeRun.getId(), fileName)));
+            Assert.assertEquals(fileName, expected, IOUtils.toString(repository.getAttachment(streamRun.getId(), fileName)));
+        }
+
+        // all the files are reported as failed if the update fails
+        repository.fail = true;
+        Run failedRun = new Run();
+        failedRun.setModelId(model.getId());
+        repository.addItem(failedRun);
+
+        ProcessResponse res = parallel.storeResults(failedRun, solution);
+        Assert.assertTrue(res.isResult());
+        for (OutputMapping mapping : model.getOutputMappings()) {
+            Assert.assertTrue(res.getMessage().contains(mapping.getFileName()));
+        }
+
+        // only the files the repository reports are failed if some of them are stored
+        repository.fail = false;
+        repository.failPartially = true;
+        Run partialRun = new Run();
+        partialRun.setModelId(model.getId());
+        repository.addItem(partialRun);
+
+        res = parallel.storeResults(partialRun, solution);
+        Assert.assertTrue(res.isResult());
+        int failed = 0;
+        for (OutputMapping mapping : model.getOutputMappings()) {
+            boolean stored = repository.getAttachment(partialRun.getId(), mapping.getFileName()) != null;
+            Assert.assertEquals(mapping.getFileName(), !stored, res.getMessage().contains(mapping.getFileName()));
+            failed += stored ? 0 : 1;
+        }
+        Assert.assertEquals(model.getOutputMappings().size() - 1, failed);
+    }
+
+    /**
+     * Stores the results while the run is being updated by another thread holding the lock of the repository, as the
+     * job executor does when it attaches the solution it is downloading, and verifies that the two updates do not
+     * overlap.
+     * @throws Exception
+     */
+    @Test
+    public void testStoreResultsOverlappingUpdate() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("resultmapper.transformer.ScheduleTransformer", ScheduleTransformer.class.getName());
+        Environment env = setupEnvironment(props);
+        final CountingRunRepository repository = new CountingRunRepository();
+        env.setAttribute(RunRepository.RUN_REPOSITORY_INSTANCE, repository);
+
+        BasicResultManager manager = new BasicResultManager(env);
+
+        Model model = this.mapper.readValue(this.getClass().getResourceAsStream("/migration/0.0.5/package/model.json"), Model.class);
+        manager.getModelRepository().addItem(model);
+
+        Run run = new Run();
+        run.setModelId(model.getId());
+        repository.addItem(run);
+
+        final CountDownLatch locked = new CountDownLatch(1);
+        Thread update = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                synchronized (repository) {
+                    repository.updating = true;
+                    locked.countDown();
+                    try {
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        repository.updating = false;
+                    }
+                }
+            }
+        });
+        update.start();
+        locked.await();
+
+        ProcessResponse res = manager.storeResults(run, this.getClass().getResourceAsStream("/solution.json"));
+        update.join();
+
+        Assert.assertNull(res.getMessage());
+        Assert.assertEquals(1, repository.attachAllCount);
+        for (OutputMapping mapping : model.getOutputMappings()) {
+            Assert.assertNotNull(mapping.getFileName(), repository.getAttachment(run.getId(), mapping.getFileName()));
+        }
+    }
+
     /*
      * HELPER METHODS
      */
@@ -502,6 +705,20 @@ public class BasicResultManagerTest {
         return IOUtils.toString(new ByteArrayInputStream(out.toByteArray()));
     }
 
+    /**
+     * Attaches an output file to the run the way the result manager does, and verifies that it has been stored.
+     * @param manager
+     * @param run
+     * @param attachment
+     */
+    private void storeAttachment(BasicResultManager manager, Run run, Attachment attachment) {
+        Assert.assertNotNull(attachment);
+
+        List<String> failedOutput = new ArrayList<>();
+        manager.storeAttachments(run, Arrays.asList(attachment), failedOutput);
+        Assert.assertTrue(failedOutput.isEmpty());
+    }
+
     /**
      * 
      * @param props
@@ -514,4 +731,50 @@ public class BasicResultManagerTest {
 
         return env;
     }
+
+    /**
+     * Run repository counting the calls to the attach methods, which can be made to fail, and rejecting the updates made
+     * while another thread is updating the run.
+     */
+    private static class CountingRunRepository extends TransientRunRepository {
+
+        private int attachCount = 0;
+
+        private int attachAllCount = 0;
+
+        private boolean fail = false;
+
+        private boolean failPartially = false;
+
+        private volatile boolean updating = false;
+
+        @Override
+        public void attach(Run run, String fileName, String contentType, InputStream data) {
+            attachCount++;
+            super.attach(run, fileName, contentType, data);
+        }
+
+        @Override
+        public void attachAll(Run run, List<Attachment> attachments) {
+            if (fail) {
+                throw new IllegalStateException("Cannot update the run.");
+            }
+            if (updating) {
+                throw new IllegalStateException("The run is being updated by another thread.");
+            }
+            attachAllCount++;
+            if (failPartially) {
+                // only the first file is stored
+                super.attach(run, attachments.get(0).getName(), attachments.get(0).getContentType(), attachments.get(0).getStream());
+                List<String> failed = new ArrayList<>();
+                for (Attachment attachment : attachments.subList(1, attachments.size())) {
+                    failed.add(attachment.getName());
+                }
+                throw new AttachmentException("Cannot store the files " + failed + ".", failed);
+            }
+            for (Attachment attachment : attachments) {
+                super.attach(run, attachment.getName(), attachment.getContentType(), attachment.getStream());
+            }
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package com.ibm.au.optim.suro.core.results;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Verifies that the {@link SolutionStreamReader} passes the entries of the arrays of the solution to the consumers
+ * interested in them, in order, and that a failing consumer does not affect the others.
+ */
+public class SolutionStreamReaderTest {
+
+    private static final String SOLUTION = "{\"finalGap\":{\"value\":0.5},\"first\":[{\"id\":1},{\"id\":2}],"
+            + "\"skipped\":[{\"id\":[3,4]}],\"second\":[{\"id\":5}],\"empty\":[]}";
+
+    @Test
+    public void testRead() throws IOException {
+        RecordingConsumer first = new RecordingConsumer(false, "first", "second");
+        RecordingConsumer second = new RecordingConsumer(false, "second", "empty", "missing");
+
+        SolutionStreamReader reader = new SolutionStreamReader();
+        reader.register(first);
+        reader.register(second);
+        reader.read(this.createStream(SOLUTION));
+
+        Assert.assertEquals(Arrays.asList("first:1", "first:2", "first", "second:5", "second"), first.events);
+        Assert.assertEquals(Arrays.asList("second:5", "second", "empty"), second.events);
+        Assert.assertNull(reader.getFailure(first));
+        Assert.assertNull(reader.getFailure(second));
+
+        // the values that are not arrays are available
+        Assert.assertEquals(0.5, reader.getSummary().get("finalGap").get("value").doubleValue(), 0.0);
+        Assert.assertNull(reader.getSummary().get("first"));
+    }
+
+    @Test
+    public void testFailingConsumer() throws IOException {
+        RecordingConsumer failing = new RecordingConsumer(true, "first", "second");
+        RecordingConsumer other = new RecordingConsumer(false, "first");
+
+        SolutionStreamReader reader = new SolutionStreamReader();
+        reader.register(failing);
+        reader.register(other);
+        reader.read(this.createStream(SOLUTION));
+
+        // the failing consumer does not receive any further entry
+        Assert.assertEquals(Arrays.asList("first:1"), failing.events);
+        Assert.assertTrue(reader.getFailure(failing) instanceof IllegalStateException);
+
+        Assert.assertEquals(Arrays.asList("first:1", "first:2", "first"), other.events);
+        Assert.assertNull(reader.getFailure(other));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidSolution() throws IOException {
+        new SolutionStreamReader().read(this.createStream("[{\"id\":1}]"));
+    }
+
+    private ByteArrayInputStream createStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Consumer recording the entries and the end of the arrays it receives.
+     */
+    private static class RecordingConsumer implements SolutionConsumer {
+
+        private final List<String> keys;
+
+        private final boolean fail;
+
+        private final List<String> events = new ArrayList<>();
+
+        private RecordingConsumer(boolean fail, String... keys) {
+            this.fail = fail;
+            this.keys = Arrays.asList(keys);
+        }
+
+        @Override
+        public Collection<String> getSolutionKeys() {
+            return keys;
+        }
+
+        @Override
+        public void accept(String solutionKey, JsonNode entry) {
+            events.add(solutionKey + ":" + entry.get("id").asText());
+            if (fail) {
+                throw new IllegalStateException("Cannot process the entry.");
+            }
+        }
+
+        @Override
+        public void complete(String solutionKey) {
+            events.add(solutionKey);
+        }
+
+        @Override
+        public void write(OutputStream output) {
+            // nothing to write
+        }
+    }
+}
@@ -1,17 +1,23 @@
 package com.ibm.au.optim.suro.core.results.mapper;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ibm.au.optim.suro.model.entities.mapping.ComplexStringKey;
 import com.ibm.au.optim.suro.model.entities.mapping.MappingSource;
 import com.ibm.au.optim.suro.model.entities.mapping.MappingSpecification;
 import com.ibm.au.optim.suro.model.entities.mapping.OutputMapping;
 import com.ibm.au.optim.suro.model.entities.mapping.ValueMapping;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -38,6 +44,11 @@ public class AbstractJsonMapperTest extends AbstractResultMapperTest {
      */
     private String column = "column";
 
+    /**
+     * The number of entries of the synthetic solution used to compare the column lookups (400 rows by 10 periods).
+     */
+    private static final int ENTRIES = 4000;
+
 
     /**
      * 
@@ -301,4 +312,210 @@ public class AbstractJsonMapperTest extends AbstractResultMapperTest {
         Assert.assertTrue(Arrays.deepEquals(new String[]{"Item", "1", "2"}, rm.createHeader(mapping, columns)));
         Assert.assertTrue(Arrays.deepEquals(new String[]{ "Item" }, rm.createHeader(mapping, new String[] {})));
     }
+
+    /**
+     * 
+     */
+    @Test
+    public void testIndexColumns() {
+        AbstractJsonMapper rm = new ComplexResultMapper();
+
+        Assert.assertEquals(0, rm.indexColumns(new String[] {}).size());
+
+        Map<String, Integer> index = rm.indexColumns(new String[] { "3", "1", null, "1" });
+        Assert.assertEquals(Arrays.asList("3", "1", null), new ArrayList<>(index.keySet()));
+        Assert.assertEquals(Integer.valueOf(0), index.get("3"));
+        Assert.assertEquals(Integer.valueOf(1), index.get("1"));
+        Assert.assertEquals(Integer.valueOf(2), index.get(null));
+        Assert.assertNull(index.get("2"));
+    }
+
+    /**
+     * Maps a synthetic solution with the column index lookups and with the former linear scans of the columns, and
+     * verifies that both produce the same output.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testIndexedColumnResolution() throws IOException {
+        ObjectNode solution = AbstractJsonMapperTest.createSolution(this.mapper, ENTRIES);
+
+        ComplexResultMapper indexed = new ComplexResultMapper();
+        ComplexResultMapper scanning = new ScanningResultMapper();
+
+        for (OutputMapping current : AbstractJsonMapperTest.createMappings()) {
+            List<String[]> expected = scanning.transformToCsv(solution, current);
+            List<String[]> actual = indexed.transformToCsv(solution, current);
+
+            Assert.assertTrue(current.getFileName(), actual.size() > 1);
+            Assert.assertEquals(current.getFileName(), expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertArrayEquals(current.getFileName(), expected.get(i), actual.get(i));
+            }
+        }
+    }
+
+    /**
+     * Creates a synthetic solution with a <i>utilisation</i> array of the given number of entries, spread over 20 units
+     * and 20 specialties per period, and a <i>totals</i> array with one entry per period.
+     *
+     * @param mapper    the {@link ObjectMapper} creating the nodes.
+     * @param entries   the number of entries of the <i>utilisation</i> array.
+     *
+     * @return the synthetic solution.
+     */
+    private static ObjectNode createSolution(ObjectMapper mapper, int entries) {
+        ObjectNode solution = mapper.createObjectNode();
+        ArrayNode utilisation = solution.putArray("utilisation");
+        ArrayNode totals = solution.putArray("totals");
+
+        // 400 rows (unit x specialty) per period
+        for (int i = 0; i < entries; i++) {
+            ObjectNode entry = utilisation.addObject();
+            entry.put("unit", "U" + (i % 20));
+            entry.put("specialty", "S" + ((i / 20) % 20));
+            entry.put("period", i / 400 + 1);
+            entry.put("value", i % 7);
+
+            if (i % 400 == 0) {
+                ObjectNode total = totals.addObject();
+                total.put("period", i / 400 + 1);
+                total.put("value", i);
+            }
+        }
+
+        return solution;
+    }
+
+    /**
+     * Creates the mappings of the synthetic solution: one with multi-key rows and one with a single-key row.
+     *
+     * @return the mappings of the synthetic solution.
+     */
+    private static List<OutputMapping> createMappings() {
+        MappingSource multi = new MappingSource("utilisation");
+        multi.setRow(new MappingSpecification(new String[] { "Unit", "Specialty" }, new String[] { "unit", "specialty" }));
+        multi.setColumn(new MappingSpecification(null, "period"));
+        multi.setValue(new ValueMapping("value"));
+
+        MappingSource single = new MappingSource("totals");
+        single.setRow(new MappingSpecification("Total", null));
+        single.setColumn(new MappingSpecification("Period", "period"));
+        single.setValue(new ValueMapping("value"));
+
+        List<OutputMapping> mappings = new ArrayList<>();
+        OutputMapping mapping = new OutputMapping("utilisation.csv", null);
+        mapping.setSources(new MappingSource[] { multi });
+        mappings.add(mapping);
+        mapping = new OutputMapping("totals.csv", null);
+        mapping.setSources(new MappingSource[] { single });
+        mappings.add(mapping);
+
+        return mappings;
+    }
+
+    /**
+     * Mapper producing the CSV from the tree and resolving the columns with linear scans, as the mappers did before the
+     * column index was introduced.
+     */
+    private static class ScanningResultMapper extends ComplexResultMapper {
+
+        @Override
+        public List<String[]> transformToCsv(JsonNode node, OutputMapping mapping) throws IOException {
+            List<String[]> result = new ArrayList<>();
+            String[] columns = extractColumns(mapping.getSources(), node);
+
+            result.add(createHeader(mapping, columns));
+            for (MappingSource source : mapping.getSources()) {
+                result.addAll(this.extractRows(node.get(source.getSolutionKey()).iterator(), source, columns));
+            }
+
+            return result;
+        }
+
+        @Override
+        protected String[] extractColumns(MappingSource[] sources, JsonNode node) {
+            List<String> columns = new ArrayList<>();
+
+            for (MappingSource source : sources) {
+                if (source.getColumn() == null || source.getColumn().getEntryKeys() == null || source.getColumn().getEntryKeys().length != 1) {
+                    continue;
+                }
+
+                Iterator<JsonNode> entries = node.get(source.getSolutionKey()).iterator();
+                while (entries.hasNext()) {
+                    String columnValue = extractStringValue(entries.next().get(source.getColumn().getEntryKeys()[0]));
+                    if (!columns.contains(columnValue)) {
+                        columns.add(columnValue);
+                    }
+                }
+            }
+
+            return getStringArray(columns);
+        }
+
+        @Override
+        protected String[] extractSingleKeyRows(MappingSource source, Iterator<JsonNode> solutionData, String[] columns) {
+            MappingSpecification row = source.getRow();
+
+            String[] currentRow = new String[columns.length + 1];
+            currentRow[0] = row.getLabels()[0];
+
+            while (solutionData.hasNext()) {
+                JsonNode entry = solutionData.next();
+
+                String currentColumn = extractStringValue(entry.get(source.getColumn().getEntryKeys()[0]));
+                if (currentColumn == null) {
+                    continue;
+                }
+
+                String currentValue;
+                if (source.getValue() != null) {
+                    currentValue = extractStringValue(entry.get(source.getValue().getKeys()[0]));
+                } else if (row.getEntryKeys() != null) {
+                    currentValue = extractStringValue(entry.get(row.getEntryKeys()[0]));
+                } else {
+                    currentValue = "";
+                }
+
+                for (int i = 0; i < columns.length; i++) {
+                    if (columns[i].equals(currentColumn)) {
+                        currentRow[i + 1] = currentValue;
+                    }
+                }
+            }
+
+            return currentRow;
+        }
+
+        @Override
+        protected List<String[]> extractMultiKeyRows(MappingSource source, Iterator<JsonNode> solutionData, String[] columns) {
+            Map<ComplexStringKey, String[]> rowValues = new HashMap<>();
+            String[] keys = source.getRow().getEntryKeys();
+
+            while (solutionData.hasNext()) {
+                JsonNode entry = solutionData.next();
+                String[] complexKeyBase = new String[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    complexKeyBase[i] = extractStringValue(entry.get(keys[i]));
+                }
+                ComplexStringKey rowKey = new ComplexStringKey(complexKeyBase);
+
+                String[] values = rowValues.get(rowKey);
+                if (values == null) {
+                    values = new String[columns.length];
+                    rowValues.put(rowKey, values);
+                }
+
+                String currentColumn = extractStringValue(entry.get(source.getColumn().getEntryKeys()[0]));
+                for (int i = 0; i < columns.length; i++) {
+                    if (columns[i].equals(currentColumn)) {
+                        values[i] = extractStringValue(entry.get(source.getValue().getKeys()[0]));
+                    }
+                }
+            }
+
+            return createMultiKeyRows(rowValues, columns);
+        }
+    }
 }
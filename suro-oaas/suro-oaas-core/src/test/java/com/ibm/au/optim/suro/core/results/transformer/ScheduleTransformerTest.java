@@ -1,11 +1,17 @@
 package com.ibm.au.optim.suro.core.results.transformer;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ibm.au.optim.suro.core.results.SolutionConsumer;
+import com.ibm.au.optim.suro.core.results.SolutionStreamReader;
 import com.ibm.au.optim.suro.core.results.mapper.AbstractResultMapperTest;
 import com.ibm.au.optim.suro.model.entities.mapping.MappingSource;
 import com.ibm.au.optim.suro.model.entities.mapping.MappingType;
 import com.ibm.au.optim.suro.model.entities.mapping.OutputMapping;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.junit.Assert;
@@ -53,4 +59,96 @@ public class ScheduleTransformerTest extends AbstractResultMapperTest {
         ScheduleTransformer transformer = new ScheduleTransformer();
         Assert.assertNull(transformer.transformToCsv(this.mapper.createObjectNode(), new OutputMapping("test.csv", MappingType.TRANSFORMER)));
     }
+
+    /**
+     * The medical units of each day are listed once, in the order they are found, with the sessions of their first
+     * entry and all their patients.
+     * @throws IOException
+     */
+    @Test
+    public void testScheduleIndex() throws IOException {
+        ObjectNode solution = this.mapper.createObjectNode();
+        ArrayNode schedule = solution.putArray("schedule");
+        schedule.add(this.createEntry("week 1", "monday", 11, 4));
+        schedule.add(this.createEntry("week 1", "monday", 12, 2));
+        schedule.add(this.createEntry("week 1", "tuesday", 11, 3));
+        schedule.add(this.createEntry("week 2", "monday", 12, 1));
+
+        ArrayNode withPatient = solution.putArray("scheduleWithPatient");
+        ObjectNode patient = this.createEntry("week 1", "monday", 12, 5);
+        patient.put("treatedPatient.surgeryType", "S1");
+        patient.put("treatedPatient.isOverdue", true);
+        patient.put("treatedPatient.daysUntilOverdue", 3);
+        withPatient.add(patient);
+        patient = this.createEntry("week 1", "monday", 12, 5);
+        patient.put("treatedPatient.surgeryType", "S2");
+        patient.put("treatedPatient.isOverdue", false);
+        patient.put("treatedPatient.daysUntilOverdue", 7);
+        withPatient.add(patient);
+        withPatient.add(this.createEntry("week 2", "friday", 13, 6));
+
+        ScheduleTransformer transformer = new ScheduleTransformer();
+        JsonNode result = transformer.transformToJson(solution, null);
+
+        Assert.assertEquals(2, result.size());
+        JsonNode monday = result.get("week 1").get("monday");
+        Assert.assertEquals(2, monday.size());
+        Assert.assertEquals(11, monday.get(0).get("medicalUnitId").intValue());
+        Assert.assertEquals(0, monday.get(0).get("treatedPatients").size());
+
+        JsonNode unit = monday.get(1);
+        Assert.assertEquals(12, unit.get("medicalUnitId").intValue());
+        Assert.assertEquals(2, unit.get("allocatedSessions").intValue());
+        Assert.assertEquals(2, unit.get("allocatedSessionsBase").intValue());
+        Assert.assertEquals(2, unit.get("treatedPatients").size());
+        Assert.assertEquals("S1", unit.get("treatedPatients").get(0).get("surgeryType").textValue());
+        Assert.assertTrue(unit.get("treatedPatients").get(0).get("isOverdue").booleanValue());
+        Assert.assertEquals(7, unit.get("treatedPatients").get(1).get("daysUntilOverdue").intValue());
+
+        Assert.assertEquals(1, result.get("week 1").get("tuesday").size());
+        Assert.assertEquals(6, result.get("week 2").get("friday").get(0).get("allocatedSessions").intValue());
+
+        // the schedule written from the stream is the same, even if the patients are read first
+        ObjectNode reversed = this.mapper.createObjectNode();
+        reversed.set("scheduleWithPatient", withPatient);
+        reversed.set("schedule", schedule);
+
+        SolutionConsumer consumer = transformer.createConsumer(null);
+        SolutionStreamReader reader = new SolutionStreamReader();
+        reader.register(consumer);
+        reader.read(new ByteArrayInputStream(this.mapper.writeValueAsBytes(reversed)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        consumer.write(out);
+        Assert.assertEquals(result, this.mapper.readTree(out.toByteArray()));
+    }
+
+    /**
+     * 
+     * @throws IOException
+     */
+    @Test
+    public void testScheduleStream() throws IOException {
+        JsonNode node = this.mapper.readTree(this.getClass().getResourceAsStream("/solution.json"));
+        ScheduleTransformer transformer = new ScheduleTransformer();
+
+        SolutionConsumer consumer = transformer.createConsumer(null);
+        SolutionStreamReader reader = new SolutionStreamReader();
+        reader.register(consumer);
+        reader.read(this.getClass().getResourceAsStream("/solution.json"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        consumer.write(out);
+        Assert.assertEquals(this.mapper.writeValueAsString(transformer.transformToJson(node, null)), out.toString("UTF-8"));
+    }
+
+    private ObjectNode createEntry(String week, String day, int medicalUnitId, int sessions) {
+        ObjectNode entry = this.mapper.createObjectNode();
+        entry.put("week", week);
+        entry.put("day", day);
+        entry.put("medicalUnitId", medicalUnitId);
+        entry.put("allocatedSessions", sessions);
+        entry.put("allocatedSessionsBase", sessions);
+        return entry;
+    }
 }
@@ -1,6 +1,7 @@
 package com.ibm.au.optim.suro.model.entities.couch;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.Base64Variants;
 import com.ibm.au.optim.suro.model.entities.Entity;
 
 /**
@@ -52,6 +53,20 @@ public class CouchDbDocument<T extends Entity> extends org.ektorp.support.CouchD
         this.content = content;
     }
 
+    /**
+     * Adds an attachment to the document, whose content is sent inline with the next update
+     * of the document. This allows storing several attachments with a single update, rather
+     * than creating each of them separately.
+     * 
+     * @param name			a {@link String} representing the name of the attachment.
+     * @param contentType	a {@link String} representing the MIME type of the attachment.
+     * @param data			a {@literal byte} array containing the content of the attachment.
+     */
+    public void addAttachment(String name, String contentType, byte[] data) {
+    	
+    	this.addInlineAttachment(new org.ektorp.Attachment(name, Base64Variants.getDefaultVariant().encode(data), contentType));
+    }
+
     /**
      * Generates an hash code for instances of the {@link CouchDbDocument} class.
      * The hash code is generated from unique identifier of the document that is
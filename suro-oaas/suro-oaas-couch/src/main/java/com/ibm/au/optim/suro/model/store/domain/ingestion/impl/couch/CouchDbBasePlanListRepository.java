@@ -5,8 +5,6 @@ import com.ibm.au.optim.suro.model.entities.domain.ingestion.couch.CouchDbBasePl
 import com.ibm.au.optim.suro.model.store.domain.ingestion.BasePlanListRepository;
 import com.ibm.au.optim.suro.model.store.impl.couch.AbstractCouchDbRepository;
 
-import java.util.List;
-
 /**
  * Class <b>CouchDbBasePlanListRepository</b>. This class extends {@link AbstractCouchDbRepository}
  * and specialises its operations for {@link BasePlanList} entities. 
@@ -46,14 +44,8 @@ public class CouchDbBasePlanListRepository
 	 */
 	@Override
 	public BasePlanList findByTime(long timestamp) {
-		List<CouchDbBasePlanList> basePlans = this.proxy.getViewWithRange(CouchDbBasePlanListRepository.VIEW_BY_TIME, 0, timestamp);
-
-		if (basePlans == null || basePlans.isEmpty()) {
-			return null;
-		}
+		CouchDbBasePlanList latest = this.proxy.getLastInRange(CouchDbBasePlanListRepository.VIEW_BY_TIME, 0, timestamp);
 
-		CouchDbBasePlanList entities = basePlans.get(basePlans.size() - 1);
-		
-		return entities.getContent();
+		return latest == null ? null : latest.getContent();
 	}
 }
@@ -6,8 +6,6 @@ import com.ibm.au.optim.suro.model.entities.domain.ingestion.couch.CouchDbIcuAva
 import com.ibm.au.optim.suro.model.store.domain.ingestion.IcuAvailabilitiesRepository;
 import com.ibm.au.optim.suro.model.store.impl.couch.AbstractCouchDbRepository;
 
-import java.util.List;
-
 /**
  * Class <b>CouchDbIcuAvailabilitiesRepository</b>. CouchDB specific implementation for the
  * {@link IcuAvailabilitiesRepository} interface. This repository specialises the base class
@@ -49,12 +47,8 @@ public class CouchDbIcuAvailabilitiesRepository
 	@Override
 	public IcuAvailabilityList findByTime(long timestamp) {
 		
-		List<CouchDbIcuAvailabilityList> icuAvailabilities = proxy.getViewWithRange(CouchDbIcuAvailabilitiesRepository.VIEW_BY_TIME, 0, timestamp);
-
-		if (icuAvailabilities == null || icuAvailabilities.isEmpty()) {
-			return null;
-		}
+		CouchDbIcuAvailabilityList latest = this.proxy.getLastInRange(CouchDbIcuAvailabilitiesRepository.VIEW_BY_TIME, 0, timestamp);
 
-		return icuAvailabilities.get(icuAvailabilities.size() - 1).getContent();
+		return latest == null ? null : latest.getContent();
 	}
 }
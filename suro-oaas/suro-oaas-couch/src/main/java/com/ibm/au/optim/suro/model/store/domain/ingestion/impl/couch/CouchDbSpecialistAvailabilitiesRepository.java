@@ -5,8 +5,6 @@ import com.ibm.au.optim.suro.model.entities.domain.ingestion.couch.CouchDbSpecia
 import com.ibm.au.optim.suro.model.store.domain.ingestion.SpecialistAvailabilitiesRepository;
 import com.ibm.au.optim.suro.model.store.impl.couch.AbstractCouchDbRepository;
 
-import java.util.List;
-
 /**
  * Class <b>CouchDbSpecialistAvailabilitiesRepository</b>. CouchDB specific implementation for the
  * {@link SpecialistAvailabilitiesRepository} interface. This repository specialises the base class
@@ -45,12 +43,8 @@ public class CouchDbSpecialistAvailabilitiesRepository
 	 */
 	@Override
 	public SpecialistAvailabilityList findByTime(long timestamp) {
-		List<CouchDbSpecialistAvailabilityList> specialistAvailabilities = this.proxy.getViewWithRange(CouchDbSpecialistAvailabilitiesRepository.VIEW_BY_TIME, 0, timestamp);
-
-		if (specialistAvailabilities == null || specialistAvailabilities.isEmpty()) {
-			return null;
-		}
+		CouchDbSpecialistAvailabilityList latest = this.proxy.getLastInRange(CouchDbSpecialistAvailabilitiesRepository.VIEW_BY_TIME, 0, timestamp);
 
-		return specialistAvailabilities.get(specialistAvailabilities.size() - 1).getContent();
+		return latest == null ? null : latest.getContent();
 	}
 }
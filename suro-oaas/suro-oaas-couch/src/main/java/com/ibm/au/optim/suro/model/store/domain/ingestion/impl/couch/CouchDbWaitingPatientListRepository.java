@@ -5,8 +5,6 @@ import com.ibm.au.optim.suro.model.entities.domain.ingestion.couch.CouchDbWaitin
 import com.ibm.au.optim.suro.model.store.domain.ingestion.WaitingPatientListRepository;
 import com.ibm.au.optim.suro.model.store.impl.couch.AbstractCouchDbRepository;
 
-import java.util.List;
-
 /**
  * Class <b>CouchDbWaitingPatientListRepository</b>. CouchDB specific implementation for the
  * {@link WaitingPatientListRepository} interface. This repository specialises the base class
@@ -43,12 +41,8 @@ public class CouchDbWaitingPatientListRepository
 	 */
 	@Override
 	public WaitingPatientList findByTime(long timestamp) {
-		List<CouchDbWaitingPatientList> basePlans = this.proxy.getViewWithRange(CouchDbWaitingPatientListRepository.VIEW_BY_TIME, 0, timestamp);
-
-		if (basePlans == null || basePlans.isEmpty()) {
-			return null;
-		}
+		CouchDbWaitingPatientList latest = this.proxy.getLastInRange(CouchDbWaitingPatientListRepository.VIEW_BY_TIME, 0, timestamp);
 
-		return basePlans.get(basePlans.size() - 1).getContent();
+		return latest == null ? null : latest.getContent();
 	}
 }
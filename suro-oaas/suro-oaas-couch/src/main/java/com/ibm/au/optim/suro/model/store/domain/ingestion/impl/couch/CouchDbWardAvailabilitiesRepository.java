@@ -6,8 +6,6 @@ import com.ibm.au.optim.suro.model.entities.domain.ingestion.couch.CouchDbWardAv
 import com.ibm.au.optim.suro.model.store.domain.ingestion.WardAvailabilitiesRepository;
 import com.ibm.au.optim.suro.model.store.impl.couch.AbstractCouchDbRepository;
 
-import java.util.List;
-
 /**
  * Class <b>CouchDbWardAvailabilitiesRepository</b>. CouchDB specific implementation for the
  * {@link WardAvailabilitiesRepository} interface. This repository specialises the base class
@@ -49,12 +47,8 @@ public class CouchDbWardAvailabilitiesRepository
 	 */
 	@Override
 	public WardAvailabilityList findByTime(long timestamp) {
-		List<CouchDbWardAvailabilityList> wardAvailabilities = this.proxy.getViewWithRange(CouchDbWardAvailabilitiesRepository.VIEW_BY_TIME, 0, timestamp);
-
-		if (wardAvailabilities == null || wardAvailabilities.isEmpty()) {
-			return null;
-		}
+		CouchDbWardAvailabilityList latest = this.proxy.getLastInRange(CouchDbWardAvailabilitiesRepository.VIEW_BY_TIME, 0, timestamp);
 
-		return wardAvailabilities.get(wardAvailabilities.size() - 1).getContent();
+		return latest == null ? null : latest.getContent();
 	}
 }
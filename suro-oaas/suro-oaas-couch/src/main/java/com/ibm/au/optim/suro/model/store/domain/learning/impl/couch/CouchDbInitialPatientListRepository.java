@@ -5,8 +5,6 @@ import com.ibm.au.optim.suro.model.entities.domain.learning.couch.CouchDbInitial
 import com.ibm.au.optim.suro.model.store.domain.learning.InitialPatientListRepository;
 import com.ibm.au.optim.suro.model.store.impl.couch.AbstractCouchDbRepository;
 
-import java.util.List;
-
 /**
  * Class <b>CouchDbInitialPatientListRepository</b>. CouchDB specific implementation for the
  * {@link InitialPatientListRepository} interface. This repository specialises the base class
@@ -51,12 +49,8 @@ public class CouchDbInitialPatientListRepository
 	@Override
 	public InitialPatientList findByTime(long timestamp) {
 		
-		List<CouchDbInitialPatientList> initialPatients = this.proxy.getViewWithRange(CouchDbInitialPatientListRepository.VIEW_BY_TIME, 0, timestamp);
-
-		if (initialPatients == null || initialPatients.isEmpty()) {
-			return null;
-		}
+		CouchDbInitialPatientList latest = this.proxy.getLastInRange(CouchDbInitialPatientListRepository.VIEW_BY_TIME, 0, timestamp);
 
-		return initialPatients.get(initialPatients.size() - 1).getContent();
+		return latest == null ? null : latest.getContent();
 	}
 }
@@ -5,8 +5,6 @@ import com.ibm.au.optim.suro.model.entities.domain.learning.couch.CouchDbSurgery
 import com.ibm.au.optim.suro.model.store.domain.learning.SurgeryClusterListRepository;
 import com.ibm.au.optim.suro.model.store.impl.couch.AbstractCouchDbRepository;
 
-import java.util.List;
-
 
 /**
  * Class <b>CouchDbSurgeryClusterListRepository</b>. CouchDB specific implementation for the
@@ -48,12 +46,8 @@ public class CouchDbSurgeryClusterListRepository
 	 */
 	@Override
 	public SurgeryClusterList findByTime(long timestamp) {
-		List<CouchDbSurgeryClusterList> surgeryClusters = proxy.getViewWithRange("by_time", 0, timestamp);
-
-		if (surgeryClusters == null || surgeryClusters.isEmpty()) {
-			return null;
-		}
+		CouchDbSurgeryClusterList latest = this.proxy.getLastInRange("by_time", 0, timestamp);
 
-		return surgeryClusters.get(surgeryClusters.size() - 1).getContent();
+		return latest == null ? null : latest.getContent();
 	}
 }
@@ -20,6 +20,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -39,6 +41,11 @@ public abstract class AbstractCouchDbRepository<Z extends CouchDbDocument<T>, T
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractCouchDbRepository.class);
 
+    /**
+     * The maximum number of documents kept in the cache of the last known document revisions.
+     */
+    public static final int DOCUMENT_CACHE_SIZE = 512;
+
     /**
      * Class <b>CouchDbProxy</b>. This class extends {@link CouchDbRepositorySupport} and provides
      * a simple extension to use the methods of {@link CouchDbRepositorySupport} with the type that
@@ -171,6 +178,28 @@ public abstract class AbstractCouchDbRepository<Z extends CouchDbDocument<T>, T
                             .endKey(endKey),
                     type);
         }
+
+        /**
+         * Returns the document with the highest key within the given range of the view. The view is read in
+         * descending order starting from <i>endKey</i> and only the first row is fetched, hence this method
+         * retrieves a single document regardless of the number of documents in the range.
+         *
+         * @param viewId a {@link String} representing the identifier of the view.
+         * @param startKey an object representing the lower bound of the range
+         * @param endKey an object representing the upper bound of the range
+         * @return the document with the highest key in the range, or {@literal null} if the
+         * range is empty.
+         */
+        public Y getLastInRange(String viewId, Object startKey, Object endKey) {
+            List<Y> docs = db.queryView(createQuery(viewId)
+                            .includeDocs(true)
+                            .descending(true)
+                            .startKey(endKey)
+                            .endKey(startKey)
+                            .limit(1),
+                    type);
+            return (docs == null || docs.isEmpty()) ? null : docs.get(0);
+        }
     }
 
 
@@ -200,6 +229,22 @@ public abstract class AbstractCouchDbRepository<Z extends CouchDbDocument<T>, T
      */
     protected Environment environment;
 
+    /**
+     * The last known version of the documents recently read, added or updated through this repository, indexed by
+     * document id. The cache allows {@link #updateItem(Entity)} to send the update straight away when the caller holds
+     * the last known revision, rather than re-reading the document first. The least recently used documents are
+     * evicted once the cache holds {@link #DOCUMENT_CACHE_SIZE} documents.
+     */
+    protected final Map<String, Z> documents = Collections.synchronizedMap(new LinkedHashMap<String, Z>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Z> eldest) {
+            return this.size() > DOCUMENT_CACHE_SIZE;
+        }
+    });
+
     /**
      * Initializes an instance of {@link AbstractCouchDbRepository} with the given
      * type information.
@@ -260,6 +305,8 @@ public abstract class AbstractCouchDbRepository<Z extends CouchDbDocument<T>, T
         }
 
         Z doc = this.proxy.getItem(id);
+        this.documents.put(doc.getId(), doc);
+
 		T result = doc.getContent();
         
         result.setId(doc.getId());
@@ -297,7 +344,9 @@ public abstract class AbstractCouchDbRepository<Z extends CouchDbDocument<T>, T
 
 
     /**
-     * Updates the given item to the repository.
+     * Updates the given item to the repository. If the revision of the item matches the last known revision of the
+     * document, the update is sent straight away (one round trip). The document is only re-read from the database if
+     * its last known revision is not available or if the database reports a conflict.
      *
      * @param item the item to update. It cannot be {@literal null}.
      * @throws IllegalArgumentException if <i>item</i> is {@literal null}.
@@ -307,12 +356,16 @@ public abstract class AbstractCouchDbRepository<Z extends CouchDbDocument<T>, T
         if (item == null || item.getId() == null || item.getRevision() == null) {
             throw new IllegalArgumentException("Parameter 'item', and properties 'item:id', 'item:revision' cannot be null.");
         }
+        if (this.updateKnownRevision(item)) {
+            return;
+        }
         try {
             Z existing = this.proxy.getItem(item.getId());
             if (existing.getRevision().equals(item.getRevision())) {
                 existing.setContent(item);
                 this.proxy.update(existing);
                 item.setRevision(existing.getRevision());
+                this.documents.put(existing.getId(), existing);
             } else {
                 LOGGER.error("Error updating document " + item.getRevision() + " vs. " + existing.getRevision() + " in the database.");
                 throw new UpdateConflictException(existing.getId(), existing.getRevision());
@@ -328,6 +381,7 @@ public abstract class AbstractCouchDbRepository<Z extends CouchDbDocument<T>, T
     @Override
     public void removeAll() {
         this.proxy.removeAll();
+        this.documents.clear();
     }
 
     /**
@@ -341,6 +395,7 @@ public abstract class AbstractCouchDbRepository<Z extends CouchDbDocument<T>, T
         if (id == null) {
             throw new IllegalArgumentException("Parameter 'id' cannot be null.");
         }
+        this.documents.remove(id);
         Z item = this.proxy.get(id);
         if (item != null) {
             this.proxy.remove(item);
@@ -414,6 +469,7 @@ public abstract class AbstractCouchDbRepository<Z extends CouchDbDocument<T>, T
 
         this.proxy = null;
         this.environment = null;
+        this.documents.clear();
 
         // [CV] NOTE: we should release all the connections, this is an improvement.
         //
@@ -429,6 +485,7 @@ public abstract class AbstractCouchDbRepository<Z extends CouchDbDocument<T>, T
     protected void addItem(Z item) {
     	
         this.proxy.add(item);
+        this.documents.put(item.getId(), item);
         
         item.getContent().setId(item.getId());
         item.getContent().setRevision(item.getRevision());
@@ -436,6 +493,40 @@ public abstract class AbstractCouchDbRepository<Z extends CouchDbDocument<T>, T
     }
 
 
+    /**
+     * Sends the update of the given item without re-reading the document, if the revision of the item is the last
+     * known revision of the document. The cached document is used rather than a new one, so that the attachment
+     * stubs of the document are preserved by the update.
+     *
+     * @param item - the item to update
+     * @return - true if the item has been updated, false if the last known revision does not match the revision of the
+     * item or the database reported a conflict (the caller has to re-read the document)
+     */
+    protected boolean updateKnownRevision(T item) {
+
+        Z known = this.documents.get(item.getId());
+        if (known == null) {
+            return false;
+        }
+
+        synchronized (known) {
+            if (!item.getRevision().equals(known.getRevision())) {
+                return false;
+            }
+            try {
+                known.setContent(item);
+                this.proxy.update(known);
+                item.setRevision(known.getRevision());
+                return true;
+            } catch (UpdateConflictException updateEx) {
+                // the document has been modified by someone else
+                LOGGER.debug("[CouchDB]: Conflict updating document " + item.getId() + " at revision " + item.getRevision() + ", re-reading the document.");
+                this.documents.remove(item.getId());
+                return false;
+            }
+        }
+    }
+
     /**
      * Retrieves the content (the bean object / {@link StoreObject}) from a couchdb document. By doing so it will also
      * set the meta information (id, revision, attachments) of the store object.
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.model.store.impl.couch;
+
+import com.ibm.au.optim.suro.model.entities.RunLogSegment;
+import com.ibm.au.optim.suro.model.entities.couch.CouchDbRunLogSegment;
+import com.ibm.au.optim.suro.model.store.RunLogSegmentRepository;
+
+import org.ektorp.ComplexKey;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class <b>CouchDbRunLogSegmentRepository</b>. This is a {@link RunLogSegmentRepository} specific 
+ * implementation that provides means to store {@link RunLogSegment} instances on a <i>CouchDb</i>
+ * instance. The repository uses {@link CouchDbRunLogSegment} instances to leverage the support of
+ * the Ektorp library. Segments are looked up through a view keyed by run identifier and sequence
+ * number, hence a page of segments is retrieved with a single range query.
+ *
+ */
+public class CouchDbRunLogSegmentRepository extends AbstractCouchDbRepository<CouchDbRunLogSegment, RunLogSegment> implements RunLogSegmentRepository {
+
+	/**
+	 * A {@link String} containing the name of the view that is used to
+	 * query the database by sorting the document by the run instance
+	 * they refer to and by their sequence number. This is done by using 
+	 * the {@link RunLogSegment#getRunId()} and {@link RunLogSegment#getSequence()}
+	 * attributes.
+	 */
+	public static final String BY_RUN_SEQUENCE = "by_runId_sequence";
+	
+	
+	/**
+	 * Initializes an instance of {@link CouchDbRunLogSegmentRepository}. 
+	 */
+	public CouchDbRunLogSegmentRepository() {
+
+        super(CouchDbRunLogSegment.class);
+
+	}
+
+	/**
+	 * Retrieves all the log segments of the specified run. 
+	 * 
+	 * @param runId		a {@link String} representing the unique identifier of  
+	 * 					the run for which we need to retrieve the segments.
+	 * 						
+	 * @return 	a {@link List} of {@link RunLogSegment} instances ordered by
+	 * 			sequence number.
+	 */
+	@Override
+    public List<RunLogSegment> findByRunId(String runId) {
+		
+		if (runId == null) {
+			
+			throw new IllegalArgumentException("Parameter 'runId' cannot be null.");
+		}
+		
+		return this.getContents(this.proxy.getViewWithRange(CouchDbRunLogSegmentRepository.BY_RUN_SEQUENCE, 
+															ComplexKey.of(runId), 
+															ComplexKey.of(runId, ComplexKey.emptyObject())));
+	}
+
+	/**
+	 * Retrieves a page of the log segments of the specified run. 
+	 * 
+	 * @param runId		a {@link String} representing the unique identifier of  
+	 * 					the run for which we need to retrieve the segments.
+	 * @param first		a {@literal int} value representing the sequence number
+	 * 					of the first segment to retrieve.
+	 * @param count		a {@literal int} value representing the maximum number
+	 * 					of segments to retrieve.
+	 * 						
+	 * @return 	a {@link List} of {@link RunLogSegment} instances ordered by
+	 * 			sequence number.
+	 */
+	@Override
+	public List<RunLogSegment> findByRunId(String runId, int first, int count) {
+		
+		if (runId == null) {
+			
+			throw new IllegalArgumentException("Parameter 'runId' cannot be null.");
+		}
+		
+		if ((first < 0) || (count < 0)) {
+			
+			throw new IllegalArgumentException("Parameters 'first' and 'count' cannot be negative.");
+		}
+		
+		if (count == 0) {
+			
+			return new ArrayList<RunLogSegment>();
+		}
+		
+		long last = (long) first + count - 1;
+		
+		return this.getContents(this.proxy.getViewWithRange(CouchDbRunLogSegmentRepository.BY_RUN_SEQUENCE, 
+															ComplexKey.of(runId, first), 
+															ComplexKey.of(runId, last)));
+	}
+	
+	/**
+	 * Extracts the segments from the documents returned by a view.
+	 * 
+	 * @param documents	a {@link List} of {@link CouchDbRunLogSegment} documents.
+	 * 
+	 * @return	a {@link List} of the corresponding {@link RunLogSegment} instances.
+	 */
+	private List<RunLogSegment> getContents(List<CouchDbRunLogSegment> documents) {
+		
+		List<RunLogSegment> segments = new ArrayList<RunLogSegment>();
+		
+		if (documents != null) {
+			
+			for(CouchDbRunLogSegment document : documents) {
+				
+				segments.add(this.getContent(document));
+			}
+		}
+		
+		return segments;
+	}
+
+}
@@ -4,14 +4,19 @@
  */
 package com.ibm.au.optim.suro.model.store.impl.couch;
 
+import com.ibm.au.optim.suro.model.entities.Attachment;
 import com.ibm.au.optim.suro.model.entities.Run;
+import com.ibm.au.jaws.web.core.runtime.Environment;
 import com.ibm.au.optim.suro.model.entities.couch.CouchDbRun;
+import com.ibm.au.optim.suro.model.store.AttachmentException;
 import com.ibm.au.optim.suro.model.store.RunRepository;
 
+import org.apache.commons.io.IOUtils;
 import org.ektorp.AttachmentInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -44,6 +49,25 @@ public class CouchDbRunRepository extends AbstractCouchDbRepository<CouchDbRun,R
 	 * attribute.
 	 */
 	public static final String VIEW_BY_TEMPLATE = "by_templateId";
+	
+	/**
+	 * A {@link String} containing the name of the configuration parameter that defines the maximum
+	 * size, in bytes, of the content of the attachments that are sent inline with a single update
+	 * of a run by {@link #attachAll(Run, List)}.
+	 */
+	public static final String CFG_ATTACHMENT_BATCH_SIZE = "couchdb.attachment.batch.size";
+	
+	/**
+	 * A {@literal long} value representing the default maximum size, in bytes, of the content of the
+	 * attachments that are sent inline with a single update of a run.
+	 */
+	public static final long DEFAULT_ATTACHMENT_BATCH_SIZE = 4L * 1024 * 1024;
+	
+	/**
+	 * A {@literal long} value representing the maximum size, in bytes, of the content of the attachments
+	 * that are sent inline with a single update of a run.
+	 */
+	private long attachmentBatchSize = DEFAULT_ATTACHMENT_BATCH_SIZE;
 
 	
 	/**
@@ -88,6 +112,231 @@ public class CouchDbRunRepository extends AbstractCouchDbRepository<CouchDbRun,R
 	}
 	
 
+	/**
+	 * <p>
+	 * Reads and commits all the given attachments to the specified run in batches. Each
+	 * batch is sent with a single update of the run document, which carries the content
+	 * of the attachments inline, hence the revision of the run is changed once per batch
+	 * and the attachments of a batch are uploaded with one request rather than one after
+	 * the other.
+	 * </p>
+	 * <p>
+	 * The content of the attachments of a batch does not exceed the size returned by {@link
+	 * #getAttachmentBatchSize()}, which bounds the memory used to hold it. Attachments that
+	 * are larger than that are streamed to the database on their own with {@link #attach(Run,
+	 * String, String, InputStream)}. If a batch or an attachment cannot be stored the other
+	 * ones are still stored, and the names of the attachments that have not been stored are
+	 * reported with an {@link AttachmentException}.
+	 * </p>
+	 * 
+	 * @param run			a {@link Run} instance representing the recipient for the
+	 * 						attachments.
+	 * @param attachments	a {@link List} of {@link Attachment} instances providing the
+	 * 						name, MIME type and content of each attachment.
+	 * 
+	 * @throws IllegalArgumentException	if <i>run</i> or <i>attachments</i> is {@literal null},
+	 * 									or an attachment does not provide its content.
+	 * @throws AttachmentException		if some of the attachments could not be stored.
+	 */
+	@Override
+	public void attachAll(Run run, List<Attachment> attachments) {
+		
+		if ((run == null) || (attachments == null)) {
+			
+			throw new IllegalArgumentException("Parameters 'run' and 'attachments' cannot be null.");
+		}
+		
+		if (attachments.isEmpty()) {
+			
+			return;
+		}
+		
+		for(Attachment attachment : attachments) {
+			
+			if (attachment.getStream() == null) {
+				
+				throw new IllegalArgumentException("Attachment " + attachment.getName() + " does not provide its content.");
+			}
+		}
+		
+		List<String> failed = new ArrayList<String>();
+		RuntimeException cause = null;
+		
+		List<Attachment> batch = new ArrayList<Attachment>();
+		List<byte[]> contents = new ArrayList<byte[]>();
+		long batchSize = 0;
+		
+		for(Attachment attachment : attachments) {
+			
+			try {
+				
+				if (attachment.getContentLength() > this.attachmentBatchSize) {
+					
+					// large attachments are streamed on their own rather
+					// than being read into memory.
+					//
+					this.attach(run, attachment.getName(), attachment.getContentType(), attachment.getStream());
+					continue;
+				}
+				
+				byte[] content = IOUtils.toByteArray(attachment.getStream());
+				
+				if ((batchSize + content.length > this.attachmentBatchSize) && (batch.isEmpty() == false)) {
+					
+					cause = this.attachBatch(run, batch, contents, failed, cause);
+					batch.clear();
+					contents.clear();
+					batchSize = 0;
+				}
+				
+				batch.add(attachment);
+				contents.add(content);
+				batchSize += content.length;
+				
+			} catch (IOException | RuntimeException ex) {
+				
+				LOGGER.error("[" + run.getId() + "] Could not attach " + attachment.getName(), ex);
+				failed.add(attachment.getName());
+				if (cause == null) {
+					
+					cause = ex instanceof RuntimeException ? (RuntimeException) ex : new IllegalStateException(ex);
+				}
+			}
+		}
+		
+		cause = this.attachBatch(run, batch, contents, failed, cause);
+		
+		if (failed.isEmpty() == false) {
+			
+			throw new AttachmentException("Could not attach " + failed + " to run " + run.getId() + ".", failed, cause);
+		}
+	}
+	
+	/**
+	 * Commits a batch of attachments to the specified run with a single update of the
+	 * run document, which carries the content of the attachments inline. If the update
+	 * fails, the names of the attachments are added to the given list.
+	 * 
+	 * @param run			a {@link Run} instance representing the recipient for the
+	 * 						attachments.
+	 * @param batch			a {@link List} of {@link Attachment} instances providing the
+	 * 						name and MIME type of each attachment.
+	 * @param contents		a {@link List} containing the content of each attachment.
+	 * @param failed		a {@link List} collecting the names of the attachments that
+	 * 						could not be stored.
+	 * @param cause			a {@link RuntimeException} representing the first failure,
+	 * 						or {@literal null} if none.
+	 * 
+	 * @return	the first failure, which is the failure of the update if <i>cause</i> is
+	 * 			{@literal null}.
+	 */
+	private RuntimeException attachBatch(Run run, List<Attachment> batch, List<byte[]> contents, List<String> failed, RuntimeException cause) {
+		
+		if (batch.isEmpty()) {
+			
+			return cause;
+		}
+		
+		LOGGER.debug("[{}] >>> Attaching {} files", run.getId(), batch.size());
+		
+		try {
+			
+			CouchDbRun cRun = proxy.getItem(run.getId());
+			
+			for(int i = 0; i < batch.size(); i++) {
+				
+				Attachment attachment = batch.get(i);
+				cRun.addAttachment(attachment.getName(), attachment.getContentType(), contents.get(i));
+			}
+			
+			long t1 = System.currentTimeMillis();
+			this.proxy.update(cRun);
+			long t2 = System.currentTimeMillis();
+			
+			run.setRevision(cRun.getRevision());
+			
+			LOGGER.debug("[{}] <<< Attaching {} files [{} ms]", cRun.getId(), batch.size(), t2-t1);
+			
+		} catch (RuntimeException ex) {
+			
+			LOGGER.error("[" + run.getId() + "] Could not attach " + batch.size() + " files", ex);
+			for(Attachment attachment : batch) {
+				failed.add(attachment.getName());
+			}
+			if (cause == null) {
+				
+				cause = ex;
+			}
+			
+		} finally {
+			
+			// the document holds the content of the attachments, which must not be sent
+			// again with the next update.
+			//
+			this.documents.remove(run.getId());
+		}
+		
+		return cause;
+	}
+	
+	/**
+	 * Gets the maximum size of the content of the attachments that are sent inline with
+	 * a single update of a run by {@link #attachAll(Run, List)}.
+	 * 
+	 * @return	a {@literal long} value representing the size in bytes.
+	 */
+	public long getAttachmentBatchSize() {
+		
+		return this.attachmentBatchSize;
+	}
+	
+	/**
+	 * Sets the maximum size of the content of the attachments that are sent inline with
+	 * a single update of a run by {@link #attachAll(Run, List)}.
+	 * 
+	 * @param attachmentBatchSize	a {@literal long} value representing the size in bytes.
+	 * 								It must be positive.
+	 * 
+	 * @throws IllegalArgumentException	if <i>attachmentBatchSize</i> is not positive.
+	 */
+	public void setAttachmentBatchSize(long attachmentBatchSize) {
+		
+		if (attachmentBatchSize <= 0) {
+			
+			throw new IllegalArgumentException("Parameter 'attachmentBatchSize' must be positive.");
+		}
+		
+		this.attachmentBatchSize = attachmentBatchSize;
+	}
+	
+	/**
+	 * This method initialises the repository and reads the maximum size of the batches of
+	 * attachments from the configuration parameter {@link #CFG_ATTACHMENT_BATCH_SIZE}, if
+	 * set.
+	 * 
+	 * @param environment	a {@link Environment} implementation that contains the properties
+	 * 						for initialising the repository.
+	 */
+	@Override
+	protected void doBind(Environment environment) {
+		
+		super.doBind(environment);
+		
+		String value = environment.getParameter(CouchDbRunRepository.CFG_ATTACHMENT_BATCH_SIZE, null);
+		if (value != null) {
+			
+			try {
+				
+				this.setAttachmentBatchSize(Long.parseLong(value));
+				
+			} catch (IllegalArgumentException iae) {
+				
+				LOGGER.warn("Configuration for " + CouchDbRunRepository.CFG_ATTACHMENT_BATCH_SIZE + " must be a positive number. Falling back to default value: " + DEFAULT_ATTACHMENT_BATCH_SIZE);
+			}
+		}
+	}
+	
+
 	/**
 	 * Gets the attachment document that is specified by the given <i>fileName</i>.
 	 * 
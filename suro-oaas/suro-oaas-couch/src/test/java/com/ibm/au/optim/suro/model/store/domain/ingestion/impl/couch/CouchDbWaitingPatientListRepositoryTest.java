@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package com.ibm.au.optim.suro.model.store.domain.ingestion.impl.couch;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ektorp.CouchDbConnector;
+import org.ektorp.ViewQuery;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.WaitingPatientList;
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.couch.CouchDbWaitingPatientList;
+
+/**
+ * Class <b>CouchDbWaitingPatientListRepositoryTest</b>. This class verifies that
+ * {@link CouchDbWaitingPatientListRepository#findByTime(long)} queries the time
+ * view for a single document, rather than retrieving the entire history of lists
+ * up to the given timestamp. The test uses a stand-in {@link CouchDbConnector}
+ * that records the view queries.
+ *
+ */
+public class CouchDbWaitingPatientListRepositoryTest {
+
+	/**
+	 * Verifies the shape of the view query and the handling of its result.
+	 */
+	@Test
+	public void testFindByTime() {
+
+		final List<ViewQuery> queries = new ArrayList<ViewQuery>();
+		final List<CouchDbWaitingPatientList> rows = new ArrayList<CouchDbWaitingPatientList>();
+
+		final CouchDbConnector connector = (CouchDbConnector) Proxy.newProxyInstance(CouchDbConnector.class.getClassLoader(), new Class<?>[] { CouchDbConnector.class }, new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+
+				if ("queryView".equals(method.getName()) && args.length == 2) {
+					queries.add((ViewQuery) args[0]);
+					return new ArrayList<CouchDbWaitingPatientList>(rows);
+				} else if ("contains".equals(method.getName())) {
+					return false;
+				}
+				return null;
+			}
+		});
+
+		CouchDbWaitingPatientListRepository repository = new CouchDbWaitingPatientListRepository() {
+			{
+				this.proxy = new CouchDbProxy<CouchDbWaitingPatientList>(CouchDbWaitingPatientList.class, connector);
+			}
+		};
+
+		Assert.assertNull(repository.findByTime(1000));
+		Assert.assertEquals(1, queries.size());
+
+		ViewQuery query = queries.get(0);
+		Assert.assertEquals(CouchDbWaitingPatientListRepository.VIEW_BY_TIME, query.getViewName());
+		Assert.assertTrue(query.isDescending());
+		Assert.assertTrue(query.isIncludeDocs());
+		Assert.assertEquals(1, query.getLimit());
+		Assert.assertEquals(1000L, ((Number) query.getStartKey()).longValue());
+		Assert.assertEquals(0L, ((Number) query.getEndKey()).longValue());
+
+		WaitingPatientList list = new WaitingPatientList(900);
+		CouchDbWaitingPatientList doc = new CouchDbWaitingPatientList();
+		doc.setContent(list);
+		rows.add(doc);
+
+		Assert.assertSame(list, repository.findByTime(1000));
+	}
+}
@@ -0,0 +1,366 @@
+/**
+ *
+ */
+package com.ibm.au.optim.suro.model.store.impl.couch;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.ektorp.AttachmentInputStream;
+import org.ektorp.CouchDbConnector;
+import org.ektorp.DbAccessException;
+import org.ektorp.DocumentNotFoundException;
+import org.ektorp.UpdateConflictException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.au.optim.suro.model.entities.Attachment;
+import com.ibm.au.optim.suro.model.entities.Run;
+import com.ibm.au.optim.suro.model.entities.RunStatus;
+import com.ibm.au.optim.suro.model.entities.couch.CouchDbRun;
+import com.ibm.au.optim.suro.model.store.AttachmentException;
+
+/**
+ * Class <b>AbstractCouchDbRepositoryTest</b>. This class tests the update path of
+ * {@link AbstractCouchDbRepository} against a stand-in {@link CouchDbConnector} that
+ * keeps the run documents in memory, behaves like <i>CouchDb</i> with regards to 
+ * revisions and counts the round trips to the database.
+ *
+ */
+public class AbstractCouchDbRepositoryTest {
+
+	/**
+	 * The number of updates of a typical run lifecycle: status changes from queued
+	 * to completed, job status changes and run time / gap updates.
+	 */
+	private static final int LIFECYCLE_UPDATES = 12;
+
+	/**
+	 * The run documents in the stand-in database, by id.
+	 */
+	private Map<String, CouchDbRun> database;
+
+	/**
+	 * The number of GET requests for run documents sent to the database.
+	 */
+	private int reads;
+
+	/**
+	 * The number of PUT requests for run documents sent to the database.
+	 */
+	private int writes;
+
+	/**
+	 * The names of the attachments stored in the stand-in database, by document id.
+	 */
+	private Map<String, Set<String>> attachments;
+
+	/**
+	 * The number of attachments sent inline with each update of a run document.
+	 */
+	private List<Integer> batches;
+
+	/**
+	 * The names of the attachments uploaded on their own.
+	 */
+	private List<String> streamed;
+
+	/**
+	 * The stand-in connector.
+	 */
+	private CouchDbConnector connector;
+
+	/**
+	 * Sets up the stand-in connector.
+	 */
+	@Before
+	public void setUp() {
+
+		this.database = new HashMap<String, CouchDbRun>();
+		this.attachments = new HashMap<String, Set<String>>();
+		this.batches = new ArrayList<Integer>();
+		this.streamed = new ArrayList<String>();
+		this.reads = 0;
+		this.writes = 0;
+		this.connector = (CouchDbConnector) Proxy.newProxyInstance(CouchDbConnector.class.getClassLoader(), new Class<?>[] { CouchDbConnector.class }, new InvocationHandler() {
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				
+				String name = method.getName();
+				Object arg = args != null && args.length > 0 ? args[args.length - 1] : null;
+				
+				if ("create".equals(name) && arg instanceof CouchDbRun) {
+					CouchDbRun doc = (CouchDbRun) arg;
+					writes++;
+					doc.setId(UUID.randomUUID().toString());
+					doc.setRevision("1-" + doc.getId());
+					database.put(doc.getId(), copy(doc));
+					
+				} else if ("update".equals(name) && arg instanceof CouchDbRun) {
+					CouchDbRun doc = (CouchDbRun) arg;
+					writes++;
+					CouchDbRun stored = database.get(doc.getId());
+					if (!stored.getRevision().equals(doc.getRevision())) {
+						throw new UpdateConflictException(doc.getId(), doc.getRevision());
+					}
+					if (doc.getAttachments() != null) {
+						for (String attachment : doc.getAttachments().keySet()) {
+							if (attachment.startsWith("fail")) {
+								throw new DbAccessException("Cannot store " + attachment);
+							}
+						}
+						batches.add(doc.getAttachments().size());
+						attached(doc.getId()).addAll(doc.getAttachments().keySet());
+					}
+					doc.setRevision(next(stored.getRevision()));
+					database.put(doc.getId(), copy(doc));
+					
+				} else if ("createAttachment".equals(name) && arg instanceof AttachmentInputStream) {
+					AttachmentInputStream ais = (AttachmentInputStream) arg;
+					writes++;
+					CouchDbRun stored = database.get((String) args[0]);
+					if (!stored.getRevision().equals(args[1])) {
+						throw new UpdateConflictException((String) args[0], (String) args[1]);
+					}
+					if (ais.getId().startsWith("fail")) {
+						throw new DbAccessException("Cannot store " + ais.getId());
+					}
+					streamed.add(ais.getId());
+					attached(stored.getId()).add(ais.getId());
+					stored.setRevision(next(stored.getRevision()));
+					return stored.getRevision();
+					
+				} else if ("get".equals(name) && CouchDbRun.class.equals(args[0])) {
+					reads++;
+					CouchDbRun stored = database.get((String) args[1]);
+					if (stored == null) {
+						throw new DocumentNotFoundException((String) args[1]);
+					}
+					return copy(stored);
+					
+				} else if ("get".equals(name) || "find".equals(name)) {
+					// design documents
+					return null;
+				} else if ("contains".equals(name)) {
+					return false;
+				} else if ("toString".equals(name)) {
+					return "stand-in connector";
+				}
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Runs a typical run lifecycle and verifies that every update only needs a single
+	 * round trip, while the previous implementation needed two (GET + PUT).
+	 */
+	@Test
+	public void testRunLifecycleRoundTrips() {
+
+		CouchDbRunRepository repository = this.createRepository();
+
+		Run run = new Run();
+		repository.addItem(run);
+		Assert.assertEquals(1, this.writes);
+
+		for (int i = 0; i < LIFECYCLE_UPDATES; i++) {
+			run.setStatus(RunStatus.values()[i % RunStatus.values().length]);
+			repository.updateItem(run);
+		}
+
+		Assert.assertEquals(0, this.reads);
+		Assert.assertEquals(1 + LIFECYCLE_UPDATES, this.writes);
+		Assert.assertEquals(this.database.get(run.getId()).getRevision(), run.getRevision());
+		Assert.assertEquals(run.getStatus(), this.database.get(run.getId()).getContent().getStatus());
+	}
+
+	/**
+	 * Verifies that a repository that has not seen the document yet falls back to
+	 * reading it before updating it.
+	 */
+	@Test
+	public void testUpdateUnknownDocument() {
+
+		CouchDbRunRepository repository = this.createRepository();
+		Run run = new Run();
+		repository.addItem(run);
+
+		CouchDbRunRepository other = this.createRepository();
+		run.setStatus(RunStatus.PROCESSING);
+		other.updateItem(run);
+		Assert.assertEquals(1, this.reads);
+		Assert.assertEquals(RunStatus.PROCESSING, this.database.get(run.getId()).getContent().getStatus());
+
+		// from now on the other repository knows the revision
+		run.setStatus(RunStatus.COMPLETED);
+		other.updateItem(run);
+		Assert.assertEquals(1, this.reads);
+		Assert.assertEquals(RunStatus.COMPLETED, this.database.get(run.getId()).getContent().getStatus());
+	}
+
+	/**
+	 * Verifies that a conflict with a concurrent writer is detected: the document is
+	 * re-read and the stale update is not applied.
+	 */
+	@Test
+	public void testUpdateConflict() {
+
+		CouchDbRunRepository repository = this.createRepository();
+		Run run = new Run();
+		repository.addItem(run);
+
+		// somebody else updates the document
+		CouchDbRun stored = this.database.get(run.getId());
+		stored.setRevision(this.next(stored.getRevision()));
+		String revision = run.getRevision();
+
+		run.setStatus(RunStatus.FAILED);
+		repository.updateItem(run);
+
+		Assert.assertEquals(1, this.reads);
+		Assert.assertEquals(revision, run.getRevision());
+		Assert.assertFalse(RunStatus.FAILED == this.database.get(run.getId()).getContent().getStatus());
+	}
+
+	/**
+	 * Verifies that the attachments are sent in batches whose content does not exceed the
+	 * configured size, and that the attachments larger than that are uploaded on their own.
+	 */
+	@Test
+	public void testAttachAllBatches() {
+
+		CouchDbRunRepository repository = this.createRepository();
+		repository.setAttachmentBatchSize(100);
+		Run run = new Run();
+		repository.addItem(run);
+
+		List<Attachment> files = Arrays.asList(this.createAttachment("a.csv", 40), 
+											   this.createAttachment("b.csv", 40), 
+											   this.createAttachment("c.csv", 40), 
+											   this.createAttachment("large.csv", 250), 
+											   this.createAttachment("d.csv", 10));
+		repository.attachAll(run, files);
+
+		Assert.assertEquals(Arrays.asList(2, 2), this.batches);
+		Assert.assertEquals(Arrays.asList("large.csv"), this.streamed);
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("a.csv", "b.csv", "c.csv", "large.csv", "d.csv")), this.attached(run.getId()));
+		Assert.assertEquals(this.database.get(run.getId()).getRevision(), run.getRevision());
+
+		// the run can still be updated
+		run.setStatus(RunStatus.COMPLETED);
+		repository.updateItem(run);
+		Assert.assertEquals(RunStatus.COMPLETED, this.database.get(run.getId()).getContent().getStatus());
+	}
+
+	/**
+	 * Verifies that a failure only affects the attachments of the same batch, or the failed
+	 * attachment if it is uploaded on its own, and that the others are stored.
+	 */
+	@Test
+	public void testAttachAllFailure() {
+
+		CouchDbRunRepository repository = this.createRepository();
+		repository.setAttachmentBatchSize(100);
+		Run run = new Run();
+		repository.addItem(run);
+
+		List<Attachment> files = Arrays.asList(this.createAttachment("a.csv", 40), 
+											   this.createAttachment("fail.csv", 40), 
+											   this.createAttachment("c.csv", 60), 
+											   this.createAttachment("fail-large.csv", 250), 
+											   this.createAttachment("large.csv", 250));
+		try {
+			repository.attachAll(run, files);
+			Assert.fail("AttachmentException expected.");
+
+		} catch (AttachmentException ex) {
+
+			Assert.assertEquals(Arrays.asList("a.csv", "fail.csv", "fail-large.csv"), ex.getNames());
+		}
+
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("c.csv", "large.csv")), this.attached(run.getId()));
+		Assert.assertEquals(this.database.get(run.getId()).getRevision(), run.getRevision());
+	}
+
+	/**
+	 * Creates an attachment with the given name and content size.
+	 *
+	 * @param name	a {@link String} representing the name of the attachment.
+	 * @param size	a {@literal int} value representing the size of the content.
+	 * @return	an {@link Attachment} instance providing its content.
+	 */
+	private Attachment createAttachment(String name, int size) {
+
+		Attachment attachment = new Attachment(name, size, "text/csv");
+		attachment.store(new ByteArrayInputStream(new byte[size]));
+		return attachment;
+	}
+
+	/**
+	 * Gets the names of the attachments stored for the given document.
+	 *
+	 * @param id	a {@link String} representing the id of the document.
+	 * @return	a {@link Set} containing the names of the attachments.
+	 */
+	private Set<String> attached(String id) {
+
+		Set<String> names = this.attachments.get(id);
+		if (names == null) {
+			names = new HashSet<String>();
+			this.attachments.put(id, names);
+		}
+		return names;
+	}
+
+	/**
+	 * Creates a new run repository using the stand-in connector.
+	 *
+	 * @return	a {@link CouchDbRunRepository} instance.
+	 */
+	private CouchDbRunRepository createRepository() {
+
+		CouchDbRunRepository repository = new CouchDbRunRepository();
+		repository.proxy = repository.new CouchDbProxy<CouchDbRun>(CouchDbRun.class, this.connector);
+		return repository;
+	}
+
+	/**
+	 * Copies a document the way it would be returned by <i>CouchDb</i>.
+	 *
+	 * @param doc	the {@link CouchDbRun} to copy.
+	 * @return	a new {@link CouchDbRun} with the same id, revision and a clone of the content.
+	 */
+	private CouchDbRun copy(CouchDbRun doc) {
+
+		CouchDbRun copy = new CouchDbRun();
+		copy.setId(doc.getId());
+		copy.setRevision(doc.getRevision());
+		copy.setContent((Run) doc.getContent().clone());
+		return copy;
+	}
+
+	/**
+	 * Computes the revision following the given one.
+	 *
+	 * @param revision	a {@link String} in the form <i>n-suffix</i>.
+	 * @return	a {@link String} in the form <i>(n+1)-suffix</i>.
+	 */
+	private String next(String revision) {
+
+		int separator = revision.indexOf('-');
+		return (Integer.parseInt(revision.substring(0, separator)) + 1) + revision.substring(separator);
+	}
+}
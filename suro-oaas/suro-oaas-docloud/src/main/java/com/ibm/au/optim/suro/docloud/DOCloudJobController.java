@@ -40,6 +40,18 @@ public class DOCloudJobController extends AbstractSuroService implements JobCont
     public static final String CFG_DOCLOUD_API_URL = "oaas.api.url";
     public static final String CFG_DOCLOUD_API_TOKEN = "oaas.authentication.token";
     public static final String CFG_DOCLOUD_MAX_CONCURRENT = "oaas.max.concurrent";
+    public static final String CFG_DOCLOUD_EXECUTOR_DISPATCH = "oaas.executor.dispatch";
+
+    /**
+     * Dispatch mode in which the executors check the run queue every {@link #DEFAULT_DOCLOUD_EXECUTOR_CHECKINTERVAL}
+     * milliseconds.
+     */
+    public static final String DOCLOUD_EXECUTOR_DISPATCH_POLLING = "polling";
+
+    /**
+     * Dispatch mode in which the executors wait on the run queue and are signalled as soon as a run is added.
+     */
+    public static final String DOCLOUD_EXECUTOR_DISPATCH_EVENT = "event";
     
     /**./
      * A {@link String} instance representing the value of the path to the log file
@@ -64,6 +76,12 @@ public class DOCloudJobController extends AbstractSuroService implements JobCont
     public static final int DEFAULT_DOCLOUD_EXECUTOR_CHECKINTERVAL = 5000;
 
 
+    /**
+     * Default dispatch mode for the job executors
+     */
+    public static final String DEFAULT_DOCLOUD_EXECUTOR_DISPATCH = DOCLOUD_EXECUTOR_DISPATCH_EVENT;
+
+
     /**
      * The DOC job client used to submit the job request
      */
@@ -88,6 +106,11 @@ public class DOCloudJobController extends AbstractSuroService implements JobCont
      */
     private ArrayList<DOCloudJobExecutor> executors = null;
 
+    /**
+     * Flag determining whether the executors are signalled by the run queue (true) or poll it (false).
+     */
+    private boolean eventDispatch = true;
+
     /**
      * The logger for this class.
      */
@@ -172,7 +195,7 @@ public class DOCloudJobController extends AbstractSuroService implements JobCont
 
     @Override
     public void createJobExecutor(int index) {
-        DOCloudJobExecutor exec = new DOCloudJobExecutor(index, environment, this, DEFAULT_DOCLOUD_EXECUTOR_CHECKINTERVAL);
+        DOCloudJobExecutor exec = new DOCloudJobExecutor(index, environment, this, DEFAULT_DOCLOUD_EXECUTOR_CHECKINTERVAL, this.eventDispatch);
         Thread t = new Thread(exec);
         t.start();
         executors.add(exec);
@@ -276,6 +299,16 @@ public class DOCloudJobController extends AbstractSuroService implements JobCont
             // keep the default and log warning
             LOGGER.warn("Configuration for " + CFG_DOCLOUD_MAX_CONCURRENT + " could not be read. Falling back to default value: " + maxConcurrent);
         }
+
+        String dispatch = environment.getParameter(CFG_DOCLOUD_EXECUTOR_DISPATCH);
+        if (dispatch == null) {
+            dispatch = DEFAULT_DOCLOUD_EXECUTOR_DISPATCH;
+        } else if (!DOCLOUD_EXECUTOR_DISPATCH_EVENT.equals(dispatch) && !DOCLOUD_EXECUTOR_DISPATCH_POLLING.equals(dispatch)) {
+            LOGGER.warn("Configuration for " + CFG_DOCLOUD_EXECUTOR_DISPATCH + " has an unknown value (" + dispatch + "). Falling back to default value: " + DEFAULT_DOCLOUD_EXECUTOR_DISPATCH);
+            dispatch = DEFAULT_DOCLOUD_EXECUTOR_DISPATCH;
+        }
+        this.eventDispatch = DOCLOUD_EXECUTOR_DISPATCH_EVENT.equals(dispatch);
+
         for (int i = 1; i <= maxConcurrent; i++) {
             createJobExecutor(i);
         }
@@ -3,9 +3,11 @@ package com.ibm.au.optim.suro.docloud;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibm.au.optim.suro.core.results.SolutionStreamReader;
 import com.ibm.au.optim.suro.model.control.Core;
 import com.ibm.au.optim.suro.model.control.DataSetController;
 import com.ibm.au.optim.suro.model.control.ModelController;
+import com.ibm.au.optim.suro.model.control.ResultManager;
 import com.ibm.au.optim.suro.model.control.RunController;
 import com.ibm.au.optim.suro.model.control.job.JobController;
 import com.ibm.au.optim.suro.model.control.job.JobMonitor;
@@ -18,10 +20,12 @@ import com.ibm.au.optim.suro.model.entities.RunLogEntry;
 import com.ibm.au.optim.suro.model.entities.RunStatus;
 import com.ibm.au.optim.suro.model.entities.Run;
 import com.ibm.au.optim.suro.model.notify.NotificationBus;
+import com.ibm.au.optim.suro.model.notify.ProgressAggregator;
 import com.ibm.au.optim.suro.docloud.job.impl.DOCloudJobMonitor;
 import com.ibm.au.optim.suro.docloud.job.impl.DOCloudResumeJobMonitor;
 import com.ibm.au.optim.suro.docloud.util.DatParamGenerator;
 import com.ibm.au.optim.suro.docloud.util.OpsGenerator;
+import com.ibm.au.optim.suro.docloud.util.StreamSplitter;
 import com.ibm.au.optim.suro.model.store.ModelRepository;
 import com.ibm.au.optim.suro.model.store.RunRepository;
 import com.ibm.au.optim.suro.util.StringUtils;
@@ -31,7 +35,6 @@ import com.ibm.optim.oaas.client.job.*;
 import com.ibm.optim.oaas.client.job.JobExecutor;
 import com.ibm.optim.oaas.client.job.model.Job;
 import com.ibm.optim.oaas.client.job.model.JobSolveStatus;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +43,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Thread representing the job executor which is responsible to process the task. Each executor runs in a loop and
@@ -94,11 +99,22 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
      */
     private long checkInterval;
 
+    /**
+     * Flag determining whether the executor waits on the run queue to be signalled when a new run is added (true)
+     * or polls the queue every checkInterval milliseconds (false).
+     */
+    private boolean eventDriven = false;
+
+    /**
+     * Monitor used to wake up an event driven executor waiting for the current job to finish.
+     */
+    private final Object idleMonitor = new Object();
+
     // operational parameters
     /**
      * Flag exposing the status of the executor (busy / not busy)
      */
-    private boolean busy = false;
+    private volatile boolean busy = false;
     /**
      * The current job request which is executed by this executor.
      */
@@ -115,6 +131,10 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
      * The ID of the currently active run
      */
     private String currentRunId;
+    /**
+     * The topics of the events of the run whose log entries have been notified last
+     */
+    private volatile String[] runTopics;
 
     /**
      * The index of this executor.
@@ -129,7 +149,7 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
     /**
      * Flag that is used to stop the thread (by aborting the endless loop)
      */
-    protected boolean active = true;
+    protected volatile boolean active = true;
 
     /**
      * The Logger instance for this executor.
@@ -144,11 +164,25 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
      */
     public DOCloudJobExecutor(int executorIndex, Environment environment, JobController controller, long checkInterval) {
         
+    	this(executorIndex, environment, controller, checkInterval, false);
+    }
+
+    /**
+     * Instantiates a new job executor.
+     * @param environment - the Environment of the current servlet context
+     * @param controller - the job controller from which this executor is instantiated and controlled
+     * @param checkInterval - the check interval specified by the controller (in event driven mode this is the
+     *                        maximum time the executor waits on the queue before checking its state again)
+     * @param eventDriven - true if the executor should be signalled by the run queue, false if it should poll it
+     */
+    public DOCloudJobExecutor(int executorIndex, Environment environment, JobController controller, long checkInterval, boolean eventDriven) {
+        
     	this.index = executorIndex;
         this.env = environment;
         this.core = (Core) this.env.getAttribute(Core.CORE_INSTANCE);
         this.controller = controller;
         this.checkInterval = checkInterval;
+        this.eventDriven = eventDriven;
         this.executor = JobExecutorFactory.createDefault();
     }
 
@@ -156,7 +190,7 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
     @Override
     public void run() {
         
-    	this.debug("Creating new job executor (" + this.index + ") with check interval " + checkInterval);
+    	this.debug("Creating new job executor (" + this.index + ") with check interval " + checkInterval + (this.eventDriven ? " (event driven)" : " (polling)"));
         
     	try {
             // wait for job / run cleanup to finish
@@ -169,11 +203,25 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
     	
         while (this.active == true) {
         	
+        	// set when the executor has already waited on the queue in this iteration
+        	boolean waited = false;
+        	
             try {
             	
                 if (!this.busy && this.core != null) {
                     
-                	Run currentRun = core.getNextRun();
+                	Run currentRun = null;
+                	
+                	if (this.eventDriven && this.core.isReady()) {
+                		
+                		// wait for a run to be submitted rather than sleeping the full interval
+                		currentRun = this.core.getNextRun(this.checkInterval, TimeUnit.MILLISECONDS);
+                		waited = true;
+                	
+                	} else {
+                		
+                		currentRun = this.core.getNextRun();
+                	}
                     
                 	// check if a new run exists
                     if (currentRun != null) {
@@ -206,8 +254,26 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
                this.error("[Executor-" + this.index + "] Uncaught error occurred", e);
             }
             try {
-                // wait for a few seconds to check again
-                Thread.sleep(this.checkInterval);
+            	
+            	if (this.eventDriven) {
+            		
+            		// wait until the current job finishes (or the interval elapses) before taking the next run
+            		synchronized (this.idleMonitor) {
+            			
+            			if (this.busy && this.active) {
+            				this.idleMonitor.wait(this.checkInterval);
+            			
+            			} else if (!waited && this.active) {
+            				// the core is not ready or the queue could not be accessed
+            				this.idleMonitor.wait(this.checkInterval);
+            			}
+            		}
+            		
+            	} else {
+            		
+	                // wait for a few seconds to check again
+	                Thread.sleep(this.checkInterval);
+            	}
                 
             } catch (InterruptedException ie) {
             	
@@ -226,6 +292,14 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
     @Override
     public void setBusy(boolean busy) {
         this.busy = busy;
+        
+        if (!busy) {
+        	
+        	// wake up the executor so that it can take the next run straight away
+        	synchronized (this.idleMonitor) {
+        		this.idleMonitor.notifyAll();
+        	}
+        }
     }
 
     @Override
@@ -289,6 +363,10 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
 
         this.active = false;
         
+        synchronized (this.idleMonitor) {
+        	this.idleMonitor.notifyAll();
+        }
+        
         if (this.currentMonitor != null) {
         	
             this.currentMonitor.cancel();
@@ -362,6 +440,7 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
                 ctrl.setJobStatus(run, JobStatus.COMPLETED);
             }
         }
+        this.getProgressAggregator().release(runId);
         this.notifyRunEvent(runId);
     }
 
@@ -379,6 +458,7 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
                 ctrl.setJobStatus(run, JobStatus.INTERRUPT);
             }
         }
+        this.getProgressAggregator().release(runId);
         this.notifyRunEvent(runId);
     }
 
@@ -400,6 +480,7 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
             }
             
         }
+        this.getProgressAggregator().release(runId);
         this.notifyRunEvent(runId);
 
     }
@@ -413,17 +494,9 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
             
         	this.collectSolutionLog();
             RunRepository repo = this.getRunController().getRepository();
-            JsonNode result = this.getSolutionResult();
+            JsonNode result = this.getSolutionResult(run);
 
             if (result != null) {
-                try {
-                
-                	this.controller.getResultManager().storeResults(run, result);
-                
-                } catch (IOException ioe) {
-                    LOGGER.error("Error during result transformation or storage.", ioe);
-                }
-
 
                 Double bestGap = null;
                 String systemProgressGap = job.getDetails().get("PROGRESS_GAP");
@@ -468,24 +541,20 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
     @Override
     public void notifyOptimEvent(String runId, RunLogEntry entry) {
     	
-        try {
-        	
-            String json = MAPPER.writeValueAsString(entry);
-            NOTIFIER.broadcast("optim:log:" + runId, json);
-
-        } catch (JsonProcessingException je) {
-
-            this.error("Error serializing optimization data for notification", je);
-        }
+        this.getProgressAggregator().add(runId, entry, this.getRunTopics(runId));
     }
 
     @Override
     public void notifyRunEvent(String runId) {
     	
+        // clients receive the progress of the run before its new status
+        this.getProgressAggregator().flush(runId);
+
         try {
         
-        	String json = MAPPER.writeValueAsString(getRunController().getRun(runId));
-            NOTIFIER.broadcast("job:" + runId, json);
+        	Run run = getRunController().getRun(runId);
+        	String json = MAPPER.writeValueAsString(run);
+            NOTIFIER.broadcast("job:" + runId, json, NotificationBus.getRunTopics(runId, run == null ? null : run.getTemplateId()));
         
         } catch (JsonProcessingException je) {
             this.error("Error serializing run for notification", je);
@@ -499,27 +568,26 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
      */
 
     /**
-     * Attach the solution log file to the
+     * Attach the solution log file to the current run. The log is streamed from DOCloud into
+     * the attachment while it is being downloaded.
      */
     protected void collectSolutionLog() {
 
+        final String jobId = this.currentJobId;
+        StreamSplitter splitter = new StreamSplitter();
 
-        InputStream is = null;
-        File tempFile = null;
         try {
-            tempFile = File.createTempFile("log_" + currentJobId, "txt");
+            Future<Void> attached = this.attach(splitter, Constants.DOCLOUD_LOG_FILE, Constants.DOCLOUD_LOG_MIME);
 
-            this.getJobClient().downloadLog(currentJobId, tempFile);
+            splitter.produce(new StreamSplitter.Producer<OperationException>() {
 
-            is = new FileInputStream(tempFile);
-            RunController runController = getRunController();
-            
-            synchronized (runController.getRepository()) {
-            
-            	Run run = runController.getRun(currentRunId);
-                runController.getRepository().attach(run, Constants.DOCLOUD_LOG_FILE, Constants.DOCLOUD_LOG_MIME, is);
-            }
+                @Override
+                public void produce(OutputStream output) throws OperationException, IOException {
+                    DOCloudJobExecutor.this.getJobClient().downloadLog(jobId, output);
+                }
+            });
 
+            StreamSplitter.await(attached);
 
         } catch (JobNotFoundException jnf) {
         	
@@ -532,51 +600,85 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
         } catch (IOException ioe) {
         	
             this.error("Error reading solution log", ioe);
-        
-        } finally {
-        	
-            IOUtils.closeQuietly(is);
-
-            if (tempFile != null) {
-                tempFile.delete();
-            }
         }
     }
 
 
     /**
      * Downloads the solution data from DOCloud, attaches to the run document,
-     * and return deserialized JSON node for post-processing.
+     * stores the results mapped from it and returns its summary. The solution is
+     * downloaded once and streamed into the attachment, the result manager and
+     * the <i>JSON</i> parser at the same time, without being written to disk nor
+     * being deserialized as a whole.
      *
+     * @param run	a {@link Run} instance representing the run the solution
+     * 				belongs to, the mapped results are attached to it.
      *
-     * @return 	a {@link JsonNode} instance that contains the <i>JSON</i> object
-     * 			tree defining the document containing the solution results.
+     * @return 	a {@link JsonNode} instance that contains the values of the solution
+     * 			which are not arrays (e.g. <i>finalGap</i>), or {@literal null} if
+     * 			the solution could not be retrieved.
      */
-    protected JsonNode getSolutionResult() {
+    protected JsonNode getSolutionResult(final Run run) {
 
     	
     	JsonNode node = null;
     	
-    	String name = Constants.DOCLOUD_SOLUTION_FILE;
+    	final String name = Constants.DOCLOUD_SOLUTION_FILE;
+    	final String jobId = this.currentJobId;
+        StreamSplitter splitter = new StreamSplitter();
 
-        File tempFile = null;
-        InputStream is1 = null, is2 = null;
         try {
         	
-            tempFile = File.createTempFile("solution_" + currentJobId, "json");
-            this.getJobClient().downloadJobAttachment(currentJobId, name, tempFile);
-            RunController runController = getRunController();
-
             // Attach solution file to Run DB entry
-            is1 = new FileInputStream(tempFile);
-            synchronized (runController.getRepository()) {
+            Future<Void> attached = this.attach(splitter, name, Constants.DOCLOUD_SOLUTION_MIME);
+            Future<JsonNode> parsed = splitter.add(new StreamSplitter.Consumer<JsonNode>() {
+
+                @Override
+                public JsonNode consume(InputStream input) throws IOException {
+                	
+                    SolutionStreamReader reader = new SolutionStreamReader();
+                    reader.read(input);
+                    return reader.getSummary();
+                }
+            });
+            
+            Future<Void> stored = null;
+            final ResultManager resultManager = this.controller.getResultManager();
+            if (resultManager != null) {
             	
-                runController.getRepository().attach(runController.getRun(currentRunId), name, Constants.DOCLOUD_SOLUTION_MIME, is1);
+                // the result manager attaches the mapped results while holding the lock
+                // of the run repository, hence it does not conflict with the attachment
+                // of the solution.
+                //
+                stored = splitter.add(new StreamSplitter.Consumer<Void>() {
+
+                    @Override
+                    public Void consume(InputStream input) {
+                        try {
+
+                            resultManager.storeResults(run, input);
+
+                        } catch (IOException ioe) {
+                            LOGGER.error("Error during result transformation or storage.", ioe);
+                        }
+                        return null;
+                    }
+                });
             }
 
-            is2 = new FileInputStream(tempFile);
+            splitter.produce(new StreamSplitter.Producer<OperationException>() {
 
-            node = new ObjectMapper().readTree(is2);
+                @Override
+                public void produce(OutputStream output) throws OperationException, IOException {
+                    DOCloudJobExecutor.this.getJobClient().downloadJobAttachment(jobId, name, output);
+                }
+            });
+
+            StreamSplitter.await(attached);
+            if (stored != null) {
+                StreamSplitter.await(stored);
+            }
+            node = StreamSplitter.await(parsed);
 
         } catch (AttachmentNotFoundException anf) {
         
@@ -593,19 +695,70 @@ public class DOCloudJobExecutor implements Runnable, com.ibm.au.optim.suro.model
         } catch (IOException ioe) {
         
         	this.error("Error reading solution attachment", ioe);
-        
-        } finally {
-        	
-            IOUtils.closeQuietly(is1);
-            IOUtils.closeQuietly(is2);
-            if (tempFile != null) {
-                tempFile.delete();
-            }
         }
 
         return node;
     }
 
+    /**
+     * Adds to the given splitter a consumer attaching the data to the current run. The attachment is
+     * created once the first byte of data is available, hence nothing is attached if the download fails
+     * before producing any data.
+     * @param splitter the {@link StreamSplitter} the data is read from
+     * @param name the name of the attachment
+     * @param contentType the content type of the attachment
+     * @return a {@link Future} completing when the data has been attached
+     * @throws IOException if the consumer cannot be added
+     */
+    private Future<Void> attach(StreamSplitter splitter, final String name, final String contentType) throws IOException {
+
+        final RunController runController = this.getRunController();
+        final String runId = this.currentRunId;
+
+        return splitter.add(new StreamSplitter.Consumer<Void>() {
+
+            @Override
+            public Void consume(InputStream input) throws IOException {
+
+                PushbackInputStream data = new PushbackInputStream(input);
+                int first = data.read();
+                if (first >= 0) {
+                    data.unread(first);
+                }
+
+                synchronized (runController.getRepository()) {
+
+                    runController.getRepository().attach(runController.getRun(runId), name, contentType, data);
+                }
+                return null;
+            }
+        });
+    }
+
+
+    /**
+     * Returns the topics of the events of the given run, the template of the run is looked up
+     * once for all the log entries of the run
+     * @param runId the unique identifier of the run
+     * @return the topics of the run and of its template
+     */
+    protected String[] getRunTopics(String runId) {
+        String[] topics = this.runTopics;
+        if (topics == null || !topics[0].equals(NotificationBus.RUN_TOPIC_PREFIX + runId)) {
+            Run run = this.getRunController().getRun(runId);
+            topics = NotificationBus.getRunTopics(runId, run == null ? null : run.getTemplateId());
+            this.runTopics = topics;
+        }
+        return topics;
+    }
+
+    /**
+     * Returns the aggregator that sends the log entries of the runs to the notification bus in frames.
+     * @return the {@link ProgressAggregator} shared through the environment
+     */
+    protected ProgressAggregator getProgressAggregator() {
+        return ProgressAggregator.getInstance(this.env);
+    }
 
     /**
      * Returns the instance of the job client connected with the current DOCloud account
@@ -10,12 +10,15 @@ import com.ibm.au.optim.suro.model.control.Core;
 import com.ibm.au.optim.suro.model.control.RunController;
 import com.ibm.au.optim.suro.model.control.job.JobExecutor;
 import com.ibm.au.optim.suro.model.control.job.JobMonitor;
+import com.ibm.au.optim.suro.model.control.job.RunLogWriter;
 import com.ibm.au.optim.suro.model.entities.RunDetails;
 import com.ibm.au.optim.suro.model.entities.RunLogEntry;
+import com.ibm.au.optim.suro.model.entities.RunLogSegment;
 import com.ibm.au.optim.suro.model.entities.Run;
 import com.ibm.au.optim.suro.model.entities.JobStatus;
 import com.ibm.au.optim.suro.model.entities.RunStatus;
 import com.ibm.au.optim.suro.model.store.RunDetailsRepository;
+import com.ibm.au.optim.suro.model.store.RunLogSegmentRepository;
 import com.ibm.au.optim.suro.model.store.RunRepository;
 import com.ibm.au.jaws.web.core.runtime.Environment;
 import com.ibm.optim.oaas.client.OperationException;
@@ -109,6 +112,19 @@ public class DOCloudJobMonitor implements JobCallback, JobMonitor {
 	 */
     protected RunDetails runDetails;
 
+	/**
+	 * A {@link RunLogSegmentRepository} implementation that stores the log entries
+	 * of each {@link Run} in fixed-size segments. It is {@literal null} if not configured,
+	 * in which case the entries are stored with the {@link RunDetails}.
+	 */
+    protected RunLogSegmentRepository runLogSegmentRepository;
+
+	/**
+	 * A {@link RunLogWriter} instance that collects the parsed log entries into
+	 * {@link #runDetails} and the log segments, and stores them.
+	 */
+    protected RunLogWriter runLogWriter;
+
 	/**
 	 * The ID of a run instance that represents the {@link com.ibm.au.optim.suro.model.strategy.Strategy} execution that this
 	 * instance of {@link DOCloudJobMonitor} is monitoring.
@@ -172,6 +188,7 @@ public class DOCloudJobMonitor implements JobCallback, JobMonitor {
 		this.runRepository = (RunRepository) env.getAttribute(RunRepository.RUN_REPOSITORY_INSTANCE);
 		this.runController = (RunController) env.getAttribute(RunController.RUN_CONTROLLER_INSTANCE);
 		this.runDetailsRepository = (RunDetailsRepository) env.getAttribute(RunDetailsRepository.DETAILS_REPOSITORY_INSTANCE);
+		this.runLogSegmentRepository = (RunLogSegmentRepository) env.getAttribute(RunLogSegmentRepository.SEGMENT_REPOSITORY_INSTANCE);
 
     }
 
@@ -199,8 +216,9 @@ public class DOCloudJobMonitor implements JobCallback, JobMonitor {
         
         // create initial result item
 		this.runDetails = new RunDetails();
-		this.runDetailsRepository.addItem(runDetails);
 		this.runDetails.setRunId(runId);
+		this.runDetailsRepository.addItem(runDetails);
+		this.runLogWriter = this.createRunLogWriter();
 
         LogMonitor mon = new LogMonitor(this.runId);
 		this.monitor = logMonitorExecutor.submit(mon);
@@ -736,6 +754,17 @@ public class DOCloudJobMonitor implements JobCallback, JobMonitor {
         return this.jobRunning;
     }
 
+    /**
+     * Creates the {@link RunLogWriter} that collects the log entries into the
+     * configured {@link #runDetails}, and into log segments if a {@link
+     * RunLogSegmentRepository} is available.
+     *
+     * @return a {@link RunLogWriter} instance.
+     */
+    protected RunLogWriter createRunLogWriter() {
+        return new RunLogWriter(this.runDetails, this.runDetailsRepository, this.runLogSegmentRepository, RunLogSegment.DEFAULT_SIZE);
+    }
+
     /**
      * Commits optimization log local updates log to the database. If
      * {@code force = false}, then the updates will be committed if and
@@ -748,7 +777,7 @@ public class DOCloudJobMonitor implements JobCallback, JobMonitor {
     protected void commitChanges(boolean force) {
         if (force || (this.lastUpdate + LogMonitor.DB_UPDATE_INTERVAL < System.currentTimeMillis())) {
             debug(jobId, "Committing Changes for Job Monitor");
-            runDetailsRepository.updateItem(runDetails);
+            runLogWriter.commit();
             this.lastUpdate = System.currentTimeMillis();
         }
     }
@@ -802,6 +831,8 @@ public class DOCloudJobMonitor implements JobCallback, JobMonitor {
             CplexLogFileParser logFileParser = null;
             try {
                 logFileParser = new CplexLogFileParser(liveLogStream, Constants.DOCLOUD_DATE_FORMATTER, this.runId);
+                // the time of the entries is set below, there is no need to parse it
+                logFileParser.setParseTime(false);
 
                 RunLogEntry entry = null;
                 // Read entries from the CPLEX log file and add them to the optimization runtime result log DB entry
@@ -812,7 +843,7 @@ public class DOCloudJobMonitor implements JobCallback, JobMonitor {
                     // Override the time on the DOcloud server runtime with a local time to avoid clock disparity in real-time graphs
                     entry.setTime(System.currentTimeMillis());
 
-                    if (runDetails.addEntry(entry)) {
+                    if (runLogWriter.append(entry)) {
                         // Send event to notification bus to update listening clients
                         getJobExecutor().notifyOptimEvent(runId, entry);
 
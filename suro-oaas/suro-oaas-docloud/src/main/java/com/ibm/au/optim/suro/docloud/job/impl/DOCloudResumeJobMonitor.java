@@ -75,6 +75,7 @@ public class DOCloudResumeJobMonitor extends DOCloudJobMonitor {
             this.runDetails.setRunId(runId);
             this.runDetailsRepository.addItem(runDetails);
         }
+        this.runLogWriter = this.createRunLogWriter();
 
         this.monitor = logMonitorExecutor.submit(new ResumeLogMonitor());
     }
@@ -146,7 +147,7 @@ public class DOCloudResumeJobMonitor extends DOCloudJobMonitor {
                     // read the message
                     RunLogEntry entry = parser.parseLine(record);
                     if (entry != null) {
-                        if (runDetails.addEntry(entry)) {
+                        if (runLogWriter.append(entry)) {
                             getJobExecutor().notifyOptimEvent(this.runId, entry);
                             commitChanges(false);
                         }
@@ -34,6 +34,29 @@ public class CplexLogFileParser extends BufferedReader {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(CplexLogFileParser.class);
 
+    /**
+     * The number of characters of a line of the CPLEX node log, after the prefix.
+     */
+    private static final int NODE_LOG_WIDTH = 80;
+
+    /**
+     * The number of digits from which a value might not fit in a {@literal long}.
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /**
+     * The maximum number of digits of a decimal number that is always exactly represented by a
+     * {@literal double} mantissa.
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    /**
+     * The powers of ten that are exactly represented by a {@literal double}.
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
     /**
      * A {@link DateFormat} instance the provides information about the format
      * in which the date and time information are encoded into the log file
@@ -52,6 +75,22 @@ public class CplexLogFileParser extends BufferedReader {
      */
     private Marker marker;
 
+    /**
+     * A {@literal boolean} value indicating whether the time of the entries is parsed
+     * from the date in the prefix of the lines.
+     */
+    private boolean parseTime = true;
+
+    /**
+     * A {@link String} containing the last date successfully parsed.
+     */
+    private String lastDate;
+
+    /**
+     * A {@literal long} value representing the time of {@link #lastDate}.
+     */
+    private long lastTime;
+
     /**
      * Constructs a CPLEX log file parser from a specified reader and date
      * formatter. The receive properly formatted dates, the date formatter
@@ -102,12 +141,23 @@ public class CplexLogFileParser extends BufferedReader {
     }
 
     /**
-     * Parses the content of a job log record and returns the result entry.
+     * Parses the content of a job log record and returns the result entry. The line is only
+     * rebuilt from the record when it can be a node log line (or when it is logged), and the
+     * time is taken from the date of the record rather than parsed back from the line.
+     *
      * @param record - the job log record from which to extract information
      * @return - the optimisation result entry.
      */
     public RunLogEntry parseLine(JobLogRecord record) {
-        return parseLine("[" + logDateFormat.format(record.getDate()) + ", " + record.getLevel() + "] " + record.getMessage());
+        String message = record.getMessage();
+
+        // the content of the line is the message preceded by a space
+        if ((message == null || message.length() != NODE_LOG_WIDTH - 1) && !LOGGER.isDebugEnabled(this.marker)) {
+            return null;
+        }
+
+        String line = "[" + logDateFormat.format(record.getDate()) + ", " + record.getLevel() + "] " + message;
+        return this.parseLine(line, record.getDate().getTime());
     }
 
     /**
@@ -117,77 +167,135 @@ public class CplexLogFileParser extends BufferedReader {
      * @return - an optimisation result entry
      */
     public RunLogEntry parseLine(String line) {
-    	
-    	RunLogEntry entry = null;
-    	
+        return this.parseLine(line, null);
+    }
+
+    /**
+     * Sets whether the time of the entries is parsed from the date in the prefix of the lines. Callers that set the
+     * time of the entries themselves (e.g. to the local time at which the line is received) can disable the parsing:
+     * the time of the entries is then left to zero. By default the time is parsed.
+     *
+     * @param parseTime	{@literal true} to parse the time of the entries, {@literal false} otherwise.
+     */
+    public void setParseTime(boolean parseTime) {
+        this.parseTime = parseTime;
+    }
+
+    /**
+     * Parses a line containing date, level and message. The fields of the node log line are read by position from the
+     * line itself, without extracting sub-strings, and lines that are not node log lines are discarded as soon as their
+     * length is known. The date is only parsed for node log lines, and only when it differs from the date of the last
+     * node log line parsed.
+     *
+     * @param line - the line to parse
+     * @param time - the time of the line if already known, or {@literal null} to parse it from the date in the line
+     * @return - an optimisation result entry, or {@literal null} if the line is not a node log line
+     */
+    private RunLogEntry parseLine(String line, Long time) {
+
     	// we store the original log, so that we can collect it
     	// later if we want.
     	//
     	LOGGER.debug(this.marker, line);
-    	
-        String[] tokens = parsePrefix(line);
-        String date = tokens[0];
-        String logContent = tokens[2];
-
-        if (logContent.length() == 80) {
-        	
-            entry = new RunLogEntry();
-            entry.setTime(this.safeParseTimestamp(date));
-            entry.setSolution(CplexLogFileParser.parseEntry(logContent, 1, 2).equals("*"));
-            entry.setOtherCheck(CplexLogFileParser.parseEntry(logContent, 8, 9).equals("+"));
-            entry.setNode(StringUtils.safeParseLong(logContent, 2, 8));
-            entry.setNodesLeft(StringUtils.safeParseLong(logContent, 9, 14));
-            entry.setObjective(StringUtils.safeParseDouble(logContent, 14, 28));
-            entry.setIinf(StringUtils.safeParseLong(logContent, 28, 34));
-            entry.setBestInteger(StringUtils.safeParseDouble(logContent, 34, 48));
-            entry.setBestBound(StringUtils.safeParseDouble(logContent, 48, 62));
-            entry.setTotalIterations(StringUtils.safeParseLong(logContent, 62, 71));
-            entry.setGap(StringUtils.safeParseDouble(logContent, 71, 79));
-            entry.setRawLine(line);
-
-            if (entry.getGap() == null) {
-                
-            	LOGGER.warn("Gap is null, skipping log line. [line: " + line + "].");
-            	entry = null;
-            }
-            
-        } 
+
+        // parse the prefix of the normal log messages coming in from DOCloud (Stream)
+        int open = line.indexOf('[');
+        int close = line.indexOf(']');
+        int content = 0;
+        int dateEnd = -1;
+
+        if (open >= 0 && close > open) {
+            dateEnd = this.checkPrefix(line, open, close);
+            content = close + 1;
+        }
+
+        if (line.length() - content != NODE_LOG_WIDTH) {
+            return null;
+        }
+
+        Double gap = CplexLogFileParser.parseDouble(line, content + 71, content + 79);
+        if (gap == null) {
+            LOGGER.warn("Gap is null, skipping log line. [line: " + line + "].");
+            return null;
+        }
+
+        RunLogEntry entry = new RunLogEntry();
+        if (time != null) {
+            entry.setTime(time);
+        } else if (this.parseTime && dateEnd >= 0) {
+            entry.setTime(this.parseTime(line, open + 1, dateEnd));
+        }
+        entry.setSolution(line.charAt(content + 1) == '*');
+        entry.setOtherCheck(line.charAt(content + 8) == '+');
+        entry.setNode(CplexLogFileParser.parseLong(line, content + 2, content + 8));
+        entry.setNodesLeft(CplexLogFileParser.parseLong(line, content + 9, content + 14));
+        entry.setObjective(CplexLogFileParser.parseDouble(line, content + 14, content + 28));
+        entry.setIinf(CplexLogFileParser.parseLong(line, content + 28, content + 34));
+        entry.setBestInteger(CplexLogFileParser.parseDouble(line, content + 34, content + 48));
+        entry.setBestBound(CplexLogFileParser.parseDouble(line, content + 48, content + 62));
+        entry.setTotalIterations(CplexLogFileParser.parseLong(line, content + 62, content + 71));
+        entry.setGap(gap);
+        entry.setRawLine(line);
+
         return entry;
     }
 
     /**
-     * This method parses the prefix section of the log line and extracts the date and time
-     * information, the type of log line, and the remaining content, which are returned as
-     * an array of 3 {@link String} values.
+     * This method checks the prefix of the log line, which is expected to contain the date and time
+     * information and the type of log line separated by a comma, and returns the position of the end
+     * of the date and time information.
      *
-     * @param line a {@link String} representing the log line received by the live log stream
-     *             that has been read by the parser.
-     * @return a {@link String} array containing 3 elements, the first is the portion of the
-     * prefix containing the date and time information, the second is the portion of
-     * the prefix containing the type of log information, and the third is the remaining
-     * part of the log line.
-     */
-    private String[] parsePrefix(String line) {
-        // parse the prefix of the normal log messages coming in from DOCloud (Stream)
-        int open = line.indexOf('[');
-        int close = line.indexOf(']');
+     * @param line  a {@link String} representing the log line received by the live log stream
+     *              that has been read by the parser.
+     * @param open  an {@literal int} representing the position of the opening bracket of the prefix.
+     * @param close an {@literal int} representing the position of the closing bracket of the prefix.
+     * @return an {@literal int} representing the position of the first comma in the prefix, or of the
+     * closing bracket if there is none.
+     */
+    private int checkPrefix(String line, int open, int close) {
+        int comma = line.indexOf(',', open + 1);
 
-        String date = null;
-        String type = null;
-        String content = line;
+        if (comma < 0 || comma > close) {
+            LOGGER.error("[Line Prefix Error] " + line);
+            return close;
+        }
 
-        if (open >= 0 && close > 0) {
+        int next = line.indexOf(',', comma + 1);
+        if (next >= 0 && next < close) {
+            LOGGER.error("[Line Prefix Error] " + line);
+        }
 
-            String[] prefixTokens = line.substring(open + 1, close).split(",");
-            if (prefixTokens.length != 2) {
-                LOGGER.error("[Line Prefix Error] " + line);
-            }
-            date = prefixTokens[0];
-            type = prefixTokens[1];
-            content = line.substring(close + 1);
+        return comma;
+    }
+
+    /**
+     * This method returns the time of the date and time information found at the given position
+     * of the line. Consecutive lines usually share the same date, hence the last date parsed and
+     * its time are kept and the date is only parsed when it changes.
+     *
+     * @param line  a {@link String} representing the log line.
+     * @param start an {@literal int} representing the position where the date starts.
+     * @param end   an {@literal int} representing the position where the date ends.
+     * @return a {@literal long} value representing the time, or zero if the date cannot be parsed.
+     */
+    private long parseTime(String line, int start, int end) {
+        int length = end - start;
+
+        if (this.lastDate != null && this.lastDate.length() == length && line.regionMatches(start, this.lastDate, 0, length)) {
+            return this.lastTime;
         }
 
-        return new String[]{date, type, content};
+        String date = line.substring(start, end);
+        Long time = this.safeParseTimestamp(date);
+
+        if (time == null) {
+            return 0;
+        }
+
+        this.lastDate = date;
+        this.lastTime = time;
+
+        return time;
     }
 
     /**
@@ -217,21 +325,121 @@ public class CplexLogFileParser extends BufferedReader {
     }
 
     /**
-     * This function extracts the content of the log line that contains information
-     * about a specific property of the optimization entry.
+     * This function parses the {@literal long} value found in the given range of the line, with the
+     * same result of {@link StringUtils#safeParseLong(String, int, int)}, but without extracting the
+     * sub-string. Values that are not made of an optional sign and digits (e.g. a text in place of the
+     * value) are rare, and are delegated to {@link StringUtils#safeParseLong(String, int, int)}.
      *
-     * @param str   a {@link String} representing the log line received by the
-     *              parser through the live log stream.
-     * @param start an {@literal int} representing the position in the log line
-     *              where the information about the entry of interest starts.
-     * @param stop  an {@literal int} representing the position in the log line
-     *              where the information about the entry of interest ends.
-     * @return a {@link String} representing the sub-string containing the entry of
-     * interest.
-     */
-    private static String parseEntry(String str, int start, int stop) {
-
-        return str.substring(start, stop).trim();
+     * @param str   a {@link String} representing the log line.
+     * @param start an {@literal int} representing the position where the field starts.
+     * @param stop  an {@literal int} representing the position where the field ends.
+     * @return a {@link Long} representing the value, or {@literal null} if the field is not a number.
+     */
+    static Long parseLong(String str, int start, int stop) {
+        int begin = start;
+        int end = stop;
+
+        // same as trim()
+        while (begin < end && str.charAt(begin) <= ' ') {
+            begin++;
+        }
+        while (end > begin && str.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int i = begin;
+        boolean negative = false;
+
+        if (i < end && (str.charAt(i) == '-' || str.charAt(i) == '+')) {
+            negative = str.charAt(i) == '-';
+            i++;
+        }
+
+        if (i == end) {
+            return null;
+        }
+
+        if (end - i > MAX_LONG_DIGITS) {
+            return StringUtils.safeParseLong(str, start, stop);
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') {
+                return StringUtils.safeParseLong(str, start, stop);
+            }
+            value = value * 10 + (c - '0');
+        }
+
+        return negative ? -value : value;
     }
 
+    /**
+     * This function parses the {@literal double} value found in the given range of the line, with the
+     * same result of {@link StringUtils#safeParseDouble(String, int, int)}, but without extracting the
+     * sub-string. Decimal numbers with up to 15 digits, such as the ones printed by CPLEX, are exactly
+     * representable as a {@literal long} mantissa divided by a power of ten, and this single division is
+     * correctly rounded like {@link Double#valueOf(String)}. Any other value is delegated to
+     * {@link StringUtils#safeParseDouble(String, int, int)}.
+     *
+     * @param str   a {@link String} representing the log line.
+     * @param start an {@literal int} representing the position where the field starts.
+     * @param stop  an {@literal int} representing the position where the field ends.
+     * @return a {@link Double} representing the value, or {@literal null} if the field is not a number.
+     */
+    static Double parseDouble(String str, int start, int stop) {
+        int begin = start;
+        int end = stop;
+
+        // same as trim()
+        while (begin < end && str.charAt(begin) <= ' ') {
+            begin++;
+        }
+        while (end > begin && str.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        if (begin == end) {
+            return null;
+        }
+
+        int i = begin;
+        boolean negative = false;
+
+        if (str.charAt(i) == '-' || str.charAt(i) == '+') {
+            negative = str.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+
+        for (; i < end; i++) {
+            char c = str.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits == MAX_EXACT_DIGITS) {
+                    return StringUtils.safeParseDouble(str, start, stop);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (point) {
+                    scale++;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return StringUtils.safeParseDouble(str, start, stop);
+            }
+        }
+
+        if (digits == 0) {
+            return null;
+        }
+
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
 }
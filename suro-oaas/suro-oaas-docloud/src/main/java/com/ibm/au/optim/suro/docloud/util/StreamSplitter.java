@@ -0,0 +1,381 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.docloud.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>
+ * Class <b>StreamSplitter</b>. This class streams the data written by a producer to one or more
+ * consumers reading it at the same time, without spooling it to disk or holding it in memory. It
+ * is used to store a file downloaded from DOCloud as an attachment while it is being parsed, with
+ * a single download.
+ * </p>
+ * <p>
+ * The consumers are added with {@link #add(Consumer)} and are executed by pooled threads, each of
+ * them reads the data from its own pipe. The producer is then executed on the calling thread by
+ * {@link #produce(Producer)}. If the producer fails the consumers receive an {@link IOException}
+ * instead of the end of the stream, so that incomplete data is not mistaken for complete data. The
+ * results of the consumers are collected with {@link #await(Future)}.
+ * </p>
+ * <p>
+ * A consumer that stops reading before the end of the stream, or fails, does not block the producer
+ * nor the other consumers: the rest of its data is read and discarded.
+ * </p>
+ */
+public class StreamSplitter {
+
+	/**
+	 * The default size of the buffer of the pipe of each consumer.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The {@link ExecutorService} executing the consumers.
+	 */
+	private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "stream-splitter");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/**
+	 * Interface <b>Consumer</b>. Defines a component reading the data written by the producer.
+	 *
+	 * @param <T>	the type of the result of the consumer.
+	 */
+	public interface Consumer<T> {
+
+		/**
+		 * Reads the data written by the producer.
+		 *
+		 * @param input	the {@link InputStream} containing the data.
+		 *
+		 * @return	the result of the consumer.
+		 *
+		 * @throws IOException	if the data cannot be read or processed, or the producer failed.
+		 */
+		T consume(InputStream input) throws IOException;
+	}
+
+	/**
+	 * Interface <b>Producer</b>. Defines a component writing the data read by the consumers.
+	 *
+	 * @param <E>	the type of the exception thrown by the producer.
+	 */
+	public interface Producer<E extends Exception> {
+
+		/**
+		 * Writes the data read by the consumers. The producer does not need to close the stream.
+		 *
+		 * @param output	the {@link OutputStream} the data is written to.
+		 *
+		 * @throws E			if the data cannot be produced.
+		 * @throws IOException	if the data cannot be written.
+		 */
+		void produce(OutputStream output) throws E, IOException;
+	}
+
+	/**
+	 * The size of the buffer of the pipe of each consumer.
+	 */
+	private final int bufferSize;
+
+	/**
+	 * The ends of the pipes the data is written to, one for each consumer.
+	 */
+	private final List<PipedOutputStream> pipes = new ArrayList<>();
+
+	/**
+	 * The stream the producer writes to.
+	 */
+	private final OutputStream output = new SplitOutputStream();
+
+	/**
+	 * The error raised to the consumers if the producer failed.
+	 */
+	private volatile IOException failure;
+
+	/**
+	 * Whether the producer has started writing.
+	 */
+	private boolean started;
+
+	/**
+	 * Initialises an instance of {@link StreamSplitter} with the default buffer size.
+	 */
+	public StreamSplitter() {
+		this(DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Initialises an instance of {@link StreamSplitter}.
+	 *
+	 * @param bufferSize	the size of the buffer of the pipe of each consumer. It must be positive.
+	 *
+	 * @throws IllegalArgumentException	if <i>bufferSize</i> is not positive.
+	 */
+	public StreamSplitter(int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Parameter 'bufferSize' must be positive.");
+		}
+
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Adds a consumer of the data and starts executing it. Consumers must be added before the
+	 * producer starts writing.
+	 *
+	 * @param consumer	the {@link Consumer} reading the data.
+	 *
+	 * @return	a {@link Future} instance providing the result of the consumer.
+	 *
+	 * @throws IOException				if the pipe of the consumer cannot be created.
+	 * @throws IllegalStateException	if the producer has already started writing.
+	 */
+	public synchronized <T> Future<T> add(final Consumer<T> consumer) throws IOException {
+		if (this.started) {
+			throw new IllegalStateException("Consumers cannot be added once the data is being written.");
+		}
+
+		final PipedInputStream pipe = new PipedInputStream(this.bufferSize);
+		this.pipes.add(new PipedOutputStream(pipe));
+
+		return EXECUTOR.submit(new Callable<T>() {
+
+			@Override
+			public T call() throws IOException {
+				try {
+					return consumer.consume(new SplitInputStream(pipe));
+
+				} finally {
+
+					// the rest of the data is discarded, so that the producer is not blocked
+					// on the pipe of this consumer.
+					//
+					byte[] buffer = new byte[4096];
+					try {
+						while (pipe.read(buffer) >= 0) {
+							// discards the data.
+						}
+					} catch (IOException ioe) {
+						// the producer has closed the pipe.
+					}
+					pipe.close();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Executes the producer on the calling thread, writing the data to the pipes of all the
+	 * consumers. This method blocks while the buffer of the pipe of a consumer is full. When
+	 * the producer completes the consumers reach the end of the stream, if it fails they
+	 * receive an {@link IOException} instead.
+	 *
+	 * @param producer	the {@link Producer} writing the data.
+	 *
+	 * @throws E			if the producer fails.
+	 * @throws IOException	if the data cannot be written.
+	 */
+	public <E extends Exception> void produce(Producer<E> producer) throws E, IOException {
+		synchronized (this) {
+			this.started = true;
+		}
+
+		boolean completed = false;
+		try {
+			producer.produce(this.output);
+			completed = true;
+
+		} finally {
+
+			if (!completed) {
+				this.failure = new IOException("The producer of the stream failed.");
+			}
+			this.closePipes(completed);
+		}
+	}
+
+	/**
+	 * Waits for a consumer to complete and gets its result.
+	 *
+	 * @param result	the {@link Future} returned by {@link #add(Consumer)} for the consumer.
+	 *
+	 * @return	the result of the consumer.
+	 *
+	 * @throws IOException	if the consumer failed, or the wait has been interrupted.
+	 */
+	public static <T> T await(Future<T> result) throws IOException {
+		try {
+			return result.get();
+
+		} catch (ExecutionException ee) {
+
+			Throwable cause = ee.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException("Error consuming the stream.", cause);
+
+		} catch (InterruptedException ie) {
+
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while consuming the stream.", ie);
+		}
+	}
+
+	/**
+	 * Closes the ends of the pipes the data is written to.
+	 *
+	 * @param report	whether an error closing a pipe is reported.
+	 *
+	 * @throws IOException	if a pipe cannot be closed and <i>report</i> is {@literal true}.
+	 */
+	private synchronized void closePipes(boolean report) throws IOException {
+		IOException error = null;
+		for (PipedOutputStream pipe : this.pipes) {
+			try {
+				pipe.close();
+			} catch (IOException ioe) {
+				error = ioe;
+			}
+		}
+		if (error != null && report) {
+			throw error;
+		}
+	}
+
+	/**
+	 * Stream writing the data to the pipes of all the consumers.
+	 */
+	private class SplitOutputStream extends OutputStream {
+
+		/**
+		 * Writes a byte to the pipes of all the consumers.
+		 *
+		 * @param b	the byte.
+		 *
+		 * @throws IOException	if the data cannot be written.
+		 */
+		@Override
+		public void write(int b) throws IOException {
+			this.write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		/**
+		 * Writes the given bytes to the pipes of all the consumers. This method blocks while the
+		 * buffer of the pipe of a consumer is full.
+		 *
+		 * @param b		the array containing the bytes.
+		 * @param off	the index of the first byte.
+		 * @param len	the number of bytes.
+		 *
+		 * @throws IOException	if the data cannot be written.
+		 */
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			for (PipedOutputStream pipe : StreamSplitter.this.pipes) {
+				pipe.write(b, off, len);
+			}
+		}
+
+		/**
+		 * This method does nothing: the pipes are closed once the producer has returned, which
+		 * allows the producer to close the stream it has been given.
+		 */
+		@Override
+		public void close() {
+			// the end of the data is signalled by StreamSplitter.produce(Producer)
+		}
+	}
+
+	/**
+	 * Stream reading the data from the pipe of a consumer, which raises an error at the end of the
+	 * data if the producer failed.
+	 */
+	private class SplitInputStream extends FilterInputStream {
+
+		/**
+		 * Initialises an instance of {@link SplitInputStream}.
+		 *
+		 * @param pipe	the {@link PipedInputStream} of the consumer.
+		 */
+		private SplitInputStream(PipedInputStream pipe) {
+			super(pipe);
+		}
+
+		/**
+		 * Reads a byte from the pipe.
+		 *
+		 * @return	the byte, or -1 at the end of the data.
+		 *
+		 * @throws IOException	if the data cannot be read, or the producer failed.
+		 */
+		@Override
+		public int read() throws IOException {
+			return this.check(super.read());
+		}
+
+		/**
+		 * Reads bytes from the pipe.
+		 *
+		 * @param b		the array the bytes are read into.
+		 * @param off	the index of the first byte.
+		 * @param len	the maximum number of bytes.
+		 *
+		 * @return	the number of bytes read, or -1 at the end of the data.
+		 *
+		 * @throws IOException	if the data cannot be read, or the producer failed.
+		 */
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return this.check(super.read(b, off, len));
+		}
+
+		/**
+		 * This method does nothing: the pipe is closed once the remaining data has been discarded.
+		 */
+		@Override
+		public void close() {
+			// the pipe is closed by the splitter.
+		}
+
+		/**
+		 * Raises an error at the end of the data if the producer failed.
+		 *
+		 * @param result	the result of a read operation.
+		 *
+		 * @return	<i>result</i>.
+		 *
+		 * @throws IOException	if <i>result</i> signals the end of the data and the producer failed.
+		 */
+		private int check(int result) throws IOException {
+			IOException failure = StreamSplitter.this.failure;
+			if (result < 0 && failure != null) {
+				throw failure;
+			}
+			return result;
+		}
+	}
+}
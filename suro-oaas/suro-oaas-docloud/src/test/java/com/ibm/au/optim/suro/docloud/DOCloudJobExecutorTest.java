@@ -526,11 +526,11 @@ public class DOCloudJobExecutorTest extends DOCloudTest {
         exec.setCurrentJobId(jobId);
         exec.setCurrentRunId(run.getId());
 
-        JsonNode node = exec.getSolutionResult();
+        JsonNode node = exec.getSolutionResult(run);
         Assert.assertEquals("value", node.get("key").textValue());
 
         mc.deleteAttachment(jobId, "solution.json");
-        Assert.assertNull(exec.getSolutionResult());
+        Assert.assertNull(exec.getSolutionResult(run));
     }
 
     /**
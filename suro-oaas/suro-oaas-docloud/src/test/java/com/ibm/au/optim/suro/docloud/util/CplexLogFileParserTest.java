@@ -0,0 +1,232 @@
+package com.ibm.au.optim.suro.docloud.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.au.optim.suro.docloud.Constants;
+import com.ibm.au.optim.suro.model.entities.RunLogEntry;
+import com.ibm.au.optim.suro.util.StringUtils;
+import com.ibm.icu.text.DateFormat;
+import com.ibm.icu.text.SimpleDateFormat;
+import com.ibm.optim.oaas.client.job.model.JobLogRecord;
+
+/**
+ * Verifies that the {@link CplexLogFileParser} parses the same entries as the implementation based on sub-strings it
+ * replaces.
+ */
+public class CplexLogFileParserTest {
+
+	/**
+	 * The recorded CPLEX log, in the classpath.
+	 */
+	private static final String LOG_FILE = "log.txt";
+
+	/**
+	 * The format of the dates in the recorded log, which have no milliseconds.
+	 */
+	private static final String LOG_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssXXX";
+
+	@Test
+	public void testParseLine() {
+		CplexLogFileParser parser = new CplexLogFileParser(Constants.DOCLOUD_DATE_FORMATTER, "run");
+		String line = "[2015-12-13T06:47:41.250Z, INFO] *  1200+  311     3148.0873   562     7224.0000     3148.0873     1025   56.42%";
+
+		RunLogEntry entry = parser.parseLine(line);
+		Assert.assertTrue(entry.isSolution());
+		Assert.assertTrue(entry.getOtherCheck());
+		Assert.assertEquals(Long.valueOf(1200), entry.getNode());
+		Assert.assertEquals(Long.valueOf(311), entry.getNodesLeft());
+		Assert.assertEquals(Double.valueOf(3148.0873), entry.getObjective());
+		Assert.assertEquals(Long.valueOf(562), entry.getIinf());
+		Assert.assertEquals(Double.valueOf(7224.0), entry.getBestInteger());
+		Assert.assertEquals(Double.valueOf(3148.0873), entry.getBestBound());
+		Assert.assertEquals(Long.valueOf(1025), entry.getTotalIterations());
+		Assert.assertEquals(Double.valueOf(56.42), entry.getGap());
+		Assert.assertEquals(1449989261250L, entry.getTime());
+		Assert.assertSame(line, entry.getRawLine());
+
+		// other lines, and node lines without gap
+		Assert.assertNull(parser.parseLine("[2015-12-13T06:47:36.000Z, INFO] Initialization of DEPARTMENTS."));
+		Assert.assertNull(parser.parseLine("[2015-12-13T06:47:41.000Z, INFO]       0     2        cutoff                                      25         "));
+
+		// the time is not parsed when disabled
+		parser.setParseTime(false);
+		Assert.assertEquals(0, parser.parseLine(line).getTime());
+	}
+
+	@Test
+	public void testParseRecord() {
+		CplexLogFileParser parser = new CplexLogFileParser(Constants.DOCLOUD_DATE_FORMATTER, "run");
+		Date date = new Date(1449989261250L);
+		String message = "*  1200+  311     3148.0873   562     7224.0000     3148.0873     1025   56.42%";
+
+		RunLogEntry entry = parser.parseLine(CplexLogFileParserTest.createRecord(date, message));
+		RunLogEntry expected = parser.parseLine("[" + Constants.DOCLOUD_DATE_FORMATTER.format(date) + ", null] " + message);
+		Assert.assertEquals(expected, entry);
+		Assert.assertEquals(expected.getRawLine(), entry.getRawLine());
+		Assert.assertEquals(date.getTime(), entry.getTime());
+
+		Assert.assertNull(parser.parseLine(CplexLogFileParserTest.createRecord(date, "Initialization of DEPARTMENTS.")));
+		Assert.assertNull(parser.parseLine(CplexLogFileParserTest.createRecord(date, null)));
+	}
+
+	@Test
+	public void testParseNumbers() {
+		String[] fields = {
+				"", "   ", "0", "-0", "+12", "  42  ", "-", "+", ".", "1.", ".5", "-.5", "12.5%", "1e5", "1.5E-3", "2d",
+				"NaN", "Infinity", "cutoff", "1.2.3", "--1", "12345678901234567", "1234567890123456789",
+				"99999999999999999999", "-9223372036854775808", "0.1", "0.30000000000000004", "123456789.012345678",
+				"18426.0000", "-234.0000", "101.27", "3148.0873", "0.0001", "999999999999999.9"
+		};
+
+		for (String field : fields) {
+			String line = "[" + field + "]";
+			Assert.assertEquals(field, StringUtils.safeParseLong(line, 1, line.length() - 1),
+								CplexLogFileParser.parseLong(line, 1, line.length() - 1));
+			Assert.assertEquals(field, StringUtils.safeParseDouble(line, 1, line.length() - 1),
+								CplexLogFileParser.parseDouble(line, 1, line.length() - 1));
+		}
+
+		// values in the format printed by CPLEX
+		Random random = new Random(42);
+		for (int i = 0; i < 100000; i++) {
+			String field = String.format("%14." + random.nextInt(6) + "f", (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(12)));
+			Assert.assertEquals(field, Double.valueOf(field.trim()), CplexLogFileParser.parseDouble(field, 0, field.length()));
+		}
+	}
+
+	/**
+	 * Parses all the lines of the recorded log with both implementations and verifies they parse the same entries.
+	 */
+	@Test
+	public void testLogFile() throws IOException {
+		List<String> lines = CplexLogFileParserTest.readLines(this.getClass().getClassLoader().getResourceAsStream(LOG_FILE));
+		DateFormat format = new SimpleDateFormat(LOG_DATE_FORMAT);
+
+		List<RunLogEntry> expected = CplexLogFileParserTest.parseWithSubstrings(lines, format);
+		List<RunLogEntry> actual = CplexLogFileParserTest.parseWithParser(lines, format);
+
+		Assert.assertEquals(expected.size(), actual.size());
+		Assert.assertTrue(actual.size() > 0);
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals(expected.get(i), actual.get(i));
+			Assert.assertEquals(expected.get(i).getRawLine(), actual.get(i).getRawLine());
+		}
+	}
+
+	/**
+	 * Parses the lines with a {@link CplexLogFileParser}.
+	 */
+	private static List<RunLogEntry> parseWithParser(List<String> lines, DateFormat format) {
+		CplexLogFileParser parser = new CplexLogFileParser(new StringReader(""), format, "run");
+		List<RunLogEntry> entries = new ArrayList<>();
+
+		for (String line : lines) {
+			RunLogEntry entry = parser.parseLine(line);
+			if (entry != null) {
+				entries.add(entry);
+			}
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Parses the lines as the parser used to: splitting the prefix, extracting each field as a sub-string and parsing
+	 * the date of each node line.
+	 */
+	private static List<RunLogEntry> parseWithSubstrings(List<String> lines, DateFormat format) {
+		List<RunLogEntry> entries = new ArrayList<>();
+
+		for (String line : lines) {
+			int open = line.indexOf('[');
+			int close = line.indexOf(']');
+			String date = null;
+			String content = line;
+
+			if (open >= 0 && close > 0) {
+				String[] prefixTokens = line.substring(open + 1, close).split(",");
+				date = prefixTokens[0];
+				content = line.substring(close + 1);
+			}
+
+			if (content.length() == 80) {
+				RunLogEntry entry = new RunLogEntry();
+				try {
+					entry.setTime(format.parse(date).getTime());
+				} catch (ParseException e) {
+					throw new IllegalStateException(e);
+				}
+				entry.setSolution(content.substring(1, 2).trim().equals("*"));
+				entry.setOtherCheck(content.substring(8, 9).trim().equals("+"));
+				entry.setNode(StringUtils.safeParseLong(content, 2, 8));
+				entry.setNodesLeft(StringUtils.safeParseLong(content, 9, 14));
+				entry.setObjective(StringUtils.safeParseDouble(content, 14, 28));
+				entry.setIinf(StringUtils.safeParseLong(content, 28, 34));
+				entry.setBestInteger(StringUtils.safeParseDouble(content, 34, 48));
+				entry.setBestBound(StringUtils.safeParseDouble(content, 48, 62));
+				entry.setTotalIterations(StringUtils.safeParseLong(content, 62, 71));
+				entry.setGap(StringUtils.safeParseDouble(content, 71, 79));
+				entry.setRawLine(line);
+
+				if (entry.getGap() != null) {
+					entries.add(entry);
+				}
+			}
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Reads the lines of a stream.
+	 */
+	private static List<String> readLines(InputStream stream) throws IOException {
+		List<String> lines = new ArrayList<>();
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Creates a job log record, with no level.
+	 */
+	private static JobLogRecord createRecord(final Date date, final String message) {
+		return (JobLogRecord) Proxy.newProxyInstance(JobLogRecord.class.getClassLoader(), new Class<?>[] { JobLogRecord.class },
+			new InvocationHandler() {
+
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					switch (method.getName()) {
+						case "getDate":
+							return date;
+						case "getMessage":
+							return message;
+						default:
+							return null;
+					}
+				}
+			});
+	}
+}
@@ -0,0 +1,161 @@
+package com.ibm.au.optim.suro.docloud.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Verifies that the {@link StreamSplitter} delivers all the data written by the producer to each
+ * consumer, that a consumer stopping early or failing does not block the others, and that the
+ * consumers are notified when the producer fails.
+ */
+public class StreamSplitterTest {
+
+	@Test(timeout = 10000)
+	public void testSplit() throws Exception {
+
+		// larger than the buffers of the pipes
+		final byte[] data = new byte[1024 * 1024];
+		new Random(42).nextBytes(data);
+
+		StreamSplitter splitter = new StreamSplitter(4096);
+		Future<byte[]> first = splitter.add(new CopyConsumer());
+		Future<byte[]> second = splitter.add(new CopyConsumer());
+
+		splitter.produce(new StreamSplitter.Producer<IOException>() {
+
+			@Override
+			public void produce(OutputStream output) throws IOException {
+				for (int i = 0; i < data.length; i += 1000) {
+					output.write(data, i, Math.min(1000, data.length - i));
+				}
+				output.close();
+			}
+		});
+
+		Assert.assertTrue(Arrays.equals(data, StreamSplitter.await(first)));
+		Assert.assertTrue(Arrays.equals(data, StreamSplitter.await(second)));
+	}
+
+	@Test(timeout = 10000)
+	public void testEarlyConsumer() throws Exception {
+
+		final byte[] data = new byte[256 * 1024];
+		new Random(7).nextBytes(data);
+
+		StreamSplitter splitter = new StreamSplitter(1024);
+		Future<Integer> header = splitter.add(new StreamSplitter.Consumer<Integer>() {
+
+			@Override
+			public Integer consume(InputStream input) throws IOException {
+				return input.read();
+			}
+		});
+		Future<Object> failing = splitter.add(new StreamSplitter.Consumer<Object>() {
+
+			@Override
+			public Object consume(InputStream input) throws IOException {
+				input.read(new byte[100]);
+				throw new IllegalStateException("Cannot store.");
+			}
+		});
+		Future<byte[]> copy = splitter.add(new CopyConsumer());
+
+		splitter.produce(new WriteProducer(data));
+
+		Assert.assertEquals(data[0] & 0xff, StreamSplitter.await(header).intValue());
+		Assert.assertTrue(Arrays.equals(data, StreamSplitter.await(copy)));
+
+		try {
+			StreamSplitter.await(failing);
+			Assert.fail("The failure of the consumer should be reported.");
+
+		} catch (IOException ioe) {
+			Assert.assertTrue(ioe.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testFailingProducer() throws Exception {
+
+		StreamSplitter splitter = new StreamSplitter(1024);
+		Future<byte[]> copy = splitter.add(new CopyConsumer());
+
+		try {
+			splitter.produce(new StreamSplitter.Producer<IllegalArgumentException>() {
+
+				@Override
+				public void produce(OutputStream output) throws IOException {
+					output.write(new byte[10000]);
+					throw new IllegalArgumentException("Download failed.");
+				}
+			});
+			Assert.fail("The failure of the producer should be reported.");
+
+		} catch (IllegalArgumentException iae) {
+			Assert.assertEquals("Download failed.", iae.getMessage());
+		}
+
+		// the consumer does not receive the end of the stream
+		try {
+			StreamSplitter.await(copy);
+			Assert.fail("The failure of the producer should be reported to the consumer.");
+
+		} catch (IOException ioe) {
+			// expected
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAddAfterProduce() throws Exception {
+
+		StreamSplitter splitter = new StreamSplitter();
+		splitter.produce(new WriteProducer(new byte[10]));
+		splitter.add(new CopyConsumer());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBufferSize() {
+
+		new StreamSplitter(0);
+	}
+
+	/**
+	 * Consumer copying all the data.
+	 */
+	private static class CopyConsumer implements StreamSplitter.Consumer<byte[]> {
+
+		@Override
+		public byte[] consume(InputStream input) throws IOException {
+			ByteArrayOutputStream copy = new ByteArrayOutputStream();
+			IOUtils.copy(input, copy);
+			input.close();
+			return copy.toByteArray();
+		}
+	}
+
+	/**
+	 * Producer writing the given data at once.
+	 */
+	private static class WriteProducer implements StreamSplitter.Producer<IOException> {
+
+		private final byte[] data;
+
+		private WriteProducer(byte[] data) {
+			this.data = data;
+		}
+
+		@Override
+		public void produce(OutputStream output) throws IOException {
+			output.write(this.data);
+		}
+	}
+}
@@ -4,6 +4,8 @@ import com.ibm.au.optim.suro.model.admin.preference.PreferenceManager;
 import com.ibm.au.optim.suro.model.control.job.JobController;
 import com.ibm.au.optim.suro.model.entities.Run;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Singleton providing core functionality for the scheduling and execution of runs. The Core provides access to models,
  * data sets, runs and the job controller. The Core can also be used by other components of the system as it provides
@@ -59,6 +61,16 @@ public interface Core {
      */
     Run getNextRun();
 
+    /**
+     * Loads the next run from the RunController, waiting up to the given timeout for a run to be submitted if the
+     * queue is currently empty.
+     * @param timeout - how long to wait before giving up, in units of unit
+     * @param unit - the time unit of the timeout argument
+     * @return - the next run or null, if no run has been submitted before the timeout elapsed or the system is not ready.
+     * @throws InterruptedException - if the calling thread is interrupted while waiting
+     */
+    Run getNextRun(long timeout, TimeUnit unit) throws InterruptedException;
+
     /**
      * Updates the run object to completion. Setting the final state of the job.
      * @param runId - the run to update
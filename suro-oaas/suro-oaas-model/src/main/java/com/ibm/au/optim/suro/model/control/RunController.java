@@ -6,6 +6,7 @@ import com.ibm.au.optim.suro.model.entities.RunStatus;
 import com.ibm.au.optim.suro.model.store.RunRepository;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller to access the RunRepository. The controller provides methods to easily create and retrieve runs from
@@ -56,6 +57,18 @@ public interface RunController {
      */
     Run getNext();
 
+    /**
+     * Retrieves the next run from the queue, waiting up to the specified amount of time for a run to be added if the
+     * queue is currently empty. This allows job executors to be signalled as soon as a run is submitted rather than
+     * polling the queue in regular intervals.
+     *
+     * @param timeout - how long to wait before giving up, in units of unit
+     * @param unit - the time unit of the timeout argument
+     * @return - the first run of the run queue or null if no run has been added before the timeout elapsed
+     * @throws InterruptedException - if the calling thread is interrupted while waiting
+     */
+    Run getNext(long timeout, TimeUnit unit) throws InterruptedException;
+
     /**
      * Adds a run to the queue.
      *
@@ -102,6 +115,13 @@ public interface RunController {
      */
     List<Run> getQueue();
 
+    /**
+     * Returns the statistics about the time runs spent waiting in the queue before being picked up by a job executor.
+     *
+     * @return - the queue statistics collected since the controller has been created
+     */
+    RunQueueStatistics getQueueStatistics();
+
     /**
      * Sets a run into the completed state and takes care of cleaning up the run.
      *
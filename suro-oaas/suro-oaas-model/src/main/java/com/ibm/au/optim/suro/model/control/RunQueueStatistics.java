@@ -0,0 +1,105 @@
+package com.ibm.au.optim.suro.model.control;
+
+/**
+ * Collects the timing information about the runs that pass through the run queue. Every time a run is taken out of
+ * the queue by a job executor, the time it spent waiting in the queue is recorded. The statistics are used to
+ * monitor the latency between the submission of a run and the moment an executor picks it up.
+ *
+ * Instances of this class are safe to be shared across threads.
+ */
+public class RunQueueStatistics {
+
+    /**
+     * The number of runs that have been taken out of the queue.
+     */
+    private long count = 0;
+
+    /**
+     * The sum of all the waiting times recorded (in milliseconds).
+     */
+    private long totalWaitTime = 0;
+
+    /**
+     * The longest waiting time recorded (in milliseconds).
+     */
+    private long maxWaitTime = 0;
+
+    /**
+     * The waiting time of the last run taken out of the queue (in milliseconds).
+     */
+    private long lastWaitTime = 0;
+
+    /**
+     * Records the waiting time of a run that has just been taken out of the queue.
+     *
+     * @param waitTime - the time (in milliseconds) the run spent in the queue
+     */
+    public synchronized void record(long waitTime) {
+        this.count++;
+        this.totalWaitTime += waitTime;
+        this.lastWaitTime = waitTime;
+        if (waitTime > this.maxWaitTime) {
+            this.maxWaitTime = waitTime;
+        }
+    }
+
+    /**
+     * Resets all the statistics collected so far.
+     */
+    public synchronized void reset() {
+        this.count = 0;
+        this.totalWaitTime = 0;
+        this.maxWaitTime = 0;
+        this.lastWaitTime = 0;
+    }
+
+    /**
+     * Returns the number of runs that have been taken out of the queue.
+     *
+     * @return - the number of recorded waiting times
+     */
+    public synchronized long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the sum of all the waiting times recorded.
+     *
+     * @return - the total waiting time in milliseconds
+     */
+    public synchronized long getTotalWaitTime() {
+        return this.totalWaitTime;
+    }
+
+    /**
+     * Returns the average time a run spent in the queue.
+     *
+     * @return - the average waiting time in milliseconds, or 0 if no run has been taken out of the queue yet
+     */
+    public synchronized long getAverageWaitTime() {
+        return this.count == 0 ? 0 : this.totalWaitTime / this.count;
+    }
+
+    /**
+     * Returns the longest time a run spent in the queue.
+     *
+     * @return - the maximum waiting time in milliseconds
+     */
+    public synchronized long getMaxWaitTime() {
+        return this.maxWaitTime;
+    }
+
+    /**
+     * Returns the time the last run taken out of the queue spent waiting.
+     *
+     * @return - the last waiting time in milliseconds
+     */
+    public synchronized long getLastWaitTime() {
+        return this.lastWaitTime;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "count=" + this.count + ", avg=" + this.getAverageWaitTime() + "ms, max=" + this.maxWaitTime + "ms, last=" + this.lastWaitTime + "ms";
+    }
+}
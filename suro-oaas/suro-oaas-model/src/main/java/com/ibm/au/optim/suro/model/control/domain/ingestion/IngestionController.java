@@ -1,7 +1,9 @@
 package com.ibm.au.optim.suro.model.control.domain.ingestion;
 
+import java.io.IOException;
 import java.util.List;
 
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.TemporalDelta;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.TemporalList;
 
 /**
@@ -33,6 +35,37 @@ public interface IngestionController {
 	 */
 	<R, T extends TemporalList<R>> T createRecordFromList(long timestamp, List<R> records);
 
+	/**
+	 * Creates a new entry in the repository responsible for managing objects of the passed type, reading the records
+	 * from the passed stream. The records are stored in parts of a bounded size while they are read, and the entry
+	 * only becomes visible once the last part has been stored.
+	 *
+	 * @param recordType - the type of record (e.g. WaitingPatient.class)
+	 * @param timestamp - the timestamp for the new data
+	 * @param records - the stream of records representing the data
+	 * @param <R> - the type of the object inside the list
+	 * @param <T> - the type of the list
+	 * @return - the last part of the list, or null if the stream is empty or the repository is not available
+	 * @throws IOException - if the records could not be read, in which case nothing is stored
+	 */
+	<R, T extends TemporalList<R>> T createRecordFromStream(Class<R> recordType, long timestamp, RecordStream<R> records) throws IOException;
+
+	/**
+	 * Applies the passed changes to the current records of the given type. Rather than storing the whole data again,
+	 * the controller stores a list only containing the changes, which refers to the current list as its base. Every
+	 * now and then a full snapshot is stored instead, so that the current data can be materialised without walking
+	 * through a long chain of deltas.
+	 *
+	 * @param recordType - the type of record (e.g. WaitingPatient.class)
+	 * @param timestamp - the timestamp for the new data
+	 * @param delta - the records added, updated and removed since the current list
+	 * @param <R> - the type of the object inside the list
+	 * @param <T> - the type of the list
+	 * @return - the list that has been added to the repository, or null if the delta could not be applied (e.g. the
+	 * 			 repository is not available or the record type does not support deltas)
+	 */
+	<R, T extends TemporalList<R>> T applyDelta(Class<R> recordType, long timestamp, TemporalDelta<R> delta);
+
 	/**
 	 * Retrieves the latest records from the responsible repository. The time parameter can be used to make sure that
 	 * the records retrieved have a newer timestamp than the timestamp provided.
@@ -0,0 +1,20 @@
+package com.ibm.au.optim.suro.model.control.domain.ingestion;
+
+import java.io.IOException;
+
+/**
+ * A source of ingestion records that are read one at a time (e.g. from the body of a request), so that large
+ * uploads can be ingested without keeping all the records in memory.
+ *
+ * @param <T> - the type of the records (e.g. WaitingPatient.class)
+ */
+public interface RecordStream<T> {
+
+	/**
+	 * Reads the next record.
+	 *
+	 * @return - the next record, or null if there are no more records
+	 * @throws IOException - if the record could not be read or is not valid
+	 */
+	T next() throws IOException;
+}
@@ -105,7 +105,10 @@ public interface JobExecutor {
      * This function pushes to the notification bus the serialized information
      * into <i>JSON</i> format for the given <i>entry</i>. Its serialized form
      * is preceded by the prefix 'optim:log:', which identifies the nature of
-     * the rest of the content.
+     * the rest of the content. Implementations may send the entries in frames
+     * (see {@link com.ibm.au.optim.suro.model.notify.ProgressAggregator}), in
+     * which case the content is the <i>JSON</i> representation of a
+     * {@link com.ibm.au.optim.suro.model.entities.RunLogSeries}.
      *
      * @param entry	an instance of {@link RunLogEntry} containing
      * 				the information parsed from one line of the live log stream
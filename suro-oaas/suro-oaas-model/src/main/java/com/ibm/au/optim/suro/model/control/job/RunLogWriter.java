@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.model.control.job;
+
+import com.ibm.au.optim.suro.model.entities.RunDetails;
+import com.ibm.au.optim.suro.model.entities.RunLogEntry;
+import com.ibm.au.optim.suro.model.entities.RunLogIndex;
+import com.ibm.au.optim.suro.model.entities.RunLogSegment;
+import com.ibm.au.optim.suro.model.store.RunDetailsRepository;
+import com.ibm.au.optim.suro.model.store.RunLogSegmentRepository;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Class <b>RunLogWriter</b>. This class collects the log entries generated by the solver
+ * for a run, as they are parsed by a {@link JobMonitor}, and stores them. The entries are
+ * appended to fixed-size {@link RunLogSegment} documents, while the {@link RunDetails} of
+ * the run only keep the summary of the log (best bound, best integer and gap) and the number
+ * of segments. A full segment is stored once and never updated again, hence each commit only
+ * writes the summary and the last segment, whose size is bounded, regardless of the number
+ * of entries collected so far.
+ * </p>
+ * <p>
+ * Duplicated entries are discarded with a {@link RunLogIndex}, as {@link RunDetails} does. The
+ * entries are generated in chronological order, hence once a segment is full the entries that
+ * are not later than its last entry are discarded, and at most the times of the entries of
+ * the last segment are kept. For the same reason a resumed run only reads its last segment.
+ * </p>
+ * <p>
+ * If no {@link RunLogSegmentRepository} is available the entries are added to the details,
+ * which are then stored as a whole at each commit.
+ * </p>
+ */
+public class RunLogWriter {
+
+	/**
+	 * The details of the run, holding the summary of the log.
+	 */
+	private final RunDetails details;
+
+	/**
+	 * The repository the details are stored in.
+	 */
+	private final RunDetailsRepository detailsRepository;
+
+	/**
+	 * The repository the segments are stored in, or {@literal null} if the entries are
+	 * stored with the details.
+	 */
+	private final RunLogSegmentRepository segmentRepository;
+
+	/**
+	 * The maximum number of entries of a segment.
+	 */
+	private final int segmentSize;
+
+	/**
+	 * The times of the entries collected so far, used to discard duplicated entries when
+	 * the log of a resumed run is read again.
+	 */
+	private final RunLogIndex times = new RunLogIndex();
+
+	/**
+	 * The last segment of the run, the only one entries are appended to.
+	 */
+	private RunLogSegment segment;
+
+	/**
+	 * Whether the last segment has entries that have not been stored yet.
+	 */
+	private boolean changed;
+
+	/**
+	 * Initialises an instance of {@link RunLogWriter} with the given parameters. If the run
+	 * already has segments (i.e. the run is resumed), only the last one is read: the entries
+	 * that are not later than its last entry are not added again, and new entries are appended
+	 * to it.
+	 *
+	 * @param details			a {@link RunDetails} instance representing the details of the
+	 * 							run. It must have been added to <i>detailsRepository</i>.
+	 * @param detailsRepository	a {@link RunDetailsRepository} implementation used to store
+	 * 							the details.
+	 * @param segmentRepository	a {@link RunLogSegmentRepository} implementation used to store
+	 * 							the segments, or {@literal null} to store the entries with the
+	 * 							details.
+	 * @param segmentSize		a {@literal int} value representing the maximum number of
+	 * 							entries of a segment. It must be positive.
+	 *
+	 * @throws IllegalArgumentException	if <i>segmentSize</i> is not positive.
+	 */
+	public RunLogWriter(RunDetails details, RunDetailsRepository detailsRepository, RunLogSegmentRepository segmentRepository, int segmentSize) {
+
+		if (segmentSize <= 0) {
+
+			throw new IllegalArgumentException("Parameter 'segmentSize' must be positive.");
+		}
+
+		this.details = details;
+		this.detailsRepository = detailsRepository;
+		this.segmentRepository = segmentRepository;
+		this.segmentSize = segmentSize;
+
+		if (segmentRepository != null) {
+
+			// entries stored with the details before segments were available
+			if (details.getEntries() != null) {
+
+				for(RunLogEntry entry : details.getEntries()) {
+					this.times.add(entry.getTime());
+				}
+			}
+
+			if (details.getSegments() > 0) {
+
+				List<RunLogSegment> segments = segmentRepository.findByRunId(details.getRunId(), details.getSegments() - 1, 1);
+				if (!segments.isEmpty()) {
+
+					this.segment = segments.get(0);
+					if (this.segment.getEntries() != null) {
+
+						for(RunLogEntry entry : this.segment.getEntries()) {
+							this.times.add(entry.getTime());
+						}
+					}
+				}
+			}
+
+			// the entries stored so far precede the ones of the last segment
+			if (this.times.size() > 0) {
+
+				this.times.setFloor(this.times.getLast());
+			}
+		}
+	}
+
+	/**
+	 * Gets the details of the run.
+	 *
+	 * @return	a {@link RunDetails} instance holding the summary of the log.
+	 */
+	public RunDetails getDetails() {
+
+		return this.details;
+	}
+
+	/**
+	 * Appends an entry to the log of the run, unless an entry with the same time has
+	 * already been appended or the entry is not later than the last entry of a full
+	 * segment. The entry is not stored until the segment is full or {@link #commit()}
+	 * is invoked.
+	 *
+	 * @param entry	a {@link RunLogEntry} representing the entry to append.
+	 *
+	 * @return	{@literal true} if the entry was added, {@literal false} if not.
+	 */
+	public synchronized boolean append(RunLogEntry entry) {
+
+		if (this.segmentRepository == null) {
+
+			return this.details.addEntry(entry);
+		}
+
+		if (!this.times.add(entry.getTime())) {
+
+			return false;
+		}
+
+		this.details.updateSummary(entry);
+
+		if ((this.segment == null) || (this.segment.size() >= this.segmentSize)) {
+
+			// the full segment is stored for the last time
+			if ((this.segment != null) && this.changed) {
+
+				this.store(this.segment);
+			}
+
+			this.segment = new RunLogSegment(this.details.getRunId(), this.details.getSegments());
+			this.details.setSegments(this.details.getSegments() + 1);
+		}
+
+		this.segment.addEntry(entry);
+		this.changed = true;
+
+		// entries older than a full segment cannot be appended to it
+		if (this.segment.size() >= this.segmentSize) {
+
+			this.times.setFloor(this.times.getLast());
+		}
+
+		return true;
+	}
+
+	/**
+	 * Stores the entries appended since the last commit, followed by the details of the
+	 * run.
+	 */
+	public synchronized void commit() {
+
+		if (this.changed) {
+
+			this.store(this.segment);
+			this.changed = false;
+		}
+
+		this.detailsRepository.updateItem(this.details);
+	}
+
+	/**
+	 * Adds a segment to the repository, or updates it if it has already been added.
+	 *
+	 * @param s	a {@link RunLogSegment} instance representing the segment to store.
+	 */
+	private void store(RunLogSegment s) {
+
+		if (s.getId() == null) {
+
+			this.segmentRepository.addItem(s);
+
+		} else {
+
+			this.segmentRepository.updateItem(s);
+		}
+	}
+}
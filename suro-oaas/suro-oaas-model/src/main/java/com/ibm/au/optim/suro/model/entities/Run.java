@@ -174,6 +174,15 @@ public class Run extends Entity {
 	@JsonProperty("finalGap")
 	protected double finalGap = Run.DEFAULT_GAP;
 	
+	/**
+	 * A {@literal int} value indicating the scheduling priority of the {@link Run}.
+	 * Queued runs with a higher priority (e.g. an urgent re-planning) are handed 
+	 * out to the job executors before the ones with a lower priority. The default
+	 * value is 0.
+	 */
+	@JsonProperty("priority")
+	protected int priority = 0;
+	
 	
 	/**
 	 * Initialises an instance of the {@link Run}.
@@ -603,6 +612,28 @@ public class Run extends Entity {
 		this.startTime = startTime;
 	}
 	
+	/**
+	 * Gets the scheduling priority of the {@link Run}.
+	 * 
+	 * @return	a {@literal int} value indicating the priority. Runs with a higher
+	 * 			value are executed first.
+	 */
+	public int getPriority() {
+		
+		return this.priority;
+	}
+
+	/**
+	 * Sets the scheduling priority of the {@link Run}.
+	 * 
+	 * @param priority	a {@literal int} value indicating the priority. Runs with a
+	 * 					higher value are executed first.
+	 */
+	public void setPriority(int priority) {
+		
+		this.priority = priority;
+	}
+	
 	/**
 	 * Gets {@link String} representation of the {@link Run}.
 	 * 
@@ -657,6 +688,7 @@ public class Run extends Entity {
 		zombie.setMaxRunTime(this.getMaxRunTime());
 		zombie.setStartTime(this.getStartTime());
 		zombie.setRunTime(this.getRunTime());
+		zombie.setPriority(this.getPriority());
 		
 		zombie.setSolveStatus(this.getSolveStatus());
 		zombie.setStatus(this.getStatus());
@@ -4,6 +4,7 @@
  */
 package com.ibm.au.optim.suro.model.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ibm.au.optim.suro.model.entities.Run;
 
@@ -23,6 +24,12 @@ import java.util.Map.Entry;
  * of entries that track the incremental progression of the solver towards the
  * optimal solution.
  * </p>
+ * <p>
+ * When a {@link com.ibm.au.optim.suro.model.store.RunLogSegmentRepository} is
+ * available the entries are not stored with the details but in fixed-size
+ * {@link RunLogSegment} documents: the details then only act as the summary of the
+ * log (best bound, best integer and gap) and record the number of segments.
+ * </p>
  */
 public class RunDetails extends Entity {
 
@@ -59,6 +66,13 @@ public class RunDetails extends Entity {
 	 */
 	@JsonProperty("gap")
 	private double gap;
+
+	/**
+	 * A {@literal int} value representing the number of {@link RunLogSegment} documents
+	 * that hold the entries of the run, zero if the entries are stored with the details.
+	 */
+	@JsonProperty("segments")
+	private int segments;
 	
 	/**
 	 * A {@link Map} implementation containing the collection of <i>key-value</i> pairs
@@ -68,6 +82,28 @@ public class RunDetails extends Entity {
 	@JsonProperty("attributes")
 	private Map<String, Object> attributes;
 
+	/**
+	 * A {@link RunLogIndex} containing the times of the entries, used by {@link #addEntry(RunLogEntry)}
+	 * to discard duplicated entries without scanning the list. It is built from the list of
+	 * entries the first time it is needed, and built again if the list has been replaced or
+	 * modified without using {@link #addEntry(RunLogEntry)}.
+	 */
+	@JsonIgnore
+	private transient RunLogIndex times;
+
+	/**
+	 * The {@link List} of entries that {@link #times} has been built from.
+	 */
+	@JsonIgnore
+	private transient List<RunLogEntry> indexedEntries;
+
+	/**
+	 * A {@literal int} value representing the size of {@link #indexedEntries} at the time of
+	 * the last update of {@link #times}.
+	 */
+	@JsonIgnore
+	private transient int indexedSize;
+
 
 	/**
 	 * Initialise an instance of {@link RunDetails}.
@@ -217,10 +253,35 @@ public class RunDetails extends Entity {
 		this.gap = gap;
 	}
 
+	/**
+	 * Gets the number of {@link RunLogSegment} documents that hold the log entries
+	 * of the run. The segments are numbered from zero to this value excluded.
+	 *
+	 * @return	a {@literal int} value representing the number of segments, zero
+	 * 			if the entries are stored with the details.
+	 */
+	public int getSegments() {
+		
+		return this.segments;
+	}
+
+	/**
+	 * Sets the number of {@link RunLogSegment} documents that hold the log entries
+	 * of the run.
+	 *
+	 * @param segments	a {@literal int} value representing the number of segments.
+	 */
+	public void setSegments(int segments) {
+		
+		this.segments = segments;
+	}
+
 	/**
 	 * Append a new optimization log entry to the list of optimization results
 	 * These entries should be generated from a CPLEX solver log using a
-	 * log file parser
+	 * log file parser. Entries with the same time of an entry already added
+	 * are discarded, which avoids overlapping entries when resuming runs. This
+	 * check takes constant time, regardless of the number of entries.
 	 *
 	 * @param entry	a {@link RunLogEntry} representing an optimization result entry.
      *
@@ -232,15 +293,49 @@ public class RunDetails extends Entity {
 			entries = new ArrayList<>();
 		}
 
-		// check if the entry already exists to avoid overlapping entries when resuming runs
-		for(RunLogEntry e : entries) {
-			if (e.getTime() == entry.getTime()) {
-				// abort adding the entry or evaluating its information (gap, bounds, ...)
-				return false;
-			}
+		ensureTimes();
+
+		// check if the entry already exists to avoid overlapping entries when resuming runs,
+		// entries after the last one are new and are recorded without any lookup
+		if (!times.add(entry.getTime())) {
+			// abort adding the entry or evaluating its information (gap, bounds, ...)
+			return false;
 		}
 
 		entries.add(entry);
+		indexedSize = entries.size();
+		updateSummary(entry);
+
+		return true;
+	}
+
+	/**
+	 * Builds the index of the times of the entries, unless it is up to date with
+	 * the current list of entries.
+	 */
+	private void ensureTimes() {
+		if (times != null && indexedEntries == entries && indexedSize == entries.size()) {
+			return;
+		}
+
+		times = new RunLogIndex();
+
+		for(RunLogEntry e : entries) {
+			times.add(e.getTime());
+		}
+
+		indexedEntries = entries;
+		indexedSize = entries.size();
+	}
+
+	/**
+	 * Updates the best bound, best integer and gap with the values of the given
+	 * entry, without adding the entry to the list of entries. This is used when
+	 * the entries are stored in {@link RunLogSegment} documents.
+	 *
+	 * @param entry	a {@link RunLogEntry} representing an optimization result entry.
+	 */
+	public void updateSummary(RunLogEntry entry) {
 		if (entry.getGap() != null) {
 			setGap(entry.getGap());
 		}
@@ -250,8 +345,6 @@ public class RunDetails extends Entity {
 		if (entry.getBestBound() != null) {
 			setBestBound(entry.getBestBound());
 		}
-
-		return true;
 	}
 	
 	/**
@@ -380,6 +473,7 @@ public class RunDetails extends Entity {
 		zombie.setBestBound(this.getBestBound());
 		zombie.setBestInteger(this.getBestInteger());
 		zombie.setGap(this.getGap());
+		zombie.setSegments(this.getSegments());
 		zombie.setRunId(this.getRunId());
 		
 		// now the list of template parameters.
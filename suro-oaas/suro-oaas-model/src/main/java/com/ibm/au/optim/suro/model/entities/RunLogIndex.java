@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.model.entities;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * <p>
+ * Class <b>RunLogIndex</b>. This class records the times of the {@link RunLogEntry} instances
+ * collected for a {@link Run}, so that the entries read again when a run is resumed can be
+ * discarded. It is used by {@link RunDetails#addEntry(RunLogEntry)} and by the writer that
+ * stores the entries in {@link RunLogSegment} documents.
+ * </p>
+ * <p>
+ * The solver generates the entries in chronological order, hence a time greater than the
+ * last one recorded is new and is checked with a single comparison. These times are kept in
+ * a sorted array of primitive values. Only the times that are not greater than the last one
+ * are looked up: in the array first, and then in the set of the times that have been recorded
+ * out of order.
+ * </p>
+ * <p>
+ * The index can be bounded with {@link #setFloor(long)}: the times that are not greater than
+ * the floor are considered recorded, and are not kept. This allows to check the entries of
+ * a long run against the last time stored only, without keeping all the times in memory.
+ * </p>
+ */
+public class RunLogIndex {
+
+	/**
+	 * A {@literal int} value representing the initial capacity of the array of times.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * The times recorded in chronological order, in ascending order.
+	 */
+	private long[] times = new long[DEFAULT_CAPACITY];
+
+	/**
+	 * The number of times in {@link #times}.
+	 */
+	private int size;
+
+	/**
+	 * The times recorded out of order, or {@literal null} if there are none.
+	 */
+	private Set<Long> outOfOrder;
+
+	/**
+	 * Whether the index has a floor.
+	 */
+	private boolean bounded;
+
+	/**
+	 * The greatest time that is considered recorded without being kept.
+	 */
+	private long floor;
+
+
+	/**
+	 * Records a time, unless it has already been recorded.
+	 *
+	 * @param time	a {@literal long} value representing the time of an entry.
+	 *
+	 * @return	{@literal true} if the time was recorded, {@literal false} if it had
+	 * 			already been recorded.
+	 */
+	public boolean add(long time) {
+
+		if (this.bounded && (time <= this.floor)) {
+
+			return false;
+		}
+
+		if ((this.size == 0) || (time > this.times[this.size - 1])) {
+
+			if (this.size == this.times.length) {
+
+				this.times = Arrays.copyOf(this.times, this.size * 2);
+			}
+
+			this.times[this.size++] = time;
+			return true;
+		}
+
+		if (Arrays.binarySearch(this.times, 0, this.size, time) >= 0) {
+
+			return false;
+		}
+
+		if (this.outOfOrder == null) {
+
+			this.outOfOrder = new HashSet<Long>();
+		}
+
+		return this.outOfOrder.add(time);
+	}
+
+	/**
+	 * Checks whether a time has been recorded.
+	 *
+	 * @param time	a {@literal long} value representing the time of an entry.
+	 *
+	 * @return	{@literal true} if the time has been recorded, {@literal false} if not.
+	 */
+	public boolean contains(long time) {
+
+		if (this.bounded && (time <= this.floor)) {
+
+			return true;
+		}
+
+		return (Arrays.binarySearch(this.times, 0, this.size, time) >= 0) ||
+			   ((this.outOfOrder != null) && this.outOfOrder.contains(time));
+	}
+
+	/**
+	 * Gets the greatest time recorded.
+	 *
+	 * @return	a {@literal long} value representing the greatest time recorded, or the
+	 * 			floor if no time greater than the floor has been recorded, or {@link
+	 * 			Long#MIN_VALUE} if the index is empty.
+	 */
+	public long getLast() {
+
+		if (this.size > 0) {
+
+			return this.times[this.size - 1];
+		}
+
+		return this.bounded ? this.floor : Long.MIN_VALUE;
+	}
+
+	/**
+	 * Sets the floor of the index: the times that are not greater than the floor are
+	 * considered recorded, and the ones that have been recorded are no longer kept. The
+	 * floor can only be raised.
+	 *
+	 * @param floor	a {@literal long} value representing the greatest time that is
+	 * 				considered recorded.
+	 */
+	public void setFloor(long floor) {
+
+		if (this.bounded && (floor <= this.floor)) {
+
+			return;
+		}
+
+		this.bounded = true;
+		this.floor = floor;
+
+		// the times above the floor are moved to the beginning of the array
+		int from = Arrays.binarySearch(this.times, 0, this.size, floor);
+		from = from >= 0 ? from + 1 : -from - 1;
+		if (from > 0) {
+
+			System.arraycopy(this.times, from, this.times, 0, this.size - from);
+			this.size -= from;
+		}
+
+		if (this.outOfOrder != null) {
+
+			for (Iterator<Long> it = this.outOfOrder.iterator(); it.hasNext(); ) {
+
+				if (it.next() <= floor) {
+
+					it.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of times kept by the index, which does not include the times that
+	 * are not greater than the floor.
+	 *
+	 * @return	a {@literal int} value representing the number of times kept.
+	 */
+	public int size() {
+
+		return this.size + (this.outOfOrder == null ? 0 : this.outOfOrder.size());
+	}
+}
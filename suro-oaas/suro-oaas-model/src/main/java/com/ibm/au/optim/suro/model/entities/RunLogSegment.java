@@ -0,0 +1,212 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.model.entities;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Class <b>RunLogSegment</b>. This class holds a fixed-size, contiguous portion of
+ * the log entries generated by the solver while executing a {@link Run}. Segments
+ * are identified by the run they belong to and by their sequence number, starting
+ * from zero: the entries of a run are the entries of its segments taken in sequence
+ * order.
+ * </p>
+ * <p>
+ * Segments are append-only: once a segment is full it is never modified again, and
+ * only the last segment of a run grows while the solver is running. This keeps the
+ * size of each document (and of each update) bounded, regardless of how long the
+ * optimisation process runs. The summary of the log (best bound, best integer and
+ * gap) is kept by the {@link RunDetails} of the run, together with the number of
+ * segments.
+ * </p>
+ */
+public class RunLogSegment extends Entity {
+
+	/**
+	 * A {@literal int} value representing the default number of entries of a segment.
+	 */
+	public static final int DEFAULT_SIZE = 500;
+
+	/**
+	 * A {@link String} containing the unique identifier of the {@link Run} instance
+	 * that generated the entries of this segment.
+	 */
+	@JsonProperty("runId")
+	private String runId;
+
+	/**
+	 * A {@literal int} value representing the position of this segment among the
+	 * segments of the run, starting from zero.
+	 */
+	@JsonProperty("sequence")
+	private int sequence;
+
+	/**
+	 * A {@link List} of {@link RunLogEntry} records, in chronological order.
+	 */
+	@JsonProperty("entries")
+	private List<RunLogEntry> entries;
+
+
+	/**
+	 * Initialises an instance of {@link RunLogSegment}.
+	 */
+	public RunLogSegment() {
+
+	}
+
+	/**
+	 * Initialises an instance of {@link RunLogSegment} with the given parameters
+	 * and no entries.
+	 *
+	 * @param runId		a {@link String} representing the unique identifier of the
+	 * 					{@link Run} instance the segment belongs to.
+	 * @param sequence	a {@literal int} value representing the position of the
+	 * 					segment among the segments of the run.
+	 */
+	public RunLogSegment(String runId, int sequence) {
+		this.runId = runId;
+		this.sequence = sequence;
+		this.entries = new ArrayList<RunLogEntry>();
+	}
+
+	/**
+	 * Gets the {@link Run} ID this segment is associated with.
+	 *
+	 * @return a {@link String} representing the unique identifier of the
+	 * 		   {@link Run} instance this segment belongs to.
+	 */
+	public String getRunId() {
+
+		return this.runId;
+	}
+
+	/**
+	 * Sets the {@link Run} ID this segment is associated with.
+	 *
+	 * @param runId	a {@link String} representing the unique identifier of the
+	 * 				{@link Run} instance this segment belongs to.
+	 */
+	public void setRunId(String runId) {
+
+		this.runId = runId;
+	}
+
+	/**
+	 * Gets the position of this segment among the segments of the run.
+	 *
+	 * @return	a {@literal int} value representing the sequence number, starting
+	 * 			from zero.
+	 */
+	public int getSequence() {
+
+		return this.sequence;
+	}
+
+	/**
+	 * Sets the position of this segment among the segments of the run.
+	 *
+	 * @param sequence	a {@literal int} value representing the sequence number,
+	 * 					starting from zero.
+	 */
+	public void setSequence(int sequence) {
+
+		this.sequence = sequence;
+	}
+
+	/**
+	 * Gets the log entries held by this segment.
+	 *
+	 * @return 	a {@link List} containing the {@link RunLogEntry} items of the
+	 * 			segment, in chronological order.
+	 */
+	public List<RunLogEntry> getEntries() {
+
+		return this.entries;
+	}
+
+	/**
+	 * Sets the log entries held by this segment.
+	 *
+	 * @param entries	a {@link List} containing the {@link RunLogEntry} items of
+	 * 					the segment, in chronological order.
+	 */
+	public void setEntries(List<RunLogEntry> entries) {
+
+		this.entries = entries;
+	}
+
+	/**
+	 * Gets the number of entries held by this segment.
+	 *
+	 * @return	a {@literal int} value representing the number of entries.
+	 */
+	public int size() {
+
+		return this.entries == null ? 0 : this.entries.size();
+	}
+
+	/**
+	 * Appends an entry to this segment.
+	 *
+	 * @param entry	a {@link RunLogEntry} representing the entry to append.
+	 */
+	public void addEntry(RunLogEntry entry) {
+
+		if (this.entries == null) {
+
+			this.entries = new ArrayList<RunLogEntry>();
+		}
+
+		this.entries.add(entry);
+	}
+
+	/**
+	 * This method clones a {@link RunLogSegment}. The method first invokes the
+	 * super-class version of the method and then clones the properties directly
+	 * defined by the {@link RunLogSegment} class, including each of the entries.
+	 *
+	 * @return  a {@link RunLogSegment} instance that represents the clone of the
+	 * 			the current instance.
+	 */
+	@Override
+	public Entity clone() {
+
+		RunLogSegment zombie = (RunLogSegment) super.clone();
+
+		zombie.setRunId(this.getRunId());
+		zombie.setSequence(this.getSequence());
+
+		List<RunLogEntry> entries = this.getEntries();
+		if (entries != null) {
+
+			List<RunLogEntry> newEntries = new ArrayList<RunLogEntry>(entries.size());
+			for(RunLogEntry e : entries) {
+				newEntries.add(e.clone());
+			}
+
+			zombie.setEntries(newEntries);
+		}
+
+		return zombie;
+	}
+
+	/**
+	 * This method creates an instance of {@link RunLogSegment}. The method overrides
+	 * the base class implementation to change the type of the instance returned
+	 * by the method to {@link RunLogSegment}.
+	 *
+	 * @return an instance of {@link RunLogSegment}.
+	 */
+	@Override
+	protected Entity newInstance() {
+
+		return new RunLogSegment();
+	}
+}
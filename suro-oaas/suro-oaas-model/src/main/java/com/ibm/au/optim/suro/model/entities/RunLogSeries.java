@@ -0,0 +1,781 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.model.entities;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Class <b>RunLogSeries</b>. This class holds the log entries generated by the solver
+ * for a {@link Run} as a time series organised by columns: each property of the
+ * {@link RunLogEntry} instances is stored in an array of primitive values, rather than
+ * in one object (and one boxed value per property) for each entry. This is the format
+ * used to feed the progress charts, which only need the numeric values of the entries:
+ * the raw log line is not kept.
+ * </p>
+ * <p>
+ * Missing values are represented by {@link Double#NaN} in the {@literal double} columns
+ * and by {@link #MISSING} in the {@literal long} columns. In the JSON representation they
+ * are {@literal null}, and the {@literal long} columns (times, nodes and iterations) are
+ * delta-encoded: the first value is written as it is and each following value as the
+ * difference with the previous value of the column. As these values grow slowly the
+ * differences are much shorter than the values. The {@literal double} columns are not
+ * delta-encoded, because the differences would not restore the values exactly. The
+ * solution and other-check flags are written as the list of the indexes of the entries
+ * that have the flag set.
+ * </p>
+ * <p>
+ * The series can be reduced for display with {@link #last(int)} and {@link #downsample(long)}.
+ * </p>
+ */
+public class RunLogSeries {
+
+	/**
+	 * A {@literal long} value representing a missing value in the {@literal long} columns.
+	 */
+	public static final long MISSING = Long.MIN_VALUE;
+
+	/**
+	 * A {@literal int} value representing the initial capacity of the columns.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * A {@literal int} value representing the number of entries in the series.
+	 */
+	private int size;
+
+	/**
+	 * The times of the entries.
+	 */
+	private long[] time;
+
+	/**
+	 * The node numbers of the entries.
+	 */
+	private long[] node;
+
+	/**
+	 * The number of nodes left of the entries.
+	 */
+	private long[] nodesLeft;
+
+	/**
+	 * The number of integer infeasibilities of the entries.
+	 */
+	private long[] iinf;
+
+	/**
+	 * The total number of iterations of the entries.
+	 */
+	private long[] totalIterations;
+
+	/**
+	 * The current objectives of the entries.
+	 */
+	private double[] objective;
+
+	/**
+	 * The best integers of the entries.
+	 */
+	private double[] bestInteger;
+
+	/**
+	 * The best bounds of the entries.
+	 */
+	private double[] bestBound;
+
+	/**
+	 * The gaps of the entries.
+	 */
+	private double[] gap;
+
+	/**
+	 * The solution flags of the entries.
+	 */
+	private boolean[] solution;
+
+	/**
+	 * The other-check flags of the entries.
+	 */
+	private boolean[] otherCheck;
+
+
+	/**
+	 * Initialises an empty instance of {@link RunLogSeries}.
+	 */
+	public RunLogSeries() {
+
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Initialises an empty instance of {@link RunLogSeries} that can hold the given number
+	 * of entries before growing.
+	 *
+	 * @param capacity	a {@literal int} value representing the initial capacity.
+	 *
+	 * @throws IllegalArgumentException	if <i>capacity</i> is negative.
+	 */
+	public RunLogSeries(int capacity) {
+
+		if (capacity < 0) {
+
+			throw new IllegalArgumentException("Parameter 'capacity' cannot be negative.");
+		}
+
+		this.allocate(capacity);
+	}
+
+	/**
+	 * Initialises an instance of {@link RunLogSeries} from its JSON representation. See the
+	 * class documentation for the encoding of the columns.
+	 *
+	 * @param time				a {@literal long} array containing the delta-encoded times.
+	 * @param node				a {@link List} containing the delta-encoded node numbers.
+	 * @param nodesLeft			a {@link List} containing the delta-encoded number of nodes left.
+	 * @param iinf				a {@link List} containing the delta-encoded integer infeasibilities.
+	 * @param totalIterations	a {@link List} containing the delta-encoded total iterations.
+	 * @param objective			a {@link List} containing the objectives.
+	 * @param bestInteger		a {@link List} containing the best integers.
+	 * @param bestBound			a {@link List} containing the best bounds.
+	 * @param gap				a {@link List} containing the gaps.
+	 * @param solutions			a {@literal int} array containing the indexes of the solutions.
+	 * @param otherChecks		a {@literal int} array containing the indexes of the other checks.
+	 *
+	 * @throws IllegalArgumentException	if the columns do not have the same size as <i>time</i>,
+	 * 									or if an index is out of range.
+	 */
+	@JsonCreator
+	public RunLogSeries(@JsonProperty("time") long[] time,
+						@JsonProperty("node") List<Long> node,
+						@JsonProperty("nodesLeft") List<Long> nodesLeft,
+						@JsonProperty("iinf") List<Long> iinf,
+						@JsonProperty("totalIterations") List<Long> totalIterations,
+						@JsonProperty("objective") List<Double> objective,
+						@JsonProperty("bestInteger") List<Double> bestInteger,
+						@JsonProperty("bestBound") List<Double> bestBound,
+						@JsonProperty("gap") List<Double> gap,
+						@JsonProperty("solutions") int[] solutions,
+						@JsonProperty("otherChecks") int[] otherChecks) {
+
+		int n = time == null ? 0 : time.length;
+
+		this.allocate(n);
+		this.size = n;
+
+		long previous = 0;
+		for (int i = 0; i < n; i++) {
+			previous += time[i];
+			this.time[i] = previous;
+		}
+
+		RunLogSeries.decode(node, this.node, n);
+		RunLogSeries.decode(nodesLeft, this.nodesLeft, n);
+		RunLogSeries.decode(iinf, this.iinf, n);
+		RunLogSeries.decode(totalIterations, this.totalIterations, n);
+		RunLogSeries.decode(objective, this.objective, n);
+		RunLogSeries.decode(bestInteger, this.bestInteger, n);
+		RunLogSeries.decode(bestBound, this.bestBound, n);
+		RunLogSeries.decode(gap, this.gap, n);
+		RunLogSeries.decode(solutions, this.solution, n);
+		RunLogSeries.decode(otherChecks, this.otherCheck, n);
+	}
+
+	/**
+	 * Creates a {@link RunLogSeries} holding the given entries, in the same order.
+	 *
+	 * @param entries	a {@link List} of {@link RunLogEntry} instances. It can be {@literal null}.
+	 *
+	 * @return	a {@link RunLogSeries} instance.
+	 */
+	public static RunLogSeries of(List<RunLogEntry> entries) {
+
+		RunLogSeries series = new RunLogSeries(entries == null ? 0 : entries.size());
+		if (entries != null) {
+
+			for(RunLogEntry entry : entries) {
+				series.add(entry);
+			}
+		}
+
+		return series;
+	}
+
+	/**
+	 * Gets the number of entries in the series.
+	 *
+	 * @return	a {@literal int} value representing the number of entries.
+	 */
+	public int size() {
+
+		return this.size;
+	}
+
+	/**
+	 * Appends an entry to the series.
+	 *
+	 * @param entry	a {@link RunLogEntry} instance representing the entry to append. It
+	 * 				cannot be {@literal null}.
+	 *
+	 * @throws IllegalArgumentException	if <i>entry</i> is {@literal null}.
+	 */
+	public void add(RunLogEntry entry) {
+
+		if (entry == null) {
+
+			throw new IllegalArgumentException("Parameter 'entry' cannot be null.");
+		}
+
+		if (this.size == this.time.length) {
+
+			this.grow(Math.max(DEFAULT_CAPACITY, this.size * 2));
+		}
+
+		int i = this.size++;
+
+		this.time[i] = entry.getTime();
+		this.node[i] = RunLogSeries.toLong(entry.getNode());
+		this.nodesLeft[i] = RunLogSeries.toLong(entry.getNodesLeft());
+		this.iinf[i] = RunLogSeries.toLong(entry.getIinf());
+		this.totalIterations[i] = RunLogSeries.toLong(entry.getTotalIterations());
+		this.objective[i] = RunLogSeries.toDouble(entry.getObjective());
+		this.bestInteger[i] = RunLogSeries.toDouble(entry.getBestInteger());
+		this.bestBound[i] = RunLogSeries.toDouble(entry.getBestBound());
+		this.gap[i] = RunLogSeries.toDouble(entry.getGap());
+		this.solution[i] = entry.isSolution();
+		this.otherCheck[i] = entry.getOtherCheck();
+	}
+
+	/**
+	 * Gets the time of an entry.
+	 *
+	 * @param index	a {@literal int} value representing the index of the entry.
+	 *
+	 * @return	a {@literal long} value representing the time of the entry.
+	 *
+	 * @throws IndexOutOfBoundsException	if <i>index</i> is out of range.
+	 */
+	public long getTime(int index) {
+
+		this.check(index);
+		return this.time[index];
+	}
+
+	/**
+	 * Gets the gap of an entry.
+	 *
+	 * @param index	a {@literal int} value representing the index of the entry.
+	 *
+	 * @return	a {@literal double} value representing the gap of the entry, or {@link Double#NaN}
+	 * 			if the entry has no gap.
+	 *
+	 * @throws IndexOutOfBoundsException	if <i>index</i> is out of range.
+	 */
+	public double getGap(int index) {
+
+		this.check(index);
+		return this.gap[index];
+	}
+
+	/**
+	 * Gets an entry of the series. The entry is created from the values of the columns, and has
+	 * no raw log line.
+	 *
+	 * @param index	a {@literal int} value representing the index of the entry.
+	 *
+	 * @return	a {@link RunLogEntry} instance.
+	 *
+	 * @throws IndexOutOfBoundsException	if <i>index</i> is out of range.
+	 */
+	public RunLogEntry getEntry(int index) {
+
+		this.check(index);
+
+		RunLogEntry entry = new RunLogEntry();
+		entry.setTime(this.time[index]);
+		entry.setNode(RunLogSeries.toLong(this.node[index]));
+		entry.setNodesLeft(RunLogSeries.toLong(this.nodesLeft[index]));
+		entry.setIinf(RunLogSeries.toLong(this.iinf[index]));
+		entry.setTotalIterations(RunLogSeries.toLong(this.totalIterations[index]));
+		entry.setObjective(RunLogSeries.toDouble(this.objective[index]));
+		entry.setBestInteger(RunLogSeries.toDouble(this.bestInteger[index]));
+		entry.setBestBound(RunLogSeries.toDouble(this.bestBound[index]));
+		entry.setGap(RunLogSeries.toDouble(this.gap[index]));
+		entry.setSolution(this.solution[index]);
+		entry.setOtherCheck(this.otherCheck[index]);
+
+		return entry;
+	}
+
+	/**
+	 * Gets all the entries of the series. See {@link #getEntry(int)}.
+	 *
+	 * @return	a {@link List} of {@link RunLogEntry} instances.
+	 */
+	public List<RunLogEntry> toEntries() {
+
+		List<RunLogEntry> entries = new ArrayList<RunLogEntry>(this.size);
+		for (int i = 0; i < this.size; i++) {
+			entries.add(this.getEntry(i));
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Gets the last entries of the series.
+	 *
+	 * @param count	a {@literal int} value representing the maximum number of entries.
+	 *
+	 * @return	a {@link RunLogSeries} instance holding the last <i>count</i> entries, or all
+	 * 			the entries if there are less.
+	 *
+	 * @throws IllegalArgumentException	if <i>count</i> is negative.
+	 */
+	public RunLogSeries last(int count) {
+
+		if (count < 0) {
+
+			throw new IllegalArgumentException("Parameter 'count' cannot be negative.");
+		}
+
+		int from = Math.max(0, this.size - count);
+		RunLogSeries result = new RunLogSeries(this.size - from);
+		for (int i = from; i < this.size; i++) {
+			result.copy(this, i);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Reduces the series to at most one entry per time interval: the entries are grouped by
+	 * consecutive intervals of the given length, starting from the time of the first entry,
+	 * and only the last entry of each interval is kept. As the best integer, best bound and
+	 * gap of an entry are the latest known to the solver, the last entry of an interval is
+	 * the one that represents it. The last entry of the series is always kept.
+	 *
+	 * @param interval	a {@literal long} value representing the length of the intervals, in
+	 * 					the unit of the times (milliseconds). It must be positive.
+	 *
+	 * @return	a {@link RunLogSeries} instance holding the selected entries.
+	 *
+	 * @throws IllegalArgumentException	if <i>interval</i> is not positive.
+	 */
+	public RunLogSeries downsample(long interval) {
+
+		if (interval <= 0) {
+
+			throw new IllegalArgumentException("Parameter 'interval' must be positive.");
+		}
+
+		RunLogSeries result = new RunLogSeries();
+		if (this.size == 0) {
+
+			return result;
+		}
+
+		long start = this.time[0];
+		for (int i = 0; i < this.size; i++) {
+
+			boolean lastOfBucket = (i == this.size - 1) ||
+								   ((this.time[i + 1] - start) / interval != (this.time[i] - start) / interval);
+			if (lastOfBucket) {
+
+				result.copy(this, i);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the delta-encoded times of the entries, for the JSON representation.
+	 *
+	 * @return	a {@literal long} array containing the first time and the differences
+	 * 			between each time and the previous one.
+	 */
+	@JsonProperty("time")
+	public long[] getTimeDeltas() {
+
+		long[] deltas = new long[this.size];
+		long previous = 0;
+		for (int i = 0; i < this.size; i++) {
+			deltas[i] = this.time[i] - previous;
+			previous = this.time[i];
+		}
+
+		return deltas;
+	}
+
+	/**
+	 * Gets the delta-encoded node numbers of the entries, for the JSON representation.
+	 *
+	 * @return	a {@link List} of delta-encoded values, with {@literal null} for missing values.
+	 */
+	@JsonProperty("node")
+	public List<Long> getNodeDeltas() {
+
+		return RunLogSeries.encode(this.node, this.size);
+	}
+
+	/**
+	 * Gets the delta-encoded number of nodes left of the entries, for the JSON representation.
+	 *
+	 * @return	a {@link List} of delta-encoded values, with {@literal null} for missing values.
+	 */
+	@JsonProperty("nodesLeft")
+	public List<Long> getNodesLeftDeltas() {
+
+		return RunLogSeries.encode(this.nodesLeft, this.size);
+	}
+
+	/**
+	 * Gets the delta-encoded integer infeasibilities of the entries, for the JSON representation.
+	 *
+	 * @return	a {@link List} of delta-encoded values, with {@literal null} for missing values.
+	 */
+	@JsonProperty("iinf")
+	public List<Long> getIinfDeltas() {
+
+		return RunLogSeries.encode(this.iinf, this.size);
+	}
+
+	/**
+	 * Gets the delta-encoded total iterations of the entries, for the JSON representation.
+	 *
+	 * @return	a {@link List} of delta-encoded values, with {@literal null} for missing values.
+	 */
+	@JsonProperty("totalIterations")
+	public List<Long> getTotalIterationsDeltas() {
+
+		return RunLogSeries.encode(this.totalIterations, this.size);
+	}
+
+	/**
+	 * Gets the objectives of the entries, for the JSON representation.
+	 *
+	 * @return	a {@link List} of values, with {@literal null} for missing values.
+	 */
+	@JsonProperty("objective")
+	public List<Double> getObjectives() {
+
+		return RunLogSeries.encode(this.objective, this.size);
+	}
+
+	/**
+	 * Gets the best integers of the entries, for the JSON representation.
+	 *
+	 * @return	a {@link List} of values, with {@literal null} for missing values.
+	 */
+	@JsonProperty("bestInteger")
+	public List<Double> getBestIntegers() {
+
+		return RunLogSeries.encode(this.bestInteger, this.size);
+	}
+
+	/**
+	 * Gets the best bounds of the entries, for the JSON representation.
+	 *
+	 * @return	a {@link List} of values, with {@literal null} for missing values.
+	 */
+	@JsonProperty("bestBound")
+	public List<Double> getBestBounds() {
+
+		return RunLogSeries.encode(this.bestBound, this.size);
+	}
+
+	/**
+	 * Gets the gaps of the entries, for the JSON representation.
+	 *
+	 * @return	a {@link List} of values, with {@literal null} for missing values.
+	 */
+	@JsonProperty("gap")
+	public List<Double> getGaps() {
+
+		return RunLogSeries.encode(this.gap, this.size);
+	}
+
+	/**
+	 * Gets the indexes of the entries that represent a solution, for the JSON representation.
+	 *
+	 * @return	a {@literal int} array containing the indexes, in ascending order.
+	 */
+	@JsonProperty("solutions")
+	public int[] getSolutions() {
+
+		return RunLogSeries.encode(this.solution, this.size);
+	}
+
+	/**
+	 * Gets the indexes of the entries that have the other-check flag set, for the JSON
+	 * representation.
+	 *
+	 * @return	a {@literal int} array containing the indexes, in ascending order.
+	 */
+	@JsonProperty("otherChecks")
+	public int[] getOtherChecks() {
+
+		return RunLogSeries.encode(this.otherCheck, this.size);
+	}
+
+	/**
+	 * Appends an entry of another series to this series.
+	 *
+	 * @param source	a {@link RunLogSeries} instance containing the entry.
+	 * @param i			a {@literal int} value representing the index of the entry in <i>source</i>.
+	 */
+	private void copy(RunLogSeries source, int i) {
+
+		if (this.size == this.time.length) {
+
+			this.grow(Math.max(DEFAULT_CAPACITY, this.size * 2));
+		}
+
+		int j = this.size++;
+
+		this.time[j] = source.time[i];
+		this.node[j] = source.node[i];
+		this.nodesLeft[j] = source.nodesLeft[i];
+		this.iinf[j] = source.iinf[i];
+		this.totalIterations[j] = source.totalIterations[i];
+		this.objective[j] = source.objective[i];
+		this.bestInteger[j] = source.bestInteger[i];
+		this.bestBound[j] = source.bestBound[i];
+		this.gap[j] = source.gap[i];
+		this.solution[j] = source.solution[i];
+		this.otherCheck[j] = source.otherCheck[i];
+	}
+
+	/**
+	 * Allocates the columns with the given capacity.
+	 *
+	 * @param capacity	a {@literal int} value representing the capacity of the columns.
+	 */
+	private void allocate(int capacity) {
+
+		this.time = new long[capacity];
+		this.node = new long[capacity];
+		this.nodesLeft = new long[capacity];
+		this.iinf = new long[capacity];
+		this.totalIterations = new long[capacity];
+		this.objective = new double[capacity];
+		this.bestInteger = new double[capacity];
+		this.bestBound = new double[capacity];
+		this.gap = new double[capacity];
+		this.solution = new boolean[capacity];
+		this.otherCheck = new boolean[capacity];
+	}
+
+	/**
+	 * Grows the columns to the given capacity.
+	 *
+	 * @param capacity	a {@literal int} value representing the new capacity of the columns.
+	 */
+	private void grow(int capacity) {
+
+		this.time = Arrays.copyOf(this.time, capacity);
+		this.node = Arrays.copyOf(this.node, capacity);
+		this.nodesLeft = Arrays.copyOf(this.nodesLeft, capacity);
+		this.iinf = Arrays.copyOf(this.iinf, capacity);
+		this.totalIterations = Arrays.copyOf(this.totalIterations, capacity);
+		this.objective = Arrays.copyOf(this.objective, capacity);
+		this.bestInteger = Arrays.copyOf(this.bestInteger, capacity);
+		this.bestBound = Arrays.copyOf(this.bestBound, capacity);
+		this.gap = Arrays.copyOf(this.gap, capacity);
+		this.solution = Arrays.copyOf(this.solution, capacity);
+		this.otherCheck = Arrays.copyOf(this.otherCheck, capacity);
+	}
+
+	/**
+	 * Checks that an index refers to an entry of the series.
+	 *
+	 * @param index	a {@literal int} value representing the index.
+	 *
+	 * @throws IndexOutOfBoundsException	if <i>index</i> is out of range.
+	 */
+	private void check(int index) {
+
+		if ((index < 0) || (index >= this.size)) {
+
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + this.size);
+		}
+	}
+
+	/**
+	 * Delta-encodes a {@literal long} column. Missing values are skipped: the value following
+	 * a missing value is encoded as the difference with the last value present.
+	 */
+	private static List<Long> encode(long[] column, int size) {
+
+		List<Long> values = new ArrayList<Long>(size);
+		long previous = 0;
+		for (int i = 0; i < size; i++) {
+
+			if (column[i] == MISSING) {
+
+				values.add(null);
+
+			} else {
+
+				values.add(column[i] - previous);
+				previous = column[i];
+			}
+		}
+
+		return values;
+	}
+
+	/**
+	 * Encodes a {@literal double} column, replacing missing values with {@literal null}.
+	 */
+	private static List<Double> encode(double[] column, int size) {
+
+		List<Double> values = new ArrayList<Double>(size);
+		for (int i = 0; i < size; i++) {
+			values.add(RunLogSeries.toDouble(column[i]));
+		}
+
+		return values;
+	}
+
+	/**
+	 * Encodes a flag column as the indexes of the entries that have the flag set.
+	 */
+	private static int[] encode(boolean[] column, int size) {
+
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (column[i]) {
+				count++;
+			}
+		}
+
+		int[] indexes = new int[count];
+		count = 0;
+		for (int i = 0; i < size; i++) {
+			if (column[i]) {
+				indexes[count++] = i;
+			}
+		}
+
+		return indexes;
+	}
+
+	/**
+	 * Decodes a delta-encoded {@literal long} column. See {@link #encode(long[], int)}.
+	 */
+	private static void decode(List<Long> values, long[] column, int size) {
+
+		if (values == null) {
+
+			Arrays.fill(column, MISSING);
+			return;
+		}
+
+		RunLogSeries.checkSize(values.size(), size);
+
+		long previous = 0;
+		for (int i = 0; i < size; i++) {
+
+			Long value = values.get(i);
+			if (value == null) {
+
+				column[i] = MISSING;
+
+			} else {
+
+				previous += value;
+				column[i] = previous;
+			}
+		}
+	}
+
+	/**
+	 * Decodes a {@literal double} column. See {@link #encode(double[], int)}.
+	 */
+	private static void decode(List<Double> values, double[] column, int size) {
+
+		if (values == null) {
+
+			Arrays.fill(column, Double.NaN);
+			return;
+		}
+
+		RunLogSeries.checkSize(values.size(), size);
+
+		for (int i = 0; i < size; i++) {
+			column[i] = RunLogSeries.toDouble(values.get(i));
+		}
+	}
+
+	/**
+	 * Decodes a flag column. See {@link #encode(boolean[], int)}.
+	 */
+	private static void decode(int[] indexes, boolean[] column, int size) {
+
+		if (indexes != null) {
+
+			for (int index : indexes) {
+
+				if ((index < 0) || (index >= size)) {
+
+					throw new IllegalArgumentException("Flag index " + index + " is out of range [0, " + size + ").");
+				}
+
+				column[index] = true;
+			}
+		}
+	}
+
+	/**
+	 * Checks that a column has the same size as the series.
+	 */
+	private static void checkSize(int actual, int expected) {
+
+		if (actual != expected) {
+
+			throw new IllegalArgumentException("Column size " + actual + " does not match the number of entries " + expected + ".");
+		}
+	}
+
+	/**
+	 * Unboxes a {@literal long} value, mapping {@literal null} to {@link #MISSING}.
+	 */
+	private static long toLong(Long value) {
+
+		return value == null ? MISSING : value.longValue();
+	}
+
+	/**
+	 * Boxes a {@literal long} value, mapping {@link #MISSING} to {@literal null}.
+	 */
+	private static Long toLong(long value) {
+
+		return value == MISSING ? null : Long.valueOf(value);
+	}
+
+	/**
+	 * Unboxes a {@literal double} value, mapping {@literal null} to {@link Double#NaN}.
+	 */
+	private static double toDouble(Double value) {
+
+		return value == null ? Double.NaN : value.doubleValue();
+	}
+
+	/**
+	 * Boxes a {@literal double} value, mapping {@link Double#NaN} to {@literal null}.
+	 */
+	private static Double toDouble(double value) {
+
+		return Double.isNaN(value) ? null : Double.valueOf(value);
+	}
+}
@@ -0,0 +1,99 @@
+package com.ibm.au.optim.suro.model.entities.domain.ingestion;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * The changes to apply to the current data of a time-based ingestion feed (e.g. the waiting list). Records are
+ * identified by their key (e.g. the patient ID for {@link WaitingPatient}), added and updated records replace any
+ * record with the same key, removed records are referenced by their key only.
+ *
+ * @param <T> - the type of the records of the feed
+ */
+public class TemporalDelta<T> {
+
+	@JsonProperty("added")
+	private List<T> added;
+
+	@JsonProperty("updated")
+	private List<T> updated;
+
+	@JsonProperty("removed")
+	private List<String> removed;
+
+	/**
+	 * The default constructor
+	 */
+	public TemporalDelta() { }
+
+	/**
+	 * Creates a new delta with the provided changes.
+	 * @param added - the records that have been added
+	 * @param updated - the records that have been updated
+	 * @param removed - the keys of the records that have been removed
+	 */
+	public TemporalDelta(List<T> added, List<T> updated, List<String> removed) {
+		this.added = added;
+		this.updated = updated;
+		this.removed = removed;
+	}
+
+	/**
+	 * Retrieves the records that have been added.
+	 * @return - the added records (can be null)
+	 */
+	public List<T> getAdded() {
+		return added;
+	}
+
+	/**
+	 * Sets the records that have been added.
+	 * @param added - the added records
+	 */
+	public void setAdded(List<T> added) {
+		this.added = added;
+	}
+
+	/**
+	 * Retrieves the records that have been updated.
+	 * @return - the updated records (can be null)
+	 */
+	public List<T> getUpdated() {
+		return updated;
+	}
+
+	/**
+	 * Sets the records that have been updated.
+	 * @param updated - the updated records
+	 */
+	public void setUpdated(List<T> updated) {
+		this.updated = updated;
+	}
+
+	/**
+	 * Retrieves the keys of the records that have been removed.
+	 * @return - the removed keys (can be null)
+	 */
+	public List<String> getRemoved() {
+		return removed;
+	}
+
+	/**
+	 * Sets the keys of the records that have been removed.
+	 * @param removed - the removed keys
+	 */
+	public void setRemoved(List<String> removed) {
+		this.removed = removed;
+	}
+
+	/**
+	 * Checks whether the delta contains any change.
+	 * @return - true if there are no added, updated or removed records
+	 */
+	@JsonIgnore
+	public boolean isEmpty() {
+		return (added == null || added.isEmpty()) && (updated == null || updated.isEmpty()) && (removed == null || removed.isEmpty());
+	}
+}
@@ -1,5 +1,6 @@
 package com.ibm.au.optim.suro.model.entities.domain.ingestion;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.ibm.au.optim.suro.model.entities.Entity;
 
@@ -11,6 +12,11 @@ import java.util.List;
  * there is a main timestamp for the entire collection and a list of single records providing detailed information for
  * specific time intervals.
  *
+ * A list can either be a full snapshot of the data, or a delta that applies to a previous list (its base). In the
+ * latter case the records are the ones added or updated since the base list, and the removed keys identify the records
+ * of the base list that are no longer part of the data. Large lists are stored in parts: every part but the first one
+ * is appended to its base, and only the last part carries the timestamp of the list.
+ *
  * @author brendanhaesler
  */
 public abstract class TemporalList<T> extends Entity {
@@ -21,6 +27,15 @@ public abstract class TemporalList<T> extends Entity {
 	@JsonProperty("records")
 	private List<T> records;
 
+	@JsonProperty("base")
+	private String base;
+
+	@JsonProperty("removed")
+	private List<String> removed;
+
+	@JsonProperty("append")
+	private boolean append;
+
 	/**
 	 * The default constructor. This will set the timestamp to the current date.
 	 */
@@ -67,4 +82,62 @@ public abstract class TemporalList<T> extends Entity {
 	public void setRecords(List<T> records) {
 		this.records = records;
 	}
+
+	/**
+	 * Retrieves the ID of the list this list is a delta of.
+	 * @return - the ID of the base list, or null if this list is a full snapshot
+	 */
+	public String getBase() {
+		return base;
+	}
+
+	/**
+	 * Sets the ID of the list this list is a delta of.
+	 * @param base - the ID of the base list, or null for a full snapshot
+	 */
+	public void setBase(String base) {
+		this.base = base;
+	}
+
+	/**
+	 * Retrieves the keys of the records removed since the base list. Only used by deltas.
+	 * @return - the list of removed keys (can be null)
+	 */
+	public List<String> getRemoved() {
+		return removed;
+	}
+
+	/**
+	 * Sets the keys of the records removed since the base list.
+	 * @param removed - the list of removed keys
+	 */
+	public void setRemoved(List<String> removed) {
+		this.removed = removed;
+	}
+
+	/**
+	 * Checks whether this list is a part of a larger list, whose records are appended to the records of its base
+	 * rather than replacing the ones with the same key.
+	 * @return - true if this list is the continuation of its base list
+	 */
+	public boolean isAppend() {
+		return append;
+	}
+
+	/**
+	 * Sets whether this list is the continuation of its base list.
+	 * @param append - true if the records are appended to the records of the base list
+	 */
+	public void setAppend(boolean append) {
+		this.append = append;
+	}
+
+	/**
+	 * Checks whether this list is a delta or a full snapshot.
+	 * @return - true if this list only contains the changes since its base list
+	 */
+	@JsonIgnore
+	public boolean isDelta() {
+		return base != null;
+	}
 }
@@ -4,8 +4,18 @@
  */
 package com.ibm.au.optim.suro.model.notify;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +30,24 @@ import org.slf4j.LoggerFactory;
  * {@link NotificationBus#broadcast(String, Object)}. 
  * </p>
  * <p>
+ * Messages are delivered asynchronously: each subscriber has a bounded queue of the
+ * messages waiting to be delivered, which is drained by a pooled thread, so that the
+ * component broadcasting the event is never blocked by a slow subscriber. When the
+ * queue of a subscriber is full the {@link OverflowPolicy} of the bus is applied.
+ * The depth of the queues and the number of messages dropped for each subscriber are
+ * available via {@link NotificationBus#getMetrics()}.
+ * </p>
+ * <p>
+ * Events can be tagged with one or more topics (e.g. the run they refer to, see 
+ * {@link NotificationBus#getRunTopics(String, String)}). A {@link Notifier} subscribed
+ * via {@link NotificationBus#subscribe(Notifier)} receives all the events, while a 
+ * {@link Notifier} subscribed to specific topics via {@link NotificationBus#subscribe(Notifier, String)}
+ * only receives the events tagged with one of its topics, and the events that are not 
+ * tagged with any topic. The subscribers of a topic are looked up in an index, hence
+ * the cost of a broadcast does not depend on the number of subscribers that are not
+ * interested in the event.
+ * </p>
+ * <p>
  * The class implements the <i>singleton</i> pattern and there is only one shared
  * static instance, which is obtained via the static method {@link NotificationBus#getInstance()}.
  * </p>
@@ -36,11 +64,64 @@ public class NotificationBus {
 	private static final Logger LOGGER = LoggerFactory
 			.getLogger(NotificationBus.class);
 
+	/**
+	 * The default maximum number of messages waiting to be delivered to each
+	 * subscriber.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+	/**
+	 * The default strategy applied when the queue of a subscriber is full.
+	 */
+	public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.COALESCE;
+
+	/**
+	 * A {@link String} constant containing the prefix of the topics identifying
+	 * the events of a run, followed by the unique identifier of the run.
+	 */
+	public static final String RUN_TOPIC_PREFIX = "run:";
+
+	/**
+	 * A {@link String} constant containing the prefix of the topics identifying
+	 * the events of the runs of a template, followed by the unique identifier of
+	 * the template.
+	 */
+	public static final String TEMPLATE_TOPIC_PREFIX = "template:";
+
 	/**
 	 * A {@link List} implementation that provides access to and manages the
-	 * list of {@link Notifier} instances currently subscribed to the bus.
+	 * list of {@link Subscription} instances tying the {@link Notifier} instances 
+	 * currently subscribed to the bus.
 	 */
-	private List<Notifier> listeners = new CopyOnWriteArrayList<Notifier>();
+	private List<Subscription> listeners = new CopyOnWriteArrayList<Subscription>();
+
+	/**
+	 * A {@link List} implementation containing the {@link Subscription} instances
+	 * of the {@link Notifier} instances that receive all the events.
+	 */
+	private List<Subscription> wildcards = new CopyOnWriteArrayList<Subscription>();
+
+	/**
+	 * A {@link ConcurrentMap} implementation that maps each topic to the {@link 
+	 * Subscription} instances of the {@link Notifier} instances subscribed to it.
+	 * Changes to the subscriptions are synchronized on this instance.
+	 */
+	private ConcurrentMap<String, Set<Subscription>> index = new ConcurrentHashMap<String, Set<Subscription>>();
+
+	/**
+	 * The maximum number of messages waiting to be delivered to each subscriber.
+	 */
+	private final int capacity;
+
+	/**
+	 * The strategy applied when the queue of a subscriber is full.
+	 */
+	private final OverflowPolicy policy;
+
+	/**
+	 * The {@link ExecutorService} delivering the messages to the subscribers.
+	 */
+	private final ExecutorService executor;
 
 	/**
 	 * A {@link NotificationBus} instance representing the singleton that
@@ -48,6 +129,46 @@ public class NotificationBus {
 	 */
 	private static final NotificationBus INSTANCE = new NotificationBus();
 
+	/**
+	 * Initialises an instance of {@link NotificationBus} with the default capacity
+	 * of the queues and overflow policy.
+	 */
+	public NotificationBus() {
+		this(DEFAULT_QUEUE_CAPACITY, DEFAULT_OVERFLOW_POLICY);
+	}
+
+	/**
+	 * Initialises an instance of {@link NotificationBus}.
+	 * 
+	 * @param capacity	the maximum number of messages waiting to be delivered to each
+	 * 					subscriber. It must be positive.
+	 * @param policy	the {@link OverflowPolicy} applied when the queue of a subscriber
+	 * 					is full. It cannot be {@literal null}.
+	 * 
+	 * @throws IllegalArgumentException	if <i>capacity</i> is not positive or <i>policy</i>
+	 * 									is {@literal null}.
+	 */
+	public NotificationBus(int capacity, OverflowPolicy policy) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Parameter 'capacity' must be positive.");
+		}
+		if (policy == null) {
+			throw new IllegalArgumentException("Parameter 'policy' cannot be null.");
+		}
+		
+		this.capacity = capacity;
+		this.policy = policy;
+		this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+			
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "notification-bus");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
 	/**
 	 * Gets the shared instance of the {@link NotificationBus}.
 	 * 
@@ -58,39 +179,168 @@ public class NotificationBus {
 	}
 
 	/**
-	 * Broadcast the given event to all the listeners subscribed to the bus.
-	 * This method iterates over the list of {@link Notifier} implementations
-	 * that are currently subscribed to the bus and invokes {@link Notifier#notify(String, Object)}
-	 * if that execution generates a {@link NotifierException} it then removes
-	 * the specific instance that generated the exception from the list of the
-	 * subscribed notifiers.
+	 * Gets the topics of the events of a run.
+	 * 
+	 * @param runId			a {@link String} representing the unique identifier of 
+	 * 						the run.
+	 * @param templateId	a {@link String} representing the unique identifier of
+	 * 						the template of the run, it can be {@literal null}.
+	 * 
+	 * @return	an array containing the topic of the run, followed by the topic of
+	 * 			its template if <i>templateId</i> is not {@literal null}.
+	 */
+	public static String[] getRunTopics(String runId, String templateId) {
+		if (templateId == null) {
+			return new String[] { RUN_TOPIC_PREFIX + runId };
+		}
+		return new String[] { RUN_TOPIC_PREFIX + runId, TEMPLATE_TOPIC_PREFIX + templateId };
+	}
+
+	/**
+	 * Broadcast the given event to the listeners subscribed to the bus. This 
+	 * method adds the event to the queue of each of the {@link Notifier} 
+	 * implementations that are currently subscribed to all the events or to 
+	 * one of the given <i>topics</i>, and returns without waiting for {@link 
+	 * Notifier#notify(String, Object)} to be invoked. If that execution generates 
+	 * a {@link NotifierException} the specific instance that generated the exception
+	 * is removed from the list of the subscribed notifiers.
 	 * 
-	 * @param event	a {@link String} representing the name of the event.
-	 * @param data	a {@link Object} instance that represents the payload
-	 * 				associated to the event.
+	 * @param event		a {@link String} representing the name of the event.
+	 * @param data		a {@link Object} instance that represents the payload
+	 * 					associated to the event.
+	 * @param topics	the topics the event is tagged with. If none is given, 
+	 * 					the event is delivered to all the listeners.
 	 */
-	public void broadcast(String event, Object data) {
+	public void broadcast(String event, Object data, String... topics) {
 		
-		for (Notifier notifier : this.listeners) {
-			try {
-				notifier.notify(event, data);
+		if (topics == null || topics.length == 0) {
 			
-			} catch (NotifierException ne) {
+			for (Subscription subscription : this.listeners) {
+				this.offer(subscription, event, data);
+			}
+			return;
+		}
+		
+		for (Subscription subscription : this.wildcards) {
+			this.offer(subscription, event, data);
+		}
+		
+		// a notifier subscribed to more than one of the topics 
+		// receives the event once.
+		//
+		Set<Subscription> notified = topics.length > 1 ? Collections.newSetFromMap(new IdentityHashMap<Subscription, Boolean>()) : null;
+		
+		for (String topic : topics) {
+			
+			Set<Subscription> subscriptions = this.index.get(topic);
+			if (subscriptions != null) {
 				
-				LOGGER.error("Error sending notification - Removed notifier " + (notifier != null ? notifier.toString() : "null") + ").", ne);
-				this.listeners.remove(notifier);
+				for (Subscription subscription : subscriptions) {
+					if (notified == null || notified.add(subscription)) {
+						this.offer(subscription, event, data);
+					}
+				}
 			}
 		}
 	}
 	
 	/**
 	 * Adds the given {@link Notifier} to the list of component that are
-	 * listening for events on the bus.
+	 * listening for all the events on the bus. If the notifier is already
+	 * subscribed to specific topics, it receives all the events from now
+	 * on.
 	 * 
 	 * @param notifier	a {@link Notifier} implementation.
 	 */
 	public void subscribe(Notifier notifier) {
-		this.listeners.add(notifier);
+		synchronized (this.index) {
+			Subscription subscription = this.find(notifier);
+			
+			if (subscription == null) {
+				subscription = new Subscription(this, notifier, this.capacity, this.policy);
+				this.listeners.add(subscription);
+			
+			} else if (subscription.getTopics() != null) {
+				this.unindex(subscription);
+			
+			} else {
+				return;
+			}
+			
+			subscription.setTopics(null);
+			this.wildcards.add(subscription);
+		}
+	}
+
+	/**
+	 * Subscribes the given {@link Notifier} to the events tagged with the
+	 * given topic. If the notifier is subscribed to all the events, it only
+	 * receives the events of the topic from now on.
+	 * 
+	 * @param notifier	a {@link Notifier} implementation.
+	 * @param topic		a {@link String} representing the topic.
+	 */
+	public void subscribe(Notifier notifier, String topic) {
+		synchronized (this.index) {
+			Subscription subscription = this.find(notifier);
+			
+			if (subscription == null) {
+				subscription = new Subscription(this, notifier, this.capacity, this.policy);
+				subscription.setTopics(new HashSet<String>());
+				this.listeners.add(subscription);
+			
+			} else if (subscription.getTopics() == null) {
+				this.wildcards.remove(subscription);
+				subscription.setTopics(new HashSet<String>());
+			}
+			
+			if (subscription.getTopics().add(topic)) {
+				Set<Subscription> subscriptions = this.index.get(topic);
+				if (subscriptions == null) {
+					subscriptions = Collections.newSetFromMap(new ConcurrentHashMap<Subscription, Boolean>());
+					this.index.put(topic, subscriptions);
+				}
+				subscriptions.add(subscription);
+			}
+		}
+	}
+
+	/**
+	 * Unsubscribes the given {@link Notifier} from the events tagged with the
+	 * given topic. The notifier is still subscribed to the bus and receives the
+	 * events of its other topics, if any, and the events that are not tagged.
+	 * 
+	 * @param notifier	a {@link Notifier} implementation.
+	 * @param topic		a {@link String} representing the topic.
+	 */
+	public void unsubscribe(Notifier notifier, String topic) {
+		synchronized (this.index) {
+			Subscription subscription = this.find(notifier);
+			
+			if (subscription != null && subscription.getTopics() != null && subscription.getTopics().remove(topic)) {
+				this.unindex(subscription, topic);
+			}
+		}
+	}
+
+	/**
+	 * Gets the topics the given {@link Notifier} is subscribed to.
+	 * 
+	 * @param notifier	a {@link Notifier} implementation.
+	 * 
+	 * @return	a {@link Set} containing the topics of <i>notifier</i>, or {@literal
+	 * 			null} if the notifier is not subscribed or it is subscribed to all 
+	 * 			the events.
+	 */
+	public Set<String> getTopics(Notifier notifier) {
+		synchronized (this.index) {
+			Subscription subscription = this.find(notifier);
+			
+			if (subscription == null || subscription.getTopics() == null) {
+				return null;
+			}
+			return new HashSet<String>(subscription.getTopics());
+		}
 	}
 
 	/**
@@ -100,7 +350,10 @@ public class NotificationBus {
 	 * @param notifier	a {@link Notifier} implementation.
 	 */
 	public void unsubscribe(Notifier notifier) {
-		this.listeners.remove(notifier);
+		Subscription subscription = this.find(notifier);
+		if (subscription != null) {
+			this.remove(subscription);
+		}
 	}
 
 	/**
@@ -120,7 +373,102 @@ public class NotificationBus {
 	 * 			the bus after subscribing, or simply unsubscribed itself.
 	 */
 	public boolean subscribed(Notifier notifier) {
-		return listeners.contains(notifier);
+		return this.find(notifier) != null;
+	}
+
+	/**
+	 * Gets the delivery statistics of the {@link Notifier} implementations
+	 * currently subscribed to the bus.
+	 * 
+	 * @return	a {@link List} of {@link SubscriberMetrics} instances, one for
+	 * 			each subscriber.
+	 */
+	public List<SubscriberMetrics> getMetrics() {
+		List<SubscriberMetrics> metrics = new ArrayList<SubscriberMetrics>();
+		for (Subscription subscription : this.listeners) {
+			metrics.add(subscription.getMetrics());
+		}
+		return metrics;
+	}
+
+	/**
+	 * Removes the given {@link Subscription} from the bus and discards the
+	 * messages that are waiting to be delivered to its notifier.
+	 * 
+	 * @param subscription	a {@link Subscription} instance.
+	 */
+	void remove(Subscription subscription) {
+		synchronized (this.index) {
+			this.listeners.remove(subscription);
+			this.wildcards.remove(subscription);
+			this.unindex(subscription);
+		}
+		subscription.close();
+	}
+
+	/**
+	 * Adds a message to the queue of the given {@link Subscription} and schedules
+	 * its delivery if needed.
+	 * 
+	 * @param subscription	a {@link Subscription} instance.
+	 * @param event			a {@link String} representing the name of the event.
+	 * @param data			a {@link Object} instance that represents the payload
+	 * 						associated to the event.
+	 */
+	private void offer(Subscription subscription, String event, Object data) {
+		if (subscription.offer(event, data)) {
+			this.executor.execute(subscription);
+		}
+	}
+
+	/**
+	 * Removes the given {@link Subscription} from the index of all its topics. This
+	 * method is invoked while holding the lock on the index.
+	 * 
+	 * @param subscription	a {@link Subscription} instance.
+	 */
+	private void unindex(Subscription subscription) {
+		Set<String> topics = subscription.getTopics();
+		if (topics != null) {
+			for (String topic : topics) {
+				this.unindex(subscription, topic);
+			}
+		}
+	}
+
+	/**
+	 * Removes the given {@link Subscription} from the index of a topic, and the topic
+	 * from the index if it has no more subscribers. This method is invoked while holding
+	 * the lock on the index.
+	 * 
+	 * @param subscription	a {@link Subscription} instance.
+	 * @param topic			a {@link String} representing the topic.
+	 */
+	private void unindex(Subscription subscription, String topic) {
+		Set<Subscription> subscriptions = this.index.get(topic);
+		if (subscriptions != null) {
+			subscriptions.remove(subscription);
+			if (subscriptions.isEmpty()) {
+				this.index.remove(topic);
+			}
+		}
+	}
+
+	/**
+	 * Finds the {@link Subscription} of the given {@link Notifier}.
+	 * 
+	 * @param notifier	a {@link Notifier} implementation.
+	 * 
+	 * @return	the {@link Subscription} of <i>notifier</i>, or {@literal null}
+	 * 			if it is not subscribed.
+	 */
+	private Subscription find(Notifier notifier) {
+		for (Subscription subscription : this.listeners) {
+			if (subscription.getNotifier() == notifier) {
+				return subscription;
+			}
+		}
+		return null;
 	}
 
 }
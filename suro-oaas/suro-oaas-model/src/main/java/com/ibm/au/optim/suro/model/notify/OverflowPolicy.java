@@ -0,0 +1,25 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.model.notify;
+
+/**
+ * Enum <b>OverflowPolicy</b>. Enumerates the strategies applied by the {@link NotificationBus}
+ * when the queue of messages waiting to be delivered to a subscriber is full. In both cases the
+ * bus never blocks the component broadcasting the event: a subscriber that does not keep up
+ * misses some of the messages instead.
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * The oldest message waiting in the queue is discarded to make room for the new one.
+	 */
+	DROP_OLDEST,
+	/**
+	 * If a message for the same event is waiting in the queue, its data is replaced with the
+	 * data of the new message, so that the subscriber receives the latest state only. If there
+	 * is no such message, the oldest message waiting in the queue is discarded.
+	 */
+	COALESCE
+}
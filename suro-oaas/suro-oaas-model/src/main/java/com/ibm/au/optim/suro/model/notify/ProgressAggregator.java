@@ -0,0 +1,375 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.model.notify;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibm.au.jaws.web.core.runtime.Environment;
+import com.ibm.au.optim.suro.model.entities.RunLogEntry;
+import com.ibm.au.optim.suro.model.entities.RunLogSeries;
+
+/**
+ * <p>
+ * Class <b>ProgressAggregator</b>. This class collects the {@link RunLogEntry} instances parsed
+ * from the log of the runs being executed and broadcasts them on the {@link NotificationBus} in
+ * frames, rather than one by one. For each run, the entries received within a time interval are
+ * sent together as a {@link RunLogSeries} with the event <i>optim:log:{runId}</i>, and at most one
+ * frame per interval is sent. This bounds the number of messages pushed to the clients regardless
+ * of how fast the solver explores the nodes. The frames have the same format of the series returned
+ * by the REST API for the progress charts: the values are sent by column and the raw log lines are
+ * not sent.
+ * </p>
+ * <p>
+ * A frame is sent at the latest one interval after the first entry it contains has been received,
+ * hence the latest values of the best bound, best integer and gap are always delivered. If more than
+ * the maximum number of entries of a frame are received within an interval the oldest ones are not
+ * sent: they are still stored with the details of the run.
+ * </p>
+ * <p>
+ * The rate and the size of the frames are read from the configuration parameters {@link #CFG_MAX_RATE}
+ * and {@link #CFG_MAX_FRAME_SIZE}. A single instance is shared through the environment, see {@link
+ * #getInstance(Environment)}.
+ * </p>
+ */
+public class ProgressAggregator {
+
+	/**
+	 * A {@link String} constant containing the name of the environment attribute holding the
+	 * shared instance.
+	 */
+	public static final String PROGRESS_AGGREGATOR_INSTANCE = "notify:progress:instance";
+
+	/**
+	 * A {@link String} constant containing the prefix of the events sent on the bus, followed
+	 * by the unique identifier of the run.
+	 */
+	public static final String EVENT_PREFIX = "optim:log:";
+
+	/**
+	 * The name of the configuration parameter defining the maximum number of frames sent per
+	 * second for each run.
+	 */
+	public static final String CFG_MAX_RATE = "suro.notify.progress.rate";
+
+	/**
+	 * The default maximum number of frames sent per second for each run.
+	 */
+	public static final int DEFAULT_MAX_RATE = 4;
+
+	/**
+	 * The name of the configuration parameter defining the maximum number of entries of a frame.
+	 */
+	public static final String CFG_MAX_FRAME_SIZE = "suro.notify.progress.frame.size";
+
+	/**
+	 * The default maximum number of entries of a frame.
+	 */
+	public static final int DEFAULT_MAX_FRAME_SIZE = 100;
+
+	/**
+	 * A {@link Logger} instance that collects all the messages that are produced by instances
+	 * of this class.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProgressAggregator.class);
+
+	/**
+	 * A {@link ObjectMapper} instance used to serialise the frames.
+	 */
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	/**
+	 * The bus the frames are sent on.
+	 */
+	private final NotificationBus bus;
+
+	/**
+	 * The minimum time between two frames of the same run, in milliseconds.
+	 */
+	private final long interval;
+
+	/**
+	 * The maximum number of entries of a frame.
+	 */
+	private final int maxFrameSize;
+
+	/**
+	 * The entries waiting to be sent, by run.
+	 */
+	private final ConcurrentMap<String, Frame> frames = new ConcurrentHashMap<>();
+
+	/**
+	 * The scheduler that sends the frames when their interval expires.
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * Gets the instance shared through the environment, creating it if needed with the rate and
+	 * frame size configured in the environment.
+	 *
+	 * @param environment	the {@link Environment} holding the instance.
+	 *
+	 * @return	the shared {@link ProgressAggregator}.
+	 */
+	public static ProgressAggregator getInstance(Environment environment) {
+		synchronized (environment) {
+			ProgressAggregator aggregator = (ProgressAggregator) environment.getAttribute(PROGRESS_AGGREGATOR_INSTANCE);
+
+			if (aggregator == null) {
+				int rate = ProgressAggregator.getParameter(environment, CFG_MAX_RATE, DEFAULT_MAX_RATE);
+				int size = ProgressAggregator.getParameter(environment, CFG_MAX_FRAME_SIZE, DEFAULT_MAX_FRAME_SIZE);
+
+				aggregator = new ProgressAggregator(NotificationBus.getInstance(), rate, size);
+				environment.setAttribute(PROGRESS_AGGREGATOR_INSTANCE, aggregator);
+			}
+
+			return aggregator;
+		}
+	}
+
+	/**
+	 * Initialises an instance of {@link ProgressAggregator}.
+	 *
+	 * @param bus			the {@link NotificationBus} the frames are sent on. It cannot be {@literal null}.
+	 * @param maxRate		the maximum number of frames sent per second for each run. It must be positive.
+	 * @param maxFrameSize	the maximum number of entries of a frame. It must be positive.
+	 *
+	 * @throws IllegalArgumentException	if <i>bus</i> is {@literal null}, or <i>maxRate</i> or <i>maxFrameSize</i>
+	 * 									are not positive.
+	 */
+	public ProgressAggregator(NotificationBus bus, int maxRate, int maxFrameSize) {
+		if (bus == null) {
+			throw new IllegalArgumentException("Parameter 'bus' cannot be null.");
+		}
+		if (maxRate <= 0 || maxFrameSize <= 0) {
+			throw new IllegalArgumentException("Parameters 'maxRate' and 'maxFrameSize' must be positive.");
+		}
+
+		this.bus = bus;
+		this.interval = Math.max(1, 1000 / maxRate);
+		this.maxFrameSize = maxFrameSize;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "progress-aggregator");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Adds an entry to the next frame of a run. The frame is sent when the interval since the
+	 * previous frame of the run expires.
+	 *
+	 * @param runId		the unique identifier of the run.
+	 * @param entry		the {@link RunLogEntry} to send.
+	 * @param topics	the topics the frames of the run are tagged with on the bus (see {@link
+	 * 					NotificationBus#getRunTopics(String, String)}). If none is given, the frames
+	 * 					are tagged with the topic of the run only.
+	 */
+	public void add(final String runId, RunLogEntry entry, String... topics) {
+		Frame frame = this.frames.get(runId);
+
+		if (frame == null) {
+			Frame created = new Frame();
+			frame = this.frames.putIfAbsent(runId, created);
+
+			if (frame == null) {
+				frame = created;
+			}
+		}
+
+		long delay = -1;
+
+		synchronized (frame) {
+			if (topics != null && topics.length > 0) {
+				frame.topics = topics;
+
+			} else if (frame.topics == null) {
+				frame.topics = NotificationBus.getRunTopics(runId, null);
+			}
+
+			frame.entries.addLast(entry);
+
+			if (frame.entries.size() > this.maxFrameSize) {
+				frame.entries.removeFirst();
+			}
+
+			if (!frame.scheduled) {
+				frame.scheduled = true;
+				delay = Math.max(0, frame.lastSent + this.interval - System.currentTimeMillis());
+			}
+		}
+
+		if (delay >= 0) {
+			final Frame scheduled = frame;
+
+			this.scheduler.schedule(new Runnable() {
+
+				@Override
+				public void run() {
+					ProgressAggregator.this.send(runId, scheduled);
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Sends the entries of a run that are waiting, without waiting for the interval to expire. This
+	 * is used before notifying changes of the status of the run, so that clients receive the progress
+	 * of the run before its new status.
+	 *
+	 * @param runId	the unique identifier of the run.
+	 */
+	public void flush(String runId) {
+		Frame frame = this.frames.get(runId);
+
+		if (frame != null) {
+			this.send(runId, frame);
+		}
+	}
+
+	/**
+	 * Sends the entries of a run that are waiting and discards the state kept for the run. This is used
+	 * when the run is finished.
+	 *
+	 * @param runId	the unique identifier of the run.
+	 */
+	public void release(String runId) {
+		Frame frame = this.frames.remove(runId);
+
+		if (frame != null) {
+			this.send(runId, frame);
+		}
+	}
+
+	/**
+	 * Sends the entries of all the runs that are waiting and stops the scheduler.
+	 */
+	public void shutdown() {
+		for (String runId : new ArrayList<>(this.frames.keySet())) {
+			this.release(runId);
+		}
+
+		this.scheduler.shutdown();
+	}
+
+	/**
+	 * Gets the minimum time between two frames of the same run.
+	 *
+	 * @return	the interval, in milliseconds.
+	 */
+	public long getInterval() {
+		return this.interval;
+	}
+
+	/**
+	 * Sends the entries of a frame, if any. Frames of the same run are sent one at a time, so that
+	 * they are received in order.
+	 *
+	 * @param runId	the unique identifier of the run.
+	 * @param frame	the {@link Frame} to send.
+	 */
+	private void send(String runId, Frame frame) {
+		synchronized (frame.sendLock) {
+			List<RunLogEntry> entries;
+			String[] topics;
+
+			synchronized (frame) {
+				frame.scheduled = false;
+
+				if (frame.entries.isEmpty()) {
+					return;
+				}
+
+				entries = new ArrayList<>(frame.entries);
+				topics = frame.topics;
+				frame.entries.clear();
+				frame.lastSent = System.currentTimeMillis();
+			}
+
+			try {
+				this.bus.broadcast(EVENT_PREFIX + runId, MAPPER.writeValueAsString(RunLogSeries.of(entries)), topics);
+
+			} catch (JsonProcessingException je) {
+				LOGGER.error("Error serializing optimization data for notification", je);
+			}
+		}
+	}
+
+	/**
+	 * Reads a positive integer configuration parameter.
+	 *
+	 * @param environment	the {@link Environment} holding the configuration.
+	 * @param name			the name of the parameter.
+	 * @param defaultValue	the value used if the parameter is not set or not valid.
+	 *
+	 * @return	the value of the parameter.
+	 */
+	private static int getParameter(Environment environment, String name, int defaultValue) {
+		String value = environment.getParameter(name);
+		int result = defaultValue;
+
+		if (value != null) {
+			try {
+				result = Integer.parseInt(value);
+			} catch (NumberFormatException nfe) {
+				LOGGER.warn("Configuration for " + name + " could not be read. Falling back to default value: " + defaultValue);
+			}
+			if (result < 1) {
+				LOGGER.warn("Configuration for " + name + " must be positive. Falling back to default value: " + defaultValue);
+				result = defaultValue;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * The entries of a run waiting to be sent.
+	 */
+	private static class Frame {
+
+		/**
+		 * The entries, in the order they have been received.
+		 */
+		private final Deque<RunLogEntry> entries = new ArrayDeque<>();
+
+		/**
+		 * The lock held while sending the entries.
+		 */
+		private final Object sendLock = new Object();
+
+		/**
+		 * The topics the entries are tagged with on the bus.
+		 */
+		private String[] topics;
+
+		/**
+		 * Whether sending the entries has been scheduled.
+		 */
+		private boolean scheduled;
+
+		/**
+		 * The time the previous entries have been sent.
+		 */
+		private long lastSent;
+	}
+}
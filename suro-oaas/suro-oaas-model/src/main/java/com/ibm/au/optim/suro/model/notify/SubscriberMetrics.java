@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.model.notify;
+
+/**
+ * Class <b>SubscriberMetrics</b>. This class holds a snapshot of the delivery statistics of a
+ * {@link Notifier} subscribed to the {@link NotificationBus}. It is obtained via {@link
+ * NotificationBus#getMetrics()}.
+ */
+public class SubscriberMetrics {
+
+	/**
+	 * The {@link Notifier} the statistics refer to.
+	 */
+	private final Notifier notifier;
+
+	/**
+	 * The number of messages waiting to be delivered.
+	 */
+	private final int queueDepth;
+
+	/**
+	 * The number of messages delivered.
+	 */
+	private final long delivered;
+
+	/**
+	 * The number of messages discarded because the queue was full.
+	 */
+	private final long dropped;
+
+	/**
+	 * The number of messages merged with a message for the same event already waiting.
+	 */
+	private final long coalesced;
+
+	/**
+	 * Initialises an instance of {@link SubscriberMetrics}.
+	 *
+	 * @param notifier		the {@link Notifier} the statistics refer to.
+	 * @param queueDepth	the number of messages waiting to be delivered.
+	 * @param delivered		the number of messages delivered.
+	 * @param dropped		the number of messages discarded because the queue was full.
+	 * @param coalesced		the number of messages merged with a waiting message for the same event.
+	 */
+	public SubscriberMetrics(Notifier notifier, int queueDepth, long delivered, long dropped, long coalesced) {
+		this.notifier = notifier;
+		this.queueDepth = queueDepth;
+		this.delivered = delivered;
+		this.dropped = dropped;
+		this.coalesced = coalesced;
+	}
+
+	/**
+	 * Gets the subscriber the statistics refer to.
+	 *
+	 * @return	a {@link Notifier} implementation.
+	 */
+	public Notifier getNotifier() {
+		return this.notifier;
+	}
+
+	/**
+	 * Gets the number of messages waiting to be delivered to the subscriber.
+	 *
+	 * @return	the depth of the queue of the subscriber.
+	 */
+	public int getQueueDepth() {
+		return this.queueDepth;
+	}
+
+	/**
+	 * Gets the number of messages delivered to the subscriber.
+	 *
+	 * @return	the number of delivered messages.
+	 */
+	public long getDelivered() {
+		return this.delivered;
+	}
+
+	/**
+	 * Gets the number of messages that have been discarded because the queue of the subscriber
+	 * was full.
+	 *
+	 * @return	the number of dropped messages.
+	 */
+	public long getDropped() {
+		return this.dropped;
+	}
+
+	/**
+	 * Gets the number of messages that have been merged with a message for the same event that
+	 * was waiting in the queue of the subscriber.
+	 *
+	 * @return	the number of coalesced messages.
+	 */
+	public long getCoalesced() {
+		return this.coalesced;
+	}
+
+	/**
+	 * Gets a textual representation of the statistics.
+	 *
+	 * @return	a {@link String} containing the statistics.
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s [queue: %d, delivered: %d, dropped: %d, coalesced: %d]", this.notifier, this.queueDepth, this.delivered, this.dropped, this.coalesced);
+	}
+}
@@ -0,0 +1,284 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.model.notify;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Class <b>Subscription</b>. This class ties a {@link Notifier} to the {@link NotificationBus} it
+ * is subscribed to. It holds the bounded queue of the messages waiting to be delivered to the
+ * notifier and, when executed, delivers them in order until the queue is empty. A subscription is
+ * executed by at most one thread at a time, hence a slow notifier only delays its own messages.
+ * </p>
+ * <p>
+ * When the queue is full the {@link OverflowPolicy} of the bus is applied and the statistics of the
+ * subscription are updated accordingly, see {@link #getMetrics()}.
+ * </p>
+ */
+class Subscription implements Runnable {
+
+	/**
+	 * A {@link Logger} instance that collects all the messages that are produced by instances
+	 * of this class.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(Subscription.class);
+
+	/**
+	 * The bus the notifier is subscribed to.
+	 */
+	private final NotificationBus bus;
+
+	/**
+	 * The notifier the messages are delivered to.
+	 */
+	private final Notifier notifier;
+
+	/**
+	 * The maximum number of messages waiting to be delivered.
+	 */
+	private final int capacity;
+
+	/**
+	 * The strategy applied when the queue is full.
+	 */
+	private final OverflowPolicy policy;
+
+	/**
+	 * The messages waiting to be delivered, in the order they have been broadcast.
+	 */
+	private final Deque<Message> queue = new ArrayDeque<>();
+
+	/**
+	 * The topics the notifier is subscribed to, or {@literal null} if it receives all the
+	 * events. This is managed by the bus.
+	 */
+	private Set<String> topics;
+
+	/**
+	 * Whether the subscription is being executed, or has been submitted for execution.
+	 */
+	private boolean draining;
+
+	/**
+	 * Whether the notifier has been unsubscribed.
+	 */
+	private boolean closed;
+
+	/**
+	 * The number of messages delivered.
+	 */
+	private long delivered;
+
+	/**
+	 * The number of messages discarded because the queue was full.
+	 */
+	private long dropped;
+
+	/**
+	 * The number of messages merged with a message for the same event.
+	 */
+	private long coalesced;
+
+	/**
+	 * Initialises an instance of {@link Subscription}.
+	 *
+	 * @param bus		the {@link NotificationBus} the notifier is subscribed to.
+	 * @param notifier	the {@link Notifier} the messages are delivered to.
+	 * @param capacity	the maximum number of messages waiting to be delivered.
+	 * @param policy	the {@link OverflowPolicy} applied when the queue is full.
+	 */
+	Subscription(NotificationBus bus, Notifier notifier, int capacity, OverflowPolicy policy) {
+		this.bus = bus;
+		this.notifier = notifier;
+		this.capacity = capacity;
+		this.policy = policy;
+	}
+
+	/**
+	 * Gets the notifier the messages are delivered to.
+	 *
+	 * @return	a {@link Notifier} implementation.
+	 */
+	Notifier getNotifier() {
+		return this.notifier;
+	}
+
+	/**
+	 * Gets the topics the notifier is subscribed to.
+	 *
+	 * @return	a {@link Set} of topics, or {@literal null} if the notifier receives all the
+	 * 			events.
+	 */
+	Set<String> getTopics() {
+		return this.topics;
+	}
+
+	/**
+	 * Sets the topics the notifier is subscribed to.
+	 *
+	 * @param topics	a {@link Set} of topics, or {@literal null} if the notifier receives all
+	 * 					the events.
+	 */
+	void setTopics(Set<String> topics) {
+		this.topics = topics;
+	}
+
+	/**
+	 * Adds a message to the queue of the subscription, applying the {@link OverflowPolicy} if the
+	 * queue is full. This method never blocks on the notifier.
+	 *
+	 * @param event	a {@link String} representing the name of the event.
+	 * @param data	a {@link Object} instance that represents the payload of the event.
+	 *
+	 * @return	{@literal true} if the subscription needs to be executed to deliver the message,
+	 * 			{@literal false} if it is already being executed or it has been closed.
+	 */
+	synchronized boolean offer(String event, Object data) {
+		if (this.closed) {
+			return false;
+		}
+
+		if (this.queue.size() >= this.capacity) {
+
+			if (this.policy == OverflowPolicy.COALESCE && this.coalesce(event, data)) {
+				return false;
+			}
+
+			this.queue.removeFirst();
+			this.dropped++;
+
+			if (this.dropped == 1) {
+				LOGGER.warn("Notifier " + this.notifier + " does not keep up with the notifications, the oldest ones are dropped.");
+			}
+		}
+
+		this.queue.addLast(new Message(event, data));
+
+		if (this.draining) {
+			return false;
+		}
+
+		this.draining = true;
+		return true;
+	}
+
+	/**
+	 * Discards the messages waiting to be delivered and prevents further messages to be queued.
+	 */
+	synchronized void close() {
+		this.closed = true;
+		this.queue.clear();
+	}
+
+	/**
+	 * Gets a snapshot of the statistics of the subscription.
+	 *
+	 * @return	a {@link SubscriberMetrics} instance.
+	 */
+	synchronized SubscriberMetrics getMetrics() {
+		return new SubscriberMetrics(this.notifier, this.queue.size(), this.delivered, this.dropped, this.coalesced);
+	}
+
+	/**
+	 * Delivers the messages waiting in the queue to the notifier, until the queue is empty. If the
+	 * notifier throws a {@link NotifierException} it is removed from the bus.
+	 */
+	@Override
+	public void run() {
+		while (true) {
+			Message message;
+
+			synchronized (this) {
+				message = this.queue.pollFirst();
+
+				if (message == null) {
+					this.draining = false;
+					return;
+				}
+			}
+
+			try {
+				this.notifier.notify(message.event, message.data);
+
+				synchronized (this) {
+					this.delivered++;
+				}
+
+			} catch (NotifierException ne) {
+
+				LOGGER.error("Error sending notification - Removed notifier " + this.notifier + ").", ne);
+				this.bus.remove(this);
+
+				synchronized (this) {
+					this.draining = false;
+				}
+				return;
+
+			} catch (RuntimeException re) {
+
+				LOGGER.error("Unexpected error sending notification to notifier " + this.notifier + ".", re);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the data of the most recent message waiting for the same event.
+	 *
+	 * @param event	a {@link String} representing the name of the event.
+	 * @param data	a {@link Object} instance that represents the new payload of the event.
+	 *
+	 * @return	{@literal true} if a message for the same event has been found, {@literal false}
+	 * 			otherwise.
+	 */
+	private boolean coalesce(String event, Object data) {
+		Iterator<Message> messages = this.queue.descendingIterator();
+
+		while (messages.hasNext()) {
+			Message message = messages.next();
+
+			if (event == null ? message.event == null : event.equals(message.event)) {
+				message.data = data;
+				this.coalesced++;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * A message waiting to be delivered.
+	 */
+	private static class Message {
+
+		/**
+		 * The name of the event.
+		 */
+		private final String event;
+
+		/**
+		 * The payload of the event.
+		 */
+		private Object data;
+
+		/**
+		 * Initialises an instance of {@link Message}.
+		 *
+		 * @param event	the name of the event.
+		 * @param data	the payload of the event.
+		 */
+		private Message(String event, Object data) {
+			this.event = event;
+			this.data = data;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.model.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exception raised by {@link RunRepository#attachAll(com.ibm.au.optim.suro.model.entities.Run, List)}
+ * when some of the attachments could not be stored. The other attachments have been stored, and the
+ * exception provides the names of the ones that have not.
+ */
+public class AttachmentException extends RuntimeException {
+
+
+	private static final long serialVersionUID = 4807514296263436154L;
+
+	/**
+	 * The names of the attachments that could not be stored.
+	 */
+	private final List<String> names;
+
+	/**
+	 * Creates a new attachment exception with the provided message and names of the attachments that
+	 * could not be stored.
+	 * @param message - the message of the exception
+	 * @param names - the names of the attachments that could not be stored
+	 */
+	public AttachmentException(String message, List<String> names) {
+		this(message, names, null);
+	}
+
+	/**
+	 * Creates a new attachment exception with the provided message, names of the attachments that could
+	 * not be stored and cause of the exception (the first failure).
+	 * @param message - the message of the exception
+	 * @param names - the names of the attachments that could not be stored
+	 * @param cause - the root cause for this exception
+	 */
+	public AttachmentException(String message, List<String> names, Throwable cause) {
+		super(message, cause);
+		this.names = Collections.unmodifiableList(new ArrayList<String>(names));
+	}
+
+	/**
+	 * Gets the names of the attachments that could not be stored.
+	 * @return - an unmodifiable list of names
+	 */
+	public List<String> getNames() {
+		return this.names;
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2015 IBM Corporation
+ * All Rights Reserved
+ */
+package com.ibm.au.optim.suro.model.store;
+
+import com.ibm.au.optim.suro.model.entities.RunLogSegment;
+
+import java.util.List;
+
+/**
+ * Interface <b>RunLogSegmentRepository</b>. This interface extends {@link Repository} and
+ * specialises it for {@link RunLogSegment} instances, which hold the log entries of a run
+ * in fixed-size chunks. The base contract is extended to retrieve the segments of a run,
+ * either all of them or a page of them, ordered by sequence number.
+ *
+ */
+public interface RunLogSegmentRepository extends Repository<RunLogSegment> {
+
+	/**
+	 * A {@link String} constant that contains the name of the attribute that will contain
+	 * the instance of the {@link RunLogSegmentRepository} implementation that has been 
+	 * injected into the environment.
+	 */
+	String SEGMENT_REPOSITORY_INSTANCE = "repo:segment:instance";
+	
+	
+	/**
+	 * A {@link String} constant that contains the name of the parameter that will contain
+	 * the name of the type of {@link RunLogSegmentRepository} that will be used in the 
+	 * application.
+	 */
+	String SEGMENT_REPOSITORY_TYPE = RunLogSegmentRepository.class.getName();
+
+
+	/**
+	 * Retrieves all the log segments of a run.
+	 * 
+	 * @param runId	a {@link String} representing the unique identifier of the run. It cannot 
+	 * 				be {@literal null}.
+	 * 
+	 * @return	a {@link List} of {@link RunLogSegment} instances ordered by sequence number,
+	 * 			empty if the run has no segments.
+	 * 
+	 * @throws IllegalArgumentException	if <i>runId</i> is {@literal null}.
+	 */
+	List<RunLogSegment> findByRunId(String runId);
+	
+	/**
+	 * Retrieves a page of the log segments of a run.
+	 * 
+	 * @param runId	a {@link String} representing the unique identifier of the run. It cannot 
+	 * 				be {@literal null}.
+	 * @param first	a {@literal int} value representing the sequence number of the first
+	 * 				segment to retrieve.
+	 * @param count	a {@literal int} value representing the maximum number of segments to 
+	 * 				retrieve.
+	 * 
+	 * @return	a {@link List} of {@link RunLogSegment} instances whose sequence number is
+	 * 			between <i>first</i> and <i>first + count - 1</i>, ordered by sequence number.
+	 * 
+	 * @throws IllegalArgumentException	if <i>runId</i> is {@literal null}, or <i>first</i> or 
+	 * 									<i>count</i> is negative.
+	 */
+	List<RunLogSegment> findByRunId(String runId, int first, int count);
+}
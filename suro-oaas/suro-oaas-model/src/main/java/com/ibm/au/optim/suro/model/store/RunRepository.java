@@ -4,6 +4,7 @@
  */
 package com.ibm.au.optim.suro.model.store;
 
+import com.ibm.au.optim.suro.model.entities.Attachment;
 import com.ibm.au.optim.suro.model.entities.Run;
 
 import java.io.InputStream;
@@ -19,6 +20,10 @@ import java.util.List;
  * content is defined by the given input stream to the execution of the strategy.
  * </li>
  * <li>
+ * {@link RunRepository#attachAll(Run,List)}: attaches several files to the execution of the
+ * strategy at once.
+ * </li>
+ * <li>
  * {@link RunRepository#getLast()}: gets the last execution that has been added to the repository.
  * </li>
  * </ul>
@@ -58,6 +63,25 @@ public interface RunRepository extends Repository<Run> {
 	 */
 	void attach(Run run, String fileName, String contentType, InputStream data);
 	
+	/**
+	 * Attaches several file documents to the given strategy execution at once. Implementations
+	 * backed by a remote store should send the files in as few updates of the run as possible, so
+	 * that the revision of the run is changed fewer times and the files are not uploaded one after
+	 * the other. If some of the files cannot be stored the others are still attached, and an
+	 * {@link AttachmentException} reports the names of the ones that have not been.
+	 * 
+	 * @param run			a {@link Run} instance representing the execution of an optimization strategy.
+	 * 						It cannot be {@literal null}.
+	 * @param attachments	a {@link List} of {@link Attachment} instances defining the name and MIME type
+	 * 						of each file, whose content is provided by {@link Attachment#getStream()}. It
+	 * 						cannot be {@literal null}.
+	 * 
+	 * @throws IllegalArgumentException if <i>run</i> or <i>attachments</i> is {@literal null}, or any of the
+	 * 									attachments does not provide its content.
+	 * @throws AttachmentException		if some of the attachments could not be stored.
+	 */
+	void attachAll(Run run, List<Attachment> attachments);
+	
 	/**
 	 * Gets the last execution of (any of) the strategy added to the repository.
 	 * 
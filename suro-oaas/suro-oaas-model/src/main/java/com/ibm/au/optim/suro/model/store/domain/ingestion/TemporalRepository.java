@@ -18,7 +18,8 @@ public interface TemporalRepository<R, T extends TemporalList<R>> extends Reposi
 	 * ingested items of type T.
 	 * 
 	 * @param timestamp 	a {@literal long} value representing the timestamp to search for, any 
-	 * 						document that has a smaller or equal timestamp is a candidate.
+	 * 						document that has a smaller or equal timestamp is a candidate. Documents
+	 * 						with a negative timestamp are never returned.
 	 * 
 	 * @return 	an entry in the repository, which represents the collection of records that have
 	 * 			been ingested 
@@ -1,8 +1,9 @@
 package com.ibm.au.optim.suro.model.store.domain.ingestion.impl;
 
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.BasePlanEntry;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.BasePlanList;
 import com.ibm.au.optim.suro.model.store.domain.ingestion.BasePlanListRepository;
-import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
+import com.ibm.au.optim.suro.model.store.impl.AbstractTransientTemporalRepository;
 
 
 /**
@@ -11,23 +12,7 @@ import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
  * @author brendanhaesler
  */
 public class TransientBasePlanListRepository
-		extends AbstractTransientRepository<BasePlanList, BasePlanList>
+		extends AbstractTransientTemporalRepository<BasePlanEntry, BasePlanList>
 		implements BasePlanListRepository {
 
-	@Override
-	public BasePlanList findByTime(long timestamp) {
-		long mostRecent = 0;
-		BasePlanList result = null;
-
-		for (BasePlanList basePlanList : repositoryContent.values()) {
-			long tempTime = basePlanList.getTimestamp();
-
-			if (tempTime <= timestamp && tempTime > mostRecent) {
-				mostRecent = tempTime;
-				result = basePlanList;
-			}
-		}
-
-		return result;
-	}
 }
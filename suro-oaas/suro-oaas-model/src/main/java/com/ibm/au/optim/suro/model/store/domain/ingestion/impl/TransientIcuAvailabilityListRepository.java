@@ -1,8 +1,9 @@
 package com.ibm.au.optim.suro.model.store.domain.ingestion.impl;
 
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.IcuAvailability;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.IcuAvailabilityList;
 import com.ibm.au.optim.suro.model.store.domain.ingestion.IcuAvailabilitiesRepository;
-import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
+import com.ibm.au.optim.suro.model.store.impl.AbstractTransientTemporalRepository;
 
 
 /**
@@ -11,23 +12,7 @@ import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
  * @author brendanhaesler
  */
 public class TransientIcuAvailabilityListRepository
-	extends AbstractTransientRepository<IcuAvailabilityList, IcuAvailabilityList>
+	extends AbstractTransientTemporalRepository<IcuAvailability, IcuAvailabilityList>
 	implements IcuAvailabilitiesRepository {
 
-	@Override
-	public IcuAvailabilityList findByTime(long timestamp) {
-		long mostRecent = 0;
-		IcuAvailabilityList result = null;
-
-		for (IcuAvailabilityList icuAvailabilityList : repositoryContent.values()) {
-			long tempTime = icuAvailabilityList.getTimestamp();
-
-			if (tempTime <= timestamp && tempTime > mostRecent) {
-				mostRecent = tempTime;
-				result = icuAvailabilityList;
-			}
-		}
-
-		return result;
-	}
 }
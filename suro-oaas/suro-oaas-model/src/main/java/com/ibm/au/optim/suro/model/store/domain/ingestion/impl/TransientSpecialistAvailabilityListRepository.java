@@ -1,8 +1,9 @@
 package com.ibm.au.optim.suro.model.store.domain.ingestion.impl;
 
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.SpecialistAvailability;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.SpecialistAvailabilityList;
 import com.ibm.au.optim.suro.model.store.domain.ingestion.SpecialistAvailabilitiesRepository;
-import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
+import com.ibm.au.optim.suro.model.store.impl.AbstractTransientTemporalRepository;
 
 
 /**
@@ -11,23 +12,7 @@ import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
  * @author brendanhaesler
  */
 public class TransientSpecialistAvailabilityListRepository
-	extends AbstractTransientRepository<SpecialistAvailabilityList, SpecialistAvailabilityList>
+	extends AbstractTransientTemporalRepository<SpecialistAvailability, SpecialistAvailabilityList>
 	implements SpecialistAvailabilitiesRepository {
 
-	@Override
-	public SpecialistAvailabilityList findByTime(long timestamp) {
-		long mostRecent = 0;
-		SpecialistAvailabilityList result = null;
-
-		for (SpecialistAvailabilityList specialistAvailabilityList : repositoryContent.values()) {
-			long tempTime = specialistAvailabilityList.getTimestamp();
-
-			if (tempTime <= timestamp && tempTime > mostRecent) {
-				mostRecent = tempTime;
-				result = specialistAvailabilityList;
-			}
-		}
-
-		return result;
-	}
 }
@@ -1,8 +1,9 @@
 package com.ibm.au.optim.suro.model.store.domain.ingestion.impl;
 
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.WaitingPatient;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WaitingPatientList;
 import com.ibm.au.optim.suro.model.store.domain.ingestion.WaitingPatientListRepository;
-import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
+import com.ibm.au.optim.suro.model.store.impl.AbstractTransientTemporalRepository;
 
 
 /**
@@ -10,23 +11,7 @@ import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
  * @author brendanhaesler
  */
 public class TransientWaitingPatientListRepository
-	extends AbstractTransientRepository<WaitingPatientList, WaitingPatientList>
+	extends AbstractTransientTemporalRepository<WaitingPatient, WaitingPatientList>
 	implements WaitingPatientListRepository {
 
-	@Override
-	public WaitingPatientList findByTime(long timestamp) {
-		long mostRecent = 0;
-		WaitingPatientList result = null;
-
-		for (WaitingPatientList waitingPatientList : repositoryContent.values()) {
-			long tempTime = waitingPatientList.getTimestamp();
-
-			if (tempTime <= timestamp && tempTime > mostRecent) {
-				mostRecent = tempTime;
-				result = waitingPatientList;
-			}
-		}
-
-		return result;
-	}
 }
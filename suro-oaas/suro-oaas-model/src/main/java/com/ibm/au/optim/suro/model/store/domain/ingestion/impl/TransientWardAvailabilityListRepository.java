@@ -1,8 +1,9 @@
 package com.ibm.au.optim.suro.model.store.domain.ingestion.impl;
 
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.WardAvailability;
 import com.ibm.au.optim.suro.model.entities.domain.ingestion.WardAvailabilityList;
 import com.ibm.au.optim.suro.model.store.domain.ingestion.WardAvailabilitiesRepository;
-import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
+import com.ibm.au.optim.suro.model.store.impl.AbstractTransientTemporalRepository;
 
 
 /**
@@ -11,23 +12,7 @@ import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
  * @author brendanhaesler
  */
 public class TransientWardAvailabilityListRepository
-	extends AbstractTransientRepository<WardAvailabilityList, WardAvailabilityList>
+	extends AbstractTransientTemporalRepository<WardAvailability, WardAvailabilityList>
 	implements WardAvailabilitiesRepository {
 
-	@Override
-	public WardAvailabilityList findByTime(long timestamp) {
-		long mostRecent = 0;
-		WardAvailabilityList result = null;
-
-		for (WardAvailabilityList wardAvailabilityList : repositoryContent.values()) {
-			long tempTime = wardAvailabilityList.getTimestamp();
-
-			if (tempTime <= timestamp && tempTime > mostRecent) {
-				mostRecent = tempTime;
-				result = wardAvailabilityList;
-			}
-		}
-
-		return result;
-	}
 }
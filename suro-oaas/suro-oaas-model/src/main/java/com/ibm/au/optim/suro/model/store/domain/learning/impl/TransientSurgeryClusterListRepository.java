@@ -1,8 +1,9 @@
 package com.ibm.au.optim.suro.model.store.domain.learning.impl;
 
+import com.ibm.au.optim.suro.model.entities.domain.learning.SurgeryCluster;
 import com.ibm.au.optim.suro.model.entities.domain.learning.SurgeryClusterList;
 import com.ibm.au.optim.suro.model.store.domain.learning.SurgeryClusterListRepository;
-import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
+import com.ibm.au.optim.suro.model.store.impl.AbstractTransientTemporalRepository;
 
 /**
  * @author brendanhaesler
@@ -10,23 +11,7 @@ import com.ibm.au.optim.suro.model.store.impl.AbstractTransientRepository;
 
 // TODO: Document this class
 public class TransientSurgeryClusterListRepository
-				extends AbstractTransientRepository<SurgeryClusterList, SurgeryClusterList>
+				extends AbstractTransientTemporalRepository<SurgeryCluster, SurgeryClusterList>
 				implements SurgeryClusterListRepository {
 
-	@Override
-	public SurgeryClusterList findByTime(long timestamp) {
-		long mostRecent = 0;
-		SurgeryClusterList result = null;
-
-		for (SurgeryClusterList surgeryClusterList : repositoryContent.values()) {
-			long tempTime = surgeryClusterList.getTimestamp();
-
-			if (tempTime <= timestamp && tempTime > mostRecent) {
-				mostRecent = tempTime;
-				result = surgeryClusterList;
-			}
-		}
-
-		return result;
-	}
 }
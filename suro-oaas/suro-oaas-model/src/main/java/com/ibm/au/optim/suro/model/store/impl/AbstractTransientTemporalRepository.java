@@ -0,0 +1,114 @@
+package com.ibm.au.optim.suro.model.store.impl;
+
+import com.ibm.au.optim.suro.model.entities.domain.ingestion.TemporalList;
+import com.ibm.au.optim.suro.model.store.domain.ingestion.TemporalRepository;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Superclass for the transient implementations of {@link TemporalRepository}. Besides storing the lists like any other
+ * transient repository, it keeps them indexed by timestamp, so that {@link #findByTime(long)} is a lookup in a sorted
+ * map (O(log n)) rather than a scan of all the lists in the repository.
+ *
+ * Lists with a timestamp lower or equal to 0 are never returned by {@link #findByTime(long)}. If several lists share
+ * the same timestamp, the one added (or updated) last is returned.
+ *
+ * @param <R> - the type of the records in the lists
+ * @param <T> - the type of the lists stored in the repository
+ */
+public abstract class AbstractTransientTemporalRepository<R, T extends TemporalList<R>> extends AbstractTransientRepository<T, T> implements TemporalRepository<R, T> {
+
+    /**
+     * The lists in the repository by timestamp. Lists sharing the same timestamp are kept in insertion order.
+     */
+    private TreeMap<Long, LinkedHashMap<String, T>> timeline = new TreeMap<>();
+
+    /**
+     * The timestamp each list has been indexed with, by list ID. Used to find the list in the timeline when it is
+     * updated or removed, as its timestamp might have changed in the meantime.
+     */
+    private Map<String, Long> indexed = new HashMap<>();
+
+
+    @Override
+    public synchronized T findByTime(long timestamp) {
+        Map.Entry<Long, LinkedHashMap<String, T>> entry = this.timeline.floorEntry(timestamp);
+        if (entry == null || entry.getKey() <= 0) {
+            return null;
+        }
+
+        T result = null;
+        Iterator<T> it = entry.getValue().values().iterator();
+        while (it.hasNext()) {
+            result = it.next();
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void addItem(T item) {
+        super.addItem(item);
+        this.index(item);
+    }
+
+    @Override
+    public synchronized void updateItem(T item) {
+        super.updateItem(item);
+        if (this.repositoryContent.get(item.getId()) == item) {
+            this.unindex(item.getId());
+            this.index(item);
+        }
+    }
+
+    @Override
+    public synchronized void removeItem(String id) {
+        super.removeItem(id);
+        this.unindex(id);
+    }
+
+    @Override
+    public synchronized void removeAll() {
+        super.removeAll();
+        this.timeline = new TreeMap<>();
+        this.indexed = new HashMap<>();
+    }
+
+    /**
+     * Adds the given list to the timeline.
+     *
+     * @param item - the list to index
+     */
+    private void index(T item) {
+        long timestamp = item.getTimestamp();
+        LinkedHashMap<String, T> lists = this.timeline.get(timestamp);
+        if (lists == null) {
+            lists = new LinkedHashMap<>();
+            this.timeline.put(timestamp, lists);
+        }
+        lists.put(item.getId(), item);
+        this.indexed.put(item.getId(), timestamp);
+    }
+
+    /**
+     * Removes the list with the given ID from the timeline.
+     *
+     * @param id - the ID of the list
+     */
+    private void unindex(String id) {
+        Long timestamp = this.indexed.remove(id);
+        if (timestamp == null) {
+            return;
+        }
+        LinkedHashMap<String, T> lists = this.timeline.get(timestamp);
+        if (lists != null) {
+            lists.remove(id);
+            if (lists.isEmpty()) {
+                this.timeline.remove(timestamp);
+            }
+        }
+    }
+}
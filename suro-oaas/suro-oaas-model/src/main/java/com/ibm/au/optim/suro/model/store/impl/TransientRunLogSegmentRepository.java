@@ -0,0 +1,45 @@
+package com.ibm.au.optim.suro.model.store.impl;
+
+import com.ibm.au.optim.suro.model.entities.RunLogSegment;
+import com.ibm.au.optim.suro.model.store.RunLogSegmentRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Transient implementation of the {@link RunLogSegmentRepository}, mainly used for testing.
+ */
+public class TransientRunLogSegmentRepository extends AbstractTransientRepository<RunLogSegment, RunLogSegment> implements RunLogSegmentRepository {
+
+    @Override
+    public List<RunLogSegment> findByRunId(String runId) {
+        return findByRunId(runId, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<RunLogSegment> findByRunId(String runId, int first, int count) {
+        if (runId == null) {
+            throw new IllegalArgumentException("Parameter 'runId' cannot be null.");
+        }
+        if (first < 0 || count < 0) {
+            throw new IllegalArgumentException("Parameters 'first' and 'count' cannot be negative.");
+        }
+
+        List<RunLogSegment> result = new ArrayList<>();
+        for (RunLogSegment segment : repositoryContent.values()) {
+            if (runId.equals(segment.getRunId()) && segment.getSequence() >= first && segment.getSequence() - first < count) {
+                result.add(segment);
+            }
+        }
+
+        Collections.sort(result, new Comparator<RunLogSegment>() {
+            @Override
+            public int compare(RunLogSegment s1, RunLogSegment s2) {
+                return Integer.compare(s1.getSequence(), s2.getSequence());
+            }
+        });
+        return result;
+    }
+}
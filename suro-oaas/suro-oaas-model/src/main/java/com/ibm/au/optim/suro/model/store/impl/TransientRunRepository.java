@@ -1,6 +1,7 @@
 package com.ibm.au.optim.suro.model.store.impl;
 
 import com.ibm.au.optim.suro.model.store.RunRepository;
+import com.ibm.au.optim.suro.model.entities.Attachment;
 import com.ibm.au.optim.suro.model.entities.Run;
 
 
@@ -39,6 +40,22 @@ public class TransientRunRepository extends AbstractTransientRepository<Run, Run
     }
 
 
+    @Override
+    public void attachAll(Run run, List<Attachment> attachments) {
+        if (run == null || attachments == null) {
+            throw new IllegalArgumentException("Parameters 'run' and 'attachments' cannot be null.");
+        }
+        for (Attachment attachment : attachments) {
+            if (attachment.getStream() == null) {
+                throw new IllegalArgumentException("Attachment " + attachment.getName() + " does not provide its content.");
+            }
+        }
+
+        for (Attachment attachment : attachments) {
+            this.attach(run, attachment.getName(), attachment.getContentType(), attachment.getStream());
+        }
+    }
+
     @Override
     public Run findByJobId(String jobId) {
         for (Run r : repositoryContent.values()) {
@@ -0,0 +1,168 @@
+package com.ibm.au.optim.suro.model.control.job;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.au.optim.suro.model.entities.RunDetails;
+import com.ibm.au.optim.suro.model.entities.RunLogEntry;
+import com.ibm.au.optim.suro.model.entities.RunLogSegment;
+import com.ibm.au.optim.suro.model.store.RunDetailsRepository;
+import com.ibm.au.optim.suro.model.store.impl.TransientOptimizationResultRepository;
+import com.ibm.au.optim.suro.model.store.impl.TransientRunLogSegmentRepository;
+
+/**
+ * Class <b>RunLogWriterTest</b>. Verifies that the {@link RunLogWriter} stores the log entries
+ * of a run in fixed-size segments, and only rewrites the last one.
+ */
+public class RunLogWriterTest {
+
+	private static final String RUN_ID = "run-id";
+
+	@Test
+	public void testSegments() {
+
+		RunDetailsRepository detailsRepo = new TransientOptimizationResultRepository();
+		CountingSegmentRepository segmentRepo = new CountingSegmentRepository();
+		RunDetails details = createDetails(detailsRepo);
+
+		RunLogWriter writer = new RunLogWriter(details, detailsRepo, segmentRepo, 3);
+		for (int i = 0; i < 7; i++) {
+			Assert.assertTrue(writer.append(createEntry(i)));
+		}
+		Assert.assertFalse(writer.append(createEntry(4)));
+
+		// the two full segments are stored as they fill up
+		Assert.assertEquals(3, details.getSegments());
+		Assert.assertEquals(2, segmentRepo.findByRunId(RUN_ID).size());
+
+		writer.commit();
+		writer.commit();
+
+		List<RunLogSegment> segments = segmentRepo.findByRunId(RUN_ID);
+		Assert.assertEquals(3, segments.size());
+		Assert.assertEquals(3, segments.get(0).size());
+		Assert.assertEquals(3, segments.get(1).size());
+		Assert.assertEquals(1, segments.get(2).size());
+		Assert.assertEquals(6, segments.get(2).getEntries().get(0).getTime());
+
+		// each segment has been written once, the summary holds no entries
+		for (RunLogSegment segment : segments) {
+			Assert.assertEquals(Integer.valueOf(1), segmentRepo.writes.get(segment.getSequence()));
+		}
+		Assert.assertNull(details.getEntries());
+		Assert.assertEquals(6.0, details.getGap(), 0.0);
+
+		// only the last segment is written again
+		writer.append(createEntry(7));
+		writer.commit();
+		Assert.assertEquals(Integer.valueOf(1), segmentRepo.writes.get(1));
+		Assert.assertEquals(Integer.valueOf(2), segmentRepo.writes.get(2));
+	}
+
+	@Test
+	public void testResume() {
+
+		RunDetailsRepository detailsRepo = new TransientOptimizationResultRepository();
+		CountingSegmentRepository segmentRepo = new CountingSegmentRepository();
+		RunDetails details = createDetails(detailsRepo);
+
+		RunLogWriter writer = new RunLogWriter(details, detailsRepo, segmentRepo, 3);
+		for (int i = 0; i < 4; i++) {
+			writer.append(createEntry(i));
+		}
+		writer.commit();
+
+		// a resumed run reads its log again from the beginning, only
+		// the last segment is read to discard the entries already stored
+		segmentRepo.reads = 0;
+		writer = new RunLogWriter(detailsRepo.findByRunId(RUN_ID), detailsRepo, segmentRepo, 3);
+		Assert.assertEquals(1, segmentRepo.reads);
+		for (int i = 0; i < 6; i++) {
+			Assert.assertEquals(i >= 4, writer.append(createEntry(i)));
+		}
+		writer.commit();
+
+		List<RunLogSegment> segments = segmentRepo.findByRunId(RUN_ID);
+		Assert.assertEquals(2, segments.size());
+		Assert.assertEquals(3, segments.get(1).size());
+		Assert.assertEquals(2, detailsRepo.findByRunId(RUN_ID).getSegments());
+	}
+
+	@Test
+	public void testWithoutSegments() {
+
+		RunDetailsRepository detailsRepo = new TransientOptimizationResultRepository();
+		RunDetails details = createDetails(detailsRepo);
+
+		RunLogWriter writer = new RunLogWriter(details, detailsRepo, null, 3);
+		for (int i = 0; i < 5; i++) {
+			Assert.assertTrue(writer.append(createEntry(i)));
+		}
+		Assert.assertFalse(writer.append(createEntry(0)));
+		writer.commit();
+
+		Assert.assertEquals(5, detailsRepo.findByRunId(RUN_ID).getEntries().size());
+		Assert.assertEquals(0, details.getSegments());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSegmentSize() {
+
+		new RunLogWriter(new RunDetails(), new TransientOptimizationResultRepository(), null, 0);
+	}
+
+	private static RunDetails createDetails(RunDetailsRepository repo) {
+
+		RunDetails details = new RunDetails();
+		details.setRunId(RUN_ID);
+		repo.addItem(details);
+		return details;
+	}
+
+	private static RunLogEntry createEntry(long time) {
+
+		RunLogEntry entry = new RunLogEntry();
+		entry.setTime(time);
+		entry.setGap((double) time);
+		return entry;
+	}
+
+	/**
+	 * Segment repository counting the number of times each segment is written, and the number of
+	 * segments read.
+	 */
+	private static class CountingSegmentRepository extends TransientRunLogSegmentRepository {
+
+		private final Map<Integer, Integer> writes = new HashMap<>();
+
+		private int reads;
+
+		@Override
+		public List<RunLogSegment> findByRunId(String runId, int first, int count) {
+			List<RunLogSegment> segments = super.findByRunId(runId, first, count);
+			reads += segments.size();
+			return segments;
+		}
+
+		@Override
+		public void addItem(RunLogSegment item) {
+			super.addItem(item);
+			count(item);
+		}
+
+		@Override
+		public void updateItem(RunLogSegment item) {
+			super.updateItem(item);
+			count(item);
+		}
+
+		private void count(RunLogSegment item) {
+			Integer count = writes.get(item.getSequence());
+			writes.put(item.getSequence(), count == null ? 1 : count + 1);
+		}
+	}
+}
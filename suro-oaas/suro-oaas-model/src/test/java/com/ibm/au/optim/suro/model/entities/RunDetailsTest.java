@@ -249,6 +249,34 @@ public class RunDetailsTest extends EntityTest {
 		
 	}
 	
+	/**
+	 * This method tests the implemented behaviour of {@link RunDetails#updateSummary(RunLogEntry)}.
+	 * The method is expected to update the values of the <i>bestInteger</i>, <i>bestBound</i>, 
+	 * and <i>gap</i> without adding the entry to the list of entries.
+	 */
+	@Test
+	public void testUpdateSummary() {
+		
+		RunDetails result = new RunDetails();
+		result.setSegments(3);
+
+		RunLogEntry e = new RunLogEntry();
+		e.setGap(13.37);
+		e.setBestInteger(5000.1);
+		e.setBestBound(12000.1);
+		result.updateSummary(e);
+
+		Assert.assertNull(result.getEntries());
+		Assert.assertEquals(3, result.getSegments());
+		Assert.assertEquals(13.37, result.getGap(), RunDetailsTest.DELTA);
+		Assert.assertEquals(5000.1, result.getBestInteger(), RunDetailsTest.DELTA);
+		Assert.assertEquals(12000.1, result.getBestBound(), RunDetailsTest.DELTA);
+
+		// missing values do not reset the summary
+		result.updateSummary(new RunLogEntry());
+		Assert.assertEquals(13.37, result.getGap(), RunDetailsTest.DELTA);
+	}
+	
 	/**
 	 * This method tests the implemented behaviour of {@link RunDetails#addEntry(RunLogEntry)}.
 	 * The method is expected to add the {@link RunLogEntry} instance to the list of entries 
@@ -290,6 +318,83 @@ public class RunDetailsTest extends EntityTest {
         Assert.assertEquals(12000.1, result.getBestBound(), RunDetailsTest.DELTA);
     }
 
+	/**
+	 * This method tests that {@link RunDetails#addEntry(RunLogEntry)} discards duplicated
+	 * entries when the entries are not in chronological order, when the list of entries
+	 * has been set (e.g. details read from the repository for a resumed run) and when it
+	 * has been modified without using the method.
+	 */
+	@Test
+	public void testAddEntryDuplicates() {
+
+		RunDetails result = new RunDetails();
+		Assert.assertTrue(result.addEntry(RunDetailsTest.createEntry(10)));
+		Assert.assertTrue(result.addEntry(RunDetailsTest.createEntry(5)));
+		Assert.assertFalse(result.addEntry(RunDetailsTest.createEntry(5)));
+		Assert.assertFalse(result.addEntry(RunDetailsTest.createEntry(10)));
+		Assert.assertTrue(result.addEntry(RunDetailsTest.createEntry(-1)));
+		Assert.assertEquals(3, result.getEntries().size());
+
+		// a resumed run reads its log again from the beginning
+		RunDetails resumed = new RunDetails();
+		resumed.setEntries(((RunDetails) result.clone()).getEntries());
+		Assert.assertFalse(resumed.addEntry(RunDetailsTest.createEntry(-1)));
+		Assert.assertFalse(resumed.addEntry(RunDetailsTest.createEntry(10)));
+		Assert.assertTrue(resumed.addEntry(RunDetailsTest.createEntry(11)));
+		Assert.assertEquals(4, resumed.getEntries().size());
+
+		// the list of entries is modified directly
+		resumed.getEntries().add(RunDetailsTest.createEntry(20));
+		Assert.assertFalse(resumed.addEntry(RunDetailsTest.createEntry(20)));
+
+		resumed.setEntries(new ArrayList<RunLogEntry>());
+		Assert.assertTrue(resumed.addEntry(RunDetailsTest.createEntry(20)));
+		Assert.assertEquals(1, resumed.getEntries().size());
+	}
+
+	/**
+	 * This method adds 100,000 entries with {@link RunDetails#addEntry(RunLogEntry)}, then
+	 * adds them again as a resumed run does, and verifies that all of them are detected as
+	 * duplicates.
+	 */
+	@Test
+	public void testAddEntryVolume() {
+
+		int size = 100000;
+		RunLogEntry[] log = new RunLogEntry[size];
+		for (int i = 0; i < size; i++) {
+			log[i] = RunDetailsTest.createEntry(i * 10L);
+		}
+
+		RunDetails result = new RunDetails();
+		for (RunLogEntry e : log) {
+			Assert.assertTrue(result.addEntry(e));
+		}
+		Assert.assertEquals(size, result.getEntries().size());
+
+		RunDetails resumed = new RunDetails();
+		resumed.setEntries(new ArrayList<RunLogEntry>(result.getEntries()));
+		for (RunLogEntry e : log) {
+			Assert.assertFalse(resumed.addEntry(e));
+		}
+
+		Assert.assertEquals(size, resumed.getEntries().size());
+	}
+
+	/**
+	 * Creates a {@link RunLogEntry} with the given time.
+	 *
+	 * @param time	a {@literal long} value representing the time of the entry.
+	 *
+	 * @return	a {@link RunLogEntry} instance.
+	 */
+	private static RunLogEntry createEntry(long time) {
+
+		RunLogEntry entry = new RunLogEntry();
+		entry.setTime(time);
+		return entry;
+	}
+
     
     /**
      * This method tests the implemented behaviour of the getter and the setter for the 
@@ -521,6 +626,7 @@ public class RunDetailsTest extends EntityTest {
     	Assert.assertEquals(re.getBestBound(), ra.getBestBound(), RunDetailsTest.DELTA);
     	Assert.assertEquals(re.getBestInteger(), ra.getBestInteger(), RunDetailsTest.DELTA);
     	Assert.assertEquals(re.getGap(), ra.getGap(), RunDetailsTest.DELTA);
+    	Assert.assertEquals(re.getSegments(), ra.getSegments());
     	Assert.assertEquals(re.getRunId(), ra.getRunId());
 
     	List<RunLogEntry> entries = re.getEntries();
@@ -0,0 +1,69 @@
+package com.ibm.au.optim.suro.model.entities;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class <b>RunLogIndexTest</b>. Verifies that a {@link RunLogIndex} detects the times already
+ * recorded, whether they are recorded in order or not, and that the floor discards the times
+ * that are not greater than it.
+ */
+public class RunLogIndexTest {
+
+	@Test
+	public void testAdd() {
+
+		RunLogIndex index = new RunLogIndex();
+		Assert.assertEquals(Long.MIN_VALUE, index.getLast());
+
+		// more times than the initial capacity
+		for (int i = 0; i < 100; i++) {
+			Assert.assertTrue(index.add(i * 10L));
+		}
+		for (int i = 0; i < 100; i++) {
+			Assert.assertFalse(index.add(i * 10L));
+		}
+		Assert.assertEquals(990, index.getLast());
+
+		// times out of order
+		Assert.assertTrue(index.add(5));
+		Assert.assertFalse(index.add(5));
+		Assert.assertTrue(index.add(-1));
+		Assert.assertTrue(index.contains(-1));
+		Assert.assertFalse(index.contains(15));
+		Assert.assertEquals(990, index.getLast());
+		Assert.assertEquals(102, index.size());
+	}
+
+	@Test
+	public void testFloor() {
+
+		RunLogIndex index = new RunLogIndex();
+		for (int i = 0; i < 10; i++) {
+			index.add(i * 10L);
+		}
+		index.add(15);
+		index.add(55);
+
+		// the times up to the floor are no longer kept
+		index.setFloor(50);
+		Assert.assertEquals(5, index.size());
+		Assert.assertEquals(90, index.getLast());
+		Assert.assertTrue(index.contains(15));
+		Assert.assertFalse(index.add(15));
+		Assert.assertFalse(index.add(25));
+		Assert.assertFalse(index.add(55));
+		Assert.assertTrue(index.add(65));
+		Assert.assertTrue(index.add(100));
+
+		// the floor can only be raised
+		index.setFloor(10);
+		Assert.assertFalse(index.add(45));
+
+		index.setFloor(100);
+		Assert.assertEquals(0, index.size());
+		Assert.assertEquals(100, index.getLast());
+		Assert.assertFalse(index.add(100));
+		Assert.assertTrue(index.add(101));
+	}
+}
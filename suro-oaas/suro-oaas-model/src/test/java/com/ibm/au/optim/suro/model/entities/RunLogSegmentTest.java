@@ -0,0 +1,122 @@
+package com.ibm.au.optim.suro.model.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class <b>RunLogSegmentTest</b>. This class extends {@link EntityTest} and
+ * adds methods to test the specific methods of the {@link RunLogSegment} class.
+ */
+public class RunLogSegmentTest extends EntityTest {
+
+	/**
+	 * This method tests the default values of a {@link RunLogSegment} and of one
+	 * created with a run identifier and a sequence number.
+	 */
+	@Test
+	public void testDefaultConstructor() {
+
+		RunLogSegment segment = new RunLogSegment();
+
+		Assert.assertNull(segment.getId());
+		Assert.assertNull(segment.getRunId());
+		Assert.assertEquals(0, segment.getSequence());
+		Assert.assertNull(segment.getEntries());
+		Assert.assertEquals(0, segment.size());
+
+		segment = new RunLogSegment("run-id", 3);
+		Assert.assertEquals("run-id", segment.getRunId());
+		Assert.assertEquals(3, segment.getSequence());
+		Assert.assertNotNull(segment.getEntries());
+		Assert.assertEquals(0, segment.size());
+	}
+
+	/**
+	 * This method tests that {@link RunLogSegment#addEntry(RunLogEntry)} appends
+	 * the entries in order, creating the list if needed.
+	 */
+	@Test
+	public void testAddEntry() {
+
+		RunLogSegment segment = new RunLogSegment();
+		RunLogEntry first = new RunLogEntry();
+		first.setTime(1);
+		RunLogEntry second = new RunLogEntry();
+		second.setTime(2);
+
+		segment.addEntry(first);
+		segment.addEntry(second);
+
+		Assert.assertEquals(2, segment.size());
+		Assert.assertSame(first, segment.getEntries().get(0));
+		Assert.assertSame(second, segment.getEntries().get(1));
+	}
+
+	/**
+	 * This method tests that the clone of a {@link RunLogSegment} holds copies
+	 * of the entries.
+	 */
+	@Test
+	@Override
+	public void testClone() {
+
+		super.testClone();
+
+		List<RunLogEntry> entries = new ArrayList<RunLogEntry>();
+		RunLogEntry entry = new RunLogEntry();
+		entry.setTime(42);
+		entry.setGap(0.5);
+		entries.add(entry);
+
+		RunLogSegment expected = new RunLogSegment("run-id", 7);
+		expected.setId("segment-id");
+		expected.setEntries(entries);
+
+		RunLogSegment actual = (RunLogSegment) expected.clone();
+		Assert.assertNotSame(expected.getEntries(), actual.getEntries());
+		Assert.assertNotSame(entry, actual.getEntries().get(0));
+
+		this.equals(expected, actual);
+	}
+
+	/**
+	 * This method extends the {@link EntityTest#equals(Entity, Entity)} and complements it
+	 * with field-by-fields checks on the properties defined in the {@link RunLogSegment} class.
+	 *
+	 * @param expected	a {@link Entity} reference of type {@link RunLogSegment}.
+	 * @param actual	a {@link Entity} reference of type {@link RunLogSegment}.
+	 */
+	@Override
+	protected void equals(Entity expected, Entity actual) {
+
+		super.equals(expected, actual);
+
+		RunLogSegment se = (RunLogSegment) expected;
+		RunLogSegment sa = (RunLogSegment) actual;
+
+		Assert.assertEquals(se.getRunId(), sa.getRunId());
+		Assert.assertEquals(se.getSequence(), sa.getSequence());
+		Assert.assertEquals(se.size(), sa.size());
+
+		for (int i = 0; i < se.size(); i++) {
+
+			Assert.assertEquals(se.getEntries().get(i).getTime(), sa.getEntries().get(i).getTime());
+			Assert.assertEquals(se.getEntries().get(i).getGap(), sa.getEntries().get(i).getGap());
+		}
+	}
+
+	/**
+	 * This method specialises the {@link EntityTest#createEntity()} method to
+	 * return an instance of type {@link RunLogSegment}.
+	 *
+	 * @return a {@link RunLogSegment} instance.
+	 */
+	@Override
+	protected Entity createEntity() {
+
+		return new RunLogSegment();
+	}
+}
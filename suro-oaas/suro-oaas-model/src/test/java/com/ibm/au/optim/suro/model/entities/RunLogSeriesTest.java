@@ -0,0 +1,175 @@
+package com.ibm.au.optim.suro.model.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Class <b>RunLogSeriesTest</b>. Verifies that a {@link RunLogSeries} holds the same values
+ * as the {@link RunLogEntry} instances it is created from, that its JSON representation
+ * restores them, and that the queries select the expected entries.
+ */
+public class RunLogSeriesTest {
+
+	@Test
+	public void testOf() {
+
+		List<RunLogEntry> entries = RunLogSeriesTest.createEntries(100, 250);
+		RunLogSeries series = RunLogSeries.of(entries);
+
+		Assert.assertEquals(100, series.size());
+		for (int i = 0; i < entries.size(); i++) {
+			Assert.assertEquals(RunLogSeriesTest.withoutRawLine(entries.get(i)), series.getEntry(i));
+		}
+		Assert.assertEquals(0, RunLogSeries.of(null).size());
+
+		// missing values are kept as missing
+		Assert.assertNull(series.getEntry(0).getGap());
+		Assert.assertTrue(Double.isNaN(series.getGap(0)));
+		Assert.assertNull(series.getEntry(0).getNode());
+	}
+
+	@Test
+	public void testJson() throws Exception {
+
+		List<RunLogEntry> entries = RunLogSeriesTest.createEntries(1000, 250);
+		RunLogSeries series = RunLogSeries.of(entries);
+
+		ObjectMapper mapper = new ObjectMapper();
+		String json = mapper.writeValueAsString(series);
+		RunLogSeries restored = mapper.readValue(json, RunLogSeries.class);
+
+		Assert.assertEquals(series.size(), restored.size());
+		Assert.assertEquals(RunLogSeriesTest.withoutRawLine(entries), restored.toEntries());
+
+		RunLogSeries empty = mapper.readValue(mapper.writeValueAsString(new RunLogSeries()), RunLogSeries.class);
+		Assert.assertEquals(0, empty.size());
+
+		// the columnar form is smaller than the list of entries it replaces
+		String list = mapper.writeValueAsString(RunLogSeriesTest.withoutRawLine(entries));
+		Assert.assertTrue("Series of " + json.length() + " characters, list of " + list.length() + " characters",
+						  json.length() < list.length());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidColumnSize() {
+
+		List<Double> gap = new ArrayList<Double>();
+		gap.add(0.5);
+		new RunLogSeries(new long[] { 1, 2 }, null, null, null, null, null, null, null, gap, null, null);
+	}
+
+	@Test
+	public void testLast() {
+
+		RunLogSeries series = RunLogSeries.of(RunLogSeriesTest.createEntries(10, 100));
+
+		RunLogSeries last = series.last(3);
+		Assert.assertEquals(3, last.size());
+		Assert.assertEquals(series.getEntry(7), last.getEntry(0));
+		Assert.assertEquals(series.getEntry(9), last.getEntry(2));
+
+		Assert.assertEquals(10, series.last(20).size());
+		Assert.assertEquals(0, series.last(0).size());
+	}
+
+	@Test
+	public void testDownsample() {
+
+		// one entry every 250 ms over 10 seconds
+		RunLogSeries series = RunLogSeries.of(RunLogSeriesTest.createEntries(40, 250));
+
+		RunLogSeries sampled = series.downsample(1000);
+		Assert.assertEquals(10, sampled.size());
+		for (int i = 0; i < sampled.size(); i++) {
+			Assert.assertEquals(series.getEntry(i * 4 + 3), sampled.getEntry(i));
+		}
+
+		// the last entry is always kept
+		sampled = series.downsample(3000);
+		Assert.assertEquals(4, sampled.size());
+		Assert.assertEquals(series.getEntry(39), sampled.getEntry(3));
+
+		Assert.assertEquals(40, series.downsample(1).size());
+		Assert.assertEquals(0, new RunLogSeries().downsample(1000).size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidFlagIndex() {
+
+		new RunLogSeries(new long[] { 1, 2 }, null, null, null, null, null, null, null, null, new int[] { 2 }, null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDownsampleInvalidInterval() {
+
+		new RunLogSeries().downsample(0);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetEntryOutOfRange() {
+
+		RunLogSeries.of(RunLogSeriesTest.createEntries(2, 100)).getEntry(2);
+	}
+
+	/**
+	 * Creates entries similar to the ones parsed from a solver log: the first ones have no
+	 * node, integer solution or gap.
+	 */
+	private static List<RunLogEntry> createEntries(int count, long step) {
+
+		List<RunLogEntry> entries = new ArrayList<RunLogEntry>();
+		long start = 1444000000000L;
+
+		for (int i = 0; i < count; i++) {
+
+			RunLogEntry entry = new RunLogEntry();
+			entry.setTime(start + i * step);
+			entry.setObjective(12000.0 - i * 0.5);
+			entry.setBestBound(12000.0 - i * 0.25);
+			entry.setTotalIterations(1000L + i * 37L);
+			entry.setRawLine("   " + i + "   " + (count - i) + "   12000.0000");
+
+			if (i > 2) {
+
+				entry.setNode((long) i * 10);
+				entry.setNodesLeft((long) (count - i));
+				entry.setIinf((long) (i % 7));
+				entry.setBestInteger(5000.0 + i);
+				entry.setGap(100.0 / i);
+				entry.setSolution(i % 5 == 0);
+				entry.setOtherCheck(i % 11 == 0);
+			}
+
+			entries.add(entry);
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Copies an entry without its raw line, which is not kept by the series.
+	 */
+	private static RunLogEntry withoutRawLine(RunLogEntry entry) {
+
+		RunLogEntry copy = entry.clone();
+		copy.setRawLine(null);
+		return copy;
+	}
+
+	/**
+	 * Copies the entries without their raw line.
+	 */
+	private static List<RunLogEntry> withoutRawLine(List<RunLogEntry> entries) {
+
+		List<RunLogEntry> copies = new ArrayList<RunLogEntry>();
+		for (RunLogEntry entry : entries) {
+			copies.add(RunLogSeriesTest.withoutRawLine(entry));
+		}
+		return copies;
+	}
+}
@@ -0,0 +1,298 @@
+package com.ibm.au.optim.suro.model.notify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class <b>NotificationBusTest</b>. Verifies that the {@link NotificationBus} delivers the events
+ * to each subscriber in order, without blocking the caller on slow subscribers, and that the
+ * {@link OverflowPolicy} is applied when the queue of a subscriber is full.
+ */
+public class NotificationBusTest {
+
+	@Test
+	public void testBroadcast() throws Exception {
+
+		NotificationBus bus = new NotificationBus();
+		RecordingNotifier first = new RecordingNotifier();
+		RecordingNotifier second = new RecordingNotifier();
+		bus.subscribe(first);
+		bus.subscribe(second);
+
+		Assert.assertTrue(bus.subscribed(first));
+		Assert.assertTrue(bus.subscribed(second));
+
+		for (int i = 0; i < 100; i++) {
+			bus.broadcast("event", i);
+		}
+
+		first.await(100, 1000);
+		second.await(100, 1000);
+
+		for (RecordingNotifier notifier : new RecordingNotifier[] { first, second }) {
+			List<String> received = notifier.getReceived();
+			Assert.assertEquals(100, received.size());
+			for (int i = 0; i < 100; i++) {
+				Assert.assertEquals("event=" + i, received.get(i));
+			}
+		}
+
+		List<SubscriberMetrics> metrics = bus.getMetrics();
+		Assert.assertEquals(2, metrics.size());
+		Assert.assertSame(first, metrics.get(0).getNotifier());
+		Assert.assertEquals(100, metrics.get(0).getDelivered());
+		Assert.assertEquals(0, metrics.get(0).getQueueDepth());
+		Assert.assertEquals(0, metrics.get(0).getDropped());
+
+		bus.unsubscribe(first);
+		Assert.assertFalse(bus.subscribed(first));
+		Assert.assertEquals(1, bus.getMetrics().size());
+	}
+
+	@Test
+	public void testSlowSubscriber() throws Exception {
+
+		NotificationBus bus = new NotificationBus();
+		BlockingNotifier slow = new BlockingNotifier();
+		RecordingNotifier fast = new RecordingNotifier();
+		bus.subscribe(slow);
+		bus.subscribe(fast);
+
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < 10; i++) {
+			bus.broadcast("event", i);
+		}
+		Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+
+		// the fast subscriber receives everything while the slow one is blocked
+		fast.await(10, 1000);
+		Assert.assertEquals(10, fast.getReceived().size());
+		Assert.assertTrue(slow.awaitEntered());
+		Assert.assertEquals(0, slow.getReceived().size());
+		Assert.assertEquals(9, bus.getMetrics().get(0).getQueueDepth());
+
+		slow.release();
+		slow.await(10, 1000);
+		Assert.assertEquals(10, slow.getReceived().size());
+	}
+
+	@Test
+	public void testDropOldest() throws Exception {
+
+		NotificationBus bus = new NotificationBus(3, OverflowPolicy.DROP_OLDEST);
+		BlockingNotifier notifier = new BlockingNotifier();
+		bus.subscribe(notifier);
+
+		// the first event is being delivered and it is not in the queue
+		bus.broadcast("event", 1);
+		Assert.assertTrue(notifier.awaitEntered());
+
+		for (int i = 2; i <= 6; i++) {
+			bus.broadcast("event", i);
+		}
+
+		SubscriberMetrics metrics = bus.getMetrics().get(0);
+		Assert.assertEquals(3, metrics.getQueueDepth());
+		Assert.assertEquals(2, metrics.getDropped());
+		Assert.assertEquals(0, metrics.getCoalesced());
+
+		notifier.release();
+		notifier.await(4, 1000);
+		Assert.assertEquals(Arrays.asList("event=1", "event=4", "event=5", "event=6"), notifier.getReceived());
+		Assert.assertEquals(4, bus.getMetrics().get(0).getDelivered());
+	}
+
+	@Test
+	public void testCoalesce() throws Exception {
+
+		NotificationBus bus = new NotificationBus(2, OverflowPolicy.COALESCE);
+		BlockingNotifier notifier = new BlockingNotifier();
+		bus.subscribe(notifier);
+
+		bus.broadcast("a", 1);
+		Assert.assertTrue(notifier.awaitEntered());
+
+		bus.broadcast("b", 1);
+		bus.broadcast("c", 1);
+
+		// the queue is full: the waiting message for 'b' is updated
+		bus.broadcast("b", 2);
+		// the queue is full and 'd' is not waiting: 'b' is dropped
+		bus.broadcast("d", 1);
+
+		SubscriberMetrics metrics = bus.getMetrics().get(0);
+		Assert.assertEquals(2, metrics.getQueueDepth());
+		Assert.assertEquals(1, metrics.getCoalesced());
+		Assert.assertEquals(1, metrics.getDropped());
+
+		notifier.release();
+		notifier.await(3, 1000);
+		Assert.assertEquals(Arrays.asList("a=1", "c=1", "d=1"), notifier.getReceived());
+	}
+
+	@Test
+	public void testFailingNotifier() throws Exception {
+
+		NotificationBus bus = new NotificationBus();
+		Notifier failing = new Notifier() {
+
+			@Override
+			public void notify(String event, Object data) throws NotifierException {
+				throw new NotifierException("Closed.");
+			}
+		};
+		bus.subscribe(failing);
+		bus.broadcast("event", 1);
+
+		long end = System.currentTimeMillis() + 1000;
+		while (bus.subscribed(failing) && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+		}
+		Assert.assertFalse(bus.subscribed(failing));
+
+		// events broadcast afterwards are ignored
+		bus.broadcast("event", 2);
+		Assert.assertTrue(bus.getMetrics().isEmpty());
+	}
+
+	@Test
+	public void testTopics() throws Exception {
+
+		NotificationBus bus = new NotificationBus();
+		RecordingNotifier all = new RecordingNotifier();
+		RecordingNotifier run = new RecordingNotifier();
+		RecordingNotifier template = new RecordingNotifier();
+		RecordingNotifier both = new RecordingNotifier();
+
+		bus.subscribe(all);
+		bus.subscribe(run, "run:r1");
+		bus.subscribe(template, "template:t1");
+		bus.subscribe(both, "run:r1");
+		bus.subscribe(both, "template:t1");
+
+		Assert.assertNull(bus.getTopics(all));
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("run:r1", "template:t1")), bus.getTopics(both));
+
+		bus.broadcast("job:r1", 1, NotificationBus.getRunTopics("r1", "t1"));
+		bus.broadcast("job:r2", 1, NotificationBus.getRunTopics("r2", "t1"));
+		bus.broadcast("job:r3", 1, NotificationBus.getRunTopics("r3", "t2"));
+		bus.broadcast("job:r4", 1, NotificationBus.getRunTopics("r4", null));
+		bus.broadcast("global", 1);
+
+		all.await(5, 1000);
+		both.await(3, 1000);
+		Thread.sleep(50);
+
+		Assert.assertEquals(Arrays.asList("job:r1=1", "job:r2=1", "job:r3=1", "job:r4=1", "global=1"), all.getReceived());
+		Assert.assertEquals(Arrays.asList("job:r1=1", "global=1"), run.getReceived());
+		Assert.assertEquals(Arrays.asList("job:r1=1", "job:r2=1", "global=1"), template.getReceived());
+		Assert.assertEquals(Arrays.asList("job:r1=1", "job:r2=1", "global=1"), both.getReceived());
+	}
+
+	@Test
+	public void testChangeTopics() throws Exception {
+
+		NotificationBus bus = new NotificationBus();
+		RecordingNotifier notifier = new RecordingNotifier();
+
+		// restricting a notifier subscribed to all events
+		bus.subscribe(notifier);
+		bus.subscribe(notifier, "run:r1");
+		bus.broadcast("job:r1", 1, "run:r1");
+		bus.broadcast("job:r2", 1, "run:r2");
+		notifier.await(1, 1000);
+
+		// removing the topic, the notifier is still subscribed
+		bus.unsubscribe(notifier, "run:r1");
+		Assert.assertTrue(bus.subscribed(notifier));
+		Assert.assertTrue(bus.getTopics(notifier).isEmpty());
+		bus.broadcast("job:r1", 2, "run:r1");
+
+		// back to all the events
+		bus.subscribe(notifier);
+		Assert.assertNull(bus.getTopics(notifier));
+		bus.broadcast("job:r2", 2, "run:r2");
+		notifier.await(2, 1000);
+		Thread.sleep(50);
+
+		Assert.assertEquals(Arrays.asList("job:r1=1", "job:r2=2"), notifier.getReceived());
+		Assert.assertEquals(1, bus.getMetrics().size());
+
+		bus.unsubscribe(notifier);
+		Assert.assertFalse(bus.subscribed(notifier));
+		Assert.assertNull(bus.getTopics(notifier));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCapacity() {
+
+		new NotificationBus(0, OverflowPolicy.DROP_OLDEST);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPolicy() {
+
+		new NotificationBus(10, null);
+	}
+
+	/**
+	 * Notifier recording the events it receives.
+	 */
+	private static class RecordingNotifier implements Notifier {
+
+		private final List<String> received = Collections.synchronizedList(new ArrayList<String>());
+
+		@Override
+		public void notify(String event, Object data) throws NotifierException {
+			this.received.add(event + "=" + data);
+		}
+
+		public void await(int count, long timeout) throws InterruptedException {
+			long end = System.currentTimeMillis() + timeout;
+			while (this.received.size() < count && System.currentTimeMillis() < end) {
+				Thread.sleep(10);
+			}
+		}
+
+		public List<String> getReceived() {
+			return new ArrayList<String>(this.received);
+		}
+	}
+
+	/**
+	 * Notifier blocking on the first event until it is released.
+	 */
+	private static class BlockingNotifier extends RecordingNotifier {
+
+		private final CountDownLatch entered = new CountDownLatch(1);
+
+		private final CountDownLatch released = new CountDownLatch(1);
+
+		@Override
+		public void notify(String event, Object data) throws NotifierException {
+			this.entered.countDown();
+			try {
+				this.released.await();
+			} catch (InterruptedException ie) {
+				throw new NotifierException("Interrupted.", ie);
+			}
+			super.notify(event, data);
+		}
+
+		public boolean awaitEntered() throws InterruptedException {
+			return this.entered.await(1, TimeUnit.SECONDS);
+		}
+
+		public void release() {
+			this.released.countDown();
+		}
+	}
+}
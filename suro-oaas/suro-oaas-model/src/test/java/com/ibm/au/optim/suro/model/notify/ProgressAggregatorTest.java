@@ -0,0 +1,202 @@
+package com.ibm.au.optim.suro.model.notify;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibm.au.optim.suro.model.entities.RunLogEntry;
+import com.ibm.au.optim.suro.model.entities.RunLogSeries;
+
+/**
+ * Class <b>ProgressAggregatorTest</b>. Verifies that the {@link ProgressAggregator} sends the
+ * log entries of each run in frames holding a {@link RunLogSeries}, at the configured rate, and
+ * that the latest entry is always sent.
+ */
+public class ProgressAggregatorTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@Test
+	public void testFrames() throws Exception {
+
+		NotificationBus bus = new NotificationBus();
+		CollectingNotifier notifier = new CollectingNotifier();
+		bus.subscribe(notifier);
+
+		// 5 frames per second: one frame every 200 ms at most
+		ProgressAggregator aggregator = new ProgressAggregator(bus, 5, 100);
+		Assert.assertEquals(200, aggregator.getInterval());
+
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < 50; i++) {
+			aggregator.add("run", ProgressAggregatorTest.createEntry(i));
+			Thread.sleep(10);
+		}
+		long elapsed = System.currentTimeMillis() - start;
+		aggregator.flush("run");
+		notifier.awaitEntries(50, 1000);
+
+		List<String> events = notifier.getEvents();
+		List<Long> times = notifier.getTimes();
+
+		// all the entries are sent, in order, in fewer frames
+		List<Long> sent = new ArrayList<Long>();
+		for (int i = 0; i < events.size(); i++) {
+			Assert.assertEquals("optim:log:run", events.get(i));
+			RunLogSeries frame = notifier.getFrame(i);
+			for (int j = 0; j < frame.size(); j++) {
+				sent.add(frame.getTime(j));
+			}
+		}
+		Assert.assertEquals(50, sent.size());
+		for (int i = 0; i < sent.size(); i++) {
+			Assert.assertEquals(i, sent.get(i).longValue());
+		}
+		Assert.assertTrue(events.size() <= elapsed / 200 + 2);
+
+		// the interval between frames sent by the scheduler is respected (the first
+		// frame is not considered, as it includes the set up of the serialisation)
+		for (int i = 2; i < times.size() - 1; i++) {
+			Assert.assertTrue(times.get(i) - times.get(i - 1) >= 150);
+		}
+
+		aggregator.shutdown();
+	}
+
+	@Test
+	public void testLatestEntry() throws Exception {
+
+		NotificationBus bus = new NotificationBus();
+		CollectingNotifier notifier = new CollectingNotifier();
+		bus.subscribe(notifier);
+
+		ProgressAggregator aggregator = new ProgressAggregator(bus, 1, 3);
+
+		// the first entry of a run is sent without waiting
+		aggregator.add("run", ProgressAggregatorTest.createEntry(0));
+		notifier.await(1, 500);
+		Assert.assertEquals(1, notifier.getEvents().size());
+		Assert.assertEquals(1, notifier.getFrame(0).size());
+
+		// the next ones wait for the interval, only the latest ones are kept
+		for (int i = 1; i < 10; i++) {
+			aggregator.add("run", ProgressAggregatorTest.createEntry(i));
+		}
+		aggregator.add("other", ProgressAggregatorTest.createEntry(100));
+		notifier.await(2, 300);
+		Thread.sleep(100);
+		Assert.assertEquals(2, notifier.getEvents().size());
+		Assert.assertEquals("optim:log:other", notifier.getEvents().get(1));
+
+		// the frame is sent by the scheduler without further entries
+		notifier.await(3, 1500);
+		Assert.assertEquals(3, notifier.getEvents().size());
+		Assert.assertEquals("optim:log:run", notifier.getEvents().get(2));
+
+		RunLogSeries frame = notifier.getFrame(2);
+		Assert.assertEquals(3, frame.size());
+		Assert.assertEquals(7, frame.getTime(0));
+		Assert.assertEquals(9, frame.getTime(2));
+		Assert.assertEquals(1.0, frame.getGap(2), 0.0);
+
+		// the raw log lines are not sent
+		Assert.assertFalse(notifier.getData(2).contains("line 9"));
+
+		// nothing is waiting, nothing is sent
+		aggregator.flush("run");
+		aggregator.flush("missing");
+		Thread.sleep(50);
+		Assert.assertEquals(3, notifier.getEvents().size());
+
+		// released entries are sent without waiting for the interval
+		aggregator.add("run", ProgressAggregatorTest.createEntry(10));
+		aggregator.release("run");
+		notifier.await(4, 150);
+		Assert.assertEquals(4, notifier.getEvents().size());
+		Assert.assertEquals(10, notifier.getFrame(3).getTime(0));
+
+		aggregator.shutdown();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidRate() {
+
+		new ProgressAggregator(new NotificationBus(), 0, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBus() {
+
+		new ProgressAggregator(null, 4, 10);
+	}
+
+	private static RunLogEntry createEntry(long time) {
+
+		RunLogEntry entry = new RunLogEntry();
+		entry.setTime(time);
+		entry.setGap(10.0 - time);
+		entry.setRawLine("line " + time);
+		return entry;
+	}
+
+	/**
+	 * Notifier collecting the events it receives.
+	 */
+	private static class CollectingNotifier implements Notifier {
+
+		private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+		private final List<String> frames = Collections.synchronizedList(new ArrayList<String>());
+
+		private final List<Long> times = Collections.synchronizedList(new ArrayList<Long>());
+
+		@Override
+		public void notify(String event, Object data) throws NotifierException {
+			this.times.add(System.currentTimeMillis());
+			this.frames.add((String) data);
+			this.events.add(event);
+		}
+
+		public void await(int count, long timeout) throws InterruptedException {
+			long end = System.currentTimeMillis() + timeout;
+			while (this.events.size() < count && System.currentTimeMillis() < end) {
+				Thread.sleep(10);
+			}
+		}
+
+		public void awaitEntries(int count, long timeout) throws Exception {
+			long end = System.currentTimeMillis() + timeout;
+			while (this.countEntries() < count && System.currentTimeMillis() < end) {
+				Thread.sleep(10);
+			}
+		}
+
+		private int countEntries() throws Exception {
+			int count = 0;
+			for (int i = 0; i < this.frames.size(); i++) {
+				count += this.getFrame(i).size();
+			}
+			return count;
+		}
+
+		public List<String> getEvents() {
+			return new ArrayList<String>(this.events);
+		}
+
+		public List<Long> getTimes() {
+			return new ArrayList<Long>(this.times);
+		}
+
+		public String getData(int index) {
+			return this.frames.get(index);
+		}
+
+		public RunLogSeries getFrame(int index) throws Exception {
+			return MAPPER.readValue(this.frames.get(index), RunLogSeries.class);
+		}
+	}
+}
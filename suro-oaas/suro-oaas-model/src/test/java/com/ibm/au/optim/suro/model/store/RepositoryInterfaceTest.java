@@ -55,6 +55,10 @@ public class RepositoryInterfaceTest {
         					RegionRepository.class.getName(), 
         					RegionRepository.REGION_REPOSITORY_TYPE);
         
+        Assert.assertEquals("RunLogSegmentRepository type key should match the full type name.",
+        					RunLogSegmentRepository.class.getName(), 
+        					RunLogSegmentRepository.SEGMENT_REPOSITORY_TYPE);
+        
         Assert.assertEquals("RunRepository type key should match the full type name.",
         					RunRepository.class.getName(), 
         					RunRepository.RUN_REPOSITORY_TYPE);
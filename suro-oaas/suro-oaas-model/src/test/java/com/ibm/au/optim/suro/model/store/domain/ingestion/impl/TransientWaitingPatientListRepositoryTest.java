@@ -28,4 +28,40 @@ public class TransientWaitingPatientListRepositoryTest {
 			Assert.assertEquals(timeNow + i * oneWeek, repository.findByTime(timeNow + i * oneWeek).getTimestamp());
 		}
 	}
+
+	@Test
+	public void testFindByTimeIndex() {
+
+		TransientWaitingPatientListRepository repository = new TransientWaitingPatientListRepository();
+		Assert.assertNull(repository.findByTime(1000));
+
+		WaitingPatientList first = new WaitingPatientList(100);
+		WaitingPatientList second = new WaitingPatientList(200);
+		WaitingPatientList third = new WaitingPatientList(300);
+		repository.addItem(third);
+		repository.addItem(first);
+		repository.addItem(second);
+
+		Assert.assertNull(repository.findByTime(99));
+		Assert.assertSame(first, repository.findByTime(100));
+		Assert.assertSame(first, repository.findByTime(199));
+		Assert.assertSame(second, repository.findByTime(250));
+		Assert.assertSame(third, repository.findByTime(Long.MAX_VALUE));
+
+		// the last list added with the same timestamp wins
+		WaitingPatientList replacement = new WaitingPatientList(200);
+		repository.addItem(replacement);
+		Assert.assertSame(replacement, repository.findByTime(250));
+		repository.removeItem(replacement.getId());
+		Assert.assertSame(second, repository.findByTime(250));
+
+		// an updated timestamp moves the list
+		second.setTimestamp(50);
+		repository.updateItem(second);
+		Assert.assertSame(second, repository.findByTime(99));
+		Assert.assertSame(first, repository.findByTime(250));
+
+		repository.removeAll();
+		Assert.assertNull(repository.findByTime(Long.MAX_VALUE));
+	}
 }
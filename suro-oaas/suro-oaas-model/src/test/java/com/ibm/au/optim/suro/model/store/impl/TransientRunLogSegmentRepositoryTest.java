@@ -0,0 +1,60 @@
+package com.ibm.au.optim.suro.model.store.impl;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.au.optim.suro.model.entities.RunLogSegment;
+import com.ibm.au.optim.suro.model.store.RunLogSegmentRepository;
+
+
+public class TransientRunLogSegmentRepositoryTest {
+
+    @Test
+    public void testFindByRunId() {
+        RunLogSegmentRepository repo = new TransientRunLogSegmentRepository();
+
+        // added out of order, and mixed with the segments of another run
+        for (int sequence : new int[] { 2, 0, 3, 1 }) {
+            repo.addItem(new RunLogSegment("run-id", sequence));
+        }
+        repo.addItem(new RunLogSegment("another-id", 0));
+
+        List<RunLogSegment> segments = repo.findByRunId("run-id");
+        Assert.assertEquals(4, segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            Assert.assertEquals(i, segments.get(i).getSequence());
+            Assert.assertEquals("run-id", segments.get(i).getRunId());
+        }
+
+        Assert.assertTrue(repo.findByRunId("not-existing").isEmpty());
+    }
+
+    @Test
+    public void testFindPage() {
+        RunLogSegmentRepository repo = new TransientRunLogSegmentRepository();
+        for (int sequence = 0; sequence < 5; sequence++) {
+            repo.addItem(new RunLogSegment("run-id", sequence));
+        }
+
+        List<RunLogSegment> page = repo.findByRunId("run-id", 1, 2);
+        Assert.assertEquals(2, page.size());
+        Assert.assertEquals(1, page.get(0).getSequence());
+        Assert.assertEquals(2, page.get(1).getSequence());
+
+        Assert.assertEquals(1, repo.findByRunId("run-id", 4, 10).size());
+        Assert.assertTrue(repo.findByRunId("run-id", 5, 10).isEmpty());
+        Assert.assertTrue(repo.findByRunId("run-id", 0, 0).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindByNullRunId() {
+        new TransientRunLogSegmentRepository().findByRunId(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindNegativePage() {
+        new TransientRunLogSegmentRepository().findByRunId("run-id", -1, 1);
+    }
+}
@@ -1,8 +1,17 @@
 package com.ibm.au.optim.suro.model.store.impl;
 
+import com.ibm.au.optim.suro.model.entities.Attachment;
 import com.ibm.au.optim.suro.model.entities.Run;
 import com.ibm.au.optim.suro.model.store.RunRepository;
 
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 
 import org.junit.Test;
 import org.junit.Assert;
@@ -117,4 +126,58 @@ public class TransientRunRepositoryTest {
         Assert.assertEquals(1, repo.findByTemplateId(foobar).size());
         Assert.assertEquals(0, repo.findByTemplateId("bar").size());
     }
+
+    @Test
+    public void testAttachAll() throws IOException {
+
+        RunRepository repo = new TransientRunRepository();
+        Run run = new Run();
+        repo.addItem(run);
+
+        List<Attachment> attachments = new ArrayList<>();
+        repo.attachAll(run, attachments);
+        Assert.assertNull(repo.getAttachments(run.getId()));
+
+        attachments.add(this.createAttachment("first.csv", "text/csv", "1,2"));
+        attachments.add(this.createAttachment("second.json", "application/json", "{}"));
+        repo.attachAll(run, attachments);
+
+        Assert.assertEquals(2, repo.getAttachments(run.getId()).size());
+        Assert.assertEquals("1,2", IOUtils.toString(repo.getAttachment(run.getId(), "first.csv")));
+        Assert.assertEquals("{}", IOUtils.toString(repo.getAttachment(run.getId(), "second.json")));
+
+        try {
+            repo.attachAll(null, attachments);
+            Assert.fail("IllegalArgumentException expected for a null run.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            repo.attachAll(run, null);
+            Assert.fail("IllegalArgumentException expected for null attachments.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // no attachment is stored if any of them does not provide its content
+        List<Attachment> invalid = new ArrayList<>();
+        invalid.add(this.createAttachment("third.csv", "text/csv", "3,4"));
+        invalid.add(new Attachment("fourth.csv", 0, "text/csv"));
+        try {
+            repo.attachAll(run, invalid);
+            Assert.fail("IllegalArgumentException expected for an attachment without content.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        Assert.assertNull(repo.getAttachment(run.getId(), "third.csv"));
+        Assert.assertEquals(2, repo.getAttachments(run.getId()).size());
+    }
+
+    private Attachment createAttachment(String name, String contentType, String content) {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        Attachment attachment = new Attachment(name, data.length, contentType);
+        attachment.store(new ByteArrayInputStream(data));
+        return attachment;
+    }
 }